@@ -1,3 +1,17 @@
+import groovy.json.JsonSlurper
+import java.sql.Connection
+import java.util.Properties
+
+buildscript {
+    repositories {
+        mavenCentral()
+    }
+    dependencies {
+        // Used by generateCatalogDatabase to build the prepackaged catalog
+        classpath("org.xerial:sqlite-jdbc:3.46.1.3")
+    }
+}
+
 plugins {
     alias(libs.plugins.android.application)
     alias(libs.plugins.navigation.safeargs)
@@ -15,6 +29,13 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Room exports its schema here; generateCatalogDatabase builds the asset from it
+        javaCompileOptions {
+            annotationProcessorOptions {
+                arguments += mapOf("room.schemaLocation" to "$projectDir/schemas")
+            }
+        }
     }
 
     buildTypes {
@@ -50,6 +71,12 @@ dependencies {
     implementation(libs.lifecycle.viewmodel)
     implementation(libs.lifecycle.livedata)
     implementation(libs.lifecycle.runtime)
+    implementation(libs.lifecycle.viewmodel.ktx)
+    
+    // Paging components
+    implementation(libs.paging.runtime)
+    implementation(libs.paging.guava)
+    implementation(libs.guava)
     
     // Glide for image loading
     implementation(libs.glide)
@@ -58,4 +85,274 @@ dependencies {
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
-}
\ No newline at end of file
+}
+
+// Exported Room schema
+//
+// Shared by the catalog generator and the query plan check below: both replay the
+// schema Room exports during compilation into a plain SQLite database.
+object RoomSchema {
+    fun latest(schemaDir: File): File = schemaDir
+        .listFiles { file -> file.extension == "json" }
+        ?.maxByOrNull { it.nameWithoutExtension.toInt() }
+        ?: throw GradleException("No exported Room schema in $schemaDir")
+
+    @Suppress("UNCHECKED_CAST")
+    fun read(schemaFile: File): Map<String, Any?> =
+        (JsonSlurper().parse(schemaFile) as Map<String, Any?>)["database"] as Map<String, Any?>
+
+    @Suppress("UNCHECKED_CAST")
+    fun entities(database: Map<String, Any?>): List<Map<String, Any?>> =
+        database["entities"] as List<Map<String, Any?>>
+
+    @Suppress("UNCHECKED_CAST")
+    fun create(connection: Connection, database: Map<String, Any?>) {
+        connection.createStatement().use { statement ->
+            for (entity in entities(database)) {
+                val table = entity["tableName"] as String
+                statement.execute((entity["createSql"] as String).replace("\${TABLE_NAME}", table))
+                for (index in entity["indices"] as List<Map<String, Any?>>? ?: emptyList()) {
+                    statement.execute((index["createSql"] as String).replace("\${TABLE_NAME}", table))
+                }
+                for (trigger in entity["contentSyncTriggers"] as List<String>? ?: emptyList()) {
+                    statement.execute(trigger)
+                }
+            }
+            for (query in database["setupQueries"] as List<String>) {
+                statement.execute(query)
+            }
+        }
+    }
+}
+
+// Prepackaged catalog database
+//
+// Builds assets/databases/cosmetics_shop_db from the schema Room exports during
+// compilation and the seed definition in seed/catalog.json, so a fresh install
+// opens a complete, indexed catalog without any runtime seeding.
+abstract class GenerateCatalogDatabaseTask : DefaultTask() {
+    @get:InputDirectory
+    abstract val schemaDir: DirectoryProperty
+
+    @get:InputFile
+    abstract val seedFile: RegularFileProperty
+
+    @get:Input
+    abstract val databaseName: Property<String>
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    @TaskAction
+    fun generate() {
+        val schemaFile = RoomSchema.latest(schemaDir.get().asFile)
+        val database = RoomSchema.read(schemaFile)
+        val entities = RoomSchema.entities(database)
+        @Suppress("UNCHECKED_CAST")
+        val seed = JsonSlurper().parse(seedFile.get().asFile) as Map<String, Any?>
+
+        val output = outputDir.get().file("databases/${databaseName.get()}").asFile
+        output.parentFile.mkdirs()
+        output.delete()
+
+        org.sqlite.JDBC().connect("jdbc:sqlite:${output.absolutePath}", Properties()).use { connection ->
+            connection.autoCommit = false
+            RoomSchema.create(connection, database)
+            insertRows(connection, entities, "categories", seed["categories"])
+            insertRows(connection, entities, "products", seed["products"])
+            // Opening balance of the inventory ledger, so ledger totals match the seeded stock
+            connection.createStatement().use { statement ->
+                statement.execute(
+                    "INSERT INTO stock_movements (productId, type, delta, balanceAfter, reference, createdAt) " +
+                        "SELECT id, 'ADJUSTMENT', stockQuantity, stockQuantity, 'seed', 0 FROM products"
+                )
+            }
+            connection.prepareStatement(
+                "INSERT INTO seed_records (name, version, appliedAt) VALUES (?, ?, ?)"
+            ).use { statement ->
+                statement.setString(1, seed["name"] as String)
+                statement.setInt(2, (seed["version"] as Number).toInt())
+                statement.setLong(3, 0L)
+                statement.executeUpdate()
+            }
+            connection.commit()
+
+            connection.autoCommit = true
+            connection.createStatement().use { statement ->
+                statement.execute("PRAGMA user_version = ${(database["version"] as Number).toInt()}")
+                statement.execute("VACUUM")
+            }
+        }
+        logger.lifecycle("Generated ${output.name} from ${schemaFile.name} and ${seedFile.get().asFile.name}")
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun insertRows(connection: Connection, entities: List<Map<String, Any?>>, table: String, rows: Any?) {
+        val entity = entities.first { it["tableName"] == table }
+        val fields = entity["fields"] as List<Map<String, Any?>>
+        val columns = fields.map { it["columnName"] as String }
+        val sql = "INSERT INTO `$table` (${columns.joinToString { "`$it`" }}) " +
+            "VALUES (${columns.joinToString { "?" }})"
+
+        connection.prepareStatement(sql).use { statement ->
+            for (row in rows as List<Map<String, Any?>>) {
+                fields.forEachIndexed { position, field ->
+                    val value = row[field["columnName"] as String]
+                    val affinity = field["affinity"] as String
+                    when {
+                        value is Boolean -> statement.setInt(position + 1, if (value) 1 else 0)
+                        value != null -> statement.setObject(position + 1, value)
+                        field["notNull"] == true && affinity == "INTEGER" -> statement.setLong(position + 1, 0L)
+                        field["notNull"] == true && affinity == "REAL" -> statement.setDouble(position + 1, 0.0)
+                        else -> statement.setObject(position + 1, null)
+                    }
+                }
+                statement.addBatch()
+            }
+            statement.executeBatch()
+        }
+    }
+}
+
+androidComponents {
+    onVariants { variant ->
+        val variantName = variant.name.replaceFirstChar { it.uppercase() }
+        val generateCatalog = tasks.register<GenerateCatalogDatabaseTask>("generate${variantName}CatalogDatabase") {
+            schemaDir.set(layout.projectDirectory.dir("schemas/com.example.java_shop.data.database.CosShopDatabase"))
+            seedFile.set(layout.projectDirectory.file("seed/catalog.json"))
+            databaseName.set("cosmetics_shop_db")
+            // The schema JSON is written by Room's annotation processor
+            dependsOn("compile${variantName}JavaWithJavac")
+        }
+        variant.sources.assets?.addGeneratedSourceDirectory(generateCatalog, GenerateCatalogDatabaseTask::outputDir)
+    }
+}
+
+// Query plan check
+//
+// Runs EXPLAIN QUERY PLAN for every @Query in the DAOs against the exported schema
+// and fails the build when one scans a whole table or sorts through a temp B-tree,
+// unless the DAO method is listed in query-plan-allowlist.txt. The plans are written
+// to build/reports/query-plans.txt. Queries may concatenate String constants such as
+// ProductSummary.COLUMNS; they are resolved from constantSources.
+abstract class CheckQueryPlansTask : DefaultTask() {
+    @get:InputDirectory
+    abstract val schemaDir: DirectoryProperty
+
+    @get:InputFiles
+    abstract val daoSources: ConfigurableFileCollection
+
+    @get:InputFiles
+    abstract val constantSources: ConfigurableFileCollection
+
+    @get:InputFile
+    abstract val allowlist: RegularFileProperty
+
+    @get:OutputFile
+    abstract val report: RegularFileProperty
+
+    @TaskAction
+    fun check() {
+        val database = RoomSchema.read(RoomSchema.latest(schemaDir.get().asFile))
+        val allowed = allowlist.get().asFile.readLines()
+            .map { it.substringBefore('#').trim() }
+            .filter { it.isNotEmpty() }
+            .toSet()
+
+        val constants = mutableMapOf<String, String>()
+        for (file in constantSources.files) {
+            for (match in CONSTANT.findAll(file.readText())) {
+                constants["${file.nameWithoutExtension}.${match.groupValues[1]}"] = literals(match.groupValues[2])
+            }
+        }
+
+        val checked = mutableSetOf<String>()
+        val violations = mutableListOf<String>()
+        val output = StringBuilder()
+        org.sqlite.JDBC().connect("jdbc:sqlite::memory:", Properties()).use { connection ->
+            RoomSchema.create(connection, database)
+            for (file in daoSources.files.sortedBy { it.name }) {
+                for (match in QUERY.findAll(file.readText())) {
+                    val method = "${file.nameWithoutExtension}.${match.groupValues[2]}"
+                    val sql = TOKEN.findAll(match.groupValues[1]).joinToString("") { token ->
+                        val reference = token.groupValues[2]
+                        if (reference.isEmpty()) {
+                            unescape(token.groupValues[1])
+                        } else {
+                            // ProductSummary.COLUMNS, or COLUMNS declared in the DAO itself
+                            val key = if ('.' in reference) reference.split('.').takeLast(2).joinToString(".")
+                                else "${file.nameWithoutExtension}.$reference"
+                            constants[key] ?: throw GradleException("$method: can't resolve constant $reference")
+                        }
+                    }.replace(BIND_PARAMETER, "?")
+                    val plan = explain(connection, method, sql)
+                    checked += method
+
+                    output.append(method).append('\n')
+                    plan.forEach { output.append("    ").append(it).append('\n') }
+                    val problems = plan.filter { FULL_SCAN.matches(it) || it.contains("TEMP B-TREE") }
+                    if (problems.isNotEmpty() && method !in allowed) {
+                        violations += "$method: ${problems.joinToString("; ")}"
+                    }
+                }
+            }
+        }
+        report.get().asFile.apply {
+            parentFile.mkdirs()
+            writeText(output.toString())
+        }
+
+        (allowed - checked).forEach { logger.warn("query-plan-allowlist.txt: $it matches no @Query") }
+        if (violations.isNotEmpty()) {
+            throw GradleException(
+                "Queries without a usable index (fix the index or allowlist the method):\n  " +
+                    violations.joinToString("\n  ")
+            )
+        }
+        logger.lifecycle("Checked query plans of ${checked.size} DAO queries")
+    }
+
+    private fun literals(expression: String): String =
+        STRING_LITERAL.findAll(expression).joinToString("") { unescape(it.groupValues[1]) }
+
+    private fun unescape(literal: String): String = literal.replace("\\\"", "\"")
+
+    private fun explain(connection: Connection, method: String, sql: String): List<String> = try {
+        connection.prepareStatement("EXPLAIN QUERY PLAN $sql").use { statement ->
+            // Values don't matter for the plan, but every parameter has to be bound
+            for (position in 1..statement.parameterMetaData.parameterCount) {
+                statement.setObject(position, null)
+            }
+            statement.executeQuery().use { rows ->
+                generateSequence { if (rows.next()) rows.getString("detail") else null }.toList()
+            }
+        }
+    } catch (e: java.sql.SQLException) {
+        throw GradleException("Could not explain $method: ${e.message}\n  $sql", e)
+    }
+
+    private companion object {
+        // @Query("..." + CONSTANT + "...") followed by any other annotations and the method name
+        val QUERY = Regex("""@Query\(\s*((?:(?:"(?:[^"\\]|\\.)*"|[A-Za-z_][\w.]*)\s*\+?\s*)+)\)\s*(?:@\w+(?:\([^)]*\))?\s*)*(?:default\s+)?[\w<>,\s\[\]?.]+?\s(\w+)\s*\(""")
+        val STRING_LITERAL = Regex(""""((?:[^"\\]|\\.)*)"""")
+        val TOKEN = Regex(""""((?:[^"\\]|\\.)*)"|([A-Za-z_][\w.]*)""")
+        // static final String NAME = "..." + "...";
+        val CONSTANT = Regex("""static\s+final\s+String\s+(\w+)\s*=\s*((?:"(?:[^"\\]|\\.)*"\s*\+?\s*)+);""")
+        val BIND_PARAMETER = Regex(""":\w+""")
+        // "SCAN products", but not "SCAN products USING INDEX ..." or a virtual table scan
+        val FULL_SCAN = Regex("""SCAN \w+""")
+    }
+}
+
+val checkQueryPlans = tasks.register<CheckQueryPlansTask>("checkQueryPlans") {
+    schemaDir.set(layout.projectDirectory.dir("schemas/com.example.java_shop.data.database.CosShopDatabase"))
+    daoSources.from(fileTree("src/main/java") { include("**/*Dao.java") })
+    constantSources.from(fileTree("src/main/java") { include("**/*.java") })
+    allowlist.set(layout.projectDirectory.file("query-plan-allowlist.txt"))
+    report.set(layout.buildDirectory.file("reports/query-plans.txt"))
+    dependsOn("compileDebugJavaWithJavac")
+}
+
+tasks.named("check") {
+    dependsOn(checkQueryPlans)
+}
@@ -0,0 +1,107 @@
+package com.example.java_shop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.java_shop.data.cache.InMemoryCatalog;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.DatabaseScheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Launches against the database file the way {@link JavaShopApplication} does: the
+ * first launch copies the prepackaged catalog through createFromAsset, and every
+ * launch opens it and loads the {@link InMemoryCatalog}. Nothing seeds the catalog
+ * at runtime, so a second launch must not commit anything to the file.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AppStartupTest {
+    // Its own file, so the test never touches the app's database
+    private static final String DATABASE = "startup_test_db";
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DATABASE);
+    }
+
+    @Test
+    public void secondLaunchWritesNothing() {
+        launch();
+
+        // data_version changes when any other connection commits to the file
+        SQLiteDatabase observer = SQLiteDatabase.openDatabase(
+            context.getDatabasePath(DATABASE).getPath(), null, SQLiteDatabase.OPEN_READONLY);
+        try {
+            long dataVersion = queryLong(observer, "PRAGMA data_version");
+            String seedRecords = queryRows(observer, "SELECT name, version, appliedAt FROM seed_records");
+            long products = queryLong(observer, "SELECT COUNT(*) FROM products");
+            assertFalse("The prepackaged catalog has no seed record", seedRecords.isEmpty());
+
+            launch();
+
+            assertEquals(dataVersion, queryLong(observer, "PRAGMA data_version"));
+            assertEquals(seedRecords, queryRows(observer, "SELECT name, version, appliedAt FROM seed_records"));
+            assertEquals(products, queryLong(observer, "SELECT COUNT(*) FROM products"));
+        } finally {
+            observer.close();
+        }
+    }
+
+    // Opens the database and waits for the first catalog snapshot, then closes it as
+    // the process would on exit
+    private void launch() {
+        CosShopDatabase database = CosShopDatabase.open(context, DATABASE);
+        try {
+            InMemoryCatalog catalog = new InMemoryCatalog(database, DatabaseScheduler.getInstance());
+            long deadline = SystemClock.uptimeMillis() + TIMEOUT_MILLIS;
+            while (catalog.peek() == null && SystemClock.uptimeMillis() < deadline) {
+                SystemClock.sleep(10);
+            }
+            assertNotNull("The catalog snapshot wasn't loaded", catalog.peek());
+        } finally {
+            database.close();
+        }
+    }
+
+    private static long queryLong(SQLiteDatabase database, String sql) {
+        try (Cursor cursor = database.rawQuery(sql, null)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+
+    private static String queryRows(SQLiteDatabase database, String sql) {
+        StringBuilder rows = new StringBuilder();
+        try (Cursor cursor = database.rawQuery(sql, null)) {
+            while (cursor.moveToNext()) {
+                for (int column = 0; column < cursor.getColumnCount(); column++) {
+                    rows.append(cursor.getString(column)).append(column + 1 < cursor.getColumnCount() ? '|' : '\n');
+                }
+            }
+        }
+        return rows.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.java_shop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.java_shop.data.ServiceLocator;
+import com.example.java_shop.data.database.CartDao;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.models.CartLine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+/**
+ * Parallel add-to-cart taps on one product, straight through
+ * {@link CartDao#addOrMergeQuantity}, against an in-memory database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CartConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ADDS_PER_THREAD = 25;
+
+    private CosShopDatabase database;
+
+    @Before
+    public void setUp() {
+        database = TestFixtures.installWithCategory().getDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        ServiceLocator.reset();
+    }
+
+    @Test
+    public void parallelAddsMergeIntoOneRowCappedAtStock() throws Exception {
+        database.productDao().insert(TestFixtures.product("capped", 30));
+
+        addInParallel("capped");
+
+        List<CartLine> lines = database.cartDao().getCartLinesSync();
+        assertEquals(1, lines.size());
+        assertEquals("capped", lines.get(0).getProductId());
+        assertEquals(30, lines.get(0).getQuantity());
+    }
+
+    @Test
+    public void parallelAddsBelowStockLoseNoQuantity() throws Exception {
+        database.productDao().insert(TestFixtures.product("plenty", 1000));
+
+        addInParallel("plenty");
+
+        List<CartLine> lines = database.cartDao().getCartLinesSync();
+        assertEquals(1, lines.size());
+        assertEquals(THREADS * ADDS_PER_THREAD, lines.get(0).getQuantity());
+    }
+
+    @Test
+    public void parallelAddsOfAnOutOfStockProductAddNothing() throws Exception {
+        database.productDao().insert(TestFixtures.product("empty", 0));
+
+        addInParallel("empty");
+
+        assertTrue(database.cartDao().getCartLinesSync().isEmpty());
+    }
+
+    // Every thread adds one unit at a time
+    private void addInParallel(String productId) throws Exception {
+        CartDao cartDao = database.cartDao();
+        TestFixtures.runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                cartDao.addOrMergeQuantity(productId, 1, 9.99, System.currentTimeMillis());
+            }
+        });
+    }
+}
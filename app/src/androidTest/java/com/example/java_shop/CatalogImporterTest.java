@@ -0,0 +1,117 @@
+package com.example.java_shop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.java_shop.data.ServiceLocator;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.services.CatalogImporter;
+import com.example.java_shop.data.services.CatalogImporter.ImportResult;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * {@link CatalogImporter} checks the applied version in seed_records before it
+ * writes anything, so importing a version that is already in is a no-op and only a
+ * newer version is written. App startup doesn't import at all, see {@link AppStartupTest}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CatalogImporterTest {
+    private static final String CATALOG = "sample";
+    private static final int PRODUCTS = 40;
+    // Every table an import writes to
+    private static final String[] IMPORT_TABLES =
+        {"categories", "products", "stock_movements", "seed_records", "import_checkpoints"};
+
+    private ServiceLocator locator;
+    private CosShopDatabase database;
+    private final List<String> writtenTables = Collections.synchronizedList(new ArrayList<>());
+    private final InvalidationTracker.Observer writeObserver = new InvalidationTracker.Observer(IMPORT_TABLES) {
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            writtenTables.addAll(tables);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        locator = TestFixtures.installInMemory();
+        database = locator.getDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        database.getInvalidationTracker().removeObserver(writeObserver);
+        ServiceLocator.reset();
+    }
+
+    @Test
+    public void secondLaunchWritesNothing() throws Exception {
+        ImportResult first = locator.getCatalogImporter().runImport(catalog(1), null);
+        assertEquals(ImportResult.Status.IMPORTED, first.getStatus());
+        assertEquals(PRODUCTS, first.getProductsImported());
+        assertEquals(1, database.seedDao().getAppliedVersion(CATALOG));
+        watchWrites();
+
+        // A new importer, so nothing is remembered in memory
+        ImportResult second = new CatalogImporter(database, locator.getScheduler()).runImport(catalog(1), null);
+
+        assertEquals(ImportResult.Status.ALREADY_IMPORTED, second.getStatus());
+        database.getInvalidationTracker().refreshVersionsSync();
+        assertEquals(new ArrayList<String>(), writtenTables);
+        assertEquals(PRODUCTS, database.productDao().getProductCount());
+    }
+
+    @Test
+    public void newerVersionIsImported() throws Exception {
+        locator.getCatalogImporter().runImport(catalog(1), null);
+        watchWrites();
+
+        ImportResult result = new CatalogImporter(database, locator.getScheduler()).runImport(catalog(2), null);
+
+        assertEquals(ImportResult.Status.IMPORTED, result.getStatus());
+        assertEquals(2, database.seedDao().getAppliedVersion(CATALOG));
+        // The observer sees the writes the test above expects to be absent
+        database.getInvalidationTracker().refreshVersionsSync();
+        assertTrue(writtenTables.contains("seed_records"));
+        assertTrue(writtenTables.contains("products"));
+    }
+
+    // Starts recording writes once the first import's invalidations are delivered
+    private void watchWrites() {
+        database.getInvalidationTracker().refreshVersionsSync();
+        database.getInvalidationTracker().addObserver(writeObserver);
+        writtenTables.clear();
+    }
+
+    private static InputStream catalog(int version) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"name\": \"").append(CATALOG).append("\", \"version\": ").append(version)
+            .append(", \"categories\": [{\"id\": \"FACE\", \"name\": \"Face Products\"}], \"products\": [");
+        for (int i = 0; i < PRODUCTS; i++) {
+            if (i > 0) json.append(", ");
+            json.append(String.format(Locale.US,
+                "{\"id\": \"seed-%03d\", \"name\": \"Product %d\", \"price\": %.2f, "
+                    + "\"stockQuantity\": %d, \"categoryId\": \"FACE\"}",
+                i, i, 9.99 + i, 10 + i + version));
+        }
+        json.append("]}");
+        return new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
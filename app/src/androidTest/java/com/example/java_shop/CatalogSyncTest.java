@@ -0,0 +1,157 @@
+package com.example.java_shop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.java_shop.data.ServiceLocator;
+import com.example.java_shop.data.database.CategoryProductQuery;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.InventoryDao;
+import com.example.java_shop.data.models.Order;
+import com.example.java_shop.data.models.OrderItem;
+import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.ProductSummary;
+import com.example.java_shop.data.models.User;
+import com.example.java_shop.data.services.CatalogSyncService;
+import com.example.java_shop.data.services.CatalogSyncService.SyncResult;
+import com.example.java_shop.data.services.HttpCatalogSyncClient;
+import com.example.java_shop.viewmodels.CategoryDetailsViewModel.SortOption;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+@RunWith(AndroidJUnit4.class)
+public class CatalogSyncTest {
+    private static final int PRODUCTS = 25;
+    private static final int PAGE_SIZE = 10;
+
+    private ServiceLocator locator;
+    private LocalCatalogServer server;
+    private CatalogSyncService syncService;
+
+    @Before
+    public void setUp() throws Exception {
+        locator = TestFixtures.installInMemory();
+        server = new LocalCatalogServer();
+        server.putCategory(TestFixtures.category());
+        for (int i = 0; i < PRODUCTS; i++) {
+            server.putProduct(product(i, 10 + i));
+        }
+        syncService = new CatalogSyncService(locator.getDatabase(), locator.getScheduler(),
+            new HttpCatalogSyncClient(server.getBaseUrl()), PAGE_SIZE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+        ServiceLocator.reset();
+    }
+
+    @Test
+    public void firstSyncPullsTheWholeCatalogInPages() throws Exception {
+        SyncResult result = syncService.syncNow();
+
+        assertEquals(SyncResult.Status.SYNCED, result.getStatus());
+        assertEquals(3, result.getPages());
+        assertEquals(PRODUCTS, result.getProductsUpserted());
+        InventoryDao inventoryDao = locator.getDatabase().inventoryDao();
+        for (int i = 0; i < PRODUCTS; i++) {
+            assertEquals(Integer.valueOf(10 + i), inventoryDao.getStockQuantity(id(i)));
+        }
+        assertTrue(locator.getInventoryService().verifySnapshots().isEmpty());
+    }
+
+    @Test
+    public void unchangedCatalogIsNotModified() throws Exception {
+        syncService.syncNow();
+        int pagesServed = server.getPagesServed();
+
+        SyncResult result = syncService.syncNow();
+
+        assertEquals(SyncResult.Status.NOT_MODIFIED, result.getStatus());
+        assertEquals(pagesServed, server.getPagesServed());
+    }
+
+    @Test
+    public void laterSyncsOnlyTransferChanges() throws Exception {
+        syncService.syncNow();
+        int productsServed = server.getProductsServed();
+        server.putProduct(product(3, 99));
+        server.putProduct(product(7, 0));
+        server.deleteProduct(id(12));
+
+        SyncResult result = syncService.syncNow();
+
+        assertEquals(SyncResult.Status.SYNCED, result.getStatus());
+        assertEquals(1, result.getPages());
+        assertEquals(2, result.getProductsUpserted());
+        assertEquals(1, result.getProductsDeleted());
+        assertEquals(productsServed + 2, server.getProductsServed());
+
+        InventoryDao inventoryDao = locator.getDatabase().inventoryDao();
+        assertEquals(Integer.valueOf(99), inventoryDao.getStockQuantity(id(3)));
+        assertEquals(Integer.valueOf(0), inventoryDao.getStockQuantity(id(7)));
+        assertFalse(listedIds().contains(id(12)));
+        // Stock the server changed is recorded as ledger adjustments
+        assertTrue(locator.getInventoryService().verifySnapshots().isEmpty());
+    }
+
+    @Test
+    public void tombstoneOfAnOrderedProductHidesItAndKeepsItsHistory() throws Exception {
+        syncService.syncNow();
+        CosShopDatabase database = locator.getDatabase();
+        int userId = (int) database.userDao().insert(
+            new User("Test User", "sync@example.com", "555-0100", "", "hash"));
+        database.orderDao().createOrderWithItems(new Order(userId, new Date(), "DELIVERED", 10.99),
+            new ArrayList<>(Collections.singletonList(new OrderItem(0, id(1), 1, 10.99))));
+        database.cartDao().addOrMergeQuantity(id(1), 2, 10.99, System.currentTimeMillis());
+        server.deleteProduct(id(1));
+
+        SyncResult result = syncService.syncNow();
+
+        // order_items still reference the product, so a hard delete would fail the page
+        assertEquals(SyncResult.Status.SYNCED, result.getStatus());
+        assertEquals(1, result.getProductsDeleted());
+        assertEquals(SyncResult.Status.NOT_MODIFIED, syncService.syncNow().getStatus());
+
+        assertFalse(listedIds().contains(id(1)));
+        assertTrue(database.cartDao().getCartLinesSync().isEmpty());
+        // The row and its ledger stay for the order history
+        assertNotNull(database.inventoryDao().getStockQuantity(id(1)));
+        assertTrue(locator.getInventoryService().verifySnapshots().isEmpty());
+
+        // A deleted product can't be added to the cart again
+        database.cartDao().addOrMergeQuantity(id(1), 1, 10.99, System.currentTimeMillis());
+        assertTrue(database.cartDao().getCartLinesSync().isEmpty());
+    }
+
+    private List<String> listedIds() {
+        List<String> ids = new ArrayList<>();
+        List<ProductSummary> listed = locator.getDatabase().productDao().getProducts(CategoryProductQuery.page(
+            TestFixtures.CATEGORY_ID, SortOption.NAME_ASC, false, null, null, PRODUCTS));
+        for (ProductSummary product : listed) {
+            ids.add(product.getId());
+        }
+        return ids;
+    }
+
+    private static String id(int index) {
+        return String.format(Locale.US, "sync-%03d", index);
+    }
+
+    private static Product product(int index, int stock) {
+        return TestFixtures.product(id(index), "Product " + index, 9.99 + index, stock);
+    }
+}
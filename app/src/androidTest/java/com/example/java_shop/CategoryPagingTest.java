@@ -0,0 +1,84 @@
+package com.example.java_shop;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.java_shop.data.ServiceLocator;
+import com.example.java_shop.data.database.CategoryProductQuery;
+import com.example.java_shop.data.database.ProductDao;
+import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.ProductSummary;
+import com.example.java_shop.viewmodels.CategoryDetailsViewModel.SortOption;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keyset pages from {@link CategoryProductQuery}, read one after another, must list
+ * the same rows as one unpaged query, including products without a name.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CategoryPagingTest {
+    private static final int PRODUCTS = 40;
+    private static final int PAGE_SIZE = 6;
+
+    private ProductDao productDao;
+
+    @Before
+    public void setUp() {
+        productDao = TestFixtures.installWithCategory().getDatabase().productDao();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            // Every third product has no name, and pages end inside the NULLs and after them
+            String name = i % 3 == 0 ? null : "Product " + (i % 7);
+            String id = String.format(Locale.US, "p%02d", i);
+            products.add(TestFixtures.product(id, name, 9.99 + i % 4, i % 5));
+        }
+        productDao.insertAll(products);
+    }
+
+    @After
+    public void tearDown() {
+        ServiceLocator.reset();
+    }
+
+    @Test
+    public void pagesCoverEveryRowInOrder() {
+        for (SortOption sortOption : SortOption.values()) {
+            for (boolean inStockOnly : new boolean[] {false, true}) {
+                List<String> expected = ids(productDao.getProducts(CategoryProductQuery.page(
+                    TestFixtures.CATEGORY_ID, sortOption, inStockOnly, null, null, PRODUCTS)));
+
+                List<String> paged = new ArrayList<>();
+                Object sortKey = null;
+                String afterId = null;
+                while (true) {
+                    List<ProductSummary> page = productDao.getProducts(CategoryProductQuery.page(
+                        TestFixtures.CATEGORY_ID, sortOption, inStockOnly, sortKey, afterId, PAGE_SIZE));
+                    paged.addAll(ids(page));
+                    if (page.size() < PAGE_SIZE) break;
+                    ProductSummary last = page.get(page.size() - 1);
+                    sortKey = CategoryProductQuery.sortKeyOf(last, sortOption);
+                    afterId = last.getId();
+                }
+
+                assertEquals(sortOption + ", in stock only " + inStockOnly, expected, paged);
+            }
+        }
+    }
+
+    private static List<String> ids(List<ProductSummary> products) {
+        List<String> ids = new ArrayList<>(products.size());
+        for (ProductSummary product : products) {
+            ids.add(product.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.java_shop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.java_shop.data.ServiceLocator;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.InventoryDao;
+import com.example.java_shop.data.models.StockMovement;
+import com.example.java_shop.data.services.InventoryService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Thousands of concurrent reservations, with some releases, through
+ * {@link InventoryService} against an in-memory database. Stock is deliberately
+ * short so many reservations are refused.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InventoryConcurrencyTest {
+    private static final String[] PRODUCTS = {"hot-1", "hot-2", "hot-3"};
+    private static final int OPENING_STOCK = 600;
+    private static final int THREADS = 8;
+    private static final int RESERVATIONS_PER_THREAD = 400;
+
+    private ServiceLocator locator;
+    private CosShopDatabase database;
+
+    @Before
+    public void setUp() {
+        locator = TestFixtures.installWithCategory();
+        database = locator.getDatabase();
+        for (String id : PRODUCTS) {
+            database.productDao().insert(TestFixtures.product(id, OPENING_STOCK));
+        }
+        // Opening balances, so the ledger totals add up to the stock
+        database.inventoryDao().recordStockChanges(Arrays.asList(PRODUCTS), "opening", System.currentTimeMillis());
+    }
+
+    @After
+    public void tearDown() {
+        ServiceLocator.reset();
+    }
+
+    @Test
+    public void concurrentReservationsNeverOversell() throws Exception {
+        InventoryService inventory = locator.getInventoryService();
+        // Net units held per product by the reservations that succeeded
+        AtomicIntegerArray held = new AtomicIntegerArray(PRODUCTS.length);
+        AtomicIntegerArray succeeded = new AtomicIntegerArray(PRODUCTS.length);
+        AtomicIntegerArray refused = new AtomicIntegerArray(PRODUCTS.length);
+
+        TestFixtures.runConcurrently(THREADS, thread -> {
+            Random random = new Random(thread);
+            String reference = "thread:" + thread;
+            for (int i = 0; i < RESERVATIONS_PER_THREAD; i++) {
+                int product = random.nextInt(PRODUCTS.length);
+                int quantity = 1 + random.nextInt(3);
+                if (!inventory.reserve(PRODUCTS[product], quantity, reference)) {
+                    refused.incrementAndGet(product);
+                    continue;
+                }
+                succeeded.incrementAndGet(product);
+                held.addAndGet(product, quantity);
+                // Abandoned carts give some units back while others are still reserving
+                if (random.nextInt(4) == 0) {
+                    assertTrue(inventory.release(PRODUCTS[product], quantity, reference));
+                    held.addAndGet(product, -quantity);
+                }
+            }
+        });
+
+        InventoryDao inventoryDao = database.inventoryDao();
+        int totalRefused = 0;
+        for (int product = 0; product < PRODUCTS.length; product++) {
+            String id = PRODUCTS[product];
+            int expected = OPENING_STOCK - held.get(product);
+            assertEquals(id, Integer.valueOf(expected), inventoryDao.getStockQuantity(id));
+            assertEquals(id, expected, inventoryDao.getLedgerTotal(id));
+            assertEquals(id, expected, inventory.getStockLevel(id));
+            totalRefused += refused.get(product);
+        }
+        // The stock runs out well before the reservations do
+        assertTrue("No reservation was refused", totalRefused > 0);
+
+        int reservations = 0;
+        for (StockMovement movement : inventoryDao.getMovementsAfter(0)) {
+            assertTrue("Negative balance " + movement.getBalanceAfter() + " for " + movement.getProductId(),
+                movement.getBalanceAfter() >= 0);
+            if (StockMovement.TYPE_RESERVATION.equals(movement.getType())) reservations++;
+        }
+        int totalSucceeded = 0;
+        for (int product = 0; product < PRODUCTS.length; product++) {
+            totalSucceeded += succeeded.get(product);
+        }
+        assertEquals(totalSucceeded, reservations);
+        assertTrue(inventory.verifySnapshots().isEmpty());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.java_shop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.os.Bundle;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.java_shop.data.loadtest.CatalogEngineBenchmark;
+import com.example.java_shop.data.loadtest.LoadTestHarness;
+import com.example.java_shop.data.loadtest.LoadTestReport;
+import com.example.java_shop.data.loadtest.LoadTier;
+import com.example.java_shop.data.loadtest.ProjectionBenchmark;
+import com.example.java_shop.data.loadtest.SearchBenchmark;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs the load test on a device. Skipped unless tiers are passed:
+ *
+ *   ./gradlew connectedAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.loadTiers=SMALL,MEDIUM
+ *
+ * The list projection benchmark runs when a category size is passed, e.g.
+ * -Pandroid.testInstrumentationRunnerArguments.projectionRows=10000, the cart
+ * JOIN against @Relation benchmark with cartLines=100, the in-memory catalog
+ * benchmark with catalogEngineRows=10000, and the FTS against LIKE search
+ * benchmark with searchRows=50000.
+ *
+ * Reports are written to the app's external files, under loadtest/.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LoadTest {
+    @Test
+    public void repositoryPathsUnderLoad() throws Exception {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        String tierNames = arguments.getString("loadTiers");
+        assumeTrue("No loadTiers argument", tierNames != null && !tierNames.isEmpty());
+
+        List<LoadTier> tiers = new ArrayList<>();
+        for (String name : tierNames.split(",")) {
+            tiers.add(LoadTier.valueOf(name.trim().toUpperCase(Locale.US)));
+        }
+
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File outputDir = new File(context.getExternalFilesDir(null), "loadtest");
+        List<LoadTestReport> reports = new LoadTestHarness(context)
+            .run(outputDir, tiers.toArray(new LoadTier[0]));
+
+        for (LoadTestReport report : reports) {
+            assertEquals(report.getTier() + " checks", new ArrayList<String>(), report.getFailures());
+        }
+    }
+
+    @Test
+    public void summaryProjectionOfALargeCategory() throws Exception {
+        String rows = InstrumentationRegistry.getArguments().getString("projectionRows");
+        assumeTrue("No projectionRows argument", rows != null && !rows.isEmpty());
+
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File outputDir = new File(context.getExternalFilesDir(null), "loadtest");
+        ProjectionBenchmark.Comparison comparison = new ProjectionBenchmark(context)
+            .run(outputDir, Integer.parseInt(rows.trim()));
+
+        assertEquals(comparison.rows, comparison.summaries.rows);
+        // Heap numbers are noisy on a device; only the window fills are checked
+        assertTrue(comparison.summaries.windowFills <= comparison.fullRows.windowFills);
+    }
+
+    @Test
+    public void cartLinesJoinAgainstRelation() throws Exception {
+        String lines = InstrumentationRegistry.getArguments().getString("cartLines");
+        assumeTrue("No cartLines argument", lines != null && !lines.isEmpty());
+
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File outputDir = new File(context.getExternalFilesDir(null), "loadtest");
+        ProjectionBenchmark.Comparison comparison = new ProjectionBenchmark(context)
+            .runCart(outputDir, Integer.parseInt(lines.trim()));
+
+        assertEquals(comparison.rows, comparison.summaries.rows);
+        // The @Relation reads the cart and then its products, so two rows per line
+        assertEquals(2 * comparison.rows, comparison.fullRows.rows);
+        assertTrue(comparison.summaries.windowFills <= comparison.fullRows.windowFills);
+    }
+
+    @Test
+    public void inMemoryCatalogAgainstSql() throws Exception {
+        String rows = InstrumentationRegistry.getArguments().getString("catalogEngineRows");
+        assumeTrue("No catalogEngineRows argument", rows != null && !rows.isEmpty());
+
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File outputDir = new File(context.getExternalFilesDir(null), "loadtest");
+        CatalogEngineBenchmark.Report report = new CatalogEngineBenchmark(context)
+            .run(outputDir, Integer.parseInt(rows.trim()));
+
+        assertEquals(new ArrayList<String>(), report.getFailures());
+    }
+
+    @Test
+    public void ftsSearchAgainstLike() throws Exception {
+        String rows = InstrumentationRegistry.getArguments().getString("searchRows");
+        assumeTrue("No searchRows argument", rows != null && !rows.isEmpty());
+
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File outputDir = new File(context.getExternalFilesDir(null), "loadtest");
+        List<SearchBenchmark.Search> searches = new SearchBenchmark(context)
+            .run(outputDir, Integer.parseInt(rows.trim()));
+
+        // Every search but the last finds products both ways; the last finds none
+        for (int i = 0; i < searches.size(); i++) {
+            SearchBenchmark.Search search = searches.get(i);
+            boolean expectMatches = i < searches.size() - 1;
+            assertEquals(search.text + " LIKE", expectMatches, search.like.rows > 0);
+            assertEquals(search.text + " FTS", expectMatches, search.fts.rows > 0);
+        }
+    }
+}
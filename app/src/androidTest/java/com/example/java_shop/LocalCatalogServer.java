@@ -0,0 +1,250 @@
+package com.example.java_shop;
+
+import android.net.Uri;
+import android.util.JsonWriter;
+
+import com.example.java_shop.data.models.Category;
+import com.example.java_shop.data.models.Product;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-process stand-in for the catalog server's /catalog/changes endpoint, serving
+ * keyset-paged changes and tombstones with an ETag per catalog version.
+ */
+class LocalCatalogServer implements Closeable {
+    private final ServerSocket serverSocket;
+    // Guarded by this
+    private final Map<String, Category> categories = new HashMap<>();
+    private final Map<String, Long> categoryVersions = new HashMap<>();
+    private final Map<String, Product> products = new HashMap<>();
+    private final Map<String, Long> tombstones = new HashMap<>();
+    private long version = 1_000_000L;
+    private int pagesServed;
+    private int productsServed;
+
+    LocalCatalogServer() throws IOException {
+        serverSocket = new ServerSocket(0, 16, InetAddress.getLoopbackAddress());
+        Thread thread = new Thread(this::serve, "local-catalog-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    String getBaseUrl() {
+        return "http://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    // Catalog changes; each one gets the next version as its lastModified
+
+    synchronized void putCategory(Category category) {
+        categories.put(category.getId(), category);
+        categoryVersions.put(category.getId(), ++version);
+    }
+
+    synchronized void putProduct(Product product) {
+        product.setLastModified(++version);
+        products.put(product.getId(), product);
+        tombstones.remove(product.getId());
+    }
+
+    synchronized void deleteProduct(String productId) {
+        products.remove(productId);
+        tombstones.put(productId, ++version);
+    }
+
+    synchronized int getPagesServed() {
+        return pagesServed;
+    }
+
+    synchronized int getProductsServed() {
+        return productsServed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void serve() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                handle(socket);
+            } catch (IOException e) {
+                // Closed, or the client went away
+            }
+        }
+    }
+
+    private void handle(Socket socket) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        String requestLine = in.readLine();
+        if (requestLine == null) return;
+        Map<String, String> headers = new HashMap<>();
+        for (String line = in.readLine(); line != null && !line.isEmpty(); line = in.readLine()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.US), line.substring(colon + 1).trim());
+            }
+        }
+
+        Uri uri = Uri.parse("http://localhost" + requestLine.split(" ")[1]);
+        if (!"/catalog/changes".equals(uri.getPath())) {
+            respond(socket, 404, null, "");
+            return;
+        }
+        long since = Long.parseLong(uri.getQueryParameter("since"));
+        int limit = Integer.parseInt(uri.getQueryParameter("limit"));
+        String cursor = uri.getQueryParameter("cursor");
+
+        String etag;
+        String body;
+        synchronized (this) {
+            etag = "\"" + version + "\"";
+            if (cursor == null && etag.equals(headers.get("if-none-match"))) {
+                respond(socket, 304, etag, "");
+                return;
+            }
+            body = changes(since, cursor, limit);
+        }
+        respond(socket, 200, etag, body);
+    }
+
+    // Changes after since, ordered by (lastModified, id) and resumed after the cursor
+    private String changes(long since, String cursor, int limit) throws IOException {
+        List<Object[]> changes = new ArrayList<>();
+        for (Product product : products.values()) {
+            if (product.getLastModified() > since) {
+                changes.add(new Object[]{product.getLastModified(), product.getId(), product});
+            }
+        }
+        for (Map.Entry<String, Long> tombstone : tombstones.entrySet()) {
+            if (tombstone.getValue() > since) {
+                changes.add(new Object[]{tombstone.getValue(), tombstone.getKey(), null});
+            }
+        }
+        changes.sort((a, b) -> {
+            int byVersion = Long.compare((Long) a[0], (Long) b[0]);
+            return byVersion != 0 ? byVersion : ((String) a[1]).compareTo((String) b[1]);
+        });
+
+        int start = 0;
+        if (cursor != null) {
+            long cursorVersion = Long.parseLong(cursor.substring(0, cursor.indexOf(':')));
+            String cursorId = cursor.substring(cursor.indexOf(':') + 1);
+            while (start < changes.size()) {
+                Object[] change = changes.get(start);
+                long changeVersion = (Long) change[0];
+                if (changeVersion > cursorVersion
+                        || (changeVersion == cursorVersion && ((String) change[1]).compareTo(cursorId) > 0)) {
+                    break;
+                }
+                start++;
+            }
+        }
+        int end = Math.min(changes.size(), start + limit);
+        boolean last = end == changes.size();
+        pagesServed++;
+
+        StringWriter out = new StringWriter();
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginObject();
+        writer.name("categories").beginArray();
+        if (cursor == null) {
+            for (Category category : categories.values()) {
+                if (categoryVersions.get(category.getId()) > since) {
+                    writeCategory(writer, category);
+                }
+            }
+        }
+        writer.endArray();
+        writer.name("products").beginArray();
+        for (Object[] change : changes.subList(start, end)) {
+            if (change[2] != null) {
+                writeProduct(writer, (Product) change[2]);
+                productsServed++;
+            }
+        }
+        writer.endArray();
+        writer.name("deleted").beginArray();
+        for (Object[] change : changes.subList(start, end)) {
+            if (change[2] == null) {
+                writer.value((String) change[1]);
+            }
+        }
+        writer.endArray();
+        if (last) {
+            writer.name("nextCursor").nullValue();
+            writer.name("watermark").value(version);
+        } else {
+            Object[] lastChange = changes.get(end - 1);
+            writer.name("nextCursor").value(lastChange[0] + ":" + lastChange[1]);
+            writer.name("watermark").value((Long) lastChange[0]);
+        }
+        writer.endObject();
+        writer.close();
+        return out.toString();
+    }
+
+    private static void writeCategory(JsonWriter writer, Category category) throws IOException {
+        writer.beginObject()
+            .name("id").value(category.getId())
+            .name("name").value(category.getName())
+            .name("description").value(category.getDescription())
+            .name("iconUrl").value(category.getIconUrl())
+            .name("displayOrder").value(category.getDisplayOrder())
+            .name("isActive").value(category.isActive())
+            .name("parentCategoryId").value(category.getParentCategoryId())
+            .endObject();
+    }
+
+    private static void writeProduct(JsonWriter writer, Product product) throws IOException {
+        writer.beginObject()
+            .name("id").value(product.getId())
+            .name("name").value(product.getName())
+            .name("description").value(product.getDescription())
+            .name("imageUrl").value(product.getImageUrl())
+            .name("price").value(product.getPrice())
+            .name("stockQuantity").value(product.getStockQuantity())
+            .name("categoryId").value(product.getCategoryId())
+            .name("isFeatured").value(product.isFeatured())
+            .name("discountPercentage").value(product.getDiscountPercentage())
+            .name("specifications").value(product.getSpecifications())
+            .name("rating").value(product.getRating())
+            .name("reviewCount").value(product.getReviewCount())
+            .name("lastModified").value(product.getLastModified())
+            .name("offerValidUntilTimestamp").value(product.getOfferValidUntilTimestamp())
+            .name("originalPrice").value(product.getOriginalPrice())
+            .endObject();
+    }
+
+    private static void respond(Socket socket, int status, String etag, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        StringBuilder head = new StringBuilder("HTTP/1.1 ").append(status)
+            .append(status == 200 ? " OK" : status == 304 ? " Not Modified" : " Not Found").append("\r\n")
+            .append("Content-Type: application/json\r\n")
+            .append("Content-Length: ").append(bytes.length).append("\r\n")
+            .append("Connection: close\r\n");
+        if (etag != null) {
+            head.append("ETag: ").append(etag).append("\r\n");
+        }
+        head.append("\r\n");
+        OutputStream out = socket.getOutputStream();
+        out.write(head.toString().getBytes(StandardCharsets.US_ASCII));
+        out.write(bytes);
+        out.flush();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.java_shop;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.java_shop.data.ServiceLocator;
+import com.example.java_shop.data.models.Category;
+import com.example.java_shop.data.models.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Setup shared by the instrumentation tests that run against an in-memory database:
+ * the {@link ServiceLocator} graph, the one category test products belong to, the
+ * products themselves, and a way to start work on several threads at once.
+ *
+ * Tests that install a graph call {@link ServiceLocator#reset()} in their @After.
+ */
+final class TestFixtures {
+    static final String CATEGORY_ID = "FACE";
+
+    private TestFixtures() {
+    }
+
+    // A fresh graph on an empty in-memory database
+    static ServiceLocator installInMemory() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        return ServiceLocator.installInMemory(context);
+    }
+
+    // As installInMemory, with the test category already inserted
+    static ServiceLocator installWithCategory() {
+        ServiceLocator locator = installInMemory();
+        locator.getDatabase().categoryDao().insert(category());
+        return locator;
+    }
+
+    static Category category() {
+        return new Category(CATEGORY_ID, "Face Products", "Foundation and more", null, 1, true, null);
+    }
+
+    static Product product(String id, int stock) {
+        return product(id, "Product " + id, 9.99, stock);
+    }
+
+    static Product product(String id, @Nullable String name, double price, int stock) {
+        return new Product(id, name, "Test product", "https://example.com/images/" + id + ".jpg",
+            price, stock, CATEGORY_ID);
+    }
+
+    interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Runs {@code body} on {@code threads} threads released together, and waits for
+     * all of them. The first failure is rethrown, wrapped in an ExecutionException.
+     */
+    static void runConcurrently(int threads, ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < threads; thread++) {
+                int index = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    body.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
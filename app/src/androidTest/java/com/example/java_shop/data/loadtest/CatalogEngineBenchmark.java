@@ -0,0 +1,205 @@
+package com.example.java_shop.data.loadtest;
+
+import android.content.Context;
+import androidx.annotation.WorkerThread;
+import com.example.java_shop.data.ServiceLocator;
+import com.example.java_shop.data.cache.ColumnarCatalog;
+import com.example.java_shop.data.cache.InMemoryCatalog;
+import com.example.java_shop.data.database.CategoryProductQuery;
+import com.example.java_shop.data.database.ProductDao;
+import com.example.java_shop.data.models.ProductSummary;
+import com.example.java_shop.viewmodels.CategoryDetailsViewModel.SortOption;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Times category listings answered by the keyset SQL path and by the
+ * {@link ColumnarCatalog}, for every sort option with and without the stock
+ * filter, over one category of N products. Also checks that both return the same
+ * rows in the same order.
+ *
+ * Replaces the {@link ServiceLocator} graph while it runs; run it from an
+ * instrumentation test.
+ */
+public class CatalogEngineBenchmark {
+    private static final long SEED = 20_250_101L;
+    private static final int ITERATIONS = 21;
+    private static final int PAGE_SIZE = 30;
+
+    private final Context context;
+
+    public CatalogEngineBenchmark(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * Runs every listing over a category of {@code rows} products and writes
+     * catalog-engine-&lt;rows&gt;.txt to {@code outputDir}.
+     */
+    @WorkerThread
+    public Report run(File outputDir, int rows) throws IOException {
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Can't create " + outputDir);
+        }
+        try {
+            ServiceLocator locator = ServiceLocator.installInMemory(context);
+            ProductDao productDao = locator.getDatabase().productDao();
+            String categoryId = new SyntheticDataGenerator(SEED).populateCategory(locator.getDatabase(), rows);
+
+            Report report = new Report(rows);
+            long[] buildNanos = new long[3];
+            ColumnarCatalog catalog = null;
+            for (int i = 0; i < buildNanos.length; i++) {
+                long start = System.nanoTime();
+                catalog = InMemoryCatalog.load(productDao, productDao.getProductCount());
+                buildNanos[i] = System.nanoTime() - start;
+            }
+            report.buildNanos = median(buildNanos);
+
+            int category = catalog.categoryOrdinal(categoryId);
+            int[] selected = new int[catalog.categorySize(category)];
+            for (SortOption sortOption : SortOption.values()) {
+                for (boolean inStockOnly : new boolean[]{false, true}) {
+                    report.listings.add(measure(productDao, catalog, categoryId, category, sortOption,
+                        inStockOnly, selected, report));
+                }
+            }
+            report.write(new File(outputDir, "catalog-engine-" + rows + ".txt"));
+            return report;
+        } finally {
+            ServiceLocator.reset();
+        }
+    }
+
+    private static Listing measure(ProductDao productDao, ColumnarCatalog catalog, String categoryId,
+                                   int category, SortOption sortOption, boolean inStockOnly, int[] selected,
+                                   Report report) {
+        String name = sortOption + (inStockOnly ? ", in stock" : "");
+        int rows = report.rows;
+
+        // Same rows, same order
+        List<ProductSummary> expected = productDao.getProducts(
+            CategoryProductQuery.page(categoryId, sortOption, inStockOnly, null, null, rows));
+        int count = catalog.select(category, sortOption, inStockOnly,
+            Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, selected);
+        if (count != expected.size()) {
+            report.failures.add(name + ": " + count + " rows in memory, " + expected.size() + " from SQL");
+        } else {
+            for (int i = 0; i < count; i++) {
+                if (!catalog.idAt(selected[i]).equals(expected.get(i).getId())) {
+                    report.failures.add(name + ": row " + i + " is " + catalog.idAt(selected[i])
+                        + " in memory, " + expected.get(i).getId() + " from SQL");
+                    break;
+                }
+            }
+        }
+
+        long[] sqlFirstPage = new long[ITERATIONS];
+        long[] sqlAll = new long[ITERATIONS];
+        long[] memoryFirstPage = new long[ITERATIONS];
+        long[] memorySelect = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            productDao.getProducts(CategoryProductQuery.page(categoryId, sortOption, inStockOnly,
+                null, null, PAGE_SIZE));
+            sqlFirstPage[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            productDao.getProducts(CategoryProductQuery.page(categoryId, sortOption, inStockOnly,
+                null, null, rows));
+            sqlAll[i] = System.nanoTime() - start;
+
+            // A new filter or sort: select every row, then build the first page
+            start = System.nanoTime();
+            int selectedCount = catalog.select(category, sortOption, inStockOnly,
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, selected);
+            memorySelect[i] = System.nanoTime() - start;
+            List<ProductSummary> page = new ArrayList<>(PAGE_SIZE);
+            for (int position = 0; position < Math.min(PAGE_SIZE, selectedCount); position++) {
+                page.add(catalog.summaryAt(selected[position]));
+            }
+            memoryFirstPage[i] = System.nanoTime() - start;
+        }
+        return new Listing(name, count, median(sqlFirstPage), median(sqlAll),
+            median(memorySelect), median(memoryFirstPage));
+    }
+
+    private static long median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * Median times of one sort and filter combination.
+     */
+    public static class Listing {
+        public final String name;
+        public final int rows;
+        public final long sqlFirstPageNanos;
+        public final long sqlAllRowsNanos;
+        public final long memorySelectNanos;
+        public final long memoryFirstPageNanos;
+
+        Listing(String name, int rows, long sqlFirstPageNanos, long sqlAllRowsNanos,
+                long memorySelectNanos, long memoryFirstPageNanos) {
+            this.name = name;
+            this.rows = rows;
+            this.sqlFirstPageNanos = sqlFirstPageNanos;
+            this.sqlAllRowsNanos = sqlAllRowsNanos;
+            this.memorySelectNanos = memorySelectNanos;
+            this.memoryFirstPageNanos = memoryFirstPageNanos;
+        }
+    }
+
+    public static class Report {
+        public final int rows;
+        private long buildNanos;
+        private final List<Listing> listings = new ArrayList<>();
+        private final List<String> failures = new ArrayList<>();
+
+        Report(int rows) {
+            this.rows = rows;
+        }
+
+        public long getBuildNanos() {
+            return buildNanos;
+        }
+
+        public List<Listing> getListings() {
+            return Collections.unmodifiableList(listings);
+        }
+
+        // Empty when both paths returned the same rows for every listing
+        public List<String> getFailures() {
+            return Collections.unmodifiableList(failures);
+        }
+
+        void write(File file) throws IOException {
+            try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+                writer.printf(Locale.US, "Category of %d products, median of %d runs%n", rows, ITERATIONS);
+                writer.printf(Locale.US, "columnar snapshot build: %.1f ms%n%n", buildNanos / 1e6);
+                writer.printf(Locale.US, "%-26s %8s %14s %14s %14s %14s%n", "listing", "rows",
+                    "SQL page ms", "SQL all ms", "select ms", "select+page ms");
+                for (Listing listing : listings) {
+                    writer.printf(Locale.US, "%-26s %8d %14.3f %14.3f %14.3f %14.3f%n", listing.name,
+                        listing.rows, listing.sqlFirstPageNanos / 1e6, listing.sqlAllRowsNanos / 1e6,
+                        listing.memorySelectNanos / 1e6, listing.memoryFirstPageNanos / 1e6);
+                }
+                if (!failures.isEmpty()) {
+                    writer.println();
+                    for (String failure : failures) {
+                        writer.println("FAILED " + failure);
+                    }
+                }
+            }
+        }
+    }
+}
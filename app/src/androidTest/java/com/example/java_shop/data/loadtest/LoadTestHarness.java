@@ -0,0 +1,592 @@
+package com.example.java_shop.data.loadtest;
+
+import android.app.Application;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.paging.PagingSource;
+import com.example.java_shop.data.ServiceLocator;
+import com.example.java_shop.data.database.CartDao;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.DatabaseScheduler;
+import com.example.java_shop.data.database.QueryStats;
+import com.example.java_shop.data.loadtest.LoadTestReport.PathResult;
+import com.example.java_shop.data.loadtest.SyntheticDataGenerator.Dataset;
+import com.example.java_shop.data.models.CartLine;
+import com.example.java_shop.data.models.ProductSummary;
+import com.example.java_shop.data.paging.CategoryProductPagingSource;
+import com.example.java_shop.data.paging.CategoryProductPagingSource.PageKey;
+import com.example.java_shop.data.repositories.AddressRepository;
+import com.example.java_shop.data.repositories.CartRepository;
+import com.example.java_shop.data.repositories.CategoryRepository;
+import com.example.java_shop.data.repositories.OrderRepository;
+import com.example.java_shop.data.repositories.ProductRepository;
+import com.example.java_shop.data.repositories.UserRepository;
+import com.example.java_shop.data.services.CheckoutService;
+import com.example.java_shop.data.services.InventoryService;
+import com.example.java_shop.viewmodels.CategoriesViewModel;
+import com.example.java_shop.viewmodels.CategoryDetailsViewModel.SortOption;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * Times every repository read path, and the write paths that run concurrently, against
+ * an in-memory database filled by {@link SyntheticDataGenerator} at each {@link LoadTier}.
+ *
+ * Reads are timed the way a screen sees them: from asking the repository on the main
+ * thread until the first value reaches an observer. Each tier writes
+ * loadtest-&lt;tier&gt;.txt and the matching {@link QueryStats} dump,
+ * querystats-&lt;tier&gt;.txt.
+ *
+ * Replaces the {@link ServiceLocator} graph while it runs, so it must not run inside
+ * the app while screens are open. Run it from an instrumentation test.
+ */
+public class LoadTestHarness {
+    private static final String TAG = "LoadTestHarness";
+    private static final long SEED = 20_250_101L;
+    private static final long TIMEOUT_SECONDS = 120;
+    private static final int ITERATIONS = 30;
+    private static final int PAGE_SIZE = 20;
+    private static final int CART_LINES = 100;
+    private static final int THREADS = 8;
+    private static final int HOT_PRODUCTS = 16;
+    private static final int HOT_STOCK = 500;
+    private static final int CHECKOUT_PRODUCTS = 30;
+    // Enough that concurrent checkouts never run out
+    private static final int CHECKOUT_STOCK = 10_000;
+    private static final String[] SEARCH_TERMS = {"matte", "serum", "hyaluronic", "vitamin c",
+        "waterproof mascara", "rose lipstick", "nia", "glow", "sensitive skin", "sunscreen"};
+
+    private final Context context;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public LoadTestHarness(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @WorkerThread
+    public List<LoadTestReport> run(File outputDir, LoadTier... tiers) throws IOException, InterruptedException {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            throw new IllegalStateException("The load test waits for the main thread and can't run on it");
+        }
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Can't create " + outputDir);
+        }
+
+        QueryStats queryStats = QueryStats.getInstance();
+        boolean statsWereEnabled = queryStats.isEnabled();
+        List<LoadTestReport> reports = new ArrayList<>();
+        try {
+            for (LoadTier tier : tiers) {
+                queryStats.reset();
+                queryStats.setEnabled(true);
+                LoadTestReport report = runTier(tier);
+                String name = tier.name().toLowerCase(Locale.US);
+                report.write(new File(outputDir, "loadtest-" + name + ".txt"));
+                queryStats.dump(new File(outputDir, "querystats-" + name + ".txt"));
+                Log.i(TAG, tier + " done, " + report.getFailures().size() + " failed checks");
+                reports.add(report);
+            }
+        } finally {
+            queryStats.setEnabled(statsWereEnabled);
+            ServiceLocator.reset();
+        }
+        return reports;
+    }
+
+    private LoadTestReport runTier(LoadTier tier) throws InterruptedException {
+        ServiceLocator locator = ServiceLocator.installInMemory(context);
+        LoadTestReport report = new LoadTestReport(tier);
+
+        long start = System.nanoTime();
+        Dataset dataset = new SyntheticDataGenerator(SEED).populate(locator.getDatabase(), tier);
+        report.setPopulated(dataset.getRowCount(), System.nanoTime() - start);
+
+        Random random = new Random(SEED);
+        timeCategoryReads(locator, dataset, random, report);
+        timeProductReads(locator, dataset, random, report);
+        timeCategoriesScreen(report);
+        timeUserReads(locator, dataset, random, report);
+        timeAddressReads(locator, dataset, random, report);
+        timeOrderReads(locator, dataset, random, report);
+        timeCart(locator, dataset, report);
+        runCartUpsertContention(locator, dataset, report);
+        runReservationsWithCheckout(locator, dataset, random, report);
+        runConcurrentCheckouts(locator, dataset, report);
+        return report;
+    }
+
+    // Read paths
+
+    private void timeCategoryReads(ServiceLocator locator, Dataset dataset, Random random, LoadTestReport report)
+            throws InterruptedException {
+        int categoryCount = dataset.categoryIds.size();
+        // The tree is built once from all rows; later reads are lookups in memory
+        report.add(measure("CategoryRepository.getCategoryTree (first build)", 1,
+            liveData(i -> locator.getCategoryRepository().getCategoryTree(),
+                tree -> tree.getAll().size() == categoryCount)));
+
+        CategoryRepository categories = locator.getCategoryRepository();
+        IntFunction<String> categoryId = i -> pick(random, dataset.categoryIds);
+        report.add(measure("CategoryRepository.getAllCategories", ITERATIONS,
+            liveData(i -> categories.getAllCategories())));
+        report.add(measure("CategoryRepository.getActiveCategories", ITERATIONS,
+            liveData(i -> categories.getActiveCategories())));
+        report.add(measure("CategoryRepository.getTopLevelCategories", ITERATIONS,
+            liveData(i -> categories.getTopLevelCategories())));
+        report.add(measure("CategoryRepository.getActiveTopLevelCategories", ITERATIONS,
+            liveData(i -> categories.getActiveTopLevelCategories())));
+        report.add(measure("CategoryRepository.getCategory", ITERATIONS,
+            liveData(i -> categories.getCategory(categoryId.apply(i)))));
+        report.add(measure("CategoryRepository.getSubcategories", ITERATIONS,
+            liveData(i -> categories.getSubcategories(categoryId.apply(i)))));
+        report.add(measure("CategoryRepository.getActiveSubcategories", ITERATIONS,
+            liveData(i -> categories.getActiveSubcategories(categoryId.apply(i)))));
+        report.add(measure("CategoryRepository.getCategoryPath", ITERATIONS,
+            liveData(i -> categories.getCategoryPath(categoryId.apply(i)))));
+        report.add(measure("CategoryRepository.getDescendantIds", ITERATIONS,
+            liveData(i -> categories.getDescendantIds(categoryId.apply(i)))));
+        report.add(measure("CategoryRepository.getSubcategoryCount", ITERATIONS,
+            liveData(i -> categories.getSubcategoryCount(categoryId.apply(i)))));
+    }
+
+    private void timeProductReads(ServiceLocator locator, Dataset dataset, Random random, LoadTestReport report)
+            throws InterruptedException {
+        ProductRepository products = locator.getProductRepository();
+        IntFunction<String> productId = i -> pick(random, dataset.productIds);
+        IntFunction<String> categoryId = i -> pick(random, dataset.categoryIds);
+        IntFunction<String> term = i -> SEARCH_TERMS[i % SEARCH_TERMS.length];
+
+        report.add(measure("ProductRepository.getProduct", ITERATIONS,
+            liveData(i -> products.getProduct(productId.apply(i)))));
+        // Loads the whole catalog, so fewer rounds
+        report.add(measure("ProductRepository.getAllProducts", 3,
+            liveData(i -> products.getAllProducts())));
+        report.add(measure("ProductRepository.getProductsByCategory", ITERATIONS,
+            liveData(i -> products.getProductsByCategory(categoryId.apply(i)))));
+        report.add(measure("ProductRepository.getCategoryPreviews", ITERATIONS,
+            liveData(i -> products.getCategoryPreviews("", 4))));
+        report.add(measure("ProductRepository.getCategoryPreviews (search)", ITERATIONS,
+            liveData(i -> products.getCategoryPreviews(term.apply(i), 4))));
+        report.add(measure("ProductRepository.getFeaturedProducts", ITERATIONS,
+            liveData(i -> products.getFeaturedProducts())));
+        report.add(measure("ProductRepository.getSpecialOffers", ITERATIONS,
+            liveData(i -> products.getSpecialOffers())));
+        report.add(measure("ProductRepository.searchProducts", ITERATIONS,
+            liveData(i -> products.searchProducts(term.apply(i)))));
+        report.add(measure("ProductRepository.searchProductsInCategory", ITERATIONS,
+            liveData(i -> products.searchProductsInCategory(categoryId.apply(i), term.apply(i)))));
+        report.add(measure("ProductRepository.isProductInStock", ITERATIONS,
+            liveData(i -> products.isProductInStock(productId.apply(i)))));
+        report.add(measure("ProductRepository.getStockQuantity", ITERATIONS,
+            liveData(i -> products.getStockQuantity(productId.apply(i)))));
+
+        // getProductsByCategoryPaged hands its source to a Pager; time the source directly
+        for (SortOption sortOption : new SortOption[]{SortOption.NAME_ASC, SortOption.PRICE_LOW_HIGH, SortOption.RATING}) {
+            report.add(measureBlocking("CategoryProductPagingSource first page, " + sortOption, ITERATIONS,
+                i -> loadPages(locator, categoryId.apply(i), sortOption, 1)));
+            report.add(measureBlocking("CategoryProductPagingSource 10 pages, " + sortOption, ITERATIONS / 3,
+                i -> loadPages(locator, categoryId.apply(i), sortOption, 10)));
+        }
+    }
+
+    private void loadPages(ServiceLocator locator, String categoryId, SortOption sortOption, int pages)
+            throws Exception {
+        CategoryProductPagingSource source = new CategoryProductPagingSource(locator.getDatabase(),
+            categoryId, sortOption, false,
+            locator.getScheduler().executor(DatabaseScheduler.Lane.UI_READ));
+        PagingSource.LoadParams<PageKey> params = new PagingSource.LoadParams.Refresh<>(null, PAGE_SIZE, false);
+        for (int page = 0; page < pages; page++) {
+            PagingSource.LoadResult<PageKey, ProductSummary> result = source.loadFuture(params).get();
+            if (!(result instanceof PagingSource.LoadResult.Page)) {
+                throw new IllegalStateException("Page load failed: " + result);
+            }
+            PageKey nextKey = ((PagingSource.LoadResult.Page<PageKey, ProductSummary>) result).getNextKey();
+            if (nextKey == null) break;
+            params = new PagingSource.LoadParams.Append<>(nextKey, PAGE_SIZE, false);
+        }
+        source.invalidate();
+    }
+
+    // The categories screen: active categories plus preview rows for all of them
+    private void timeCategoriesScreen(LoadTestReport report) throws InterruptedException {
+        Application application = (Application) context;
+        report.add(measure("CategoriesViewModel.getCategoriesWithProducts", ITERATIONS,
+            liveData(i -> new CategoriesViewModel(application).getCategoriesWithProducts(),
+                list -> list != null && !list.isEmpty())));
+    }
+
+    private void timeUserReads(ServiceLocator locator, Dataset dataset, Random random, LoadTestReport report)
+            throws InterruptedException {
+        UserRepository users = locator.getUserRepository();
+        report.add(measure("UserRepository.getUserById", ITERATIONS,
+            liveData(i -> users.getUserById(pick(random, dataset.userIds)))));
+        report.add(measure("UserRepository.getUserByEmail", ITERATIONS,
+            liveData(i -> users.getUserByEmail(pick(random, dataset.emails)))));
+        report.add(measure("UserRepository.login", ITERATIONS, liveData(i -> {
+            int index = random.nextInt(dataset.emails.size());
+            return users.login(dataset.emails.get(index), SyntheticDataGenerator.passwordHash(index));
+        })));
+        report.add(measure("UserRepository.checkEmailExists", ITERATIONS,
+            (i, done) -> users.checkEmailExists(pick(random, dataset.emails), exists -> done.run())));
+    }
+
+    private void timeAddressReads(ServiceLocator locator, Dataset dataset, Random random, LoadTestReport report)
+            throws InterruptedException {
+        AddressRepository addresses = locator.getAddressRepository();
+        report.add(measure("AddressRepository.getAddressById", ITERATIONS,
+            liveData(i -> addresses.getAddressById(1 + random.nextInt(dataset.userIds.size())))));
+        report.add(measure("AddressRepository.getAddressesForUser", ITERATIONS,
+            liveData(i -> addresses.getAddressesForUser(pick(random, dataset.userIds)))));
+        report.add(measure("AddressRepository.getDefaultAddress", ITERATIONS,
+            liveData(i -> addresses.getDefaultAddress(pick(random, dataset.userIds)))));
+        report.add(measure("AddressRepository.getAddressCountForUser", ITERATIONS,
+            (i, done) -> addresses.getAddressCountForUser(pick(random, dataset.userIds), count -> done.run())));
+    }
+
+    private void timeOrderReads(ServiceLocator locator, Dataset dataset, Random random, LoadTestReport report)
+            throws InterruptedException {
+        OrderRepository orders = locator.getOrderRepository();
+        // Orders are skewed towards the first users, so user 0 has the longest history
+        int heaviestUser = dataset.userIds.get(0);
+        Date end = new Date(SyntheticDataGenerator.NOW);
+        Date start = new Date(SyntheticDataGenerator.NOW - TimeUnit.DAYS.toMillis(90));
+
+        report.add(measure("OrderRepository.getOrdersForUser", ITERATIONS,
+            liveData(i -> orders.getOrdersForUser(pick(random, dataset.userIds)))));
+        report.add(measure("OrderRepository.getOrdersForUser (heaviest user)", ITERATIONS,
+            liveData(i -> orders.getOrdersForUser(heaviestUser))));
+        report.add(measure("OrderRepository.getOrderById", ITERATIONS,
+            liveData(i -> orders.getOrderById(pick(random, dataset.orderIds)))));
+        report.add(measure("OrderRepository.getOrderItemsForOrder", ITERATIONS,
+            liveData(i -> orders.getOrderItemsForOrder(pick(random, dataset.orderIds)))));
+        report.add(measure("OrderRepository.getOrderCount", ITERATIONS,
+            (i, done) -> orders.getOrderCount(pick(random, dataset.userIds), count -> done.run())));
+        report.add(measure("OrderRepository.getOrdersInDateRange", ITERATIONS,
+            liveData(i -> orders.getOrdersInDateRange(pick(random, dataset.userIds), start, end))));
+        report.add(measure("OrderRepository.getTotalSpentByUser", ITERATIONS,
+            liveData(i -> orders.getTotalSpentByUser(pick(random, dataset.userIds)))));
+    }
+
+    // A full cart: the single JOIN against the @Relation query it replaced, and the cart screen reads
+    private void timeCart(ServiceLocator locator, Dataset dataset, LoadTestReport report) throws InterruptedException {
+        CosShopDatabase database = locator.getDatabase();
+        CartDao cartDao = database.cartDao();
+        InventoryService inventory = locator.getInventoryService();
+        // Generated stock can be zero, and the cart won't take products that are out of stock
+        for (int i = 0; i < CART_LINES; i++) {
+            inventory.adjustTo(dataset.productIds.get(i), 1_000, "loadtest");
+        }
+        database.runInTransaction(() -> {
+            cartDao.clearCart();
+            for (int i = 0; i < CART_LINES; i++) {
+                cartDao.addOrMergeQuantity(dataset.productIds.get(i), 1, 9.99, System.currentTimeMillis());
+            }
+        });
+
+        report.add(measure("CartDao.getCartLines, " + CART_LINES + " lines (JOIN)", ITERATIONS,
+            liveData(i -> cartDao.getCartLines())));
+        report.add(measure("CartDao.getCartItemsWithProducts, " + CART_LINES + " lines (@Relation)", ITERATIONS,
+            liveData(i -> cartDao.getCartItemsWithProducts())));
+
+        // The repository shares one stream per cart, so only the first read reaches the database
+        CartRepository cart = locator.getCartRepository();
+        report.add(measure("CartRepository.getCartLines", 1,
+            liveData(i -> cart.getCartLines(), lines -> lines != null && lines.size() == CART_LINES)));
+        report.add(measure("CartRepository.getCartSummary", 1,
+            liveData(i -> cart.getCartSummary(), summary -> summary != null && summary.getLineCount() == CART_LINES)));
+        report.add(measure("CartRepository.isProductInCart", ITERATIONS,
+            liveData(i -> cart.isProductInCart(dataset.productIds.get(i % CART_LINES)))));
+        report.add(measure("CartRepository.getQuantityForProduct", ITERATIONS,
+            liveData(i -> cart.getQuantityForProduct(dataset.productIds.get(i % CART_LINES)))));
+    }
+
+    // Concurrent writes
+
+    // Many threads adding the same product must end with one line holding every unit, capped at stock
+    private void runCartUpsertContention(ServiceLocator locator, Dataset dataset, LoadTestReport report)
+            throws InterruptedException {
+        CosShopDatabase database = locator.getDatabase();
+        CartDao cartDao = database.cartDao();
+        String productId = dataset.productIds.get(0);
+        int stock = 1_000;
+        locator.getInventoryService().adjustTo(productId, stock, "loadtest");
+        cartDao.clearCart();
+
+        int perThread = 25;
+        report.add(measureConcurrent("CartDao.addOrMergeQuantity, same product", THREADS, perThread,
+            (thread, op) -> cartDao.addOrMergeQuantity(productId, 1, 9.99, System.currentTimeMillis())));
+
+        List<CartLine> lines = cartDao.getCartLinesSync();
+        int expected = Math.min(THREADS * perThread, stock);
+        if (lines.size() != 1 || lines.get(0).getQuantity() != expected) {
+            report.fail(String.format(Locale.US, "cart upsert: expected 1 line with %d units, found %d lines%s",
+                expected, lines.size(), lines.isEmpty() ? "" : " with " + lines.get(0).getQuantity() + " units"));
+        }
+        cartDao.clearCart();
+    }
+
+    // Reservations on a few hot products from many threads while orders are placed
+    // for other products; stock must match what the threads still hold
+    private void runReservationsWithCheckout(ServiceLocator locator, Dataset dataset, Random random,
+                                             LoadTestReport report) throws InterruptedException {
+        InventoryService inventory = locator.getInventoryService();
+        List<String> hot = new ArrayList<>(dataset.productIds.subList(0, HOT_PRODUCTS));
+        List<String> checkoutProducts = new ArrayList<>(dataset.productIds.subList(HOT_PRODUCTS, HOT_PRODUCTS + 30));
+        for (String productId : hot) {
+            inventory.adjustTo(productId, HOT_STOCK, "loadtest");
+        }
+        for (String productId : checkoutProducts) {
+            inventory.adjustTo(productId, 10_000, "loadtest");
+        }
+
+        // Checkout alone first, then while the reservation threads run
+        int userId = dataset.userIds.get(0);
+        report.add(measureBlocking("CheckoutService.placeOrder, 3 lines", ITERATIONS,
+            i -> checkoutOnce(locator, checkoutProducts, userId, i, report)));
+
+        int perThread = 250;
+        int[][] held = new int[THREADS][HOT_PRODUCTS];
+        ExecutorService background = Executors.newSingleThreadExecutor();
+        Future<PathResult> reservations = background.submit(() ->
+            measureConcurrent("InventoryService.reserve/release, " + HOT_PRODUCTS + " hot products",
+                THREADS, perThread, (thread, op) -> {
+                    Random threadRandom = new Random(SEED + thread * 31L + op);
+                    int product = threadRandom.nextInt(HOT_PRODUCTS);
+                    int quantity = 1 + threadRandom.nextInt(3);
+                    if (held[thread][product] > 0 && threadRandom.nextInt(5) < 2) {
+                        int released = Math.min(quantity, held[thread][product]);
+                        if (inventory.release(hot.get(product), released, "loadtest")) {
+                            held[thread][product] -= released;
+                        }
+                    } else if (inventory.reserve(hot.get(product), quantity, "loadtest")) {
+                        held[thread][product] += quantity;
+                    }
+                }));
+        report.add(measureBlocking("CheckoutService.placeOrder, 3 lines, during reservations", ITERATIONS,
+            i -> checkoutOnce(locator, checkoutProducts, userId, i, report)));
+        try {
+            report.add(reservations.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } catch (Exception e) {
+            report.fail("reservation stress: " + e);
+            return;
+        } finally {
+            background.shutdown();
+        }
+
+        for (int product = 0; product < HOT_PRODUCTS; product++) {
+            int reserved = 0;
+            for (int thread = 0; thread < THREADS; thread++) {
+                reserved += held[thread][product];
+            }
+            Integer stock = locator.getDatabase().inventoryDao().getStockQuantity(hot.get(product));
+            if (stock == null || stock != HOT_STOCK - reserved) {
+                report.fail(String.format(Locale.US, "reservations: %s has stock %s, expected %d",
+                    hot.get(product), stock, HOT_STOCK - reserved));
+            }
+        }
+        List<String> mismatches = inventory.verifySnapshots();
+        if (!mismatches.isEmpty()) {
+            report.fail("ledger and stock snapshots disagree for " + mismatches);
+        }
+    }
+
+    // Checkout throughput with every thread filling the cart and placing orders at once.
+    // The cart is shared, so a checkout may buy lines another thread added, or find
+    // them already bought; every unit added must end up either sold or still in the cart
+    private void runConcurrentCheckouts(ServiceLocator locator, Dataset dataset, LoadTestReport report)
+            throws InterruptedException {
+        CosShopDatabase database = locator.getDatabase();
+        InventoryService inventory = locator.getInventoryService();
+        List<String> products = new ArrayList<>(
+            dataset.productIds.subList(HOT_PRODUCTS + 30, HOT_PRODUCTS + 30 + CHECKOUT_PRODUCTS));
+        for (String productId : products) {
+            inventory.adjustTo(productId, CHECKOUT_STOCK, "loadtest");
+        }
+        database.cartDao().clearCart();
+
+        int userId = dataset.userIds.get(0);
+        int perThread = 50;
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger emptyCart = new AtomicInteger();
+        report.add(measureConcurrent("Fill cart + CheckoutService.placeOrder, " + THREADS + " threads",
+            THREADS, perThread, (thread, op) -> {
+                database.runInTransaction(() -> {
+                    for (int line = 0; line < 3; line++) {
+                        String productId = products.get((thread * 7 + op * 3 + line) % products.size());
+                        database.cartDao().addOrMergeQuantity(productId, 1, 9.99, System.currentTimeMillis());
+                    }
+                });
+                CheckoutService.CheckoutResult result = locator.getCheckoutService().placeOrder(userId, 4.99, 0.08);
+                if (result.isPlaced()) {
+                    placed.incrementAndGet();
+                } else if (result.getStatus() == CheckoutService.CheckoutResult.Status.EMPTY_CART) {
+                    emptyCart.incrementAndGet();
+                } else {
+                    report.fail("concurrent checkout " + thread + "/" + op + ": " + result.getStatus());
+                }
+            }));
+        Log.i(TAG, String.format(Locale.US, "concurrent checkouts: %d placed, %d found the cart empty",
+            placed.get(), emptyCart.get()));
+
+        int sold = 0;
+        for (String productId : products) {
+            Integer stock = database.inventoryDao().getStockQuantity(productId);
+            sold += CHECKOUT_STOCK - (stock != null ? stock : 0);
+        }
+        int inCart = 0;
+        for (CartLine line : database.cartDao().getCartLinesSync()) {
+            inCart += line.getQuantity();
+        }
+        int added = THREADS * perThread * 3;
+        if (sold + inCart != added) {
+            report.fail(String.format(Locale.US, "concurrent checkouts: %d units added, %d sold, %d left in the cart",
+                added, sold, inCart));
+        }
+        if (!inventory.verifySnapshots().isEmpty()) {
+            report.fail("concurrent checkouts: ledger and stock snapshots disagree");
+        }
+        database.cartDao().clearCart();
+    }
+
+    private void checkoutOnce(ServiceLocator locator, List<String> products, int userId, int iteration,
+                              LoadTestReport report) {
+        CosShopDatabase database = locator.getDatabase();
+        database.runInTransaction(() -> {
+            for (int line = 0; line < 3; line++) {
+                String productId = products.get((iteration * 3 + line) % products.size());
+                database.cartDao().addOrMergeQuantity(productId, 1, 9.99, System.currentTimeMillis());
+            }
+        });
+        CheckoutService.CheckoutResult result = locator.getCheckoutService().placeOrder(userId, 4.99, 0.08);
+        if (!result.isPlaced()) {
+            report.fail("checkout " + iteration + ": " + result.getStatus());
+            database.cartDao().clearCart();
+        }
+    }
+
+    // Measurement
+
+    private interface Probe {
+        // Starts one read on the main thread; calls done when its result arrives
+        void start(int iteration, Runnable done);
+    }
+
+    private interface BlockingOp {
+        void run(int iteration) throws Exception;
+    }
+
+    private interface ConcurrentOp {
+        void run(int thread, int op) throws Exception;
+    }
+
+    private PathResult measure(String name, int iterations, Probe probe) throws InterruptedException {
+        long[] latencies = new long[iterations];
+        long wallStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            int iteration = i;
+            CountDownLatch latch = new CountDownLatch(1);
+            long start = System.nanoTime();
+            mainHandler.post(() -> probe.start(iteration, latch::countDown));
+            if (!latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException(name + " timed out");
+            }
+            latencies[i] = System.nanoTime() - start;
+        }
+        return new PathResult(name, latencies, System.nanoTime() - wallStart);
+    }
+
+    private PathResult measureBlocking(String name, int iterations, BlockingOp op) {
+        long[] latencies = new long[iterations];
+        long wallStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            try {
+                op.run(i);
+            } catch (Exception e) {
+                throw new IllegalStateException(name + " failed", e);
+            }
+            latencies[i] = System.nanoTime() - start;
+        }
+        return new PathResult(name, latencies, System.nanoTime() - wallStart);
+    }
+
+    // Every thread waits at the gate so they all start together
+    private PathResult measureConcurrent(String name, int threads, int opsPerThread, ConcurrentOp op)
+            throws InterruptedException {
+        long[] latencies = new long[threads * opsPerThread];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(threads);
+        List<Throwable> errors = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                try {
+                    gate.await();
+                    for (int i = 0; i < opsPerThread; i++) {
+                        long start = System.nanoTime();
+                        op.run(thread, i);
+                        latencies[thread * opsPerThread + i] = System.nanoTime() - start;
+                    }
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        long wallStart = System.nanoTime();
+        gate.countDown();
+        boolean done = finished.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        long wall = System.nanoTime() - wallStart;
+        pool.shutdownNow();
+        if (!done || !errors.isEmpty()) {
+            throw new IllegalStateException(name + (done ? " failed" : " timed out"),
+                errors.isEmpty() ? null : errors.get(0));
+        }
+        return new PathResult(name, latencies, wall);
+    }
+
+    private <T> Probe liveData(IntFunction<LiveData<T>> source) {
+        return liveData(source, value -> true);
+    }
+
+    // Observes a fresh LiveData from the repository until it emits an accepted value
+    private <T> Probe liveData(IntFunction<LiveData<T>> source, Predicate<T> accept) {
+        return (iteration, done) -> {
+            LiveData<T> liveData = source.apply(iteration);
+            liveData.observeForever(new Observer<T>() {
+                @Override
+                public void onChanged(T value) {
+                    if (!accept.test(value)) return;
+                    liveData.removeObserver(this);
+                    done.run();
+                }
+            });
+        };
+    }
+
+    private static <T> T pick(Random random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
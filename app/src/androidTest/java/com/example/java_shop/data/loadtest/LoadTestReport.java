@@ -0,0 +1,131 @@
+package com.example.java_shop.data.loadtest;
+
+import androidx.annotation.NonNull;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Latencies and throughput of every path timed at one {@link LoadTier}, plus the
+ * consistency checks of the concurrent scenarios.
+ */
+public class LoadTestReport {
+    private final LoadTier tier;
+    private final List<PathResult> results = new ArrayList<>();
+    private final List<String> failures = new ArrayList<>();
+    private int populatedRows;
+    private long populateNanos;
+
+    LoadTestReport(LoadTier tier) {
+        this.tier = tier;
+    }
+
+    void setPopulated(int rows, long nanos) {
+        populatedRows = rows;
+        populateNanos = nanos;
+    }
+
+    void add(PathResult result) {
+        results.add(result);
+    }
+
+    void fail(String failure) {
+        failures.add(failure);
+    }
+
+    public LoadTier getTier() {
+        return tier;
+    }
+
+    public List<PathResult> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    // Empty when every check passed
+    public List<String> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public void write(File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            writer.printf(Locale.US, "Load test %s: %d categories, %d products, %d users, %d orders%n",
+                tier, tier.categories, tier.products, tier.users, tier.orders);
+            writer.printf(Locale.US, "populate: %d rows in %.1f ms (%.0f rows/s)%n%n",
+                populatedRows, populateNanos / 1e6, populatedRows / (populateNanos / 1e9));
+
+            writer.printf(Locale.US, "%-56s %6s %9s %9s %9s %9s %10s%n",
+                "path", "n", "mean ms", "p50 ms", "p95 ms", "max ms", "ops/s");
+            for (PathResult result : results) {
+                writer.println(result);
+            }
+
+            writer.println();
+            if (failures.isEmpty()) {
+                writer.println("checks: all passed");
+            } else {
+                writer.printf(Locale.US, "checks: %d FAILED%n", failures.size());
+                for (String failure : failures) {
+                    writer.println("  " + failure);
+                }
+            }
+        }
+    }
+
+    public static class PathResult {
+        private final String name;
+        private final long[] sortedNanos;
+        private final long wallNanos;
+
+        PathResult(String name, long[] latencyNanos, long wallNanos) {
+            this.name = name;
+            this.sortedNanos = latencyNanos.clone();
+            Arrays.sort(this.sortedNanos);
+            this.wallNanos = wallNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return sortedNanos.length;
+        }
+
+        public double getMeanMillis() {
+            long total = 0;
+            for (long nanos : sortedNanos) {
+                total += nanos;
+            }
+            return sortedNanos.length == 0 ? 0 : total / 1e6 / sortedNanos.length;
+        }
+
+        public double getPercentileMillis(double percentile) {
+            if (sortedNanos.length == 0) return 0;
+            int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, Math.min(sortedNanos.length - 1, index))] / 1e6;
+        }
+
+        public double getMaxMillis() {
+            return sortedNanos.length == 0 ? 0 : sortedNanos[sortedNanos.length - 1] / 1e6;
+        }
+
+        // Operations per second of wall time, so concurrent runs count their overlap
+        public double getThroughput() {
+            return wallNanos == 0 ? 0 : sortedNanos.length / (wallNanos / 1e9);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-56s %6d %9.3f %9.3f %9.3f %9.3f %10.1f",
+                name, getCount(), getMeanMillis(), getPercentileMillis(0.50), getPercentileMillis(0.95),
+                getMaxMillis(), getThroughput());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.java_shop.data.loadtest;
+
+/**
+ * Data volumes the load test runs at. SMALL is about the shipped sample catalog
+ * grown tenfold; LARGE is the size the shop is expected to reach.
+ */
+public enum LoadTier {
+    SMALL(24, 1_000, 200, 1_000),
+    MEDIUM(80, 10_000, 2_000, 10_000),
+    LARGE(200, 100_000, 10_000, 50_000);
+
+    public final int categories;
+    public final int products;
+    public final int users;
+    public final int orders;
+
+    LoadTier(int categories, int products, int users, int orders) {
+        this.categories = categories;
+        this.products = products;
+        this.users = users;
+        this.orders = orders;
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.java_shop.data.loadtest;
+
+import android.content.Context;
+import android.database.AbstractWindowedCursor;
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import com.example.java_shop.data.ServiceLocator;
+import com.example.java_shop.data.database.CartDao;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.models.ProductSummary;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Loads one large category with every product column and with the ProductSummary
+ * columns the list queries select, and compares cursor window fills, rows per
+ * window, heap retained by the loaded rows, and load time. {@link #runCart} does
+ * the same for a full cart, read as {@link CartDao#CART_LINES} and as the two
+ * statements behind the @Relation of {@link CartDao#getCartItemsWithProducts}.
+ *
+ * Rows are kept as arrays of their column values, which is what the entity and the
+ * projection hold apart from object headers. Replaces the {@link ServiceLocator}
+ * graph while it runs; run it from an instrumentation test.
+ */
+public class ProjectionBenchmark {
+    private static final long SEED = 20_250_101L;
+    private static final int ROUNDS = 3;
+
+    // The query behind ProductDao.getProductsByCategory, before and after the projection
+    private static final String FULL_ROWS =
+        "SELECT * FROM products WHERE categoryId = ?";
+    private static final String SUMMARY_ROWS =
+        "SELECT " + ProductSummary.COLUMNS + " FROM products WHERE categoryId = ?";
+    // What Room runs for CartItemWithProduct: the cart, then its products by id
+    private static final String CART_ITEMS = "SELECT * FROM cart_items";
+    private static final String CART_PRODUCTS = "SELECT * FROM products WHERE id IN (";
+
+    private final Context context;
+
+    public ProjectionBenchmark(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * Runs both loads over a category of {@code rows} products and writes
+     * projection-&lt;rows&gt;.txt to {@code outputDir}.
+     */
+    @WorkerThread
+    public Comparison run(File outputDir, int rows) throws IOException {
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Can't create " + outputDir);
+        }
+        try {
+            ServiceLocator locator = ServiceLocator.installInMemory(context);
+            CosShopDatabase database = locator.getDatabase();
+            String categoryId = new SyntheticDataGenerator(SEED).populateCategory(database, rows);
+
+            Comparison comparison = new Comparison("Category of " + rows + " products", rows,
+                measure(database, "SELECT *", new SimpleSQLiteQuery(FULL_ROWS, new Object[]{categoryId})),
+                measure(database, "ProductSummary", new SimpleSQLiteQuery(SUMMARY_ROWS, new Object[]{categoryId})));
+            comparison.write(new File(outputDir, "projection-" + rows + ".txt"));
+            return comparison;
+        } finally {
+            ServiceLocator.reset();
+        }
+    }
+
+    /**
+     * Fills the cart with {@code lines} products, loads it both ways and writes
+     * cart-&lt;lines&gt;.txt to {@code outputDir}. Rows are counted over every
+     * statement of a load.
+     */
+    @WorkerThread
+    public Comparison runCart(File outputDir, int lines) throws IOException {
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Can't create " + outputDir);
+        }
+        try {
+            ServiceLocator locator = ServiceLocator.installInMemory(context);
+            CosShopDatabase database = locator.getDatabase();
+            String categoryId = new SyntheticDataGenerator(SEED).populateCategory(database, lines);
+            List<String> productIds = fillCart(locator, categoryId);
+
+            StringBuilder productsById = new StringBuilder(CART_PRODUCTS);
+            for (int i = 0; i < productIds.size(); i++) {
+                productsById.append(i == 0 ? "?" : ", ?");
+            }
+            productsById.append(")");
+            Comparison comparison = new Comparison("Cart of " + lines + " lines", lines,
+                measure(database, "@Relation", new SimpleSQLiteQuery(CART_ITEMS),
+                    new SimpleSQLiteQuery(productsById.toString(), productIds.toArray())),
+                measure(database, "JOIN", new SimpleSQLiteQuery(CartDao.CART_LINES)));
+            comparison.write(new File(outputDir, "cart-" + lines + ".txt"));
+            return comparison;
+        } finally {
+            ServiceLocator.reset();
+        }
+    }
+
+    // One line of each product in the category; generated stock can be zero, and the
+    // cart won't take products that are out of stock
+    private static List<String> fillCart(ServiceLocator locator, String categoryId) {
+        CosShopDatabase database = locator.getDatabase();
+        List<String> productIds = new ArrayList<>();
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery(
+                "SELECT id FROM products WHERE categoryId = ?", new Object[]{categoryId}))) {
+            while (cursor.moveToNext()) {
+                productIds.add(cursor.getString(0));
+            }
+        }
+        for (String productId : productIds) {
+            locator.getInventoryService().adjustTo(productId, 1_000, "benchmark");
+        }
+        database.runInTransaction(() -> {
+            for (String productId : productIds) {
+                database.cartDao().addOrMergeQuantity(productId, 1, 9.99, System.currentTimeMillis());
+            }
+        });
+        return productIds;
+    }
+
+    // Best of a few rounds; the first one also warms the page cache
+    private static Load measure(CosShopDatabase database, String name, SupportSQLiteQuery... queries) {
+        Load best = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            Load load = load(database, name, queries);
+            if (best == null || load.nanos < best.nanos) {
+                best = load;
+            }
+        }
+        return best;
+    }
+
+    private static Load load(CosShopDatabase database, String name, SupportSQLiteQuery... queries) {
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        List<Object[]> rows = new ArrayList<>();
+        int windowFills = 0;
+        int maxRowsPerWindow = 0;
+        for (SupportSQLiteQuery query : queries) {
+            int lastWindowStart = -1;
+            try (Cursor cursor = database.query(query)) {
+                AbstractWindowedCursor windowed = windowed(cursor);
+                int columns = cursor.getColumnCount();
+                while (cursor.moveToNext()) {
+                    // A new start position means the window was filled again
+                    if (windowed != null && windowed.getWindow() != null
+                            && windowed.getWindow().getStartPosition() != lastWindowStart) {
+                        lastWindowStart = windowed.getWindow().getStartPosition();
+                        windowFills++;
+                        maxRowsPerWindow = Math.max(maxRowsPerWindow, windowed.getWindow().getNumRows());
+                    }
+                    rows.add(read(cursor, columns));
+                }
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        long retained = usedHeap() - heapBefore;
+        return new Load(name, rows.size(), windowFills, maxRowsPerWindow, retained, nanos);
+    }
+
+    private static Object[] read(Cursor cursor, int columns) {
+        Object[] row = new Object[columns];
+        for (int column = 0; column < columns; column++) {
+            switch (cursor.getType(column)) {
+                case Cursor.FIELD_TYPE_INTEGER:
+                    row[column] = cursor.getLong(column);
+                    break;
+                case Cursor.FIELD_TYPE_FLOAT:
+                    row[column] = cursor.getDouble(column);
+                    break;
+                case Cursor.FIELD_TYPE_STRING:
+                    row[column] = cursor.getString(column);
+                    break;
+                case Cursor.FIELD_TYPE_BLOB:
+                    row[column] = cursor.getBlob(column);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return row;
+    }
+
+    // QueryStats wraps the framework cursor; the window belongs to the one inside
+    private static AbstractWindowedCursor windowed(Cursor cursor) {
+        while (cursor instanceof CursorWrapper) {
+            cursor = ((CursorWrapper) cursor).getWrappedCursor();
+        }
+        return cursor instanceof AbstractWindowedCursor ? (AbstractWindowedCursor) cursor : null;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            runtime.gc();
+            runtime.runFinalization();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * One load: the rows it returned, how often the cursor windows were filled, and
+     * the heap still held by the loaded rows afterwards.
+     */
+    public static class Load {
+        public final String name;
+        public final int rows;
+        public final int windowFills;
+        public final int maxRowsPerWindow;
+        public final long retainedBytes;
+        public final long nanos;
+
+        Load(String name, int rows, int windowFills, int maxRowsPerWindow, long retainedBytes, long nanos) {
+            this.name = name;
+            this.rows = rows;
+            this.windowFills = windowFills;
+            this.maxRowsPerWindow = maxRowsPerWindow;
+            this.retainedBytes = retainedBytes;
+            this.nanos = nanos;
+        }
+    }
+
+    // Full rows against the narrower columns that replace them
+    public static class Comparison {
+        public final String title;
+        public final int rows;
+        public final Load fullRows;
+        public final Load summaries;
+
+        Comparison(String title, int rows, Load fullRows, Load summaries) {
+            this.title = title;
+            this.rows = rows;
+            this.fullRows = fullRows;
+            this.summaries = summaries;
+        }
+
+        void write(File file) throws IOException {
+            try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+                writer.printf(Locale.US, "%s, best of %d loads%n%n", title, ROUNDS);
+                writer.printf(Locale.US, "%-16s %8s %8s %12s %14s %10s%n",
+                    "columns", "rows", "fills", "rows/window", "retained KiB", "ms");
+                for (Load load : new Load[]{fullRows, summaries}) {
+                    writer.printf(Locale.US, "%-16s %8d %8d %12d %14.1f %10.1f%n", load.name, load.rows,
+                        load.windowFills, load.maxRowsPerWindow, load.retainedBytes / 1024.0, load.nanos / 1e6);
+                }
+                writer.printf(Locale.US, "%nwindow fills: %.1fx fewer, retained heap: %.1fx less%n",
+                    ratio(fullRows.windowFills, summaries.windowFills),
+                    ratio(fullRows.retainedBytes, summaries.retainedBytes));
+            }
+        }
+
+        private static double ratio(long full, long summary) {
+            return summary > 0 ? (double) full / summary : 0;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.java_shop.data.loadtest;
+
+import android.content.Context;
+import android.database.Cursor;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import com.example.java_shop.data.ServiceLocator;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.models.ProductSummary;
+import com.example.java_shop.utils.FtsSearchHelper;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs the product search both ways over a synthetic catalog: the LIKE scan the
+ * search used to run, and the products_fts MATCH query with bm25 ranking that
+ * replaced it. Reports the median time and the number of matches for a few typical
+ * searches, including one that matches nothing.
+ *
+ * Replaces the {@link ServiceLocator} graph while it runs; run it from an
+ * instrumentation test.
+ */
+public class SearchBenchmark {
+    private static final long SEED = 20_250_101L;
+    private static final int ROUNDS = 5;
+    // A rare ingredient, a common word, a two-word name and a miss
+    static final String[] SEARCHES = {"niacinamide", "rose", "matte lipstick", "waterproof mascara", "zzyzx"};
+
+    // The queries behind ProductDao.searchProducts and ProductDao.searchProductsFts
+    private static final String LIKE_SEARCH =
+        "SELECT " + ProductSummary.COLUMNS + " FROM products "
+            + "WHERE isDeleted = 0 AND (name LIKE ? OR description LIKE ?)";
+    private static final String FTS_SEARCH =
+        "SELECT " + ProductSummary.COLUMNS + ", matchinfo(products_fts, 'pcnalx') AS matchInfo "
+            + "FROM products JOIN products_fts ON products.rowid = products_fts.rowid "
+            + "WHERE products_fts MATCH ? AND products.isDeleted = 0";
+
+    private final Context context;
+
+    public SearchBenchmark(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * Searches a catalog of {@code products} products both ways and writes
+     * search-&lt;products&gt;.txt to {@code outputDir}.
+     */
+    @WorkerThread
+    public List<Search> run(File outputDir, int products) throws IOException {
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Can't create " + outputDir);
+        }
+        try {
+            ServiceLocator locator = ServiceLocator.installInMemory(context);
+            CosShopDatabase database = locator.getDatabase();
+            new SyntheticDataGenerator(SEED).populateCategory(database, products);
+
+            List<Search> searches = new ArrayList<>();
+            for (String text : SEARCHES) {
+                String pattern = "%" + text + "%";
+                Run like = measure(() -> like(database, pattern));
+                Run fts = measure(() -> fts(database, FtsSearchHelper.toPrefixMatchQuery(text)));
+                searches.add(new Search(text, like, fts));
+            }
+            write(new File(outputDir, "search-" + products + ".txt"), products, searches);
+            return searches;
+        } finally {
+            ServiceLocator.reset();
+        }
+    }
+
+    private interface Query {
+        int run();
+    }
+
+    // Median of a few rounds after one warm-up run
+    private static Run measure(Query query) {
+        int rows = query.run();
+        long[] nanos = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            query.run();
+            nanos[round] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return new Run(rows, nanos[ROUNDS / 2]);
+    }
+
+    private static int like(CosShopDatabase database, String pattern) {
+        int rows = 0;
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery(LIKE_SEARCH, new Object[]{pattern, pattern}))) {
+            int id = cursor.getColumnIndexOrThrow("id");
+            while (cursor.moveToNext()) {
+                cursor.getString(id);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    // Includes scoring and ordering the matches, as FtsSearchHelper.rankByBm25 does
+    private static int fts(CosShopDatabase database, String matchQuery) {
+        List<Double> scores = new ArrayList<>();
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery(FTS_SEARCH, new Object[]{matchQuery}))) {
+            int id = cursor.getColumnIndexOrThrow("id");
+            int matchInfo = cursor.getColumnIndexOrThrow("matchInfo");
+            while (cursor.moveToNext()) {
+                cursor.getString(id);
+                scores.add(FtsSearchHelper.bm25(cursor.getBlob(matchInfo)));
+            }
+        }
+        scores.sort(null);
+        return scores.size();
+    }
+
+    private static void write(File file, int products, List<Search> searches) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            writer.printf(Locale.US, "Search over %d products, median of %d runs%n%n", products, ROUNDS);
+            writer.printf(Locale.US, "%-20s %10s %10s %10s %10s %8s%n",
+                "search", "LIKE rows", "LIKE ms", "FTS rows", "FTS ms", "speedup");
+            for (Search search : searches) {
+                writer.printf(Locale.US, "%-20s %10d %10.2f %10d %10.2f %7.1fx%n", search.text,
+                    search.like.rows, search.like.nanos / 1e6, search.fts.rows, search.fts.nanos / 1e6,
+                    search.fts.nanos > 0 ? (double) search.like.nanos / search.fts.nanos : 0);
+            }
+            // LIKE matches substrings anywhere in the phrase; FTS matches word prefixes
+            writer.printf(Locale.US, "%nRow counts differ where a LIKE substring and an FTS prefix disagree%n");
+        }
+    }
+
+    public static class Run {
+        public final int rows;
+        public final long nanos;
+
+        Run(int rows, long nanos) {
+            this.rows = rows;
+            this.nanos = nanos;
+        }
+    }
+
+    public static class Search {
+        public final String text;
+        public final Run like;
+        public final Run fts;
+
+        Search(String text, Run like, Run fts) {
+            this.text = text;
+            this.like = like;
+            this.fts = fts;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.java_shop.data.loadtest;
+
+import androidx.annotation.WorkerThread;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.models.Address;
+import com.example.java_shop.data.models.Category;
+import com.example.java_shop.data.models.Order;
+import com.example.java_shop.data.models.OrderItem;
+import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.User;
+import com.example.java_shop.utils.PasswordHasher;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Fills a database with a deterministic synthetic shop: nested categories, products
+ * with searchable text, users with addresses, and orders with items. The same tier
+ * and seed always produce the same rows, so load test runs can be compared.
+ */
+public class SyntheticDataGenerator {
+    private static final int BATCH_SIZE = 1_000;
+    // Fixed clock so order dates and offers don't depend on when the generator runs
+    static final long NOW = 1_760_000_000_000L;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private static final String[] BRANDS = {"Lumi", "Aurora", "Velvet", "Nova", "Petal", "Ember", "Sable",
+        "Iris", "Solene", "Maris", "Opaline", "Thistle"};
+    private static final String[] KINDS = {"Lipstick", "Lip Gloss", "Mascara", "Foundation", "Serum", "Blush",
+        "Eyeliner", "Moisturizer", "Cleanser", "Primer", "Highlighter", "Toner", "Concealer", "Bronzer",
+        "Eyeshadow Palette", "Face Mask", "Night Cream", "Sunscreen"};
+    private static final String[] ADJECTIVES = {"Matte", "Hydrating", "Long-Wear", "Waterproof", "Radiant",
+        "Velvet", "Sheer", "Volumizing", "Brightening", "Soothing", "Gentle", "Luminous", "Weightless"};
+    private static final String[] SHADES = {"Rose", "Nude", "Coral", "Berry", "Ivory", "Sand", "Honey",
+        "Mocha", "Plum", "Peach", "Crimson", "Espresso"};
+    private static final String[] INGREDIENTS = {"hyaluronic acid", "vitamin C", "niacinamide", "shea butter",
+        "jojoba oil", "squalane", "ceramides", "green tea extract", "retinol", "aloe vera", "rosehip oil"};
+    private static final String[] BENEFITS = {"all-day hydration", "a smooth finish", "visible radiance",
+        "sensitive skin", "buildable coverage", "a natural glow", "oil control", "lasting color"};
+    private static final String[] SKIN_TYPES = {"dry", "oily", "combination", "normal", "sensitive"};
+    private static final String[] CATEGORY_WORDS = {"Lips", "Eyes", "Face", "Skincare", "Body", "Hair",
+        "Nails", "Fragrance", "Tools", "Minis", "Gifts", "Men", "Sun Care", "Bath"};
+    private static final String[] FIRST_NAMES = {"Amara", "Jun", "Lena", "Omar", "Priya", "Mateo", "Sofia",
+        "Kai", "Noor", "Elena", "Ravi", "Maya", "Tariq", "Ines", "Yuki", "Zara"};
+    private static final String[] LAST_NAMES = {"Okafor", "Chen", "Novak", "Haddad", "Iyer", "Garcia",
+        "Rossi", "Tanaka", "Khan", "Petrov", "Silva", "Moreau", "Kim", "Dubois"};
+    private static final String[] CITIES = {"Springfield", "Riverton", "Lakeside", "Fairview", "Maplewood"};
+    private static final String[] STATES = {"CA", "NY", "TX", "WA", "IL", "FL"};
+    private static final String[] STATUSES = {"PENDING", "CONFIRMED", "SHIPPED", "DELIVERED", "CANCELLED"};
+
+    private final long seed;
+
+    public SyntheticDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Inserts the rows of {@code tier} into an empty database, in batched transactions.
+     */
+    @WorkerThread
+    public Dataset populate(CosShopDatabase database, LoadTier tier) {
+        Random random = new Random(seed);
+        Dataset dataset = new Dataset(tier);
+
+        List<Category> categories = categories(random, tier.categories);
+        database.categoryDao().insertAll(categories);
+        for (Category category : categories) {
+            dataset.categoryIds.add(category.getId());
+        }
+
+        List<Product> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < tier.products; i++) {
+            Product product = product(random, i, categories);
+            batch.add(product);
+            dataset.productIds.add(product.getId());
+            if (batch.size() == BATCH_SIZE || i == tier.products - 1) {
+                List<Product> rows = batch;
+                database.runInTransaction(() -> database.productDao().insertAll(rows));
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        insertOpeningBalances(database);
+
+        database.runInTransaction(() -> {
+            for (int i = 0; i < tier.users; i++) {
+                User user = user(i);
+                int userId = (int) database.userDao().insert(user);
+                dataset.userIds.add(userId);
+                dataset.emails.add(user.getEmail());
+                int addressCount = 1 + random.nextInt(2);
+                for (int a = 0; a < addressCount; a++) {
+                    database.addressDao().insert(address(random, userId, a == 0));
+                }
+            }
+        });
+
+        for (int batchStart = 0; batchStart < tier.orders; batchStart += BATCH_SIZE) {
+            int start = batchStart;
+            int end = Math.min(tier.orders, start + BATCH_SIZE);
+            database.runInTransaction(() -> {
+                for (int i = start; i < end; i++) {
+                    dataset.orderIds.add(order(database, random, dataset));
+                }
+            });
+        }
+        return dataset;
+    }
+
+    /**
+     * Inserts one category holding {@code products} products and returns its id.
+     */
+    @WorkerThread
+    public String populateCategory(CosShopDatabase database, int products) {
+        Random random = new Random(seed);
+        Category category = new Category("c-single", "Face", "All face products",
+            "https://cdn.example.com/categories/face.png", 0, true, null);
+        database.categoryDao().insertAll(Collections.singletonList(category));
+        List<Category> categories = Collections.singletonList(category);
+
+        for (int batchStart = 0; batchStart < products; batchStart += BATCH_SIZE) {
+            List<Product> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = batchStart; i < Math.min(products, batchStart + BATCH_SIZE); i++) {
+                batch.add(product(random, i, categories));
+            }
+            database.runInTransaction(() -> database.productDao().insertAll(batch));
+        }
+        insertOpeningBalances(database);
+        return category.getId();
+    }
+
+    // About an eighth of the categories are roots; the rest hang under a root or
+    // a second level category, giving up to three levels
+    private static List<Category> categories(Random random, int count) {
+        int roots = Math.max(4, count / 8);
+        List<Category> categories = new ArrayList<>(count);
+        List<Category> parents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Category parent = i < roots ? null : parents.get(random.nextInt(parents.size()));
+            String word = CATEGORY_WORDS[i % CATEGORY_WORDS.length];
+            String name = parent == null ? word : ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + word;
+            // A few subcategories are switched off, as in a real catalog
+            boolean active = parent == null || random.nextInt(20) != 0;
+            Category category = new Category(String.format(Locale.US, "c%04d", i), name,
+                "All " + name.toLowerCase(Locale.US), "https://cdn.example.com/categories/" + i + ".png",
+                i, active, parent != null ? parent.getId() : null);
+            categories.add(category);
+            if (parent == null || parent.getParentCategoryId() == null) {
+                parents.add(category);
+            }
+        }
+        return categories;
+    }
+
+    private static Product product(Random random, int index, List<Category> categories) {
+        String brand = pick(random, BRANDS);
+        String kind = pick(random, KINDS);
+        String adjective = pick(random, ADJECTIVES);
+        String ingredient = pick(random, INGREDIENTS);
+        String name = brand + " " + adjective + " " + kind + " " + pick(random, SHADES);
+        String description = adjective + " " + kind.toLowerCase(Locale.US) + " with " + ingredient
+            + " for " + pick(random, BENEFITS) + ". Made with " + pick(random, INGREDIENTS)
+            + " and suited to " + pick(random, SKIN_TYPES) + " skin.";
+        String specifications = "Brand: " + brand + "; Size: " + (5 + random.nextInt(20) * 5) + "ml"
+            + "; Skin type: " + pick(random, SKIN_TYPES) + "; Key ingredient: " + ingredient;
+        double price = Math.round((4.99 + random.nextDouble() * 120) * 100) / 100.0;
+
+        Product product = new Product(String.format(Locale.US, "p%07d", index), name, description,
+            "https://cdn.example.com/products/" + index + ".jpg", price, random.nextInt(200),
+            categories.get(random.nextInt(categories.size())).getId());
+        product.setSpecifications(specifications);
+        product.setRating(Math.round(random.nextDouble() * 50) / 10.0);
+        product.setReviewCount(random.nextInt(5_000));
+        product.setFeatured(random.nextInt(50) == 0);
+        product.setLastModified(NOW);
+        // About a fifth of the catalog is on offer
+        if (random.nextInt(5) == 0) {
+            double discount = 5 + random.nextInt(11) * 5;
+            product.setDiscountPercentage(discount);
+            product.setOriginalPrice(Math.round(price / (1 - discount / 100) * 100) / 100.0);
+            product.setOfferValidUntilTimestamp(NOW + (1 + random.nextInt(60)) * DAY_MILLIS);
+        }
+        return product;
+    }
+
+    private static User user(int index) {
+        String first = FIRST_NAMES[index % FIRST_NAMES.length];
+        String last = LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length];
+        return new User(first + " " + last,
+            (first + "." + last + "." + index + "@example.com").toLowerCase(Locale.US),
+            String.format(Locale.US, "555-%07d", index), "", passwordHash(index));
+    }
+
+    // Every synthetic user's password is "password<index>"
+    static String passwordHash(int userIndex) {
+        try {
+            return PasswordHasher.sha256Hex("password" + userIndex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Address address(Random random, int userId, boolean isDefault) {
+        return new Address(userId, (1 + random.nextInt(9_999)) + " " + pick(random, LAST_NAMES) + " St",
+            pick(random, CITIES), pick(random, STATES), String.format(Locale.US, "%05d", random.nextInt(100_000)),
+            isDefault);
+    }
+
+    private static int order(CosShopDatabase database, Random random, Dataset dataset) {
+        // Squaring skews orders towards a small group of frequent customers
+        double skew = random.nextDouble();
+        int userId = dataset.userIds.get((int) (skew * skew * dataset.userIds.size()));
+        int itemCount = 1 + random.nextInt(5);
+        List<OrderItem> items = new ArrayList<>(itemCount);
+        double total = 0;
+        for (int i = 0; i < itemCount; i++) {
+            int quantity = 1 + random.nextInt(3);
+            double price = Math.round((4.99 + random.nextDouble() * 120) * 100) / 100.0;
+            items.add(new OrderItem(0, dataset.productIds.get(random.nextInt(dataset.productIds.size())),
+                quantity, price));
+            total += quantity * price;
+        }
+        Date orderDate = new Date(NOW - random.nextInt(730) * DAY_MILLIS - random.nextInt((int) DAY_MILLIS));
+        Order order = new Order(userId, orderDate, pick(random, STATUSES), total);
+        return (int) database.orderDao().createOrderWithItems(order, items);
+    }
+
+    // Opening adjustment for every product, so the generated shop starts with a consistent ledger
+    private static void insertOpeningBalances(CosShopDatabase database) {
+        database.getOpenHelper().getWritableDatabase().execSQL(
+            "INSERT INTO stock_movements (productId, type, delta, balanceAfter, reference, createdAt) "
+                + "SELECT id, 'ADJUSTMENT', stockQuantity, stockQuantity, 'seed', 0 FROM products");
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Keys of the generated rows, for picking realistic query arguments.
+     */
+    public static class Dataset {
+        public final LoadTier tier;
+        public final List<String> categoryIds = new ArrayList<>();
+        public final List<String> productIds = new ArrayList<>();
+        public final List<Integer> userIds = new ArrayList<>();
+        public final List<String> emails = new ArrayList<>();
+        public final List<Integer> orderIds = new ArrayList<>();
+
+        Dataset(LoadTier tier) {
+            this.tier = tier;
+        }
+
+        public int getRowCount() {
+            return categoryIds.size() + productIds.size() + userIds.size() + orderIds.size();
+        }
+    }
+}
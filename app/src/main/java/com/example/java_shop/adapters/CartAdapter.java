@@ -11,12 +11,12 @@ import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.java_shop.R;
-import com.example.java_shop.data.models.CartItemWithProduct;
+import com.example.java_shop.data.models.CartLine;
 import com.example.java_shop.utils.ImageLoader;
 import java.text.NumberFormat;
 import java.util.Locale;
 
-public class CartAdapter extends ListAdapter<CartItemWithProduct, CartAdapter.CartItemViewHolder> {
+public class CartAdapter extends ListAdapter<CartLine, CartAdapter.CartItemViewHolder> {
 
     private final CartActionListener listener;
     private final NumberFormat currencyFormat;
@@ -37,7 +37,7 @@ public class CartAdapter extends ListAdapter<CartItemWithProduct, CartAdapter.Ca
 
     @Override
     public void onBindViewHolder(@NonNull CartItemViewHolder holder, int position) {
-        CartItemWithProduct item = getItem(position);
+        CartLine item = getItem(position);
         holder.bind(item, listener, currencyFormat);
     }
 
@@ -63,14 +63,14 @@ public class CartAdapter extends ListAdapter<CartItemWithProduct, CartAdapter.Ca
             totalPrice = itemView.findViewById(R.id.total_price);
         }
 
-        void bind(CartItemWithProduct item, CartActionListener listener, NumberFormat currencyFormat) {
-            productName.setText(item.getProduct().getName());
-            productPrice.setText(currencyFormat.format(item.getProduct().getPrice()));
+        void bind(CartLine item, CartActionListener listener, NumberFormat currencyFormat) {
+            productName.setText(item.getName());
+            productPrice.setText(currencyFormat.format(item.getPrice()));
             quantity.setText(String.valueOf(item.getQuantity()));
             totalPrice.setText(currencyFormat.format(item.getTotalPrice()));
 
             // Load product image
-            ImageLoader.loadImage(productImage, item.getProduct().getImageUrl());
+            ImageLoader.loadImage(productImage, item.getImageUrl());
 
             // Set click listeners
             decreaseButton.setOnClickListener(v -> {
@@ -99,28 +99,26 @@ public class CartAdapter extends ListAdapter<CartItemWithProduct, CartAdapter.Ca
 
             // Update button states
             decreaseButton.setEnabled(item.getQuantity() > 1);
-            increaseButton.setEnabled(item.getQuantity() < item.getProduct().getStockQuantity());
+            increaseButton.setEnabled(item.getQuantity() < item.getStockQuantity());
         }
     }
 
     public interface CartActionListener {
-        void onItemClick(CartItemWithProduct item);
-        void onIncreaseQuantity(CartItemWithProduct item);
-        void onDecreaseQuantity(CartItemWithProduct item);
-        void onRemoveItem(CartItemWithProduct item);
+        void onItemClick(CartLine item);
+        void onIncreaseQuantity(CartLine item);
+        void onDecreaseQuantity(CartLine item);
+        void onRemoveItem(CartLine item);
     }
 
-    static class CartItemDiffCallback extends DiffUtil.ItemCallback<CartItemWithProduct> {
+    static class CartItemDiffCallback extends DiffUtil.ItemCallback<CartLine> {
         @Override
-        public boolean areItemsTheSame(@NonNull CartItemWithProduct oldItem, @NonNull CartItemWithProduct newItem) {
+        public boolean areItemsTheSame(@NonNull CartLine oldItem, @NonNull CartLine newItem) {
             return oldItem.getId() == newItem.getId();
         }
 
         @Override
-        public boolean areContentsTheSame(@NonNull CartItemWithProduct oldItem, @NonNull CartItemWithProduct newItem) {
-            return oldItem.getProductId().equals(newItem.getProductId()) &&
-                   oldItem.getQuantity() == newItem.getQuantity() &&
-                   oldItem.getPrice() == newItem.getPrice();
+        public boolean areContentsTheSame(@NonNull CartLine oldItem, @NonNull CartLine newItem) {
+            return ItemContents.sameCartLine(oldItem, newItem);
         }
     }
 }
\ No newline at end of file
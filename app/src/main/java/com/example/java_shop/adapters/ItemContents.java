@@ -0,0 +1,32 @@
+package com.example.java_shop.adapters;
+
+import com.example.java_shop.data.models.CartLine;
+import com.example.java_shop.data.models.ProductSummary;
+import java.util.Objects;
+
+/**
+ * Content checks behind the adapters' DiffUtil callbacks, kept free of Android
+ * classes so the benchmarks module can run them on the JVM.
+ */
+public final class ItemContents {
+
+    private ItemContents() {
+    }
+
+    // Fields shown on a product card
+    public static boolean sameProductCard(ProductSummary oldItem, ProductSummary newItem) {
+        return oldItem.getName().equals(newItem.getName()) &&
+               oldItem.getPrice() == newItem.getPrice() &&
+               oldItem.getRating() == newItem.getRating() &&
+               oldItem.isInStock() == newItem.isInStock() &&
+               Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl());
+    }
+
+    // Fields shown on a cart row
+    public static boolean sameCartLine(CartLine oldItem, CartLine newItem) {
+        return oldItem.getProductId().equals(newItem.getProductId()) &&
+               oldItem.getQuantity() == newItem.getQuantity() &&
+               oldItem.getPrice() == newItem.getPrice() &&
+               oldItem.getStockQuantity() == newItem.getStockQuantity();
+    }
+}
@@ -13,12 +13,12 @@ import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.button.MaterialButton;
 import com.example.java_shop.R;
-import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.ProductSummary;
 import com.example.java_shop.utils.ImageLoader;
 import java.text.NumberFormat;
 import java.util.Locale;
 
-public class ProductGridAdapter extends ListAdapter<Product, ProductGridAdapter.ProductViewHolder> {
+public class ProductGridAdapter extends ListAdapter<ProductSummary, ProductGridAdapter.ProductViewHolder> {
 
     private final OnProductActionListener listener;
     private final NumberFormat currencyFormat;
@@ -39,7 +39,7 @@ public class ProductGridAdapter extends ListAdapter<Product, ProductGridAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull ProductViewHolder holder, int position) {
-        Product product = getItem(position);
+        ProductSummary product = getItem(position);
         holder.bind(product, listener, currencyFormat);
     }
 
@@ -61,7 +61,7 @@ public class ProductGridAdapter extends ListAdapter<Product, ProductGridAdapter.
             stockStatus = itemView.findViewById(R.id.stock_status);
         }
 
-        void bind(Product product, OnProductActionListener listener, NumberFormat currencyFormat) {
+        void bind(ProductSummary product, OnProductActionListener listener, NumberFormat currencyFormat) {
             productName.setText(product.getName());
             productPrice.setText(currencyFormat.format(product.getPrice()));
             ratingBar.setRating((float) product.getRating());
@@ -70,7 +70,7 @@ public class ProductGridAdapter extends ListAdapter<Product, ProductGridAdapter.
             ImageLoader.loadImage(productImage, product.getImageUrl());
 
             // Set stock status
-            boolean inStock = product.getStockQuantity() > 0;
+            boolean inStock = product.isInStock();
             stockStatus.setText(inStock ? "In Stock" : "Out of Stock");
             stockStatus.setTextColor(inStock ? 
                 Color.parseColor("#4CAF50") : // Green
@@ -96,23 +96,19 @@ public class ProductGridAdapter extends ListAdapter<Product, ProductGridAdapter.
     }
 
     public interface OnProductActionListener {
-        void onProductClick(Product product);
-        void onAddToCartClick(Product product);
+        void onProductClick(ProductSummary product);
+        void onAddToCartClick(ProductSummary product);
     }
 
-    static class ProductDiffCallback extends DiffUtil.ItemCallback<Product> {
+    static class ProductDiffCallback extends DiffUtil.ItemCallback<ProductSummary> {
         @Override
-        public boolean areItemsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+        public boolean areItemsTheSame(@NonNull ProductSummary oldItem, @NonNull ProductSummary newItem) {
             return oldItem.getId().equals(newItem.getId());
         }
 
         @Override
-        public boolean areContentsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
-            return oldItem.getName().equals(newItem.getName()) &&
-                   oldItem.getPrice() == newItem.getPrice() &&
-                   oldItem.getRating() == newItem.getRating() &&
-                   oldItem.getStockQuantity() == newItem.getStockQuantity() &&
-                   oldItem.getImageUrl().equals(newItem.getImageUrl());
+        public boolean areContentsTheSame(@NonNull ProductSummary oldItem, @NonNull ProductSummary newItem) {
+            return ItemContents.sameProductCard(oldItem, newItem);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.example.java_shop.adapters;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import com.example.java_shop.R;
+import com.example.java_shop.data.models.ProductSummary;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * Paged variant of {@link ProductGridAdapter} for full category listings.
+ * Shares its view holder and diff callback, but only keeps the loaded pages in memory.
+ */
+public class ProductPagingAdapter extends PagingDataAdapter<ProductSummary, ProductGridAdapter.ProductViewHolder> {
+
+    private final ProductGridAdapter.OnProductActionListener listener;
+    private final NumberFormat currencyFormat;
+
+    public ProductPagingAdapter(ProductGridAdapter.OnProductActionListener listener) {
+        super(new ProductGridAdapter.ProductDiffCallback());
+        this.listener = listener;
+        this.currencyFormat = NumberFormat.getCurrencyInstance(Locale.US);
+    }
+
+    @NonNull
+    @Override
+    public ProductGridAdapter.ProductViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_product_grid, parent, false);
+        return new ProductGridAdapter.ProductViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ProductGridAdapter.ProductViewHolder holder, int position) {
+        ProductSummary product = getItem(position);
+        if (product != null) {
+            holder.bind(product, listener, currencyFormat);
+        }
+    }
+}
@@ -9,26 +9,26 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.java_shop.R;
-import com.example.java_shop.data.models.Product;
-import java.text.NumberFormat;
+import com.example.java_shop.data.models.ProductSummary;
+import com.example.java_shop.utils.OfferFormatter;
 import java.util.List;
-import java.util.Locale;
 
 public class SpecialOfferAdapter extends RecyclerView.Adapter<SpecialOfferAdapter.SpecialOfferViewHolder> {
 
-    private List<Product> products;
+    private List<ProductSummary> products;
     private final OnOfferClickListener listener;
+    private final OfferFormatter offerFormatter = new OfferFormatter();
 
     public interface OnOfferClickListener {
-        void onOfferClick(Product product);
+        void onOfferClick(ProductSummary product);
     }
 
-    public SpecialOfferAdapter(List<Product> products, OnOfferClickListener listener) {
+    public SpecialOfferAdapter(List<ProductSummary> products, OnOfferClickListener listener) {
         this.products = products;
         this.listener = listener;
     }
 
-    public void updateProducts(List<Product> newProducts) {
+    public void updateProducts(List<ProductSummary> newProducts) {
         this.products = newProducts;
         notifyDataSetChanged();
     }
@@ -43,8 +43,8 @@ public class SpecialOfferAdapter extends RecyclerView.Adapter<SpecialOfferAdapte
 
     @Override
     public void onBindViewHolder(@NonNull SpecialOfferViewHolder holder, int position) {
-        Product product = products.get(position);
-        holder.bind(product, listener);
+        ProductSummary product = products.get(position);
+        holder.bind(product, listener, offerFormatter);
     }
 
     @Override
@@ -70,28 +70,18 @@ public class SpecialOfferAdapter extends RecyclerView.Adapter<SpecialOfferAdapte
             validUntil = itemView.findViewById(R.id.offer_valid_until);
         }
 
-        public void bind(Product product, OnOfferClickListener listener) {
+        public void bind(ProductSummary product, OnOfferClickListener listener, OfferFormatter offerFormatter) {
             productName.setText(product.getName());
-            
-            NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance(Locale.US);
-            
-            double originalPriceValue = product.getOriginalPrice() > 0 ? 
-                    product.getOriginalPrice() : product.getPrice() * 1.25; // Fallback calculation
-            
-            double discountedPriceValue = product.getPrice();
-            
-            // Calculate discount percentage
-            int discountPercentageValue = (int) (100 - (discountedPriceValue / originalPriceValue * 100));
-            
+
             // Display prices
-            originalPrice.setText(currencyFormatter.format(originalPriceValue));
+            originalPrice.setText(offerFormatter.formatOriginalPrice(product));
             originalPrice.setPaintFlags(originalPrice.getPaintFlags() | Paint.STRIKE_THRU_TEXT_FLAG);
-            
-            discountedPrice.setText(currencyFormatter.format(discountedPriceValue));
-            discountPercentage.setText(String.format("-%d%% OFF", discountPercentageValue));
-            
+
+            discountedPrice.setText(offerFormatter.formatPrice(product.getPrice()));
+            discountPercentage.setText(offerFormatter.formatDiscount(product));
+
             // Valid until date
-            validUntil.setText(String.format("Valid until %s", product.getOfferValidUntil()));
+            validUntil.setText(offerFormatter.formatValidUntil(product));
             
             // Load product image
             // Glide.with(itemView).load(product.getImageUrl()).into(productImage);
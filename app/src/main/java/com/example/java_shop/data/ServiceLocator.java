@@ -0,0 +1,201 @@
+package com.example.java_shop.data;
+
+import android.content.Context;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.example.java_shop.R;
+import com.example.java_shop.data.cache.InMemoryCatalog;
+import com.example.java_shop.data.cache.ProductCache;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.DatabaseScheduler;
+import com.example.java_shop.data.database.QueryStats;
+import com.example.java_shop.data.repositories.AddressRepository;
+import com.example.java_shop.data.repositories.CartRepository;
+import com.example.java_shop.data.repositories.CategoryRepository;
+import com.example.java_shop.data.repositories.OrderRepository;
+import com.example.java_shop.data.repositories.ProductRepository;
+import com.example.java_shop.data.repositories.UserRepository;
+import com.example.java_shop.data.services.CatalogImporter;
+import com.example.java_shop.data.services.CatalogSyncService;
+import com.example.java_shop.data.services.CheckoutService;
+import com.example.java_shop.data.services.HttpCatalogSyncClient;
+import com.example.java_shop.data.services.InventoryService;
+
+/**
+ * Owns the database, the scheduler and one instance of each repository, so every
+ * ViewModel shares the same repositories instead of building its own.
+ *
+ * Tests and benchmarks can swap in an in-memory database with {@link #installInMemory(Context)}.
+ */
+public class ServiceLocator {
+    private static volatile ServiceLocator INSTANCE;
+
+    private final CosShopDatabase database;
+    private final DatabaseScheduler scheduler;
+    // Empty when this build has no catalog sync endpoint
+    private final String catalogSyncUrl;
+
+    private ProductCache productCache;
+    private InMemoryCatalog inMemoryCatalog;
+    private ProductRepository productRepository;
+    private CategoryRepository categoryRepository;
+    private CartRepository cartRepository;
+    private OrderRepository orderRepository;
+    private UserRepository userRepository;
+    private AddressRepository addressRepository;
+    private CheckoutService checkoutService;
+    private InventoryService inventoryService;
+    private CatalogImporter catalogImporter;
+    private CatalogSyncService catalogSyncService;
+
+    public static ServiceLocator getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ServiceLocator.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ServiceLocator(CosShopDatabase.getDatabase(context),
+                        DatabaseScheduler.getInstance(), context.getString(R.string.catalog_sync_url));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Replaces the current graph with one backed by a fresh in-memory database.
+     * Repositories obtained before this call keep pointing at the old database.
+     */
+    @VisibleForTesting
+    public static synchronized ServiceLocator installInMemory(Context context) {
+        DatabaseScheduler scheduler = DatabaseScheduler.getInstance();
+        CosShopDatabase database = CosShopDatabase.createInMemory(context,
+            scheduler.executor(DatabaseScheduler.Lane.UI_READ));
+        reset();
+        INSTANCE = new ServiceLocator(database, scheduler, context.getString(R.string.catalog_sync_url));
+        return INSTANCE;
+    }
+
+    /**
+     * Drops the current graph, closing its database if it was an in-memory one.
+     */
+    @VisibleForTesting
+    public static synchronized void reset() {
+        if (INSTANCE != null && INSTANCE.database.getOpenHelper().getDatabaseName() == null) {
+            INSTANCE.database.close();
+        }
+        INSTANCE = null;
+    }
+
+    private ServiceLocator(CosShopDatabase database, DatabaseScheduler scheduler, String catalogSyncUrl) {
+        this.database = database;
+        this.scheduler = scheduler;
+        this.catalogSyncUrl = catalogSyncUrl;
+    }
+
+    public CosShopDatabase getDatabase() {
+        return database;
+    }
+
+    public DatabaseScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public QueryStats getQueryStats() {
+        return QueryStats.getInstance();
+    }
+
+    public synchronized ProductCache getProductCache() {
+        if (productCache == null) {
+            productCache = new ProductCache(database);
+        }
+        return productCache;
+    }
+
+    /**
+     * Turns on the in-memory catalog mode: products are kept in a columnar snapshot
+     * and category listings are filtered and sorted from it instead of the database.
+     */
+    public synchronized InMemoryCatalog enableInMemoryCatalog() {
+        if (inMemoryCatalog == null) {
+            inMemoryCatalog = new InMemoryCatalog(database, scheduler);
+            getProductRepository().setInMemoryCatalog(inMemoryCatalog);
+        }
+        return inMemoryCatalog;
+    }
+
+    // Repositories, created on first use
+
+    public synchronized ProductRepository getProductRepository() {
+        if (productRepository == null) {
+            productRepository = new ProductRepository(database, scheduler, getProductCache());
+        }
+        return productRepository;
+    }
+
+    public synchronized CategoryRepository getCategoryRepository() {
+        if (categoryRepository == null) {
+            categoryRepository = new CategoryRepository(database, scheduler);
+        }
+        return categoryRepository;
+    }
+
+    public synchronized CartRepository getCartRepository() {
+        if (cartRepository == null) {
+            cartRepository = new CartRepository(database, scheduler);
+        }
+        return cartRepository;
+    }
+
+    public synchronized OrderRepository getOrderRepository() {
+        if (orderRepository == null) {
+            orderRepository = new OrderRepository(database, scheduler);
+        }
+        return orderRepository;
+    }
+
+    public synchronized UserRepository getUserRepository() {
+        if (userRepository == null) {
+            userRepository = new UserRepository(database, scheduler);
+        }
+        return userRepository;
+    }
+
+    public synchronized AddressRepository getAddressRepository() {
+        if (addressRepository == null) {
+            addressRepository = new AddressRepository(database, scheduler);
+        }
+        return addressRepository;
+    }
+
+    // Services
+
+    public synchronized CheckoutService getCheckoutService() {
+        if (checkoutService == null) {
+            checkoutService = new CheckoutService(database, scheduler);
+        }
+        return checkoutService;
+    }
+
+    public synchronized InventoryService getInventoryService() {
+        if (inventoryService == null) {
+            inventoryService = new InventoryService(database);
+        }
+        return inventoryService;
+    }
+
+    public synchronized CatalogImporter getCatalogImporter() {
+        if (catalogImporter == null) {
+            catalogImporter = new CatalogImporter(database, scheduler);
+        }
+        return catalogImporter;
+    }
+
+    // Null when this build has no catalog sync endpoint, see R.string.catalog_sync_url
+    @Nullable
+    public synchronized CatalogSyncService getCatalogSyncService() {
+        if (catalogSyncService == null && !catalogSyncUrl.isEmpty()) {
+            catalogSyncService = new CatalogSyncService(database, scheduler,
+                new HttpCatalogSyncClient(catalogSyncUrl));
+        }
+        return catalogSyncService;
+    }
+}
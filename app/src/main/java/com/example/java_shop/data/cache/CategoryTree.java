@@ -0,0 +1,151 @@
+package com.example.java_shop.data.cache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.example.java_shop.data.models.Category;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the category hierarchy. Built once from all rows of
+ * categories, it answers path, children and descendant lookups without going
+ * back to the database. Children lists are sorted by display order.
+ */
+public class CategoryTree {
+    private static final Comparator<Category> DISPLAY_ORDER =
+        Comparator.comparingInt(Category::getDisplayOrder).thenComparing(Category::getId);
+
+    private final Map<String, Category> byId;
+    private final Map<String, List<Category>> childrenById;
+    private final Map<String, List<Category>> activeChildrenById;
+    private final List<Category> roots;
+    private final List<Category> activeRoots;
+    private final List<Category> all;
+    private final List<Category> active;
+
+    public static CategoryTree empty() {
+        return new CategoryTree(Collections.emptyList());
+    }
+
+    public CategoryTree(@NonNull List<Category> categories) {
+        byId = new HashMap<>(categories.size() * 2);
+        for (Category category : categories) {
+            byId.put(category.getId(), category);
+        }
+
+        List<Category> sorted = new ArrayList<>(categories);
+        Collections.sort(sorted, DISPLAY_ORDER);
+
+        Map<String, List<Category>> children = new HashMap<>();
+        Map<String, List<Category>> activeChildren = new HashMap<>();
+        List<Category> rootList = new ArrayList<>();
+        List<Category> activeRootList = new ArrayList<>();
+        List<Category> activeList = new ArrayList<>();
+        for (Category category : sorted) {
+            // A parent that isn't in the table makes the category a root
+            String parentId = category.getParentCategoryId();
+            boolean isRoot = parentId == null || !byId.containsKey(parentId);
+            if (isRoot) {
+                rootList.add(category);
+            } else {
+                children.computeIfAbsent(parentId, id -> new ArrayList<>()).add(category);
+            }
+            if (category.isActive()) {
+                activeList.add(category);
+                if (isRoot) {
+                    activeRootList.add(category);
+                } else {
+                    activeChildren.computeIfAbsent(parentId, id -> new ArrayList<>()).add(category);
+                }
+            }
+        }
+
+        childrenById = freeze(children);
+        activeChildrenById = freeze(activeChildren);
+        roots = Collections.unmodifiableList(rootList);
+        activeRoots = Collections.unmodifiableList(activeRootList);
+        all = Collections.unmodifiableList(sorted);
+        active = Collections.unmodifiableList(activeList);
+    }
+
+    private static Map<String, List<Category>> freeze(Map<String, List<Category>> lists) {
+        for (Map.Entry<String, List<Category>> entry : lists.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return lists;
+    }
+
+    @Nullable
+    public Category getCategory(String categoryId) {
+        return categoryId != null ? byId.get(categoryId) : null;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public List<Category> getAll() {
+        return all;
+    }
+
+    public List<Category> getActive() {
+        return active;
+    }
+
+    public List<Category> getRoots() {
+        return roots;
+    }
+
+    public List<Category> getActiveRoots() {
+        return activeRoots;
+    }
+
+    public List<Category> getChildren(String categoryId) {
+        List<Category> children = childrenById.get(categoryId);
+        return children != null ? children : Collections.emptyList();
+    }
+
+    public List<Category> getActiveChildren(String categoryId) {
+        List<Category> children = activeChildrenById.get(categoryId);
+        return children != null ? children : Collections.emptyList();
+    }
+
+    /**
+     * Breadcrumb from the top-level category down to {@code categoryId},
+     * or an empty list if the category is unknown.
+     */
+    public List<Category> getPath(String categoryId) {
+        List<Category> path = new ArrayList<>();
+        Category current = getCategory(categoryId);
+        // Bounded by the tree size in case the rows contain a parent cycle
+        while (current != null && path.size() <= byId.size()) {
+            path.add(current);
+            current = getCategory(current.getParentCategoryId());
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Ids of every category below {@code categoryId}, not including itself.
+     */
+    public Set<String> getDescendantIds(String categoryId) {
+        Set<String> descendants = new LinkedHashSet<>();
+        Deque<Category> pending = new ArrayDeque<>(getChildren(categoryId));
+        while (!pending.isEmpty()) {
+            Category category = pending.poll();
+            if (descendants.add(category.getId())) {
+                pending.addAll(getChildren(category.getId()));
+            }
+        }
+        return descendants;
+    }
+}
@@ -0,0 +1,353 @@
+package com.example.java_shop.data.cache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.example.java_shop.data.models.ProductSummary;
+import com.example.java_shop.viewmodels.CategoryDetailsViewModel.SortOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the product list columns held in primitive arrays, one
+ * entry per product. For every category and {@link SortOption} the rows are
+ * sorted once when the snapshot is built, so a filtered, sorted listing is a
+ * single pass over an int array with no allocation and no database round trip.
+ *
+ * Orders match {@link com.example.java_shop.data.database.CategoryProductQuery}:
+ * the sort column, then id, both in the direction of the sort.
+ */
+public final class ColumnarCatalog {
+    private static final SortOption[] SORT_OPTIONS = SortOption.values();
+
+    private final int size;
+    private final String[] ids;
+    private final String[] names;
+    private final String[] imageUrls;
+    private final double[] prices;
+    private final double[] originalPrices;
+    private final double[] discounts;
+    private final long[] offerValidUntil;
+    private final float[] ratings;
+    private final int[] stock;
+    private final boolean[] featured;
+    private final int[] categoryOrdinals;
+    private final String[] categoryIds;
+    private final Map<String, Integer> ordinalByCategory;
+    private final Map<String, Integer> rowById;
+    // [sort option][category ordinal] -> rows of the category in that order
+    private final int[][][] sortedRows;
+    private final FacetIndex facets;
+
+    private ColumnarCatalog(Builder builder) {
+        size = builder.size;
+        ids = builder.ids;
+        names = builder.names;
+        imageUrls = builder.imageUrls;
+        prices = builder.prices;
+        originalPrices = builder.originalPrices;
+        discounts = builder.discounts;
+        offerValidUntil = builder.offerValidUntil;
+        ratings = builder.ratings;
+        stock = builder.stock;
+        featured = builder.featured;
+        categoryOrdinals = builder.categoryOrdinals;
+        ordinalByCategory = builder.ordinalByCategory;
+        categoryIds = new String[ordinalByCategory.size()];
+        for (Map.Entry<String, Integer> entry : ordinalByCategory.entrySet()) {
+            categoryIds[entry.getValue()] = entry.getKey();
+        }
+        rowById = new HashMap<>(size * 4 / 3 + 1);
+        for (int row = 0; row < size; row++) {
+            rowById.put(ids[row], row);
+        }
+
+        // Rows of each category in load order, then one sorted copy per option
+        int[][] members = new int[categoryIds.length][];
+        int[] counts = new int[categoryIds.length];
+        for (int row = 0; row < size; row++) {
+            counts[categoryOrdinals[row]]++;
+        }
+        for (int category = 0; category < members.length; category++) {
+            members[category] = new int[counts[category]];
+            counts[category] = 0;
+        }
+        for (int row = 0; row < size; row++) {
+            int category = categoryOrdinals[row];
+            members[category][counts[category]++] = row;
+        }
+
+        sortedRows = new int[SORT_OPTIONS.length][][];
+        int[] scratch = new int[size];
+        for (SortOption sortOption : SORT_OPTIONS) {
+            int[][] byCategory = new int[members.length][];
+            for (int category = 0; category < members.length; category++) {
+                int[] rows = members[category].clone();
+                mergeSort(rows, scratch, 0, rows.length, sortOption);
+                byCategory[category] = rows;
+            }
+            sortedRows[sortOption.ordinal()] = byCategory;
+        }
+
+        facets = new FacetIndex(size, categoryIds.length, categoryOrdinals, stock, featured, discounts,
+            ratings, prices);
+    }
+
+    // Same rows, sort orders and columns as base, with another stock column
+    private ColumnarCatalog(ColumnarCatalog base, int[] stock, FacetIndex facets) {
+        size = base.size;
+        ids = base.ids;
+        names = base.names;
+        imageUrls = base.imageUrls;
+        prices = base.prices;
+        originalPrices = base.originalPrices;
+        discounts = base.discounts;
+        offerValidUntil = base.offerValidUntil;
+        ratings = base.ratings;
+        this.stock = stock;
+        featured = base.featured;
+        categoryOrdinals = base.categoryOrdinals;
+        categoryIds = base.categoryIds;
+        ordinalByCategory = base.ordinalByCategory;
+        rowById = base.rowById;
+        sortedRows = base.sortedRows;
+        this.facets = facets;
+    }
+
+    /**
+     * Copy with {@code quantities[i]} as the stock of {@code rows[i]}, for the first
+     * {@code count} entries; a later entry for the same row wins. Rows keep their
+     * numbers, and only the stock column and, when a row went in or out of stock,
+     * the in-stock facet are rebuilt.
+     */
+    @NonNull
+    public ColumnarCatalog withStock(@NonNull int[] rows, @NonNull int[] quantities, int count) {
+        int[] patched = stock.clone();
+        for (int i = 0; i < count; i++) {
+            patched[rows[i]] = quantities[i];
+        }
+        boolean inStockChanged = false;
+        for (int i = 0; i < count && !inStockChanged; i++) {
+            inStockChanged = (stock[rows[i]] > 0) != (patched[rows[i]] > 0);
+        }
+        return new ColumnarCatalog(this, patched, inStockChanged ? facets.withStock(size, patched) : facets);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Ordinal of a category, or -1 when it has no products
+    public int categoryOrdinal(@Nullable String categoryId) {
+        Integer ordinal = categoryId != null ? ordinalByCategory.get(categoryId) : null;
+        return ordinal != null ? ordinal : -1;
+    }
+
+    // Number of products in a category; a select never returns more rows than this
+    public int categorySize(int categoryOrdinal) {
+        return categoryOrdinal >= 0 ? sortedRows[0][categoryOrdinal].length : 0;
+    }
+
+    /**
+     * Writes the rows of a category that pass the filters into {@code out}, in the
+     * order of {@code sortOption}, and returns how many were written. {@code out}
+     * needs room for {@link #categorySize(int)} rows.
+     */
+    public int select(int categoryOrdinal, @NonNull SortOption sortOption, boolean inStockOnly,
+                      double minPrice, double maxPrice, @NonNull int[] out) {
+        if (categoryOrdinal < 0) return 0;
+        int[] rows = sortedRows[sortOption.ordinal()][categoryOrdinal];
+        int count = 0;
+        for (int row : rows) {
+            if (inStockOnly && stock[row] <= 0) continue;
+            double price = prices[row];
+            if (price < minPrice || price > maxPrice) continue;
+            out[count++] = row;
+        }
+        return count;
+    }
+
+    /**
+     * Like {@link #select(int, SortOption, boolean, double, double, int[])}, keeping
+     * the rows in {@code filter}, usually from {@link #getFacets()}; null keeps every
+     * row of the category.
+     */
+    public int select(int categoryOrdinal, @NonNull SortOption sortOption, @Nullable RowBitmap filter,
+                      @NonNull int[] out) {
+        if (categoryOrdinal < 0) return 0;
+        int[] rows = sortedRows[sortOption.ordinal()][categoryOrdinal];
+        if (filter == null) {
+            System.arraycopy(rows, 0, out, 0, rows.length);
+            return rows.length;
+        }
+        int count = 0;
+        for (int row : rows) {
+            if (filter.contains(row)) {
+                out[count++] = row;
+            }
+        }
+        return count;
+    }
+
+    @NonNull
+    public FacetIndex getFacets() {
+        return facets;
+    }
+
+    // Only rows that are about to be shown are turned into objects
+
+    @NonNull
+    public ProductSummary summaryAt(int row) {
+        ProductSummary summary = new ProductSummary();
+        summary.setId(ids[row]);
+        summary.setName(names[row]);
+        summary.setImageUrl(imageUrls[row]);
+        summary.setPrice(prices[row]);
+        summary.setOriginalPrice(originalPrices[row]);
+        summary.setDiscountPercentage(discounts[row]);
+        summary.setOfferValidUntilTimestamp(offerValidUntil[row]);
+        summary.setRating(ratings[row]);
+        summary.setInStock(stock[row] > 0);
+        summary.setCategoryId(categoryIds[categoryOrdinals[row]]);
+        return summary;
+    }
+
+    @NonNull
+    public String idAt(int row) {
+        return ids[row];
+    }
+
+    // Row of a product, or -1 when it is not in the snapshot
+    public int rowOf(@NonNull String id) {
+        Integer row = rowById.get(id);
+        return row != null ? row : -1;
+    }
+
+    public int stockAt(int row) {
+        return stock[row];
+    }
+
+    private void mergeSort(int[] rows, int[] scratch, int from, int to, SortOption sortOption) {
+        if (to - from < 2) return;
+        int middle = (from + to) >>> 1;
+        mergeSort(rows, scratch, from, middle, sortOption);
+        mergeSort(rows, scratch, middle, to, sortOption);
+        if (compare(rows[middle - 1], rows[middle], sortOption) <= 0) return;
+        System.arraycopy(rows, from, scratch, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && compare(scratch[left], scratch[right], sortOption) <= 0)) {
+                rows[i] = scratch[left++];
+            } else {
+                rows[i] = scratch[right++];
+            }
+        }
+    }
+
+    private int compare(int a, int b, SortOption sortOption) {
+        int byKey;
+        boolean descending;
+        switch (sortOption) {
+            case NAME_ASC:
+            case NAME_DESC:
+                byKey = compareNullsFirst(names[a], names[b]);
+                descending = sortOption == SortOption.NAME_DESC;
+                break;
+            case PRICE_LOW_HIGH:
+            case PRICE_HIGH_LOW:
+                byKey = Double.compare(prices[a], prices[b]);
+                descending = sortOption == SortOption.PRICE_HIGH_LOW;
+                break;
+            case RATING:
+            default:
+                byKey = Float.compare(ratings[a], ratings[b]);
+                descending = true;
+                break;
+        }
+        int result = byKey != 0 ? byKey : ids[a].compareTo(ids[b]);
+        return descending ? -result : result;
+    }
+
+    // SQLite sorts NULL before any text
+    private static int compareNullsFirst(String a, String b) {
+        if (a == null) return b == null ? 0 : -1;
+        if (b == null) return 1;
+        return a.compareTo(b);
+    }
+
+    /**
+     * Collects rows into growing column arrays. Equal names and image URLs are
+     * stored once.
+     */
+    public static class Builder {
+        private int size;
+        private String[] ids;
+        private String[] names;
+        private String[] imageUrls;
+        private double[] prices;
+        private double[] originalPrices;
+        private double[] discounts;
+        private long[] offerValidUntil;
+        private float[] ratings;
+        private int[] stock;
+        private boolean[] featured;
+        private int[] categoryOrdinals;
+        private final Map<String, Integer> ordinalByCategory = new HashMap<>();
+        private final Map<String, String> strings = new HashMap<>();
+
+        public Builder(int expectedSize) {
+            allocate(Math.max(16, expectedSize));
+        }
+
+        public Builder add(@NonNull String id, @Nullable String name, @Nullable String imageUrl, double price,
+                           double originalPrice, double discount, long offerValidUntilTimestamp, double rating,
+                           int stockQuantity, boolean isFeatured, @Nullable String categoryId) {
+            if (size == ids.length) {
+                allocate(size * 2);
+            }
+            Integer ordinal = ordinalByCategory.get(categoryId);
+            if (ordinal == null) {
+                ordinal = ordinalByCategory.size();
+                ordinalByCategory.put(categoryId, ordinal);
+            }
+            ids[size] = id;
+            names[size] = intern(name);
+            imageUrls[size] = intern(imageUrl);
+            prices[size] = price;
+            originalPrices[size] = originalPrice;
+            discounts[size] = discount;
+            offerValidUntil[size] = offerValidUntilTimestamp;
+            ratings[size] = (float) rating;
+            stock[size] = stockQuantity;
+            featured[size] = isFeatured;
+            categoryOrdinals[size] = ordinal;
+            size++;
+            return this;
+        }
+
+        public ColumnarCatalog build() {
+            return new ColumnarCatalog(this);
+        }
+
+        private String intern(String value) {
+            if (value == null) return null;
+            String pooled = strings.putIfAbsent(value, value);
+            return pooled != null ? pooled : value;
+        }
+
+        private void allocate(int capacity) {
+            ids = ids == null ? new String[capacity] : Arrays.copyOf(ids, capacity);
+            names = names == null ? new String[capacity] : Arrays.copyOf(names, capacity);
+            imageUrls = imageUrls == null ? new String[capacity] : Arrays.copyOf(imageUrls, capacity);
+            prices = prices == null ? new double[capacity] : Arrays.copyOf(prices, capacity);
+            originalPrices = originalPrices == null ? new double[capacity] : Arrays.copyOf(originalPrices, capacity);
+            discounts = discounts == null ? new double[capacity] : Arrays.copyOf(discounts, capacity);
+            offerValidUntil = offerValidUntil == null ? new long[capacity] : Arrays.copyOf(offerValidUntil, capacity);
+            ratings = ratings == null ? new float[capacity] : Arrays.copyOf(ratings, capacity);
+            stock = stock == null ? new int[capacity] : Arrays.copyOf(stock, capacity);
+            featured = featured == null ? new boolean[capacity] : Arrays.copyOf(featured, capacity);
+            categoryOrdinals = categoryOrdinals == null ? new int[capacity] : Arrays.copyOf(categoryOrdinals, capacity);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.java_shop.data.cache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * One {@link RowBitmap} per facet option over the rows of a {@link ColumnarCatalog}.
+ * A filter is the category's rows intersected with, for every facet that has a
+ * selection, the union of its selected options. Option counts follow the usual
+ * faceting rule: each facet is counted against the filter of all the other
+ * facets, so ticking an option never zeroes its neighbours.
+ */
+public final class FacetIndex {
+
+    public enum Facet {
+        IN_STOCK(1),
+        FEATURED(1),
+        ON_OFFER(1),
+        // Buckets of RATING_FLOORS, best first
+        RATING(4),
+        // Buckets of PRICE_FLOORS, cheapest first
+        PRICE(5);
+
+        public final int options;
+
+        Facet(int options) {
+            this.options = options;
+        }
+    }
+
+    // Lower bound of every rating bucket; each bucket runs up to the one before it
+    public static final double[] RATING_FLOORS = {4, 3, 2, 0};
+    // Lower bound of every price bucket; each bucket runs up to the next one
+    public static final double[] PRICE_FLOORS = {0, 10, 25, 50, 100};
+
+    private static final Facet[] FACETS = Facet.values();
+
+    private final RowBitmap[] categories;
+    // [facet][option]
+    private final RowBitmap[][] options;
+
+    /**
+     * Indexes rows 0 to {@code size - 1} of the given columns.
+     */
+    public FacetIndex(int size, int categoryCount, int[] categoryOrdinals, int[] stock, boolean[] featured,
+                      double[] discounts, float[] ratings, double[] prices) {
+        RowBitmap.Builder[] categoryBuilders = builders(categoryCount);
+        RowBitmap.Builder[][] optionBuilders = new RowBitmap.Builder[FACETS.length][];
+        for (Facet facet : FACETS) {
+            optionBuilders[facet.ordinal()] = builders(facet.options);
+        }
+
+        for (int row = 0; row < size; row++) {
+            categoryBuilders[categoryOrdinals[row]].add(row);
+            if (stock[row] > 0) {
+                optionBuilders[Facet.IN_STOCK.ordinal()][0].add(row);
+            }
+            if (featured[row]) {
+                optionBuilders[Facet.FEATURED.ordinal()][0].add(row);
+            }
+            if (discounts[row] > 0) {
+                optionBuilders[Facet.ON_OFFER.ordinal()][0].add(row);
+            }
+            optionBuilders[Facet.RATING.ordinal()][ratingBucket(ratings[row])].add(row);
+            optionBuilders[Facet.PRICE.ordinal()][priceBucket(prices[row])].add(row);
+        }
+
+        categories = new RowBitmap[categoryCount];
+        for (int category = 0; category < categoryCount; category++) {
+            categories[category] = categoryBuilders[category].build();
+        }
+        options = new RowBitmap[FACETS.length][];
+        for (Facet facet : FACETS) {
+            RowBitmap[] bitmaps = new RowBitmap[facet.options];
+            for (int option = 0; option < facet.options; option++) {
+                bitmaps[option] = optionBuilders[facet.ordinal()][option].build();
+            }
+            options[facet.ordinal()] = bitmaps;
+        }
+    }
+
+    // Shares every bitmap with base except IN_STOCK, which is rebuilt from stock
+    private FacetIndex(FacetIndex base, int size, int[] stock) {
+        categories = base.categories;
+        options = base.options.clone();
+        RowBitmap.Builder inStock = new RowBitmap.Builder();
+        for (int row = 0; row < size; row++) {
+            if (stock[row] > 0) {
+                inStock.add(row);
+            }
+        }
+        options[Facet.IN_STOCK.ordinal()] = new RowBitmap[] {inStock.build()};
+    }
+
+    /**
+     * Copy of this index over the same rows with new stock levels.
+     */
+    @NonNull
+    FacetIndex withStock(int size, @NonNull int[] stock) {
+        return new FacetIndex(this, size, stock);
+    }
+
+    public static int ratingBucket(double rating) {
+        for (int bucket = 0; bucket < RATING_FLOORS.length - 1; bucket++) {
+            if (rating >= RATING_FLOORS[bucket]) return bucket;
+        }
+        return RATING_FLOORS.length - 1;
+    }
+
+    public static int priceBucket(double price) {
+        for (int bucket = PRICE_FLOORS.length - 1; bucket > 0; bucket--) {
+            if (price >= PRICE_FLOORS[bucket]) return bucket;
+        }
+        return 0;
+    }
+
+    /**
+     * Rows of a category that pass {@code selection}; null when nothing is selected,
+     * meaning every row of the category.
+     */
+    @Nullable
+    public RowBitmap filter(int categoryOrdinal, @NonNull FacetSelection selection) {
+        if (selection.isEmpty()) return null;
+        RowBitmap rows = categoryRows(categoryOrdinal);
+        for (Facet facet : FACETS) {
+            if (selection.has(facet)) {
+                rows = rows.and(union(facet, selection));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Number of rows for every option of every facet under {@code selection}, plus
+     * the number of rows the whole selection matches.
+     */
+    @NonNull
+    public FacetCounts counts(int categoryOrdinal, @NonNull FacetSelection selection) {
+        RowBitmap base = categoryRows(categoryOrdinal);
+        // The selected union of each facet, or null when the facet has no selection
+        RowBitmap[] unions = new RowBitmap[FACETS.length];
+        for (Facet facet : FACETS) {
+            if (selection.has(facet)) {
+                unions[facet.ordinal()] = union(facet, selection);
+            }
+        }
+
+        int[][] counts = new int[FACETS.length][];
+        RowBitmap all = base;
+        for (Facet facet : FACETS) {
+            // Every other facet's selection narrows this facet's counts
+            RowBitmap others = base;
+            for (Facet other : FACETS) {
+                if (other != facet && unions[other.ordinal()] != null) {
+                    others = others.and(unions[other.ordinal()]);
+                }
+            }
+            int[] optionCounts = new int[facet.options];
+            for (int option = 0; option < facet.options; option++) {
+                optionCounts[option] = others.andCardinality(options[facet.ordinal()][option]);
+            }
+            counts[facet.ordinal()] = optionCounts;
+            if (unions[facet.ordinal()] != null) {
+                all = all.and(unions[facet.ordinal()]);
+            }
+        }
+        return new FacetCounts(counts, all.cardinality());
+    }
+
+    private RowBitmap categoryRows(int categoryOrdinal) {
+        return categoryOrdinal >= 0 && categoryOrdinal < categories.length
+            ? categories[categoryOrdinal] : RowBitmap.EMPTY;
+    }
+
+    private RowBitmap union(Facet facet, FacetSelection selection) {
+        RowBitmap union = RowBitmap.EMPTY;
+        for (int option = 0; option < facet.options; option++) {
+            if (selection.isSelected(facet, option)) {
+                union = union.or(options[facet.ordinal()][option]);
+            }
+        }
+        return union;
+    }
+
+    private static RowBitmap.Builder[] builders(int count) {
+        RowBitmap.Builder[] builders = new RowBitmap.Builder[count];
+        for (int i = 0; i < count; i++) {
+            builders[i] = new RowBitmap.Builder();
+        }
+        return builders;
+    }
+
+    /**
+     * Immutable set of selected facet options.
+     */
+    public static final class FacetSelection {
+        public static final FacetSelection NONE = new FacetSelection(new int[FACETS.length]);
+
+        // One bit per selected option, per facet
+        private final int[] selected;
+
+        private FacetSelection(int[] selected) {
+            this.selected = selected;
+        }
+
+        public boolean isSelected(@NonNull Facet facet, int option) {
+            return (selected[facet.ordinal()] & (1 << option)) != 0;
+        }
+
+        public boolean has(@NonNull Facet facet) {
+            return selected[facet.ordinal()] != 0;
+        }
+
+        public boolean isEmpty() {
+            for (int bits : selected) {
+                if (bits != 0) return false;
+            }
+            return true;
+        }
+
+        // Number of selected options across all facets
+        public int size() {
+            int size = 0;
+            for (int bits : selected) {
+                size += Integer.bitCount(bits);
+            }
+            return size;
+        }
+
+        @NonNull
+        public FacetSelection with(@NonNull Facet facet, int option, boolean isSelected) {
+            int[] copy = selected.clone();
+            if (isSelected) {
+                copy[facet.ordinal()] |= 1 << option;
+            } else {
+                copy[facet.ordinal()] &= ~(1 << option);
+            }
+            return new FacetSelection(copy);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof FacetSelection && java.util.Arrays.equals(selected, ((FacetSelection) o).selected);
+        }
+
+        @Override
+        public int hashCode() {
+            return java.util.Arrays.hashCode(selected);
+        }
+    }
+
+    /**
+     * Option counts of one {@link #counts} call.
+     */
+    public static final class FacetCounts {
+        private final int[][] counts;
+        private final int matching;
+
+        FacetCounts(int[][] counts, int matching) {
+            this.counts = counts;
+            this.matching = matching;
+        }
+
+        public int get(@NonNull Facet facet, int option) {
+            return counts[facet.ordinal()][option];
+        }
+
+        // Rows that pass the whole selection
+        public int getMatching() {
+            return matching;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.java_shop.data.cache;
+
+import android.database.Cursor;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.room.InvalidationTracker;
+import com.example.java_shop.data.database.CatalogChangeTracker;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.DatabaseScheduler;
+import com.example.java_shop.data.database.InventoryDao;
+import com.example.java_shop.data.database.ProductDao;
+import com.example.java_shop.data.models.StockMovement;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a {@link ColumnarCatalog} of the whole products table so category listings
+ * can be filtered and sorted in memory.
+ *
+ * Stock movements only patch the stock column of the current snapshot from the
+ * ledger, see {@link ColumnarCatalog#withStock}; the snapshot is rebuilt when any
+ * other catalog column changes, as counted by {@link CatalogChangeTracker}. Both run
+ * on the low priority read lane so screen reads go first.
+ *
+ * Catalogs larger than {@link #DEFAULT_MAX_PRODUCTS} are not loaded; {@link #peek()}
+ * stays null and callers keep using the database.
+ */
+public class InMemoryCatalog {
+    // About 40 MB of columns, sort orders, id lookup and facet bitmaps with typical names and image URLs
+    public static final int DEFAULT_MAX_PRODUCTS = 100_000;
+
+    private final CosShopDatabase database;
+    private final ProductDao productDao;
+    private final InventoryDao inventoryDao;
+    private final Executor refreshExecutor;
+    private final int maxProducts;
+    private final List<Runnable> rebuildListeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final Object refreshLock = new Object();
+    // What the current snapshot reflects; guarded by refreshLock
+    private long catalogVersion = -1;
+    private long lastMovementId;
+    private volatile ColumnarCatalog current;
+    private final MutableLiveData<ColumnarCatalog> snapshots = new MutableLiveData<>();
+
+    public InMemoryCatalog(CosShopDatabase database, DatabaseScheduler scheduler) {
+        this(database, scheduler, DEFAULT_MAX_PRODUCTS);
+    }
+
+    public InMemoryCatalog(CosShopDatabase database, DatabaseScheduler scheduler, int maxProducts) {
+        this.database = database;
+        productDao = database.productDao();
+        inventoryDao = database.inventoryDao();
+        refreshExecutor = scheduler.executor(DatabaseScheduler.Lane.BACKGROUND_READ);
+        this.maxProducts = maxProducts;
+
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("products") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                scheduleRefresh();
+            }
+        });
+        scheduleRefresh();
+    }
+
+    // Latest snapshot, null until the first build finishes or while the catalog is too large
+    @Nullable
+    public ColumnarCatalog peek() {
+        return current;
+    }
+
+    // Every rebuilt snapshot, including null when the catalog grew too large, and
+    // every stock patch that moved a product in or out of stock
+    public LiveData<ColumnarCatalog> getSnapshots() {
+        return snapshots;
+    }
+
+    // Called on a database thread whenever getSnapshots publishes. Stock patches that
+    // leave every product on the same side of zero change nothing a listing shows
+    public void addRebuildListener(Runnable listener) {
+        rebuildListeners.add(listener);
+    }
+
+    public void removeRebuildListener(Runnable listener) {
+        rebuildListeners.remove(listener);
+    }
+
+    // Coalesces bursts of writes into one refresh
+    private void scheduleRefresh() {
+        if (!refreshScheduled.compareAndSet(false, true)) return;
+        refreshExecutor.execute(this::refresh);
+    }
+
+    @WorkerThread
+    private void refresh() {
+        synchronized (refreshLock) {
+            // Cleared before reading so a write during the refresh schedules another one
+            refreshScheduled.set(false);
+            long version = database.runInTransaction(() -> CatalogChangeTracker.getVersion(database));
+            if (version != catalogVersion) {
+                // Read before loading; movements the load already saw are patched again
+                // later, which is harmless because they carry absolute balances
+                long movementId = inventoryDao.getLatestMovementId();
+                int count = productDao.getProductCount();
+                catalogVersion = version;
+                lastMovementId = movementId;
+                publish(count <= maxProducts ? load(productDao, count) : null);
+            } else {
+                patchStock(inventoryDao.getMovementsAfter(lastMovementId));
+            }
+        }
+    }
+
+    private void patchStock(List<StockMovement> movements) {
+        if (movements.isEmpty()) return;
+        lastMovementId = movements.get(movements.size() - 1).getId();
+        ColumnarCatalog snapshot = current;
+        if (snapshot == null) return;
+
+        int[] rows = new int[movements.size()];
+        int[] quantities = new int[movements.size()];
+        int count = 0;
+        for (StockMovement movement : movements) {
+            int row = snapshot.rowOf(movement.getProductId());
+            // Deleted products are not in the snapshot
+            if (row < 0) continue;
+            rows[count] = row;
+            quantities[count++] = movement.getBalanceAfter();
+        }
+        if (count == 0) return;
+        ColumnarCatalog patched = snapshot.withStock(rows, quantities, count);
+        if (patched.getFacets() == snapshot.getFacets()) {
+            // Nobody went in or out of stock, so listings and facet counts are unchanged
+            current = patched;
+        } else {
+            publish(patched);
+        }
+    }
+
+    private void publish(@Nullable ColumnarCatalog snapshot) {
+        current = snapshot;
+        snapshots.postValue(snapshot);
+        for (Runnable listener : rebuildListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Reads the whole products table into a new snapshot on the calling thread.
+     * {@code expectedSize} only sizes the first arrays.
+     */
+    @WorkerThread
+    @NonNull
+    public static ColumnarCatalog load(ProductDao productDao, int expectedSize) {
+        try (Cursor cursor = productDao.getCatalogColumns()) {
+            int id = cursor.getColumnIndexOrThrow("id");
+            int name = cursor.getColumnIndexOrThrow("name");
+            int imageUrl = cursor.getColumnIndexOrThrow("imageUrl");
+            int price = cursor.getColumnIndexOrThrow("price");
+            int originalPrice = cursor.getColumnIndexOrThrow("originalPrice");
+            int discount = cursor.getColumnIndexOrThrow("discountPercentage");
+            int offerValidUntil = cursor.getColumnIndexOrThrow("offerValidUntilTimestamp");
+            int rating = cursor.getColumnIndexOrThrow("rating");
+            int stock = cursor.getColumnIndexOrThrow("stockQuantity");
+            int featured = cursor.getColumnIndexOrThrow("isFeatured");
+            int categoryId = cursor.getColumnIndexOrThrow("categoryId");
+
+            ColumnarCatalog.Builder builder = new ColumnarCatalog.Builder(expectedSize);
+            while (cursor.moveToNext()) {
+                builder.add(cursor.getString(id), cursor.getString(name), cursor.getString(imageUrl),
+                    cursor.getDouble(price), cursor.getDouble(originalPrice), cursor.getDouble(discount),
+                    cursor.getLong(offerValidUntil), cursor.getDouble(rating), cursor.getInt(stock),
+                    cursor.getInt(featured) != 0, cursor.getString(categoryId));
+            }
+            return builder.build();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.java_shop.data.cache;
+
+import android.util.LruCache;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.InvalidationTracker;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.models.Product;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of products by id, filled from every product list the app loads.
+ *
+ * Room only reports which table changed, not which rows, so any write to
+ * products clears the whole cache. Products are small and the catalog is read
+ * far more often than written, so a full clear is cheap enough. A list whose query
+ * raced a write can put old rows back, but Room reruns that query after the write and
+ * the fresh rows replace them.
+ */
+public class ProductCache {
+    private static final int MAX_ENTRIES = 256;
+
+    private final LruCache<String, Product> cache = new LruCache<>(MAX_ENTRIES);
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductCache(CosShopDatabase database) {
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("products") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidate();
+            }
+        });
+    }
+
+    @Nullable
+    public Product get(String productId) {
+        return productId != null ? cache.get(productId) : null;
+    }
+
+    public void put(Product product) {
+        if (product != null && product.getId() != null) {
+            cache.put(product.getId(), product);
+        }
+    }
+
+    public void putAll(Collection<Product> products) {
+        if (products == null) return;
+        for (Product product : products) {
+            put(product);
+        }
+    }
+
+    public void invalidate() {
+        invalidations.incrementAndGet();
+        cache.evictAll();
+    }
+
+    // Stats
+
+    public Stats getStats() {
+        return new Stats(cache.size(), cache.hitCount(), cache.missCount(),
+            cache.evictionCount(), invalidations.get());
+    }
+
+    public static class Stats {
+        private final int size;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long invalidations;
+
+        Stats(int size, long hits, long misses, long evictions, long invalidations) {
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        // Includes the entries dropped by invalidations
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "ProductCache: size=%d hits=%d misses=%d evictions=%d invalidations=%d hitRate=%.2f",
+                size, hits, misses, evictions, invalidations, getHitRate());
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.example.java_shop.data.cache;
+
+import androidx.annotation.NonNull;
+import java.util.Arrays;
+
+/**
+ * Compressed, immutable set of catalog rows in the style of a Roaring bitmap.
+ * Rows are split into chunks by their high 16 bits; each chunk keeps the low 16
+ * bits as a sorted array while it has at most 4096 rows, and as a 65536-bit
+ * bitmap above that. Sparse facets like "featured" stay a few bytes per row,
+ * dense ones like "in stock" cost one bit per row, and intersections work a
+ * chunk at a time.
+ */
+public final class RowBitmap {
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1 << 10;
+
+    public static final RowBitmap EMPTY = new RowBitmap(new char[0], new char[0][], new long[0][], new int[0], 0);
+
+    // Per chunk, in key order: either array or bitmap is set
+    private final char[] keys;
+    private final char[][] arrays;
+    private final long[][] bitmaps;
+    private final int[] cardinalities;
+    private final int chunks;
+
+    private RowBitmap(char[] keys, char[][] arrays, long[][] bitmaps, int[] cardinalities, int chunks) {
+        this.keys = keys;
+        this.arrays = arrays;
+        this.bitmaps = bitmaps;
+        this.cardinalities = cardinalities;
+        this.chunks = chunks;
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < chunks; i++) {
+            cardinality += cardinalities[i];
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return chunks == 0;
+    }
+
+    public boolean contains(int row) {
+        int chunk = chunkOf((char) (row >>> 16));
+        if (chunk < 0) return false;
+        char low = (char) row;
+        long[] bitmap = bitmaps[chunk];
+        if (bitmap != null) {
+            return (bitmap[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch(arrays[chunk], 0, cardinalities[chunk], low) >= 0;
+    }
+
+    @NonNull
+    public RowBitmap and(@NonNull RowBitmap other) {
+        Builder result = new Builder();
+        int i = 0;
+        int j = 0;
+        while (i < chunks && j < other.chunks) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendAnd(keys[i], this, i, other, j);
+                i++;
+                j++;
+            }
+        }
+        return result.build();
+    }
+
+    @NonNull
+    public RowBitmap or(@NonNull RowBitmap other) {
+        Builder result = new Builder();
+        int i = 0;
+        int j = 0;
+        while (i < chunks || j < other.chunks) {
+            if (j >= other.chunks || (i < chunks && keys[i] < other.keys[j])) {
+                result.appendChunk(keys[i], arrays[i], bitmaps[i], cardinalities[i]);
+                i++;
+            } else if (i >= chunks || keys[i] > other.keys[j]) {
+                result.appendChunk(other.keys[j], other.arrays[j], other.bitmaps[j], other.cardinalities[j]);
+                j++;
+            } else {
+                result.appendOr(keys[i], this, i, other, j);
+                i++;
+                j++;
+            }
+        }
+        return result.build();
+    }
+
+    // Size of the intersection, without building it
+    public int andCardinality(@NonNull RowBitmap other) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < chunks && j < other.chunks) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += andCardinality(this, i, other, j);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    private int chunkOf(char key) {
+        int low = 0;
+        int high = chunks - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < key) {
+                low = middle + 1;
+            } else if (keys[middle] > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private static int andCardinality(RowBitmap a, int i, RowBitmap b, int j) {
+        long[] bitmapA = a.bitmaps[i];
+        long[] bitmapB = b.bitmaps[j];
+        if (bitmapA != null && bitmapB != null) {
+            int cardinality = 0;
+            for (int word = 0; word < WORDS; word++) {
+                cardinality += Long.bitCount(bitmapA[word] & bitmapB[word]);
+            }
+            return cardinality;
+        }
+        if (bitmapA != null || bitmapB != null) {
+            long[] bitmap = bitmapA != null ? bitmapA : bitmapB;
+            char[] array = bitmapA != null ? b.arrays[j] : a.arrays[i];
+            int length = bitmapA != null ? b.cardinalities[j] : a.cardinalities[i];
+            int cardinality = 0;
+            for (int k = 0; k < length; k++) {
+                char low = array[k];
+                if ((bitmap[low >>> 6] & (1L << low)) != 0) cardinality++;
+            }
+            return cardinality;
+        }
+        char[] arrayA = a.arrays[i];
+        char[] arrayB = b.arrays[j];
+        int lengthA = a.cardinalities[i];
+        int lengthB = b.cardinalities[j];
+        int cardinality = 0;
+        int x = 0;
+        int y = 0;
+        while (x < lengthA && y < lengthB) {
+            if (arrayA[x] < arrayB[y]) {
+                x++;
+            } else if (arrayA[x] > arrayB[y]) {
+                y++;
+            } else {
+                cardinality++;
+                x++;
+                y++;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * Collects rows in ascending order. Also assembles the results of
+     * {@link #and} and {@link #or} chunk by chunk.
+     */
+    public static class Builder {
+        private char[] keys = new char[4];
+        private char[][] arrays = new char[4][];
+        private long[][] bitmaps = new long[4][];
+        private int[] cardinalities = new int[4];
+        private int chunks;
+
+        // The chunk being filled by add
+        private int currentKey = -1;
+        private char[] current = new char[ARRAY_MAX];
+        private long[] currentBitmap;
+        private int currentCount;
+        private int lastRow = -1;
+
+        public Builder add(int row) {
+            if (row <= lastRow) {
+                throw new IllegalArgumentException("Rows must be added in ascending order: " + row);
+            }
+            lastRow = row;
+            int key = row >>> 16;
+            if (key != currentKey) {
+                flush();
+                currentKey = key;
+            }
+            char low = (char) row;
+            if (currentBitmap != null) {
+                currentBitmap[low >>> 6] |= 1L << low;
+            } else if (currentCount < ARRAY_MAX) {
+                current[currentCount] = low;
+            } else {
+                currentBitmap = toBitmap(current, currentCount);
+                currentBitmap[low >>> 6] |= 1L << low;
+            }
+            currentCount++;
+            return this;
+        }
+
+        public RowBitmap build() {
+            flush();
+            return chunks == 0 ? EMPTY : new RowBitmap(keys, arrays, bitmaps, cardinalities, chunks);
+        }
+
+        private void flush() {
+            if (currentCount > 0) {
+                if (currentBitmap != null) {
+                    appendChunk((char) currentKey, null, currentBitmap, currentCount);
+                } else {
+                    appendChunk((char) currentKey, Arrays.copyOf(current, currentCount), null, currentCount);
+                }
+            }
+            currentBitmap = null;
+            currentCount = 0;
+        }
+
+        // Containers are never modified after they are built, so results can share them
+        private void appendChunk(char key, char[] array, long[] bitmap, int cardinality) {
+            if (cardinality == 0) return;
+            if (chunks == keys.length) {
+                int capacity = chunks * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                arrays = Arrays.copyOf(arrays, capacity);
+                bitmaps = Arrays.copyOf(bitmaps, capacity);
+                cardinalities = Arrays.copyOf(cardinalities, capacity);
+            }
+            keys[chunks] = key;
+            arrays[chunks] = array;
+            bitmaps[chunks] = bitmap;
+            cardinalities[chunks] = cardinality;
+            chunks++;
+        }
+
+        private void appendAnd(char key, RowBitmap a, int i, RowBitmap b, int j) {
+            long[] bitmapA = a.bitmaps[i];
+            long[] bitmapB = b.bitmaps[j];
+            if (bitmapA != null && bitmapB != null) {
+                long[] words = new long[WORDS];
+                int cardinality = 0;
+                for (int word = 0; word < WORDS; word++) {
+                    words[word] = bitmapA[word] & bitmapB[word];
+                    cardinality += Long.bitCount(words[word]);
+                }
+                appendBitmapOrArray(key, words, cardinality);
+                return;
+            }
+            char[] result;
+            int count = 0;
+            if (bitmapA != null || bitmapB != null) {
+                long[] bitmap = bitmapA != null ? bitmapA : bitmapB;
+                char[] array = bitmapA != null ? b.arrays[j] : a.arrays[i];
+                int length = bitmapA != null ? b.cardinalities[j] : a.cardinalities[i];
+                result = new char[length];
+                for (int k = 0; k < length; k++) {
+                    char low = array[k];
+                    if ((bitmap[low >>> 6] & (1L << low)) != 0) result[count++] = low;
+                }
+            } else {
+                char[] arrayA = a.arrays[i];
+                char[] arrayB = b.arrays[j];
+                int lengthA = a.cardinalities[i];
+                int lengthB = b.cardinalities[j];
+                result = new char[Math.min(lengthA, lengthB)];
+                int x = 0;
+                int y = 0;
+                while (x < lengthA && y < lengthB) {
+                    if (arrayA[x] < arrayB[y]) {
+                        x++;
+                    } else if (arrayA[x] > arrayB[y]) {
+                        y++;
+                    } else {
+                        result[count++] = arrayA[x];
+                        x++;
+                        y++;
+                    }
+                }
+            }
+            appendChunk(key, result, null, count);
+        }
+
+        private void appendOr(char key, RowBitmap a, int i, RowBitmap b, int j) {
+            long[] bitmapA = a.bitmaps[i];
+            long[] bitmapB = b.bitmaps[j];
+            if (bitmapA != null || bitmapB != null) {
+                long[] words = bitmapA != null ? bitmapA.clone() : toBitmap(a.arrays[i], a.cardinalities[i]);
+                if (bitmapB != null) {
+                    for (int word = 0; word < WORDS; word++) {
+                        words[word] |= bitmapB[word];
+                    }
+                } else {
+                    char[] array = b.arrays[j];
+                    for (int k = 0; k < b.cardinalities[j]; k++) {
+                        words[array[k] >>> 6] |= 1L << array[k];
+                    }
+                }
+                int cardinality = 0;
+                for (long word : words) {
+                    cardinality += Long.bitCount(word);
+                }
+                appendChunk(key, null, words, cardinality);
+                return;
+            }
+            char[] arrayA = a.arrays[i];
+            char[] arrayB = b.arrays[j];
+            int lengthA = a.cardinalities[i];
+            int lengthB = b.cardinalities[j];
+            char[] result = new char[lengthA + lengthB];
+            int count = 0;
+            int x = 0;
+            int y = 0;
+            while (x < lengthA || y < lengthB) {
+                if (y >= lengthB || (x < lengthA && arrayA[x] < arrayB[y])) {
+                    result[count++] = arrayA[x++];
+                } else if (x >= lengthA || arrayA[x] > arrayB[y]) {
+                    result[count++] = arrayB[y++];
+                } else {
+                    result[count++] = arrayA[x];
+                    x++;
+                    y++;
+                }
+            }
+            if (count > ARRAY_MAX) {
+                appendChunk(key, null, toBitmap(result, count), count);
+            } else {
+                appendChunk(key, result, null, count);
+            }
+        }
+
+        private void appendBitmapOrArray(char key, long[] words, int cardinality) {
+            if (cardinality > ARRAY_MAX) {
+                appendChunk(key, null, words, cardinality);
+                return;
+            }
+            char[] array = new char[cardinality];
+            int count = 0;
+            for (int word = 0; word < WORDS; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    array[count++] = (char) ((word << 6) + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            appendChunk(key, array, null, cardinality);
+        }
+
+        private static long[] toBitmap(char[] array, int length) {
+            long[] words = new long[WORDS];
+            for (int k = 0; k < length; k++) {
+                words[array[k] >>> 6] |= 1L << array[k];
+            }
+            return words;
+        }
+    }
+}
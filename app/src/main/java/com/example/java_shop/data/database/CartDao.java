@@ -9,7 +9,8 @@ import androidx.room.Query;
 import androidx.room.Transaction;
 import androidx.room.Update;
 import com.example.java_shop.data.models.CartItem;
-import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.CartLine;
+import com.example.java_shop.data.models.CartSummary;
 import com.example.java_shop.data.models.CartItemWithProduct;
 import java.util.List;
 
@@ -20,6 +21,17 @@ public interface CartDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insert(CartItem cartItem);
 
+    // Adds to the existing row for the product, never past the product's current stock.
+    // Does nothing if the product is unknown, deleted or out of stock.
+    @Query("INSERT INTO cart_items (productId, quantity, priceAtAddition, addedTimestamp, lastModifiedTimestamp) " +
+           "SELECT id, MIN(:quantity, stockQuantity), :price, :timestamp, :timestamp " +
+           "FROM products WHERE id = :productId AND stockQuantity > 0 AND isDeleted = 0 " +
+           "ON CONFLICT(productId) DO UPDATE SET " +
+           "quantity = MIN(cart_items.quantity + excluded.quantity, " +
+           "(SELECT stockQuantity FROM products WHERE id = excluded.productId)), " +
+           "lastModifiedTimestamp = excluded.lastModifiedTimestamp")
+    void addOrMergeQuantity(String productId, int quantity, double price, long timestamp);
+
     // Update operations
     @Update
     void update(CartItem cartItem);
@@ -34,6 +46,13 @@ public interface CartDao {
     @Query("DELETE FROM cart_items WHERE productId = :productId")
     void removeProduct(String productId);
 
+    // Cart items of products deleted by catalog sync
+    @Query("DELETE FROM cart_items WHERE productId IN (:productIds)")
+    void removeProducts(List<String> productIds);
+
+    @Query("DELETE FROM cart_items WHERE id IN (:cartItemIds)")
+    void deleteByIds(List<Long> cartItemIds);
+
     // Basic queries
     @Query("SELECT * FROM cart_items")
     LiveData<List<CartItem>> getAllCartItems();
@@ -41,20 +60,30 @@ public interface CartDao {
     @Query("SELECT * FROM cart_items WHERE id = :cartItemId")
     LiveData<CartItem> getCartItem(long cartItemId);
 
-    // Cart item with product details
+    // Cart lines with the product columns the cart and checkout screens need, in one JOIN
+    String CART_LINES = "SELECT cart_items.id, cart_items.productId, cart_items.quantity, " +
+           "cart_items.priceAtAddition, products.name, products.imageUrl, products.price, products.stockQuantity " +
+           "FROM cart_items INNER JOIN products ON products.id = cart_items.productId " +
+           "ORDER BY cart_items.id";
+
+    @Query(CART_LINES)
+    LiveData<List<CartLine>> getCartLines();
+
+    @Query(CART_LINES)
+    List<CartLine> getCartLinesSync();
+
+    // Full cart items and products via @Relation; kept as the baseline for getCartLines
     @Transaction
     @Query("SELECT * FROM cart_items")
     LiveData<List<CartItemWithProduct>> getCartItemsWithProducts();
 
-    // Cart summary queries
-    @Query("SELECT COUNT(*) FROM cart_items")
-    LiveData<Integer> getCartItemCount();
-
-    @Query("SELECT SUM(quantity) FROM cart_items")
-    LiveData<Integer> getTotalItemCount();
-
-    @Query("SELECT SUM(quantity * priceAtAddition) FROM cart_items")
-    LiveData<Double> getCartTotal();
+    // Cart summary: line count, unit count and both subtotals in one pass
+    @Query("SELECT COUNT(*) AS lineCount, " +
+           "COALESCE(SUM(cart_items.quantity), 0) AS unitCount, " +
+           "COALESCE(SUM(cart_items.quantity * products.price), 0) AS subtotal, " +
+           "COALESCE(SUM(cart_items.quantity * cart_items.priceAtAddition), 0) AS subtotalAtAddition " +
+           "FROM cart_items INNER JOIN products ON products.id = cart_items.productId")
+    LiveData<CartSummary> getCartSummary();
 
     // Quantity management
     @Query("SELECT quantity FROM cart_items WHERE productId = :productId")
@@ -0,0 +1,41 @@
+package com.example.java_shop.data.database;
+
+import android.database.Cursor;
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Counts writes to the products columns held by the in-memory catalog other than
+ * stockQuantity. Room only reports that products changed; this version tells stock
+ * movements apart from catalog edits, see InMemoryCatalog.
+ *
+ * The counter is a temp table bumped by temp triggers, the way Room tracks its own
+ * invalidations. Temp objects only exist on the connection that runs the writes, so
+ * {@link #getVersion} has to be called inside a transaction.
+ */
+public class CatalogChangeTracker extends RoomDatabase.Callback {
+    // Every column of ProductDao.getCatalogColumns except stockQuantity, plus isDeleted
+    private static final String CATALOG_COLUMNS = "id, name, imageUrl, price, originalPrice, "
+        + "discountPercentage, offerValidUntilTimestamp, rating, isFeatured, categoryId, isDeleted";
+    private static final String BUMP = " ON products BEGIN UPDATE catalog_changes SET version = version + 1; END";
+
+    @Override
+    public void onOpen(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TEMP TABLE IF NOT EXISTS catalog_changes (version INTEGER NOT NULL)");
+        db.execSQL("INSERT INTO catalog_changes SELECT 0 WHERE NOT EXISTS (SELECT 1 FROM catalog_changes)");
+        db.execSQL("CREATE TEMP TRIGGER IF NOT EXISTS catalog_changes_insert AFTER INSERT" + BUMP);
+        db.execSQL("CREATE TEMP TRIGGER IF NOT EXISTS catalog_changes_delete AFTER DELETE" + BUMP);
+        db.execSQL("CREATE TEMP TRIGGER IF NOT EXISTS catalog_changes_update AFTER UPDATE OF "
+            + CATALOG_COLUMNS + BUMP);
+    }
+
+    // Changes since the database was opened; call inside a transaction
+    @WorkerThread
+    public static long getVersion(@NonNull RoomDatabase database) {
+        try (Cursor cursor = database.query("SELECT version FROM catalog_changes", null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+}
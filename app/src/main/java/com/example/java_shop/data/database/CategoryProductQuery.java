@@ -0,0 +1,106 @@
+package com.example.java_shop.data.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import com.example.java_shop.data.models.ProductSummary;
+import com.example.java_shop.viewmodels.CategoryDetailsViewModel.SortOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the keyset page query for one category listing, run through
+ * {@link ProductDao#getProducts(SupportSQLiteQuery)}.
+ *
+ * Every sort option maps onto one of the (categoryId, sortColumn, id) indexes on
+ * products, so a page is an index range scan with no sort step. The stock filter
+ * is only added when it is on, instead of a bound flag SQLite can't plan around.
+ */
+public final class CategoryProductQuery {
+
+    // The only sort column without a NOT NULL constraint
+    private static final String NULLABLE_COLUMN = "name";
+
+    private CategoryProductQuery() {
+    }
+
+    public static SupportSQLiteQuery page(@NonNull String categoryId, @NonNull SortOption sortOption,
+                                          boolean inStockOnly, @Nullable Object afterSortKey,
+                                          @Nullable String afterId, int limit) {
+        String column = sortColumn(sortOption);
+        boolean descending = isDescending(sortOption);
+        List<Object> args = new ArrayList<>();
+
+        StringBuilder filter = new StringBuilder(" FROM products WHERE categoryId = ? AND isDeleted = 0");
+        if (inStockOnly) {
+            filter.append(" AND stockQuantity > 0");
+        }
+        String direction = descending ? " DESC" : " ASC";
+        String orderBy = " ORDER BY " + column + direction + ", id" + direction + " LIMIT ?";
+
+        StringBuilder sql = new StringBuilder("SELECT " + ProductSummary.COLUMNS).append(filter);
+        args.add(categoryId);
+        if (afterId != null && afterSortKey == null) {
+            // Only names can be NULL. NULLs sort first, so ascending the page ended among them
+            // and the rest are the later NULLs then every name; descending only later NULLs remain
+            sql.append(descending
+                ? " AND " + column + " IS NULL AND id < ?"
+                : " AND (" + column + " IS NULL AND id > ? OR " + column + " IS NOT NULL)");
+            args.add(afterId);
+        } else if (afterId != null) {
+            // Row value comparison lets SQLite seek straight to the end of the previous page
+            sql.append(" AND (").append(column).append(", id) ")
+                .append(descending ? "<" : ">").append(" (?, ?)");
+            args.add(afterSortKey);
+            args.add(afterId);
+            if (descending && NULLABLE_COLUMN.equals(column)) {
+                // A NULL name never passes the comparison, and descending the NULLs come
+                // last; both halves are index ranges in order, which SQLite merges
+                sql.append(" UNION ALL SELECT " + ProductSummary.COLUMNS).append(filter)
+                    .append(" AND ").append(column).append(" IS NULL");
+                args.add(categoryId);
+            }
+        }
+        sql.append(orderBy);
+        args.add(limit);
+
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+
+    // Value of the sort column for the row a page ended on; null for a product without a name
+    @Nullable
+    public static Object sortKeyOf(@NonNull ProductSummary product, @NonNull SortOption sortOption) {
+        switch (sortOption) {
+            case NAME_ASC:
+            case NAME_DESC:
+                return product.getName();
+            case PRICE_LOW_HIGH:
+            case PRICE_HIGH_LOW:
+                return product.getPrice();
+            case RATING:
+            default:
+                return product.getRating();
+        }
+    }
+
+    private static String sortColumn(SortOption sortOption) {
+        switch (sortOption) {
+            case NAME_ASC:
+            case NAME_DESC:
+                return "name";
+            case PRICE_LOW_HIGH:
+            case PRICE_HIGH_LOW:
+                return "price";
+            case RATING:
+            default:
+                return "rating";
+        }
+    }
+
+    private static boolean isDescending(SortOption sortOption) {
+        return sortOption == SortOption.NAME_DESC
+            || sortOption == SortOption.PRICE_HIGH_LOW
+            || sortOption == SortOption.RATING;
+    }
+}
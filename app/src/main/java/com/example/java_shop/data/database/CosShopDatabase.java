@@ -1,30 +1,44 @@
 package com.example.java_shop.data.database;
 
 import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import androidx.annotation.VisibleForTesting;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import java.util.concurrent.Executor;
 import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.ProductFts;
 import com.example.java_shop.data.models.Category;
 import com.example.java_shop.data.models.CartItem;
 import com.example.java_shop.data.models.User;
 import com.example.java_shop.data.models.Address;
 import com.example.java_shop.data.models.Order;
 import com.example.java_shop.data.models.OrderItem;
+import com.example.java_shop.data.models.SeedRecord;
+import com.example.java_shop.data.models.ImportCheckpoint;
+import com.example.java_shop.data.models.SyncState;
+import com.example.java_shop.data.models.StockMovement;
 import com.example.java_shop.utils.Converters;
 
 @Database(
     entities = {
         Product.class,
+        ProductFts.class,
         Category.class,
         CartItem.class,
         User.class,
         Address.class,
         Order.class,
-        OrderItem.class
+        OrderItem.class,
+        SeedRecord.class,
+        StockMovement.class,
+        ImportCheckpoint.class,
+        SyncState.class
     },
-    version = 8, // Increment version after schema changes:
+    version = 17, // Increment version after schema changes:
     // v1: Initial schema
     // v2: Added new fields to Product
     // v3: Updated Category schema
@@ -32,7 +46,16 @@ import com.example.java_shop.utils.Converters;
     // v5: Added offerValidUntilTimestamp and originalPrice fields to Product
     // v6: Added User, Address, Order, and OrderItem entities
     // v7: Added foreign key and index to Category schema
-    exportSchema = false
+    // v9: Added products_fts full-text index
+    // v10: Added seed_records for versioned catalog seeding
+    // v11: Replaced products categoryId index with per-sort (categoryId, sortColumn, id) indexes
+    // v12: Made cart_items productId unique
+    // v13: Added stock_movements inventory ledger
+    // v14: Added indexes for featured/offer/price queries, unique users email and orders (userId, orderDate)
+    // v15: Added import_checkpoints for resumable catalog imports
+    // v16: Added sync_state for delta catalog sync
+    // v17: Added products isDeleted for products tombstoned by catalog sync
+    exportSchema = true // Read by generateCatalogDatabase to build the prepackaged asset
 )
 @TypeConverters({Converters.class})
 public abstract class CosShopDatabase extends RoomDatabase {
@@ -44,6 +67,11 @@ public abstract class CosShopDatabase extends RoomDatabase {
     public abstract UserDao userDao();
     public abstract AddressDao addressDao();
     public abstract OrderDao orderDao();
+    public abstract SeedDao seedDao();
+    public abstract InventoryDao inventoryDao();
+    public abstract SyncDao syncDao();
+
+    public static final String DATABASE_NAME = "cosmetics_shop_db";
 
     // Singleton instance
     private static volatile CosShopDatabase INSTANCE;
@@ -53,16 +81,48 @@ public abstract class CosShopDatabase extends RoomDatabase {
         if (INSTANCE == null) {
             synchronized (CosShopDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(
-                        context.getApplicationContext(),
-                        CosShopDatabase.class,
-                        "cosmetics_shop_db"
-                    )
-                    .fallbackToDestructiveMigration() // For development only
-                    .build();
+                    // Query stats are collected by default in debuggable builds only
+                    boolean debuggable = (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+                    if (debuggable) {
+                        QueryStats.getInstance().setEnabled(true);
+                    }
+                    INSTANCE = open(context, DATABASE_NAME);
                 }
             }
         }
         return INSTANCE;
     }
+
+    // The app's database file, opened the way getDatabase opens it. Tests pass their own
+    // name so they exercise the real open path without touching the app's data
+    @VisibleForTesting
+    public static CosShopDatabase open(final Context context, String name) {
+        return Room.databaseBuilder(context.getApplicationContext(), CosShopDatabase.class, name)
+            // Prepackaged catalog generated at build time from seed/catalog.json;
+            // also re-copied after a destructive migration
+            .createFromAsset("databases/" + DATABASE_NAME)
+            .fallbackToDestructiveMigration() // For development only
+            // LiveData queries share the bounded read lane with the repositories
+            .setQueryExecutor(DatabaseScheduler.getInstance().executor(DatabaseScheduler.Lane.UI_READ))
+            .addCallback(new CatalogChangeTracker())
+            .openHelperFactory(instrumentedFactory())
+            .build();
+    }
+
+    // Unnamed database that lives only as long as the returned instance. It starts
+    // empty (the prepackaged asset can't be copied into memory) and is meant for
+    // Robolectric tests and JVM benchmarks.
+    public static CosShopDatabase createInMemory(final Context context, Executor queryExecutor) {
+        return Room.inMemoryDatabaseBuilder(context.getApplicationContext(), CosShopDatabase.class)
+            .setQueryExecutor(queryExecutor)
+            .allowMainThreadQueries()
+            .addCallback(new CatalogChangeTracker())
+            .openHelperFactory(instrumentedFactory())
+            .build();
+    }
+
+    // Times every statement into QueryStats; close to free while stats are disabled
+    private static InstrumentedOpenHelperFactory instrumentedFactory() {
+        return new InstrumentedOpenHelperFactory(new FrameworkSQLiteOpenHelperFactory(), QueryStats.getInstance());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,235 @@
+package com.example.java_shop.data.database;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * App-wide scheduler for database work, shared by every repository.
+ *
+ * Reads run on a small bounded pool. Writes run on a single thread, because SQLite
+ * only has one writer anyway and that keeps writes from the same screen in order.
+ * Within each pool, tasks from a higher priority lane are taken first and tasks of
+ * the same lane run FIFO.
+ */
+public class DatabaseScheduler {
+    private static final String TAG = "DatabaseScheduler";
+    private static final int READ_THREADS = 3;
+
+    public enum Lane {
+        // Reads a screen is waiting on, including Room's LiveData queries
+        UI_READ(0, true),
+        // Reads nobody is waiting on, such as cache rebuilds
+        BACKGROUND_READ(1, true),
+        // Writes triggered directly by the user
+        USER_WRITE(0, false),
+        // Cleanup and other work nobody is waiting on
+        BACKGROUND(1, false);
+
+        private final int priority;
+        private final boolean read;
+
+        Lane(int priority, boolean read) {
+            this.priority = priority;
+            this.read = read;
+        }
+    }
+
+    private static volatile DatabaseScheduler INSTANCE;
+
+    private final ThreadPoolExecutor readPool;
+    private final ThreadPoolExecutor writePool;
+    private final ExecutorService jobExecutor;
+    private final Map<Lane, Executor> laneExecutors = new EnumMap<>(Lane.class);
+    private final Map<Lane, LaneMetrics> metrics = new EnumMap<>(Lane.class);
+    private final AtomicLong sequence = new AtomicLong();
+
+    public static DatabaseScheduler getInstance() {
+        if (INSTANCE == null) {
+            synchronized (DatabaseScheduler.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new DatabaseScheduler();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private DatabaseScheduler() {
+        readPool = newPool(READ_THREADS, "db-read");
+        writePool = newPool(1, "db-write");
+        jobExecutor = Executors.newSingleThreadExecutor(newThreadFactory("db-job"));
+        for (Lane lane : Lane.values()) {
+            metrics.put(lane, new LaneMetrics());
+            ThreadPoolExecutor pool = lane.read ? readPool : writePool;
+            laneExecutors.put(lane, command -> submit(pool, lane, command));
+        }
+    }
+
+    private static ThreadPoolExecutor newPool(int threads, String name) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(), newThreadFactory(name));
+    }
+
+    private static ThreadFactory newThreadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Returns an executor that schedules onto the given lane.
+     */
+    public Executor executor(Lane lane) {
+        return laneExecutors.get(lane);
+    }
+
+    public void execute(Lane lane, Runnable command) {
+        executor(lane).execute(command);
+    }
+
+    /**
+     * Returns the executor for long jobs that read from the network or a file and
+     * wait for their own writes on the {@link Lane#BACKGROUND} lane, such as catalog
+     * imports and syncs. Jobs run one at a time on a thread of their own, so they
+     * queue behind each other and never hold a pool thread while they wait.
+     */
+    public Executor jobExecutor() {
+        return jobExecutor;
+    }
+
+    private void submit(ThreadPoolExecutor pool, Lane lane, Runnable command) {
+        LaneMetrics laneMetrics = metrics.get(lane);
+        laneMetrics.queued.incrementAndGet();
+        laneMetrics.submitted.incrementAndGet();
+        pool.execute(new PrioritizedTask(lane, sequence.getAndIncrement(), command, laneMetrics));
+    }
+
+    // Metrics
+
+    public List<LaneStats> getStats() {
+        List<LaneStats> stats = new ArrayList<>();
+        for (Lane lane : Lane.values()) {
+            LaneMetrics m = metrics.get(lane);
+            stats.add(new LaneStats(lane, m.queued.get(), m.submitted.get(), m.completed.get(),
+                m.totalWaitNanos.get(), m.maxWaitNanos.get()));
+        }
+        return stats;
+    }
+
+    public void logStats() {
+        for (LaneStats stats : getStats()) {
+            Log.d(TAG, stats.toString());
+        }
+    }
+
+    public static class LaneStats {
+        private final Lane lane;
+        private final int queueDepth;
+        private final long submitted;
+        private final long completed;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+
+        LaneStats(Lane lane, int queueDepth, long submitted, long completed,
+                  long totalWaitNanos, long maxWaitNanos) {
+            this.lane = lane;
+            this.queueDepth = queueDepth;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        public Lane getLane() {
+            return lane;
+        }
+
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public double getAverageWaitMillis() {
+            return completed == 0 ? 0 : totalWaitNanos / 1e6 / completed;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1e6;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: queued=%d submitted=%d completed=%d avgWait=%.2fms maxWait=%.2fms",
+                lane, queueDepth, submitted, completed, getAverageWaitMillis(), getMaxWaitMillis());
+        }
+    }
+
+    private static class LaneMetrics {
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicLong submitted = new AtomicLong();
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong totalWaitNanos = new AtomicLong();
+        final AtomicLong maxWaitNanos = new AtomicLong();
+    }
+
+    private static class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+        private final Lane lane;
+        private final long sequence;
+        private final Runnable command;
+        private final LaneMetrics metrics;
+        private final long enqueuedAt = System.nanoTime();
+
+        PrioritizedTask(Lane lane, long sequence, Runnable command, LaneMetrics metrics) {
+            this.lane = lane;
+            this.sequence = sequence;
+            this.command = command;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void run() {
+            long waited = System.nanoTime() - enqueuedAt;
+            metrics.queued.decrementAndGet();
+            metrics.totalWaitNanos.addAndGet(waited);
+            metrics.maxWaitNanos.accumulateAndGet(waited, Math::max);
+            try {
+                command.run();
+            } finally {
+                metrics.completed.incrementAndGet();
+            }
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            if (lane.priority != other.lane.priority) {
+                return Integer.compare(lane.priority, other.lane.priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
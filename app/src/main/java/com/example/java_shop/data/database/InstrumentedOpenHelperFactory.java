@@ -0,0 +1,555 @@
+package com.example.java_shop.data.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteTransactionListener;
+import android.os.CancellationSignal;
+import android.util.Pair;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Open helper factory that times every statement and transaction and reports
+ * them to {@link QueryStats}.
+ *
+ * A query is timed from the call until its cursor is closed. SQLite only steps
+ * through the rows as the cursor is read, so that span includes running the
+ * query, not just preparing it.
+ */
+public class InstrumentedOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
+    private final SupportSQLiteOpenHelper.Factory delegate;
+    private final QueryStats stats;
+
+    public InstrumentedOpenHelperFactory(SupportSQLiteOpenHelper.Factory delegate, QueryStats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    @NonNull
+    @Override
+    public SupportSQLiteOpenHelper create(@NonNull SupportSQLiteOpenHelper.Configuration configuration) {
+        return new InstrumentedOpenHelper(delegate.create(configuration), stats);
+    }
+
+    private static class InstrumentedOpenHelper implements SupportSQLiteOpenHelper {
+        private final SupportSQLiteOpenHelper delegate;
+        private final QueryStats stats;
+        // Outermost transaction of each thread, if it is being timed. Kept here rather
+        // than on the database wrapper so a replaced wrapper can't lose track of it.
+        private final ThreadLocal<TransactionTimer> transaction = new ThreadLocal<>();
+        private volatile InstrumentedDatabase database;
+
+        InstrumentedOpenHelper(SupportSQLiteOpenHelper delegate, QueryStats stats) {
+            this.delegate = delegate;
+            this.stats = stats;
+        }
+
+        @Nullable
+        @Override
+        public String getDatabaseName() {
+            return delegate.getDatabaseName();
+        }
+
+        @Override
+        public void setWriteAheadLoggingEnabled(boolean enabled) {
+            delegate.setWriteAheadLoggingEnabled(enabled);
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteDatabase getWritableDatabase() {
+            return wrap(delegate.getWritableDatabase());
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteDatabase getReadableDatabase() {
+            return wrap(delegate.getReadableDatabase());
+        }
+
+        // The delegate hands out the same connection wrapper every time, so keep one
+        // instrumented wrapper per underlying database
+        private SupportSQLiteDatabase wrap(SupportSQLiteDatabase db) {
+            InstrumentedDatabase current = database;
+            if (current == null || current.delegate != db) {
+                current = new InstrumentedDatabase(db, stats, transaction);
+                database = current;
+            }
+            return current;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    private static class InstrumentedDatabase implements SupportSQLiteDatabase {
+        final SupportSQLiteDatabase delegate;
+        private final QueryStats stats;
+        private final ThreadLocal<TransactionTimer> transaction;
+
+        InstrumentedDatabase(SupportSQLiteDatabase delegate, QueryStats stats,
+                             ThreadLocal<TransactionTimer> transaction) {
+            this.delegate = delegate;
+            this.stats = stats;
+            this.transaction = transaction;
+        }
+
+        // Queries
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull String query) {
+            if (!stats.isEnabled()) return delegate.query(query);
+            long start = System.nanoTime();
+            return timed(delegate.query(query), query, start);
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull String query, @NonNull Object[] bindArgs) {
+            if (!stats.isEnabled()) return delegate.query(query, bindArgs);
+            long start = System.nanoTime();
+            return timed(delegate.query(query, bindArgs), query, start);
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull SupportSQLiteQuery query) {
+            if (!stats.isEnabled()) return delegate.query(query);
+            long start = System.nanoTime();
+            return timed(delegate.query(query), query.getSql(), start);
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull SupportSQLiteQuery query, @Nullable CancellationSignal cancellationSignal) {
+            if (!stats.isEnabled()) return delegate.query(query, cancellationSignal);
+            long start = System.nanoTime();
+            return timed(delegate.query(query, cancellationSignal), query.getSql(), start);
+        }
+
+        private Cursor timed(Cursor cursor, String sql, long start) {
+            countStatement();
+            return new TimedCursor(cursor, sql, start, stats);
+        }
+
+        // Statements
+
+        @NonNull
+        @Override
+        public SupportSQLiteStatement compileStatement(@NonNull String sql) {
+            // Always wrapped: Room caches compiled statements for the life of the
+            // database, so they must still be timed if stats are enabled later
+            return new InstrumentedStatement(delegate.compileStatement(sql), sql, this);
+        }
+
+        @Override
+        public void execSQL(@NonNull String sql) throws SQLException {
+            if (!stats.isEnabled()) {
+                delegate.execSQL(sql);
+                return;
+            }
+            long start = System.nanoTime();
+            delegate.execSQL(sql);
+            recordStatement(sql, System.nanoTime() - start, 0);
+        }
+
+        @Override
+        public void execSQL(@NonNull String sql, @NonNull Object[] bindArgs) throws SQLException {
+            if (!stats.isEnabled()) {
+                delegate.execSQL(sql, bindArgs);
+                return;
+            }
+            long start = System.nanoTime();
+            delegate.execSQL(sql, bindArgs);
+            recordStatement(sql, System.nanoTime() - start, 0);
+        }
+
+        @Override
+        public long insert(@NonNull String table, int conflictAlgorithm, @NonNull ContentValues values)
+                throws SQLException {
+            if (!stats.isEnabled()) return delegate.insert(table, conflictAlgorithm, values);
+            long start = System.nanoTime();
+            long rowId = delegate.insert(table, conflictAlgorithm, values);
+            recordStatement("INSERT INTO " + table + " " + values.keySet(), System.nanoTime() - start,
+                rowId != -1 ? 1 : 0);
+            return rowId;
+        }
+
+        @Override
+        public int delete(@NonNull String table, @Nullable String whereClause, @Nullable Object[] whereArgs) {
+            if (!stats.isEnabled()) return delegate.delete(table, whereClause, whereArgs);
+            long start = System.nanoTime();
+            int rows = delegate.delete(table, whereClause, whereArgs);
+            recordStatement("DELETE FROM " + table + (whereClause != null ? " WHERE " + whereClause : ""),
+                System.nanoTime() - start, rows);
+            return rows;
+        }
+
+        @Override
+        public int update(@NonNull String table, int conflictAlgorithm, @NonNull ContentValues values,
+                          @Nullable String whereClause, @Nullable Object[] whereArgs) {
+            if (!stats.isEnabled()) {
+                return delegate.update(table, conflictAlgorithm, values, whereClause, whereArgs);
+            }
+            long start = System.nanoTime();
+            int rows = delegate.update(table, conflictAlgorithm, values, whereClause, whereArgs);
+            recordStatement(String.format(Locale.US, "UPDATE %s SET %s%s", table, values.keySet(),
+                whereClause != null ? " WHERE " + whereClause : ""), System.nanoTime() - start, rows);
+            return rows;
+        }
+
+        void recordStatement(String sql, long durationNanos, long rows) {
+            countStatement();
+            stats.recordStatement(sql, durationNanos, rows);
+        }
+
+        private void countStatement() {
+            TransactionTimer timer = transaction.get();
+            if (timer != null) {
+                timer.statements++;
+            }
+        }
+
+        // Transactions
+
+        @Override
+        public void beginTransaction() {
+            long start = outermostStart();
+            delegate.beginTransaction();
+            onBegin(start);
+        }
+
+        @Override
+        public void beginTransactionNonExclusive() {
+            long start = outermostStart();
+            delegate.beginTransactionNonExclusive();
+            onBegin(start);
+        }
+
+        @Override
+        public void beginTransactionWithListener(@NonNull SQLiteTransactionListener transactionListener) {
+            long start = outermostStart();
+            delegate.beginTransactionWithListener(transactionListener);
+            onBegin(start);
+        }
+
+        @Override
+        public void beginTransactionWithListenerNonExclusive(@NonNull SQLiteTransactionListener transactionListener) {
+            long start = outermostStart();
+            delegate.beginTransactionWithListenerNonExclusive(transactionListener);
+            onBegin(start);
+        }
+
+        @Override
+        public void setTransactionSuccessful() {
+            delegate.setTransactionSuccessful();
+            TransactionTimer timer = transaction.get();
+            if (timer != null && timer.depth == 1) {
+                timer.successful = true;
+            }
+        }
+
+        @Override
+        public void endTransaction() {
+            TransactionTimer timer = transaction.get();
+            boolean outermost = timer != null && --timer.depth == 0;
+            try {
+                delegate.endTransaction();
+            } finally {
+                if (outermost) {
+                    transaction.remove();
+                    stats.recordTransaction(System.nanoTime() - timer.start, timer.statements, timer.successful);
+                }
+            }
+        }
+
+        // Only the outermost transaction is timed, from before it waits for the
+        // write lock; nested ones commit with it. Returns -1 if nothing is timed.
+        private long outermostStart() {
+            if (transaction.get() != null || !stats.isEnabled() || delegate.inTransaction()) return -1;
+            return System.nanoTime();
+        }
+
+        private void onBegin(long outermostStart) {
+            TransactionTimer timer = transaction.get();
+            if (timer != null) {
+                timer.depth++;
+            } else if (outermostStart != -1) {
+                transaction.set(new TransactionTimer(outermostStart));
+            }
+        }
+
+        @Override
+        public boolean inTransaction() {
+            return delegate.inTransaction();
+        }
+
+        @Override
+        public boolean isDbLockedByCurrentThread() {
+            return delegate.isDbLockedByCurrentThread();
+        }
+
+        @Override
+        public boolean yieldIfContendedSafely() {
+            return delegate.yieldIfContendedSafely();
+        }
+
+        @Override
+        public boolean yieldIfContendedSafely(long sleepAfterYieldDelayMillis) {
+            return delegate.yieldIfContendedSafely(sleepAfterYieldDelayMillis);
+        }
+
+        // Everything else is passed through
+
+        @Override
+        public int getVersion() {
+            return delegate.getVersion();
+        }
+
+        @Override
+        public void setVersion(int version) {
+            delegate.setVersion(version);
+        }
+
+        @Override
+        public long getMaximumSize() {
+            return delegate.getMaximumSize();
+        }
+
+        @Override
+        public long setMaximumSize(long numBytes) {
+            return delegate.setMaximumSize(numBytes);
+        }
+
+        @Override
+        public long getPageSize() {
+            return delegate.getPageSize();
+        }
+
+        @Override
+        public void setPageSize(long pageSize) {
+            delegate.setPageSize(pageSize);
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return delegate.isReadOnly();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public boolean needUpgrade(int newVersion) {
+            return delegate.needUpgrade(newVersion);
+        }
+
+        @Nullable
+        @Override
+        public String getPath() {
+            return delegate.getPath();
+        }
+
+        @Override
+        public void setLocale(@NonNull Locale locale) {
+            delegate.setLocale(locale);
+        }
+
+        @Override
+        public void setMaxSqlCacheSize(int cacheSize) {
+            delegate.setMaxSqlCacheSize(cacheSize);
+        }
+
+        @Override
+        public void setForeignKeyConstraintsEnabled(boolean enabled) {
+            delegate.setForeignKeyConstraintsEnabled(enabled);
+        }
+
+        @Override
+        public boolean enableWriteAheadLogging() {
+            return delegate.enableWriteAheadLogging();
+        }
+
+        @Override
+        public void disableWriteAheadLogging() {
+            delegate.disableWriteAheadLogging();
+        }
+
+        @Override
+        public boolean isWriteAheadLoggingEnabled() {
+            return delegate.isWriteAheadLoggingEnabled();
+        }
+
+        @Nullable
+        @Override
+        public List<Pair<String, String>> getAttachedDbs() {
+            return delegate.getAttachedDbs();
+        }
+
+        @Override
+        public boolean isDatabaseIntegrityOk() {
+            return delegate.isDatabaseIntegrityOk();
+        }
+
+        @Override
+        public boolean isExecPerConnectionSQLSupported() {
+            return delegate.isExecPerConnectionSQLSupported();
+        }
+
+        @Override
+        public void execPerConnectionSQL(@NonNull String sql, @Nullable Object[] bindArgs) {
+            delegate.execPerConnectionSQL(sql, bindArgs);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    private static class TransactionTimer {
+        final long start;
+        int depth = 1;
+        int statements;
+        boolean successful;
+
+        TransactionTimer(long start) {
+            this.start = start;
+        }
+    }
+
+    private static class TimedCursor extends CursorWrapper {
+        private final String sql;
+        private final long start;
+        private final QueryStats stats;
+        private boolean recorded;
+
+        TimedCursor(Cursor cursor, String sql, long start, QueryStats stats) {
+            super(cursor);
+            this.sql = sql;
+            this.start = start;
+            this.stats = stats;
+        }
+
+        @Override
+        public void close() {
+            if (!recorded) {
+                recorded = true;
+                long duration = System.nanoTime() - start;
+                // Room reads every row before closing, so the count is already known
+                // and this doesn't run the query again
+                stats.recordStatement(sql, duration, isClosed() ? 0 : getCount());
+            }
+            super.close();
+        }
+    }
+
+    private static class InstrumentedStatement implements SupportSQLiteStatement {
+        private final SupportSQLiteStatement delegate;
+        private final String sql;
+        private final InstrumentedDatabase database;
+
+        InstrumentedStatement(SupportSQLiteStatement delegate, String sql, InstrumentedDatabase database) {
+            this.delegate = delegate;
+            this.sql = sql;
+            this.database = database;
+        }
+
+        @Override
+        public void execute() {
+            if (!database.stats.isEnabled()) {
+                delegate.execute();
+                return;
+            }
+            long start = System.nanoTime();
+            delegate.execute();
+            database.recordStatement(sql, System.nanoTime() - start, 0);
+        }
+
+        @Override
+        public int executeUpdateDelete() {
+            if (!database.stats.isEnabled()) return delegate.executeUpdateDelete();
+            long start = System.nanoTime();
+            int rows = delegate.executeUpdateDelete();
+            database.recordStatement(sql, System.nanoTime() - start, rows);
+            return rows;
+        }
+
+        @Override
+        public long executeInsert() {
+            if (!database.stats.isEnabled()) return delegate.executeInsert();
+            long start = System.nanoTime();
+            long rowId = delegate.executeInsert();
+            database.recordStatement(sql, System.nanoTime() - start, rowId != -1 ? 1 : 0);
+            return rowId;
+        }
+
+        @Override
+        public long simpleQueryForLong() {
+            if (!database.stats.isEnabled()) return delegate.simpleQueryForLong();
+            long start = System.nanoTime();
+            long value = delegate.simpleQueryForLong();
+            database.recordStatement(sql, System.nanoTime() - start, 1);
+            return value;
+        }
+
+        @Nullable
+        @Override
+        public String simpleQueryForString() {
+            if (!database.stats.isEnabled()) return delegate.simpleQueryForString();
+            long start = System.nanoTime();
+            String value = delegate.simpleQueryForString();
+            database.recordStatement(sql, System.nanoTime() - start, 1);
+            return value;
+        }
+
+        @Override
+        public void bindNull(int index) {
+            delegate.bindNull(index);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            delegate.bindLong(index, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            delegate.bindDouble(index, value);
+        }
+
+        @Override
+        public void bindString(int index, @NonNull String value) {
+            delegate.bindString(index, value);
+        }
+
+        @Override
+        public void bindBlob(int index, @NonNull byte[] value) {
+            delegate.bindBlob(index, value);
+        }
+
+        @Override
+        public void clearBindings() {
+            delegate.clearBindings();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.java_shop.data.database;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import com.example.java_shop.data.models.StockMovement;
+import java.util.List;
+
+@Dao
+public interface InventoryDao {
+    /** Returned by {@link #applyMovement} when the movement would take stock below zero. */
+    int REJECTED = -1;
+
+    @Insert
+    long insertMovement(StockMovement movement);
+
+    // Snapshot update; matches no row if the product is unknown or the result would be negative
+    @Query("UPDATE products SET stockQuantity = stockQuantity + :delta " +
+           "WHERE id = :productId AND stockQuantity + :delta >= 0")
+    int applyDelta(String productId, int delta);
+
+    @Query("SELECT stockQuantity FROM products WHERE id = :productId")
+    Integer getStockQuantity(String productId);
+
+    // Adjustment for each of the given products whose stock no longer matches its latest
+    // movement, e.g. after an import overwrote it; new products get their opening row
+    @Query("INSERT INTO stock_movements (productId, type, delta, balanceAfter, reference, createdAt) " +
+           "SELECT products.id, 'ADJUSTMENT', products.stockQuantity - IFNULL(latest.balanceAfter, 0), " +
+           "products.stockQuantity, :reference, :createdAt FROM products " +
+           "LEFT JOIN stock_movements AS latest ON latest.id = " +
+           "(SELECT MAX(id) FROM stock_movements WHERE productId = products.id) " +
+           "WHERE products.id IN (:productIds) " +
+           "AND (latest.id IS NULL OR latest.balanceAfter != products.stockQuantity)")
+    void recordStockChanges(List<String> productIds, String reference, long createdAt);
+
+    /**
+     * Applies {@code delta} to the product's stock and appends the matching ledger row.
+     *
+     * @return the new stock level, or {@link #REJECTED} if nothing was changed
+     */
+    @Transaction
+    default int applyMovement(String productId, String type, int delta, String reference) {
+        if (applyDelta(productId, delta) == 0) {
+            return REJECTED;
+        }
+        int balance = getStockQuantity(productId);
+        insertMovement(new StockMovement(productId, type, delta, balance, reference,
+            System.currentTimeMillis()));
+        return balance;
+    }
+
+    // Sets an absolute level, recorded as an adjustment by the difference
+    @Transaction
+    default int adjustTo(String productId, int newQuantity, String reference) {
+        Integer current = getStockQuantity(productId);
+        if (current == null || newQuantity < 0) {
+            return REJECTED;
+        }
+        if (current == newQuantity) {
+            return current;
+        }
+        return applyMovement(productId, StockMovement.TYPE_ADJUSTMENT, newQuantity - current, reference);
+    }
+
+    // Ledger queries
+    @Query("SELECT * FROM stock_movements WHERE productId = :productId ORDER BY id DESC")
+    LiveData<List<StockMovement>> getMovementsForProduct(String productId);
+
+    @Query("SELECT COALESCE(SUM(delta), 0) FROM stock_movements WHERE productId = :productId")
+    int getLedgerTotal(String productId);
+
+    // Movements after a ledger id, oldest first; InMemoryCatalog patches its stock column from these
+    @Query("SELECT * FROM stock_movements WHERE id > :afterId ORDER BY id")
+    List<StockMovement> getMovementsAfter(long afterId);
+
+    @Query("SELECT IFNULL(MAX(id), 0) FROM stock_movements")
+    long getLatestMovementId();
+
+    // Products whose stock snapshot disagrees with the balance of their latest movement
+    @Query("SELECT products.id FROM products " +
+           "INNER JOIN stock_movements ON stock_movements.id = " +
+           "(SELECT MAX(id) FROM stock_movements WHERE productId = products.id) " +
+           "WHERE stock_movements.balanceAfter != products.stockQuantity")
+    List<String> findSnapshotMismatches();
+}
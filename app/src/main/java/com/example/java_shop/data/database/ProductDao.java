@@ -1,13 +1,19 @@
 package com.example.java_shop.data.database;
 
+import android.database.Cursor;
 import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
 import androidx.room.Update;
+import androidx.room.Upsert;
+import androidx.sqlite.db.SupportSQLiteQuery;
 import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.ProductSearchResult;
+import com.example.java_shop.data.models.ProductSummary;
 import java.util.List;
 
 @Dao
@@ -20,6 +26,10 @@ public interface ProductDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertAll(List<Product> products);
 
+    // Updates in place instead of REPLACE, which deletes the row and cascades to cart items
+    @Upsert
+    void upsertAll(List<Product> products);
+
     // Update operations
     @Update
     void update(Product product);
@@ -31,52 +41,110 @@ public interface ProductDao {
     @Query("DELETE FROM products")
     void deleteAll();
 
+    // Soft delete: order items and stock movements still reference the rows, so they are
+    // only hidden from the catalog. Upserting a product again restores it
+    @Query("UPDATE products SET isDeleted = 1 WHERE id IN (:productIds)")
+    int markDeleted(List<String> productIds);
+
     // Basic queries
     @Query("SELECT * FROM products WHERE id = :productId")
     LiveData<Product> getProduct(String productId);
 
-    @Query("SELECT * FROM products")
-    LiveData<List<Product>> getAllProducts();
+    // List queries select only ProductSummary.COLUMNS and skip deleted products; getProduct
+    // loads the full row of any product, so order history can still show it
+    @Query("SELECT " + ProductSummary.COLUMNS + " FROM products WHERE isDeleted = 0")
+    LiveData<List<ProductSummary>> getAllProducts();
 
     // Category queries
-    @Query("SELECT * FROM products WHERE categoryId = :categoryId")
-    LiveData<List<Product>> getProductsByCategory(String categoryId);
+    @Query("SELECT " + ProductSummary.COLUMNS + " FROM products WHERE categoryId = :categoryId AND isDeleted = 0")
+    LiveData<List<ProductSummary>> getProductsByCategory(String categoryId);
     
-    @Query("SELECT * FROM products WHERE categoryId = :categoryId AND (name LIKE :searchQuery OR description LIKE :searchQuery) ORDER BY name ASC LIMIT :limit")
-    LiveData<List<Product>> getProductsByCategoryWithLimit(String categoryId, String searchQuery, int limit);
-
-    // Featured products
-    @Query("SELECT * FROM products WHERE isFeatured = 1 ORDER BY price DESC LIMIT 5")
+    @Query("SELECT " + ProductSummary.COLUMNS + " FROM products " +
+           "WHERE categoryId = :categoryId AND isDeleted = 0 " +
+           "AND (name LIKE :searchQuery OR description LIKE :searchQuery) ORDER BY name ASC LIMIT :limit")
+    LiveData<List<ProductSummary>> getProductsByCategoryWithLimit(String categoryId, String searchQuery, int limit);
+
+    // Top-N preview rows for every active category in one query, ordered by category then name.
+    // The window only numbers ids; summary columns are read for the rows that are kept
+    @Query("SELECT " + ProductSummary.COLUMNS + " FROM (" +
+           "SELECT products.id AS rankedId, " +
+           "ROW_NUMBER() OVER (PARTITION BY products.categoryId ORDER BY products.name ASC) AS rowNumber " +
+           "FROM products JOIN categories ON categories.id = products.categoryId " +
+           "WHERE categories.isActive = 1 AND products.isDeleted = 0" +
+           ") AS ranked JOIN products ON products.id = ranked.rankedId " +
+           "WHERE ranked.rowNumber <= :limit ORDER BY products.categoryId, ranked.rowNumber")
+    LiveData<List<ProductSummary>> getTopProductsPerCategory(int limit);
+
+    @Query("SELECT " + ProductSummary.COLUMNS + " FROM (" +
+           "SELECT products.id AS rankedId, " +
+           "ROW_NUMBER() OVER (PARTITION BY products.categoryId ORDER BY products.name ASC) AS rowNumber " +
+           "FROM products JOIN categories ON categories.id = products.categoryId " +
+           "JOIN products_fts ON products.rowid = products_fts.rowid " +
+           "WHERE categories.isActive = 1 AND products.isDeleted = 0 AND products_fts MATCH :matchQuery" +
+           ") AS ranked JOIN products ON products.id = ranked.rankedId " +
+           "WHERE ranked.rowNumber <= :limit ORDER BY products.categoryId, ranked.rowNumber")
+    LiveData<List<ProductSummary>> searchTopProductsPerCategory(String matchQuery, int limit);
+
+    // Columns of the in-memory catalog, read straight into its arrays; see InMemoryCatalog
+    @Query("SELECT id, name, imageUrl, price, originalPrice, discountPercentage, offerValidUntilTimestamp, " +
+           "rating, stockQuantity, isFeatured, categoryId FROM products WHERE isDeleted = 0")
+    Cursor getCatalogColumns();
+
+    @Query("SELECT COUNT(*) FROM products WHERE isDeleted = 0")
+    int getProductCount();
+
+    // Keyset paging for category listings, see CategoryProductQuery
+    @RawQuery(observedEntities = Product.class)
+    List<ProductSummary> getProducts(SupportSQLiteQuery query);
+
+    // Featured products; the carousel also shows description and review count, so it
+    // loads full rows (at most five)
+    @Query("SELECT * FROM products WHERE isFeatured = 1 AND isDeleted = 0 ORDER BY price DESC LIMIT 5")
     LiveData<List<Product>> getFeaturedProducts();
 
     // Special offers
-    @Query("SELECT * FROM products WHERE discountPercentage > 0 ORDER BY discountPercentage DESC LIMIT 10")
-    LiveData<List<Product>> getSpecialOffers();
+    @Query("SELECT " + ProductSummary.COLUMNS + " FROM products " +
+           "WHERE discountPercentage > 0 AND isDeleted = 0 ORDER BY discountPercentage DESC LIMIT 10")
+    LiveData<List<ProductSummary>> getSpecialOffers();
 
     // Search
-    @Query("SELECT * FROM products WHERE name LIKE :query OR description LIKE :query")
-    LiveData<List<Product>> searchProducts(String query);
-
-    @Query("SELECT * FROM products WHERE categoryId = :categoryId AND (name LIKE :query OR description LIKE :query)")
-    LiveData<List<Product>> searchProductsByCategory(String categoryId, String query);
+    @Query("SELECT " + ProductSummary.COLUMNS + " FROM products " +
+           "WHERE isDeleted = 0 AND (name LIKE :query OR description LIKE :query)")
+    LiveData<List<ProductSummary>> searchProducts(String query);
+
+    @Query("SELECT " + ProductSummary.COLUMNS + " FROM products " +
+           "WHERE categoryId = :categoryId AND isDeleted = 0 AND (name LIKE :query OR description LIKE :query)")
+    LiveData<List<ProductSummary>> searchProductsByCategory(String categoryId, String query);
+
+    // Full-text search (matchQuery is an FTS MATCH expression, see FtsSearchHelper)
+    @Query("SELECT " + ProductSummary.COLUMNS + ", matchinfo(products_fts, 'pcnalx') AS matchInfo " +
+           "FROM products " +
+           "JOIN products_fts ON products.rowid = products_fts.rowid " +
+           "WHERE products_fts MATCH :matchQuery AND products.isDeleted = 0")
+    LiveData<List<ProductSearchResult>> searchProductsFts(String matchQuery);
+
+    @Query("SELECT " + ProductSummary.COLUMNS + ", matchinfo(products_fts, 'pcnalx') AS matchInfo " +
+           "FROM products " +
+           "JOIN products_fts ON products.rowid = products_fts.rowid " +
+           "WHERE products_fts MATCH :matchQuery AND products.categoryId = :categoryId " +
+           "AND products.isDeleted = 0")
+    LiveData<List<ProductSearchResult>> searchProductsByCategoryFts(String categoryId, String matchQuery);
 
     // Stock management
-    @Query("SELECT (stockQuantity > 0) FROM products WHERE id = :productId")
+    @Query("SELECT (stockQuantity > 0 AND isDeleted = 0) FROM products WHERE id = :productId")
     LiveData<Boolean> isProductInStock(String productId);
 
     @Query("SELECT stockQuantity FROM products WHERE id = :productId")
     LiveData<Integer> getStockQuantity(String productId);
 
-    @Query("UPDATE products SET stockQuantity = :newQuantity WHERE id = :productId")
-    void updateStock(String productId, int newQuantity);
-
     // Price queries
-    @Query("SELECT * FROM products ORDER BY price ASC")
-    LiveData<List<Product>> getProductsSortedByPriceAsc();
+    @Query("SELECT " + ProductSummary.COLUMNS + " FROM products WHERE isDeleted = 0 ORDER BY price ASC")
+    LiveData<List<ProductSummary>> getProductsSortedByPriceAsc();
 
-    @Query("SELECT * FROM products ORDER BY price DESC")
-    LiveData<List<Product>> getProductsSortedByPriceDesc();
+    @Query("SELECT " + ProductSummary.COLUMNS + " FROM products WHERE isDeleted = 0 ORDER BY price DESC")
+    LiveData<List<ProductSummary>> getProductsSortedByPriceDesc();
 
-    @Query("SELECT * FROM products WHERE price BETWEEN :minPrice AND :maxPrice")
-    LiveData<List<Product>> getProductsInPriceRange(double minPrice, double maxPrice);
-}
\ No newline at end of file
+    @Query("SELECT " + ProductSummary.COLUMNS + " FROM products " +
+           "WHERE price BETWEEN :minPrice AND :maxPrice AND isDeleted = 0")
+    LiveData<List<ProductSummary>> getProductsInPriceRange(double minPrice, double maxPrice);
+}
@@ -0,0 +1,401 @@
+package com.example.java_shop.data.database;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * In-process statistics for every statement the database runs, fed by
+ * {@link InstrumentedOpenHelperFactory}.
+ *
+ * Statements are grouped by their normalized SQL (whitespace collapsed, literals
+ * and IN lists replaced by placeholders), each with a call count, rows returned or
+ * changed and a latency histogram. Statements and transactions slower than the
+ * threshold also go to a fixed size ring buffer. Bind arguments are never kept,
+ * since some of them are emails and passwords.
+ *
+ * While disabled, the instrumented database only pays for one volatile read per call.
+ */
+public class QueryStats {
+    private static final String TAG = "QueryStats";
+    private static final long DEFAULT_SLOW_THRESHOLD_MILLIS = 50;
+    private static final int SLOW_QUERY_CAPACITY = 64;
+    // Caps memory if something builds SQL with inlined values
+    static final int MAX_STATEMENTS = 512;
+    static final String OTHER_STATEMENTS = "<other statements>";
+    private static final String TRANSACTION = "<transaction>";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+
+    private static volatile QueryStats INSTANCE;
+
+    private volatile boolean enabled;
+    private volatile long slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLOW_THRESHOLD_MILLIS);
+
+    private final Map<String, String> normalizedSql = new ConcurrentHashMap<>();
+    private final Map<String, StatementMetrics> statements = new ConcurrentHashMap<>();
+    private final TransactionMetrics transactions = new TransactionMetrics();
+    private final AtomicReferenceArray<SlowQuery> slowQueries = new AtomicReferenceArray<>(SLOW_QUERY_CAPACITY);
+    private final AtomicLong slowQueryCount = new AtomicLong();
+    private volatile long startedAt = System.currentTimeMillis();
+
+    public static QueryStats getInstance() {
+        if (INSTANCE == null) {
+            synchronized (QueryStats.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new QueryStats();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private QueryStats() {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSlowThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    public void setSlowThresholdMillis(long thresholdMillis) {
+        slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, thresholdMillis));
+    }
+
+    // Recording, called by the instrumented database
+
+    void recordStatement(String sql, long durationNanos, long rows) {
+        String normalized = normalize(sql);
+        StatementMetrics metrics = statements.get(normalized);
+        if (metrics == null) {
+            if (statements.size() >= MAX_STATEMENTS) {
+                normalized = OTHER_STATEMENTS;
+            }
+            metrics = statements.computeIfAbsent(normalized, key -> new StatementMetrics());
+        }
+        metrics.record(durationNanos, rows);
+        if (durationNanos >= slowThresholdNanos) {
+            addSlowQuery(new SlowQuery(normalized, durationNanos, rows,
+                Thread.currentThread().getName(), System.currentTimeMillis()));
+        }
+    }
+
+    void recordTransaction(long durationNanos, int statementCount, boolean committed) {
+        transactions.record(durationNanos, committed);
+        if (durationNanos >= slowThresholdNanos) {
+            addSlowQuery(new SlowQuery(TRANSACTION + (committed ? " committed" : " rolled back"),
+                durationNanos, statementCount, Thread.currentThread().getName(), System.currentTimeMillis()));
+        }
+    }
+
+    private void addSlowQuery(SlowQuery slowQuery) {
+        long index = slowQueryCount.getAndIncrement();
+        slowQueries.set((int) (index % SLOW_QUERY_CAPACITY), slowQuery);
+    }
+
+    String normalize(String sql) {
+        if (sql == null) return "";
+        String cached = normalizedSql.get(sql);
+        if (cached != null) return cached;
+
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = PLACEHOLDER_LIST.matcher(normalized).replaceAll("?...");
+        if (normalizedSql.size() < MAX_STATEMENTS * 2) {
+            normalizedSql.put(sql, normalized);
+        }
+        return normalized;
+    }
+
+    // Reading
+
+    /**
+     * Returns the statements seen so far, most total time first.
+     */
+    public List<StatementStats> getStatementStats() {
+        List<StatementStats> result = new ArrayList<>();
+        for (Map.Entry<String, StatementMetrics> entry : statements.entrySet()) {
+            result.add(entry.getValue().snapshot(entry.getKey()));
+        }
+        Collections.sort(result, (a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+        return result;
+    }
+
+    public StatementStats getTransactionStats() {
+        return transactions.snapshot(TRANSACTION);
+    }
+
+    public long getRolledBackTransactions() {
+        return transactions.rolledBack.get();
+    }
+
+    /**
+     * Returns the slow statements still in the ring buffer, newest first.
+     */
+    public List<SlowQuery> getSlowQueries() {
+        List<SlowQuery> result = new ArrayList<>();
+        long total = slowQueryCount.get();
+        long oldest = Math.max(0, total - SLOW_QUERY_CAPACITY);
+        for (long index = total - 1; index >= oldest; index--) {
+            SlowQuery slowQuery = slowQueries.get((int) (index % SLOW_QUERY_CAPACITY));
+            if (slowQuery != null) {
+                result.add(slowQuery);
+            }
+        }
+        return result;
+    }
+
+    public void reset() {
+        statements.clear();
+        transactions.reset();
+        for (int i = 0; i < SLOW_QUERY_CAPACITY; i++) {
+            slowQueries.set(i, null);
+        }
+        slowQueryCount.set(0);
+        startedAt = System.currentTimeMillis();
+    }
+
+    public void logStats() {
+        List<StatementStats> stats = getStatementStats();
+        for (int i = 0; i < Math.min(10, stats.size()); i++) {
+            Log.d(TAG, stats.get(i).toString());
+        }
+        Log.d(TAG, getTransactionStats().toString());
+        Log.d(TAG, "slow queries: " + slowQueryCount.get());
+    }
+
+    /**
+     * Writes every statement, the transaction totals and the slow query log to {@code file}.
+     */
+    public void dump(File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            writer.printf(Locale.US, "Query stats since %tF %<tT, enabled=%b, slow threshold=%dms%n%n",
+                startedAt, enabled, getSlowThresholdMillis());
+
+            writer.println("count\trows\ttotal ms\tavg ms\tp50 ms\tp95 ms\tp99 ms\tmax ms\tsql");
+            for (StatementStats stats : getStatementStats()) {
+                writer.println(stats.toRow());
+            }
+            writer.println(getTransactionStats().toRow());
+            writer.printf(Locale.US, "rolled back transactions: %d%n%n", getRolledBackTransactions());
+
+            writer.printf(Locale.US, "Slow queries (%d total, newest first)%n", slowQueryCount.get());
+            for (SlowQuery slowQuery : getSlowQueries()) {
+                writer.println(slowQuery);
+            }
+        }
+    }
+
+    // Metrics
+
+    public static class StatementStats {
+        private final String sql;
+        private final long count;
+        private final long rows;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long[] histogram;
+
+        StatementStats(String sql, long count, long rows, long totalNanos, long maxNanos, long[] histogram) {
+            this.sql = sql;
+            this.count = count;
+            this.rows = rows;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.histogram = histogram;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public double getTotalMillis() {
+            return totalNanos / 1e6;
+        }
+
+        public double getAverageMillis() {
+            return count == 0 ? 0 : totalNanos / 1e6 / count;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1e6;
+        }
+
+        /**
+         * Estimates a percentile as the upper bound of the histogram bucket it falls in,
+         * capped at the observed maximum.
+         */
+        public double getPercentileMillis(double percentile) {
+            return Histogram.percentileMillis(histogram, count, percentile, maxNanos);
+        }
+
+        String toRow() {
+            return String.format(Locale.US, "%d\t%d\t%.2f\t%.3f\t%.3f\t%.3f\t%.3f\t%.3f\t%s",
+                count, rows, getTotalMillis(), getAverageMillis(), getPercentileMillis(0.50),
+                getPercentileMillis(0.95), getPercentileMillis(0.99), getMaxMillis(), sql);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "count=%d rows=%d total=%.2fms avg=%.3fms p95=%.3fms max=%.3fms %s",
+                count, rows, getTotalMillis(), getAverageMillis(), getPercentileMillis(0.95), getMaxMillis(), sql);
+        }
+    }
+
+    public static class SlowQuery {
+        private final String sql;
+        private final long durationNanos;
+        private final long rows;
+        private final String thread;
+        private final long timestamp;
+
+        SlowQuery(String sql, long durationNanos, long rows, String thread, long timestamp) {
+            this.sql = sql;
+            this.durationNanos = durationNanos;
+            this.rows = rows;
+            this.thread = thread;
+            this.timestamp = timestamp;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public double getDurationMillis() {
+            return durationNanos / 1e6;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%tT.%<tL %.2fms rows=%d [%s] %s",
+                timestamp, getDurationMillis(), rows, thread, sql);
+        }
+    }
+
+    private static class StatementMetrics {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong rows = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicLongArray histogram = new AtomicLongArray(Histogram.BUCKETS);
+
+        void record(long durationNanos, long rowCount) {
+            count.incrementAndGet();
+            rows.addAndGet(Math.max(0, rowCount));
+            totalNanos.addAndGet(durationNanos);
+            maxNanos.accumulateAndGet(durationNanos, Math::max);
+            histogram.incrementAndGet(Histogram.bucketOf(durationNanos));
+        }
+
+        StatementStats snapshot(String sql) {
+            long[] buckets = new long[Histogram.BUCKETS];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = histogram.get(i);
+            }
+            return new StatementStats(sql, count.get(), rows.get(), totalNanos.get(), maxNanos.get(), buckets);
+        }
+
+        void reset() {
+            count.set(0);
+            rows.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+            for (int i = 0; i < Histogram.BUCKETS; i++) {
+                histogram.set(i, 0);
+            }
+        }
+    }
+
+    private static class TransactionMetrics extends StatementMetrics {
+        final AtomicLong rolledBack = new AtomicLong();
+
+        void record(long durationNanos, boolean committed) {
+            record(durationNanos, 0);
+            if (!committed) {
+                rolledBack.incrementAndGet();
+            }
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            rolledBack.set(0);
+        }
+    }
+
+    // Fixed latency buckets, roughly doubling from 100us to 2s
+    static final class Histogram {
+        static final long[] UPPER_BOUNDS_MICROS = {
+            100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000, 2_000_000
+        };
+        static final int BUCKETS = UPPER_BOUNDS_MICROS.length + 1;
+
+        static int bucketOf(long durationNanos) {
+            long micros = durationNanos / 1_000;
+            for (int i = 0; i < UPPER_BOUNDS_MICROS.length; i++) {
+                if (micros <= UPPER_BOUNDS_MICROS[i]) return i;
+            }
+            return UPPER_BOUNDS_MICROS.length;
+        }
+
+        static double percentileMillis(long[] buckets, long count, double percentile, long maxNanos) {
+            if (count == 0) return 0;
+            long target = (long) Math.ceil(count * percentile);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= target && i < UPPER_BOUNDS_MICROS.length) {
+                    return Math.min(UPPER_BOUNDS_MICROS[i] / 1e3, maxNanos / 1e6);
+                }
+            }
+            return maxNanos / 1e6;
+        }
+    }
+}
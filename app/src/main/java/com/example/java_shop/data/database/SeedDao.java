@@ -0,0 +1,28 @@
+package com.example.java_shop.data.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import com.example.java_shop.data.models.ImportCheckpoint;
+import com.example.java_shop.data.models.SeedRecord;
+
+@Dao
+public interface SeedDao {
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(SeedRecord seedRecord);
+
+    // Returns 0 when the seed has never been applied
+    @Query("SELECT IFNULL(MAX(version), 0) FROM seed_records WHERE name = :name")
+    int getAppliedVersion(String name);
+
+    // Import checkpoints
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void saveCheckpoint(ImportCheckpoint checkpoint);
+
+    @Query("SELECT * FROM import_checkpoints WHERE name = :name")
+    ImportCheckpoint getCheckpoint(String name);
+
+    @Query("DELETE FROM import_checkpoints WHERE name = :name")
+    void deleteCheckpoint(String name);
+}
@@ -0,0 +1,17 @@
+package com.example.java_shop.data.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import com.example.java_shop.data.models.SyncState;
+
+@Dao
+public interface SyncDao {
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void saveState(SyncState state);
+
+    // Null before the first sync
+    @Query("SELECT * FROM sync_state WHERE name = :name")
+    SyncState getState(String name);
+}
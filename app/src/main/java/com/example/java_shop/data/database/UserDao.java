@@ -11,7 +11,9 @@ import com.example.java_shop.data.models.User;
 
 @Dao
 public interface UserDao {
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    // Throws SQLiteConstraintException when the email is taken; REPLACE would delete the
+    // existing account and cascade away its orders and addresses
+    @Insert(onConflict = OnConflictStrategy.ABORT)
     long insert(User user);
 
     @Update
@@ -14,7 +14,8 @@ import androidx.annotation.NonNull;
         childColumns = "productId",
         onDelete = ForeignKey.CASCADE
     ),
-    indices = {@Index("productId")}
+    // One row per product; adding it again merges into the quantity
+    indices = {@Index(value = "productId", unique = true)}
 )
 public class CartItem {
     @PrimaryKey(autoGenerate = true)
@@ -0,0 +1,105 @@
+package com.example.java_shop.data.models;
+
+import androidx.annotation.NonNull;
+
+/**
+ * One row of the cart joined with just the product columns the cart and
+ * checkout screens show. Loaded by CartDao.getCartLines in a single query.
+ */
+public class CartLine {
+    // cart_items.id
+    private long id;
+    @NonNull
+    private String productId = "";
+    private int quantity;
+    private double priceAtAddition;
+
+    // From products
+    private String name;
+    private String imageUrl;
+    private double price;
+    private int stockQuantity;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(@NonNull String productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getPriceAtAddition() {
+        return priceAtAddition;
+    }
+
+    public void setPriceAtAddition(double priceAtAddition) {
+        this.priceAtAddition = priceAtAddition;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(int stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    // Helper methods
+    public CartLine withQuantity(int quantity) {
+        CartLine copy = new CartLine();
+        copy.id = id;
+        copy.productId = productId;
+        copy.quantity = quantity;
+        copy.priceAtAddition = priceAtAddition;
+        copy.name = name;
+        copy.imageUrl = imageUrl;
+        copy.price = price;
+        copy.stockQuantity = stockQuantity;
+        return copy;
+    }
+
+    public double getTotalPrice() {
+        return quantity * price;
+    }
+}
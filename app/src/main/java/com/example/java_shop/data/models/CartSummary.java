@@ -0,0 +1,62 @@
+package com.example.java_shop.data.models;
+
+/**
+ * Cart totals computed by CartDao.getCartSummary in one aggregate query.
+ */
+public class CartSummary {
+    // Number of cart lines (distinct products)
+    private int lineCount;
+    // Sum of quantities
+    private int unitCount;
+    // At current product prices
+    private double subtotal;
+    // At the prices when the items were added
+    private double subtotalAtAddition;
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public void setLineCount(int lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    public int getUnitCount() {
+        return unitCount;
+    }
+
+    public void setUnitCount(int unitCount) {
+        this.unitCount = unitCount;
+    }
+
+    public double getSubtotal() {
+        return subtotal;
+    }
+
+    public void setSubtotal(double subtotal) {
+        this.subtotal = subtotal;
+    }
+
+    public double getSubtotalAtAddition() {
+        return subtotalAtAddition;
+    }
+
+    public void setSubtotalAtAddition(double subtotalAtAddition) {
+        this.subtotalAtAddition = subtotalAtAddition;
+    }
+
+    public boolean isEmpty() {
+        return lineCount == 0;
+    }
+
+    // Helper methods
+    // A copy with one line's quantity changed by unitDelta
+    public CartSummary plusUnits(int unitDelta, double price, double priceAtAddition) {
+        CartSummary copy = new CartSummary();
+        copy.lineCount = lineCount;
+        copy.unitCount = unitCount + unitDelta;
+        copy.subtotal = subtotal + unitDelta * price;
+        copy.subtotalAtAddition = subtotalAtAddition + unitDelta * priceAtAddition;
+        return copy;
+    }
+}
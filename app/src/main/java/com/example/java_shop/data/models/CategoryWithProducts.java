@@ -9,12 +9,13 @@ public class CategoryWithProducts {
     private Category category;
 
     @Relation(
+        entity = Product.class,
         parentColumn = "id",
         entityColumn = "category_id"
     )
-    private List<Product> products;
+    private List<ProductSummary> products;
 
-    public CategoryWithProducts(Category category, List<Product> products) {
+    public CategoryWithProducts(Category category, List<ProductSummary> products) {
         this.category = category;
         this.products = products;
     }
@@ -27,11 +28,11 @@ public class CategoryWithProducts {
         this.category = category;
     }
 
-    public List<Product> getProducts() {
+    public List<ProductSummary> getProducts() {
         return products;
     }
 
-    public void setProducts(List<Product> products) {
+    public void setProducts(List<ProductSummary> products) {
         this.products = products;
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.java_shop.data.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Progress of a catalog import that hasn't finished yet. Written in the same
+ * transaction as each batch, so it always matches what was committed.
+ */
+@Entity(tableName = "import_checkpoints")
+public class ImportCheckpoint {
+    @PrimaryKey
+    @NonNull
+    private String name;
+    private int version;
+    private int recordsCommitted; // Categories and products, in document order
+    private long updatedAt;
+
+    // Constructor
+    public ImportCheckpoint(@NonNull String name, int version, int recordsCommitted, long updatedAt) {
+        this.name = name;
+        this.version = version;
+        this.recordsCommitted = recordsCommitted;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and setters
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    public void setName(@NonNull String name) {
+        this.name = name;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public int getRecordsCommitted() {
+        return recordsCommitted;
+    }
+
+    public void setRecordsCommitted(int recordsCommitted) {
+        this.recordsCommitted = recordsCommitted;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -14,7 +14,8 @@ import java.util.Date;
         childColumns = "userId",
         onDelete = ForeignKey.CASCADE
     ),
-    indices = {@Index("userId")}
+    // Order history is always read per user, newest first
+    indices = {@Index({"userId", "orderDate"})}
 )
 public class Order {
     @PrimaryKey(autoGenerate = true)
@@ -18,7 +18,16 @@ import java.util.Locale;
         childColumns = "categoryId",
         onDelete = ForeignKey.CASCADE
     ),
-    indices = {@Index("categoryId")}
+    // One index per category sort order, also covering the categoryId foreign key
+    indices = {
+        @Index({"categoryId", "name", "id"}),
+        @Index({"categoryId", "price", "id"}),
+        @Index({"categoryId", "rating", "id"}),
+        // Home screen carousels and price sorted listings
+        @Index({"isFeatured", "price"}),
+        @Index("discountPercentage"),
+        @Index("price")
+    }
 )
 public class Product {
     @PrimaryKey
@@ -37,6 +46,9 @@ public class Product {
     private double rating;
     private int reviewCount;
     private long lastModified;
+    // Tombstoned by catalog sync. The row stays for order items and the stock ledger,
+    // but list, search and add-to-cart queries skip it
+    private boolean isDeleted;
     private long offerValidUntilTimestamp; // Timestamp for offer validity
     private double originalPrice; // Original price before discount
 
@@ -129,6 +141,14 @@ public class Product {
         isFeatured = featured;
     }
 
+    public boolean isDeleted() {
+        return isDeleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        isDeleted = deleted;
+    }
+
     public double getDiscountPercentage() {
         return discountPercentage;
     }
@@ -0,0 +1,35 @@
+package com.example.java_shop.data.models;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+/**
+ * Full-text index over the searchable product columns.
+ * Uses products as its external content table, so Room creates the
+ * triggers that keep the index in sync with every insert/update/delete.
+ */
+@Fts4(contentEntity = Product.class)
+@Entity(tableName = "products_fts")
+public class ProductFts {
+    private String name;
+    private String description;
+    private String specifications;
+
+    public ProductFts(String name, String description, String specifications) {
+        this.name = name;
+        this.description = description;
+        this.specifications = specifications;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getSpecifications() {
+        return specifications;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.java_shop.data.models;
+
+import androidx.room.Embedded;
+
+public class ProductSearchResult {
+    @Embedded
+    private ProductSummary product;
+
+    // Raw matchinfo(products_fts, 'pcnalx') blob used for bm25 ranking
+    private byte[] matchInfo;
+
+    public ProductSummary getProduct() {
+        return product;
+    }
+
+    public void setProduct(ProductSummary product) {
+        this.product = product;
+    }
+
+    public byte[] getMatchInfo() {
+        return matchInfo;
+    }
+
+    public void setMatchInfo(byte[] matchInfo) {
+        this.matchInfo = matchInfo;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.java_shop.data.models;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The product columns a list or carousel card shows. List queries select only
+ * these, so rows don't carry description and specifications text; the full
+ * {@link Product} is loaded on the details screen.
+ */
+public class ProductSummary {
+    // Select list of a summary row for queries over products. Qualified, so it also
+    // works when products_fts is joined in; every list query is built from it.
+    public static final String COLUMNS = "products.id, products.name, products.imageUrl, products.price, "
+        + "products.originalPrice, products.discountPercentage, products.offerValidUntilTimestamp, "
+        + "products.rating, (products.stockQuantity > 0) AS inStock, products.categoryId";
+
+    @NonNull
+    private String id = "";
+    private String name;
+    private String imageUrl;
+    private double price;
+    private double originalPrice;
+    private double discountPercentage;
+    private long offerValidUntilTimestamp;
+    private double rating;
+    private boolean inStock; // stockQuantity > 0
+    private String categoryId;
+
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    public void setId(@NonNull String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public double getOriginalPrice() {
+        return originalPrice;
+    }
+
+    public void setOriginalPrice(double originalPrice) {
+        this.originalPrice = originalPrice;
+    }
+
+    public double getDiscountPercentage() {
+        return discountPercentage;
+    }
+
+    public void setDiscountPercentage(double discountPercentage) {
+        this.discountPercentage = discountPercentage;
+    }
+
+    public long getOfferValidUntilTimestamp() {
+        return offerValidUntilTimestamp;
+    }
+
+    public void setOfferValidUntilTimestamp(long offerValidUntilTimestamp) {
+        this.offerValidUntilTimestamp = offerValidUntilTimestamp;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public void setRating(double rating) {
+        this.rating = rating;
+    }
+
+    public boolean isInStock() {
+        return inStock;
+    }
+
+    public void setInStock(boolean inStock) {
+        this.inStock = inStock;
+    }
+
+    public String getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(String categoryId) {
+        this.categoryId = categoryId;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.java_shop.data.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+@Entity(tableName = "seed_records")
+public class SeedRecord {
+    @PrimaryKey
+    @NonNull
+    private String name;
+    private int version;
+    private long appliedAt;
+
+    // Constructor
+    public SeedRecord(@NonNull String name, int version, long appliedAt) {
+        this.name = name;
+        this.version = version;
+        this.appliedAt = appliedAt;
+    }
+
+    // Getters and setters
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    public void setName(@NonNull String name) {
+        this.name = name;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public long getAppliedAt() {
+        return appliedAt;
+    }
+
+    public void setAppliedAt(long appliedAt) {
+        this.appliedAt = appliedAt;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.java_shop.data.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * One append-only entry of the inventory ledger. products.stockQuantity is the
+ * running snapshot of these deltas and is updated in the same transaction;
+ * balanceAfter records that snapshot so the two can be checked against each other.
+ */
+@Entity(
+    tableName = "stock_movements",
+    foreignKeys = @ForeignKey(
+        entity = Product.class,
+        parentColumns = "id",
+        childColumns = "productId",
+        onDelete = ForeignKey.CASCADE
+    ),
+    indices = {@Index({"productId", "id"})}
+)
+public class StockMovement {
+    // Movement types
+    public static final String TYPE_RESERVATION = "RESERVATION";
+    public static final String TYPE_RELEASE = "RELEASE";
+    public static final String TYPE_SALE = "SALE";
+    public static final String TYPE_RESTOCK = "RESTOCK";
+    public static final String TYPE_ADJUSTMENT = "ADJUSTMENT";
+
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+
+    @NonNull
+    private String productId;
+    @NonNull
+    private String type;
+    private int delta;
+    private int balanceAfter;
+    private String reference; // e.g. "order:42", null if none
+    private long createdAt;
+
+    // Constructor
+    public StockMovement(@NonNull String productId, @NonNull String type, int delta,
+                         int balanceAfter, String reference, long createdAt) {
+        this.productId = productId;
+        this.type = type;
+        this.delta = delta;
+        this.balanceAfter = balanceAfter;
+        this.reference = reference;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(@NonNull String productId) {
+        this.productId = productId;
+    }
+
+    @NonNull
+    public String getType() {
+        return type;
+    }
+
+    public void setType(@NonNull String type) {
+        this.type = type;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public void setDelta(int delta) {
+        this.delta = delta;
+    }
+
+    public int getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public void setBalanceAfter(int balanceAfter) {
+        this.balanceAfter = balanceAfter;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+}
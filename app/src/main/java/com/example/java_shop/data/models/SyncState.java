@@ -0,0 +1,71 @@
+package com.example.java_shop.data.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Where a delta sync stream stands: the server watermark of the last completed sync,
+ * and while a sync is in progress, the cursor of the next page to fetch.
+ */
+@Entity(tableName = "sync_state")
+public class SyncState {
+    @PrimaryKey
+    @NonNull
+    private String name;
+    private long watermark; // Server lastModified covered by the last completed sync
+    private String etag; // Of the last completed sync's first page, null if unknown
+    private String cursor; // Next page of an unfinished sync, null between syncs
+    private long updatedAt;
+
+    // Constructor
+    public SyncState(@NonNull String name, long watermark, String etag, String cursor, long updatedAt) {
+        this.name = name;
+        this.watermark = watermark;
+        this.etag = etag;
+        this.cursor = cursor;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and setters
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    public void setName(@NonNull String name) {
+        this.name = name;
+    }
+
+    public long getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(long watermark) {
+        this.watermark = watermark;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.java_shop.data.models;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "users")
+@Entity(
+    tableName = "users",
+    // Login and sign-up look users up by email
+    indices = {@Index(value = "email", unique = true)}
+)
 public class User {
     @PrimaryKey(autoGenerate = true)
     private int id;
@@ -0,0 +1,99 @@
+package com.example.java_shop.data.paging;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+import androidx.room.InvalidationTracker;
+import com.example.java_shop.data.database.CategoryProductQuery;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.ProductDao;
+import com.example.java_shop.data.models.ProductSummary;
+import com.example.java_shop.viewmodels.CategoryDetailsViewModel.SortOption;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import kotlin.Unit;
+
+/**
+ * Keyset paging source for the products of one category. Each page continues
+ * from the (sortKey, id) of the last row of the previous page, so loading page N
+ * costs the same as loading page 1 instead of growing with an OFFSET. The SQL is
+ * built by {@link CategoryProductQuery}.
+ */
+public class CategoryProductPagingSource extends ListenableFuturePagingSource<CategoryProductPagingSource.PageKey, ProductSummary> {
+
+    private final ProductDao productDao;
+    private final String categoryId;
+    private final SortOption sortOption;
+    private final boolean inStockOnly;
+    private final Executor executor;
+    private final InvalidationTracker.Observer observer;
+
+    public CategoryProductPagingSource(CosShopDatabase database, String categoryId, SortOption sortOption,
+                                       boolean inStockOnly, Executor executor) {
+        this.productDao = database.productDao();
+        this.categoryId = categoryId;
+        this.sortOption = sortOption != null ? sortOption : SortOption.RATING;
+        this.inStockOnly = inStockOnly;
+        this.executor = executor;
+
+        // Any write to products invalidates the loaded pages
+        observer = new InvalidationTracker.Observer("products") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidate();
+            }
+        };
+        database.getInvalidationTracker().addObserver(observer);
+        registerInvalidatedCallback(() -> {
+            database.getInvalidationTracker().removeObserver(observer);
+            return Unit.INSTANCE;
+        });
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<PageKey, ProductSummary>> loadFuture(@NonNull LoadParams<PageKey> params) {
+        return Futures.submit(() -> {
+            try {
+                List<ProductSummary> page = loadPage(params.getKey(), params.getLoadSize());
+                PageKey nextKey = page.size() < params.getLoadSize()
+                    ? null
+                    : PageKey.after(page.get(page.size() - 1), sortOption);
+                return new LoadResult.Page<>(page, null, nextKey);
+            } catch (Exception e) {
+                return new LoadResult.Error<>(e);
+            }
+        }, executor);
+    }
+
+    private List<ProductSummary> loadPage(@Nullable PageKey key, int limit) {
+        return productDao.getProducts(CategoryProductQuery.page(categoryId, sortOption, inStockOnly,
+            key != null ? key.sortKey : null, key != null ? key.id : null, limit));
+    }
+
+    @Nullable
+    @Override
+    public PageKey getRefreshKey(@NonNull PagingState<PageKey, ProductSummary> state) {
+        // Keyset pages can't be addressed by position, so a refresh restarts from the top
+        return null;
+    }
+
+    // Sort key and id of the last row of a page
+    public static class PageKey {
+        private final Object sortKey;
+        private final String id;
+
+        private PageKey(Object sortKey, String id) {
+            this.sortKey = sortKey;
+            this.id = id;
+        }
+
+        static PageKey after(ProductSummary product, SortOption sortOption) {
+            return new PageKey(CategoryProductQuery.sortKeyOf(product, sortOption), product.getId());
+        }
+    }
+}
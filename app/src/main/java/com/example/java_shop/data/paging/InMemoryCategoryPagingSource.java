@@ -0,0 +1,108 @@
+package com.example.java_shop.data.paging;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+import com.example.java_shop.data.cache.ColumnarCatalog;
+import com.example.java_shop.data.cache.FacetIndex.FacetSelection;
+import com.example.java_shop.data.cache.InMemoryCatalog;
+import com.example.java_shop.data.models.ProductSummary;
+import com.example.java_shop.viewmodels.CategoryDetailsViewModel.SortOption;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import kotlin.Unit;
+
+/**
+ * Paging source for one category listing answered from the {@link InMemoryCatalog}.
+ * The rows passing the facet selection are selected once, in sort order, from the
+ * current snapshot, and pages
+ * are positions in that selection, so only the rows on a page become objects.
+ * A rebuilt snapshot invalidates the source, the way a write to products
+ * invalidates {@link CategoryProductPagingSource}.
+ */
+public class InMemoryCategoryPagingSource extends ListenableFuturePagingSource<Integer, ProductSummary> {
+
+    private final InMemoryCatalog catalog;
+    private final String categoryId;
+    private final SortOption sortOption;
+    private final FacetSelection selection;
+    private final Executor executor;
+    private final Runnable rebuildListener = this::invalidate;
+
+    // Selected on the first load; guarded by this
+    private ColumnarCatalog snapshot;
+    private int[] rows;
+    private int rowCount;
+
+    public InMemoryCategoryPagingSource(InMemoryCatalog catalog, String categoryId, SortOption sortOption,
+                                        FacetSelection selection, Executor executor) {
+        this.catalog = catalog;
+        this.categoryId = categoryId;
+        this.sortOption = sortOption != null ? sortOption : SortOption.RATING;
+        this.selection = selection != null ? selection : FacetSelection.NONE;
+        this.executor = executor;
+
+        catalog.addRebuildListener(rebuildListener);
+        registerInvalidatedCallback(() -> {
+            catalog.removeRebuildListener(rebuildListener);
+            return Unit.INSTANCE;
+        });
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<Integer, ProductSummary>> loadFuture(@NonNull LoadParams<Integer> params) {
+        return Futures.submit(() -> {
+            try {
+                return load(params);
+            } catch (Exception e) {
+                return new LoadResult.Error<>(e);
+            }
+        }, executor);
+    }
+
+    private synchronized LoadResult<Integer, ProductSummary> load(LoadParams<Integer> params) {
+        if (snapshot == null) {
+            snapshot = catalog.peek();
+            if (snapshot == null) {
+                // The catalog was dropped for growing too large; the listing is moved to a
+                // database pager once that reaches the main thread, see
+                // ProductRepository.isInMemoryCatalogLoaded
+                return new LoadResult.Page<>(new ArrayList<>(), null, null);
+            }
+            int category = snapshot.categoryOrdinal(categoryId);
+            rows = new int[snapshot.categorySize(category)];
+            rowCount = snapshot.select(category, sortOption,
+                snapshot.getFacets().filter(category, selection), rows);
+        }
+
+        Integer key = params.getKey();
+        int start;
+        int end;
+        if (params instanceof LoadParams.Prepend) {
+            end = Math.min(rowCount, key);
+            start = Math.max(0, end - params.getLoadSize());
+        } else {
+            start = key != null ? Math.max(0, Math.min(rowCount, key)) : 0;
+            end = Math.min(rowCount, start + params.getLoadSize());
+        }
+
+        List<ProductSummary> page = new ArrayList<>(end - start);
+        for (int position = start; position < end; position++) {
+            page.add(snapshot.summaryAt(rows[position]));
+        }
+        return new LoadResult.Page<>(page, start > 0 ? start : null, end < rowCount ? end : null);
+    }
+
+    @Nullable
+    @Override
+    public Integer getRefreshKey(@NonNull PagingState<Integer, ProductSummary> state) {
+        // A refresh reopens the new selection around the same position
+        Integer anchor = state.getAnchorPosition();
+        return anchor != null ? Math.max(0, anchor - state.getConfig().initialLoadSize / 2) : null;
+    }
+}
@@ -1,69 +1,175 @@
 package com.example.java_shop.data.repositories;
 
-import android.app.Application;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import com.example.java_shop.data.cache.FacetIndex.Facet;
+import com.example.java_shop.data.cache.FacetIndex.FacetCounts;
+import com.example.java_shop.data.cache.FacetIndex.FacetSelection;
+import com.example.java_shop.data.cache.InMemoryCatalog;
+import com.example.java_shop.data.cache.ProductCache;
 import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.DatabaseScheduler;
 import com.example.java_shop.data.database.ProductDao;
 import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.ProductSummary;
+import com.example.java_shop.data.paging.CategoryProductPagingSource;
+import com.example.java_shop.data.paging.InMemoryCategoryPagingSource;
+import com.example.java_shop.utils.FtsSearchHelper;
+import com.example.java_shop.viewmodels.CategoryDetailsViewModel.SortOption;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 public class ProductRepository {
-    private final ProductDao productDao;
-    private final ExecutorService executorService;
+    private static final int PAGE_SIZE = 30;
+    private static final int PREFETCH_DISTANCE = 15;
 
-    public ProductRepository(Application application) {
-        CosShopDatabase database = CosShopDatabase.getDatabase(application);
+    private final CosShopDatabase database;
+    private final ProductDao productDao;
+    private final ProductCache productCache;
+    private final Executor readExecutor;
+    private final Executor writeExecutor;
+    // Set when the in-memory catalog mode is on, see ServiceLocator.enableInMemoryCatalog
+    private volatile InMemoryCatalog inMemoryCatalog;
+
+    public ProductRepository(CosShopDatabase database, DatabaseScheduler scheduler, ProductCache productCache) {
+        this.database = database;
+        this.productCache = productCache;
         productDao = database.productDao();
-        executorService = Executors.newFixedThreadPool(4);
+        readExecutor = scheduler.executor(DatabaseScheduler.Lane.UI_READ);
+        writeExecutor = scheduler.executor(DatabaseScheduler.Lane.USER_WRITE);
+    }
+
+    public void setInMemoryCatalog(@Nullable InMemoryCatalog catalog) {
+        inMemoryCatalog = catalog;
     }
 
     // Basic CRUD operations
     public void insert(Product product) {
-        executorService.execute(() -> productDao.insert(product));
+        writeExecutor.execute(() -> productDao.insert(product));
     }
 
     public void update(Product product) {
-        executorService.execute(() -> productDao.update(product));
+        writeExecutor.execute(() -> productDao.update(product));
     }
 
     public void delete(Product product) {
-        executorService.execute(() -> productDao.delete(product));
+        writeExecutor.execute(() -> productDao.delete(product));
     }
 
     // Query operations
+    // Emits the cached product right away when it is known, then the row from the database
     public LiveData<Product> getProduct(String productId) {
-        return productDao.getProduct(productId);
+        MediatorLiveData<Product> product = new MediatorLiveData<>();
+        Product cached = productCache.get(productId);
+        if (cached != null) {
+            product.setValue(cached);
+        }
+        product.addSource(productDao.getProduct(productId), fresh -> {
+            productCache.put(fresh);
+            product.setValue(fresh);
+        });
+        return product;
+    }
+
+    @Nullable
+    public Product getCachedProduct(String productId) {
+        return productCache.get(productId);
     }
 
-    public LiveData<List<Product>> getAllProducts() {
+    // Lists load ProductSummary rows; only getProduct and the featured carousel load full products
+
+    public LiveData<List<ProductSummary>> getAllProducts() {
         return productDao.getAllProducts();
     }
 
-    public LiveData<List<Product>> getProductsByCategory(String categoryId) {
+    public LiveData<List<ProductSummary>> getProductsByCategory(String categoryId) {
         return productDao.getProductsByCategory(categoryId);
     }
 
+    // Whether getProductsByCategoryPaged serves listings from the in-memory catalog. The source
+    // is picked when the pager is built, so a listing needs a new pager whenever this changes
     @NonNull
-    public LiveData<List<Product>> getProductsByCategoryPreview(@NonNull String categoryId,
-                                                             @NonNull String query,
-                                                             int limit) {
-        String searchQuery = query.isEmpty() ? "%" : "%" + query + "%";
-        return productDao.getProductsByCategoryWithLimit(categoryId, searchQuery, limit);
+    public LiveData<Boolean> isInMemoryCatalogLoaded() {
+        InMemoryCatalog catalog = inMemoryCatalog;
+        if (catalog == null) {
+            return new MutableLiveData<>(false);
+        }
+        return Transformations.distinctUntilChanged(
+            Transformations.map(catalog.getSnapshots(), snapshot -> snapshot != null));
+    }
+
+    // Served from the in-memory catalog once it is loaded, otherwise by keyset pages from the
+    // database, which only know the in-stock facet
+    public Pager<?, ProductSummary> getProductsByCategoryPaged(
+            String categoryId, SortOption sortOption, @NonNull FacetSelection selection) {
+        InMemoryCatalog catalog = inMemoryCatalog;
+        if (catalog != null && catalog.peek() != null) {
+            return new Pager<>(
+                new PagingConfig(PAGE_SIZE, PREFETCH_DISTANCE, false),
+                () -> new InMemoryCategoryPagingSource(catalog, categoryId, sortOption, selection, readExecutor)
+            );
+        }
+        boolean inStockOnly = selection.has(Facet.IN_STOCK);
+        return new Pager<>(
+            new PagingConfig(PAGE_SIZE, PREFETCH_DISTANCE, false),
+            () -> new CategoryProductPagingSource(database, categoryId, sortOption, inStockOnly, readExecutor)
+        );
+    }
+
+    // Option counts for the category filter, recounted on every rebuilt snapshot; null while
+    // no in-memory catalog is loaded. A count is a few bitmap intersections over one
+    // category, cheap enough for the main thread.
+    @NonNull
+    public LiveData<FacetCounts> getFacetCounts(String categoryId, @NonNull FacetSelection selection) {
+        InMemoryCatalog catalog = inMemoryCatalog;
+        if (catalog == null) {
+            return new MutableLiveData<>(null);
+        }
+        return Transformations.map(catalog.getSnapshots(), snapshot -> snapshot == null ? null
+            : snapshot.getFacets().counts(snapshot.categoryOrdinal(categoryId), selection));
+    }
+
+    // Preview rows for all active categories at once; see ProductDao.getTopProductsPerCategory
+    @NonNull
+    public LiveData<List<ProductSummary>> getCategoryPreviews(@NonNull String query, int limitPerCategory) {
+        String matchQuery = FtsSearchHelper.toPrefixMatchQuery(query);
+        if (matchQuery == null) {
+            return productDao.getTopProductsPerCategory(limitPerCategory);
+        }
+        return productDao.searchTopProductsPerCategory(matchQuery, limitPerCategory);
     }
 
     public LiveData<List<Product>> getFeaturedProducts() {
-        return productDao.getFeaturedProducts();
+        return cacheRows(productDao.getFeaturedProducts());
     }
 
-    public LiveData<List<Product>> getSpecialOffers() {
+    public LiveData<List<ProductSummary>> getSpecialOffers() {
         return productDao.getSpecialOffers();
     }
 
-    public LiveData<List<Product>> searchProducts(String query) {
-        return productDao.searchProducts("%" + query + "%");
+    // Search results are ranked by bm25, best match first
+    public LiveData<List<ProductSummary>> searchProducts(String query) {
+        String matchQuery = FtsSearchHelper.toPrefixMatchQuery(query);
+        if (matchQuery == null) {
+            return new MutableLiveData<>(Collections.emptyList());
+        }
+        return Transformations.map(productDao.searchProductsFts(matchQuery), FtsSearchHelper::rankByBm25);
+    }
+
+    public LiveData<List<ProductSummary>> searchProductsInCategory(String categoryId, String query) {
+        String matchQuery = FtsSearchHelper.toPrefixMatchQuery(query);
+        if (matchQuery == null) {
+            return productDao.getProductsByCategory(categoryId);
+        }
+        return Transformations.map(productDao.searchProductsByCategoryFts(categoryId, matchQuery),
+            FtsSearchHelper::rankByBm25);
     }
 
     public LiveData<Boolean> isProductInStock(String productId) {
@@ -74,11 +180,11 @@ public class ProductRepository {
         return productDao.getStockQuantity(productId);
     }
 
-    public void updateStock(String productId, int newQuantity) {
-        executorService.execute(() -> productDao.updateStock(productId, newQuantity));
-    }
-
-    public void cleanup() {
-        executorService.shutdown();
+    // Full rows loaded for a list also fill the product cache
+    private LiveData<List<Product>> cacheRows(LiveData<List<Product>> source) {
+        return Transformations.map(source, products -> {
+            productCache.putAll(products);
+            return products;
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,456 @@
+package com.example.java_shop.data.services;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.JsonReader;
+import android.util.JsonToken;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.DatabaseScheduler;
+import com.example.java_shop.data.database.SeedDao;
+import com.example.java_shop.data.models.Category;
+import com.example.java_shop.data.models.ImportCheckpoint;
+import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.SeedRecord;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Streams a catalog file into the database without holding the document in memory.
+ *
+ * The file has the format of seed/catalog.json: a "name" and a "version" of 1 or
+ * more, followed by a "categories" array and a "products" array. Parents must come
+ * before their subcategories and categories before products, as the foreign keys
+ * are checked on every batch. Rows are upserted, so existing products keep their cart items.
+ *
+ * Each batch is committed in one transaction on the background write lane, together
+ * with ledger adjustments for changed stock and a checkpoint. An interrupted import
+ * of the same name and version resumes after the last committed batch. The next
+ * batch is parsed while the previous one commits.
+ */
+public class CatalogImporter {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final CosShopDatabase database;
+    private final SeedDao seedDao;
+    private final Executor writeExecutor;
+    private final Executor jobExecutor;
+    private final Handler handler;
+    private final int batchSize;
+
+    public CatalogImporter(CosShopDatabase database, DatabaseScheduler scheduler) {
+        this(database, scheduler, DEFAULT_BATCH_SIZE);
+    }
+
+    public CatalogImporter(CosShopDatabase database, DatabaseScheduler scheduler, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.database = database;
+        this.batchSize = batchSize;
+        seedDao = database.seedDao();
+        // Batches queue behind user writes, which keeps the app responsive during an import
+        writeExecutor = scheduler.executor(DatabaseScheduler.Lane.BACKGROUND);
+        // One import at a time, queued with catalog syncs, so checkpoints never interleave
+        jobExecutor = scheduler.jobExecutor();
+        handler = new Handler(Looper.getMainLooper());
+    }
+
+    public interface ProgressListener {
+        // Counts of this run, after each committed batch
+        void onProgress(int categoriesImported, int productsImported, long bytesRead);
+    }
+
+    public interface ImportCallback {
+        void onResult(ImportResult result);
+    }
+
+    /**
+     * Imports on the scheduler's job thread and reports progress and the result on the
+     * main thread. Closes {@code in} when done.
+     */
+    public void importCatalog(InputStream in, @Nullable ProgressListener listener, ImportCallback callback) {
+        ProgressListener mainThreadListener = listener == null ? null
+            : (categories, products, bytes) -> handler.post(() -> listener.onProgress(categories, products, bytes));
+        jobExecutor.execute(() -> {
+            ImportResult result;
+            try (InputStream stream = in) {
+                result = runImport(stream, mainThreadListener);
+            } catch (IOException | RuntimeException e) {
+                result = ImportResult.error(e);
+            }
+            ImportResult finalResult = result;
+            handler.post(() -> callback.onResult(finalResult));
+        });
+    }
+
+    /**
+     * Imports on the calling thread, which must not be one of the database scheduler's
+     * read or write threads.
+     * Blocking; use {@link #importCatalog} from the UI. The listener is called on this
+     * thread and the stream is left open.
+     *
+     * @throws IOException if the stream can't be read or isn't a catalog. Batches
+     *                     committed before the error stay committed.
+     */
+    @WorkerThread
+    @NonNull
+    public synchronized ImportResult runImport(InputStream in, @Nullable ProgressListener listener)
+            throws IOException {
+        CountingInputStream counting = new CountingInputStream(in);
+        JsonReader reader = new JsonReader(new InputStreamReader(counting, StandardCharsets.UTF_8));
+        Run run = new Run(counting, listener);
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "name":
+                        run.name = reader.nextString();
+                        break;
+                    case "version":
+                        run.version = reader.nextInt();
+                        break;
+                    case "categories":
+                        if (!run.start()) return ImportResult.alreadyImported();
+                        readCategories(reader, run);
+                        break;
+                    case "products":
+                        if (!run.start()) return ImportResult.alreadyImported();
+                        readProducts(reader, run);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (!run.start()) return ImportResult.alreadyImported();
+            run.finish();
+        } finally {
+            run.awaitQuietly();
+        }
+        return ImportResult.imported(run.categoriesImported, run.productsImported, run.skip);
+    }
+
+    private void readCategories(JsonReader reader, Run run) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (run.skipRecord()) {
+                reader.skipValue();
+                continue;
+            }
+            run.categories.add(readCategory(reader));
+            if (run.categories.size() == batchSize) {
+                run.commitBatch();
+            }
+        }
+        reader.endArray();
+        run.commitBatch();
+    }
+
+    private void readProducts(JsonReader reader, Run run) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (run.skipRecord()) {
+                reader.skipValue();
+                continue;
+            }
+            run.products.add(readProduct(reader));
+            if (run.products.size() == batchSize) {
+                run.commitBatch();
+            }
+        }
+        reader.endArray();
+        run.commitBatch();
+    }
+
+    static Category readCategory(JsonReader reader) throws IOException {
+        String id = null;
+        String name = null;
+        String description = null;
+        String iconUrl = null;
+        String parentCategoryId = null;
+        int displayOrder = 0;
+        boolean active = true;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (skipNull(reader)) continue;
+            switch (field) {
+                case "id": id = reader.nextString(); break;
+                case "name": name = reader.nextString(); break;
+                case "description": description = reader.nextString(); break;
+                case "iconUrl": iconUrl = reader.nextString(); break;
+                case "parentCategoryId": parentCategoryId = reader.nextString(); break;
+                case "displayOrder": displayOrder = reader.nextInt(); break;
+                case "isActive": active = reader.nextBoolean(); break;
+                default: reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (id == null) {
+            throw new IOException("Category without an id: " + name);
+        }
+        return new Category(id, name, description, iconUrl, displayOrder, active, parentCategoryId);
+    }
+
+    static Product readProduct(JsonReader reader) throws IOException {
+        Product product = new Product();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (skipNull(reader)) continue;
+            switch (field) {
+                case "id": product.setId(reader.nextString()); break;
+                case "name": product.setName(reader.nextString()); break;
+                case "description": product.setDescription(reader.nextString()); break;
+                case "imageUrl": product.setImageUrl(reader.nextString()); break;
+                case "price": product.setPrice(reader.nextDouble()); break;
+                case "stockQuantity": product.setStockQuantity(reader.nextInt()); break;
+                case "categoryId": product.setCategoryId(reader.nextString()); break;
+                case "isFeatured": product.setFeatured(reader.nextBoolean()); break;
+                case "discountPercentage": product.setDiscountPercentage(reader.nextDouble()); break;
+                case "specifications": product.setSpecifications(reader.nextString()); break;
+                case "rating": product.setRating(reader.nextDouble()); break;
+                case "reviewCount": product.setReviewCount(reader.nextInt()); break;
+                case "lastModified": product.setLastModified(reader.nextLong()); break;
+                case "offerValidUntilTimestamp": product.setOfferValidUntilTimestamp(reader.nextLong()); break;
+                case "originalPrice": product.setOriginalPrice(reader.nextDouble()); break;
+                default: reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (product.getId() == null) {
+            throw new IOException("Product without an id: " + product.getName());
+        }
+        return product;
+    }
+
+    // Nulls keep the field's default
+    static boolean skipNull(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.NULL) return false;
+        reader.nextNull();
+        return true;
+    }
+
+    // State of one import. At most one batch is committing while the next is parsed.
+    private class Run {
+        private final CountingInputStream in;
+        private final ProgressListener listener;
+        String name;
+        int version;
+
+        private boolean started;
+        private boolean alreadyImported;
+        // Records committed by an earlier, interrupted run of the same catalog
+        int skip;
+        private int position;
+
+        final List<Category> categories = new ArrayList<>();
+        final List<Product> products = new ArrayList<>();
+        int categoriesImported;
+        int productsImported;
+
+        private FutureTask<Void> pending;
+        private int pendingCategories;
+        private int pendingProducts;
+
+        Run(CountingInputStream in, ProgressListener listener) {
+            this.in = in;
+            this.listener = listener;
+        }
+
+        // Looks up earlier runs once the name and version are known; false if there's nothing to do
+        boolean start() throws IOException {
+            if (started) return !alreadyImported;
+            if (name == null) {
+                throw new IOException("The catalog's name and version must come before its categories and products");
+            }
+            // 0 is what getAppliedVersion reports for a catalog that was never imported
+            if (version < 1) {
+                throw new IOException("Catalog " + name + " needs a version of 1 or more");
+            }
+            started = true;
+            if (seedDao.getAppliedVersion(name) >= version) {
+                alreadyImported = true;
+                return false;
+            }
+            ImportCheckpoint checkpoint = seedDao.getCheckpoint(name);
+            if (checkpoint != null && checkpoint.getVersion() == version) {
+                skip = checkpoint.getRecordsCommitted();
+            }
+            return true;
+        }
+
+        boolean skipRecord() {
+            return position++ < skip;
+        }
+
+        void commitBatch() throws IOException {
+            if (categories.isEmpty() && products.isEmpty()) return;
+            List<Category> categoryBatch = new ArrayList<>(categories);
+            List<Product> productBatch = new ArrayList<>(products);
+            categories.clear();
+            products.clear();
+            ImportCheckpoint checkpoint = new ImportCheckpoint(name, version, position, System.currentTimeMillis());
+            String reference = "import:" + name + ":" + version;
+
+            submit(() -> database.runInTransaction(() -> {
+                if (!categoryBatch.isEmpty()) {
+                    database.categoryDao().upsertAll(categoryBatch);
+                }
+                if (!productBatch.isEmpty()) {
+                    database.productDao().upsertAll(productBatch);
+                    List<String> ids = new ArrayList<>(productBatch.size());
+                    for (Product product : productBatch) {
+                        ids.add(product.getId());
+                    }
+                    database.inventoryDao().recordStockChanges(ids, reference, checkpoint.getUpdatedAt());
+                }
+                seedDao.saveCheckpoint(checkpoint);
+            }), categoryBatch.size(), productBatch.size());
+        }
+
+        // Records the catalog as applied, so importing it again is a no-op
+        void finish() throws IOException {
+            submit(() -> database.runInTransaction(() -> {
+                seedDao.insert(new SeedRecord(name, version, System.currentTimeMillis()));
+                seedDao.deleteCheckpoint(name);
+            }), 0, 0);
+            await();
+        }
+
+        private void submit(Runnable transaction, int categoryCount, int productCount) throws IOException {
+            await();
+            pending = new FutureTask<>(transaction, null);
+            pendingCategories = categoryCount;
+            pendingProducts = productCount;
+            writeExecutor.execute(pending);
+        }
+
+        private void await() throws IOException {
+            if (pending == null) return;
+            try {
+                pending.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Import batch failed after " + (categoriesImported + productsImported)
+                    + " records", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Import interrupted", e);
+            } finally {
+                pending = null;
+            }
+            categoriesImported += pendingCategories;
+            productsImported += pendingProducts;
+            if (listener != null && pendingCategories + pendingProducts > 0) {
+                listener.onProgress(categoriesImported, productsImported, in.count);
+            }
+        }
+
+        // Lets a batch that's already committing finish before an error is reported
+        void awaitQuietly() {
+            try {
+                await();
+            } catch (IOException ignored) {
+                // The error that stopped the import is the one reported
+            }
+        }
+    }
+
+    public static class ImportResult {
+        public enum Status {
+            IMPORTED,
+            ALREADY_IMPORTED,
+            ERROR
+        }
+
+        private final Status status;
+        private final int categoriesImported;
+        private final int productsImported;
+        private final int recordsResumed;
+        private final Exception error;
+
+        private ImportResult(Status status, int categoriesImported, int productsImported,
+                             int recordsResumed, Exception error) {
+            this.status = status;
+            this.categoriesImported = categoriesImported;
+            this.productsImported = productsImported;
+            this.recordsResumed = recordsResumed;
+            this.error = error;
+        }
+
+        static ImportResult imported(int categories, int products, int resumed) {
+            return new ImportResult(Status.IMPORTED, categories, products, resumed, null);
+        }
+
+        static ImportResult alreadyImported() {
+            return new ImportResult(Status.ALREADY_IMPORTED, 0, 0, 0, null);
+        }
+
+        static ImportResult error(Exception error) {
+            return new ImportResult(Status.ERROR, 0, 0, 0, error);
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public int getCategoriesImported() {
+            return categoriesImported;
+        }
+
+        public int getProductsImported() {
+            return productsImported;
+        }
+
+        // Records skipped because an earlier run had already committed them
+        public int getRecordsResumed() {
+            return recordsResumed;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+    }
+
+    // Bytes taken from the source, for progress against the file size
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.java_shop.data.services;
+
+import android.util.JsonReader;
+import androidx.annotation.Nullable;
+import com.example.java_shop.data.models.Category;
+import com.example.java_shop.data.models.Product;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fetches pages of catalog changes for {@link CatalogSyncService}.
+ */
+public interface CatalogSyncClient {
+    /**
+     * Fetches the changes made after {@code since}.
+     *
+     * @param cursor null for the first page, then the previous page's next cursor
+     * @param etag   ETag of the last completed sync, sent on the first page only
+     */
+    ChangePage fetchChanges(long since, @Nullable String cursor, @Nullable String etag, int limit)
+        throws IOException;
+
+    /**
+     * One page of changes, in the format of a catalog file plus tombstones:
+     * {"categories": [...], "products": [...], "deleted": ["id", ...],
+     *  "nextCursor": "..." or null on the last page, "watermark": lastModified}
+     */
+    class ChangePage {
+        private final List<Category> categories;
+        private final List<Product> products;
+        private final List<String> deletedIds;
+        private final String nextCursor;
+        private final long watermark;
+        private final String etag;
+        private final boolean notModified;
+
+        ChangePage(List<Category> categories, List<Product> products, List<String> deletedIds,
+                   String nextCursor, long watermark, String etag, boolean notModified) {
+            this.categories = categories;
+            this.products = products;
+            this.deletedIds = deletedIds;
+            this.nextCursor = nextCursor;
+            this.watermark = watermark;
+            this.etag = etag;
+            this.notModified = notModified;
+        }
+
+        // Nothing changed since the ETag or watermark that was sent
+        static ChangePage notModified() {
+            return new ChangePage(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+                null, 0, null, true);
+        }
+
+        static ChangePage read(JsonReader reader, @Nullable String etag) throws IOException {
+            List<Category> categories = new ArrayList<>();
+            List<Product> products = new ArrayList<>();
+            List<String> deletedIds = new ArrayList<>();
+            String nextCursor = null;
+            long watermark = 0;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String field = reader.nextName();
+                if (CatalogImporter.skipNull(reader)) continue;
+                switch (field) {
+                    case "categories":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            categories.add(CatalogImporter.readCategory(reader));
+                        }
+                        reader.endArray();
+                        break;
+                    case "products":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            products.add(CatalogImporter.readProduct(reader));
+                        }
+                        reader.endArray();
+                        break;
+                    case "deleted":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            deletedIds.add(reader.nextString());
+                        }
+                        reader.endArray();
+                        break;
+                    case "nextCursor":
+                        nextCursor = reader.nextString();
+                        break;
+                    case "watermark":
+                        watermark = reader.nextLong();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return new ChangePage(categories, products, deletedIds, nextCursor, watermark, etag, false);
+        }
+
+        public List<Category> getCategories() {
+            return categories;
+        }
+
+        public List<Product> getProducts() {
+            return products;
+        }
+
+        public List<String> getDeletedIds() {
+            return deletedIds;
+        }
+
+        @Nullable
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        // Highest lastModified the server has covered once this page is applied
+        public long getWatermark() {
+            return watermark;
+        }
+
+        @Nullable
+        public String getEtag() {
+            return etag;
+        }
+
+        public boolean isNotModified() {
+            return notModified;
+        }
+
+        public boolean isLast() {
+            return nextCursor == null;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.java_shop.data.services;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.DatabaseScheduler;
+import com.example.java_shop.data.database.SyncDao;
+import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.SyncState;
+import com.example.java_shop.data.services.CatalogSyncClient.ChangePage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Keeps the local catalog up to date by pulling only the products changed since the
+ * last sync, so the cost of a sync follows churn rather than catalog size.
+ *
+ * Every page is applied in one transaction on the background write lane: upserts
+ * for changed categories and products, ledger adjustments for changed stock,
+ * tombstones marked deleted, and the sync state. The watermark only moves once the last
+ * page is in; an interrupted sync resumes from the cursor of the next page. The
+ * next page is fetched while the previous one commits.
+ */
+public class CatalogSyncService {
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    private static final String STREAM = "catalog";
+
+    private final CosShopDatabase database;
+    private final SyncDao syncDao;
+    private final CatalogSyncClient client;
+    private final Executor writeExecutor;
+    private final Executor jobExecutor;
+    private final Handler handler;
+    private final int pageSize;
+
+    public CatalogSyncService(CosShopDatabase database, DatabaseScheduler scheduler, CatalogSyncClient client) {
+        this(database, scheduler, client, DEFAULT_PAGE_SIZE);
+    }
+
+    public CatalogSyncService(CosShopDatabase database, DatabaseScheduler scheduler, CatalogSyncClient client,
+                              int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+        }
+        this.database = database;
+        this.client = client;
+        this.pageSize = pageSize;
+        syncDao = database.syncDao();
+        writeExecutor = scheduler.executor(DatabaseScheduler.Lane.BACKGROUND);
+        // One sync at a time, queued with imports; a second request waits for the first
+        jobExecutor = scheduler.jobExecutor();
+        handler = new Handler(Looper.getMainLooper());
+    }
+
+    public interface SyncCallback {
+        void onResult(SyncResult result);
+    }
+
+    // Runs on the scheduler's job thread and reports back on the main thread
+    public void sync(SyncCallback callback) {
+        jobExecutor.execute(() -> {
+            SyncResult result;
+            try {
+                result = syncNow();
+            } catch (IOException | RuntimeException e) {
+                result = SyncResult.error(e);
+            }
+            SyncResult finalResult = result;
+            handler.post(() -> callback.onResult(finalResult));
+        });
+    }
+
+    /**
+     * Syncs on the calling thread, which must not be one of the database scheduler's
+     * read or write threads.
+     * Blocking; use {@link #sync} from the UI.
+     *
+     * @throws IOException if a page can't be fetched or applied. Pages applied
+     *                     before the error stay applied and the next sync resumes after them.
+     */
+    @WorkerThread
+    @NonNull
+    public synchronized SyncResult syncNow() throws IOException {
+        SyncState state = syncDao.getState(STREAM);
+        if (state == null) {
+            state = new SyncState(STREAM, 0, null, null, 0);
+        }
+        long since = state.getWatermark();
+        String cursor = state.getCursor();
+        // A resumed sync never saw the first page's ETag
+        String etag = null;
+        boolean firstPage = cursor == null;
+
+        ChangePage page = client.fetchChanges(since, cursor, firstPage ? state.getEtag() : null, pageSize);
+        if (page.isNotModified()) {
+            return SyncResult.notModified();
+        }
+
+        Applied applied = new Applied();
+        FutureTask<Void> pending = null;
+        try {
+            while (true) {
+                if (firstPage) {
+                    etag = page.getEtag();
+                    firstPage = false;
+                }
+                SyncState next = page.isLast()
+                    ? new SyncState(STREAM, Math.max(since, page.getWatermark()), etag, null, System.currentTimeMillis())
+                    : new SyncState(STREAM, since, state.getEtag(), page.getNextCursor(), System.currentTimeMillis());
+
+                await(pending);
+                pending = apply(page, next);
+                applied.add(page);
+                if (page.isLast()) break;
+                page = client.fetchChanges(since, page.getNextCursor(), null, pageSize);
+                if (page.isNotModified()) {
+                    throw new IOException("Not Modified in the middle of a sync");
+                }
+            }
+            await(pending);
+            pending = null;
+        } finally {
+            if (pending != null) {
+                awaitQuietly(pending);
+            }
+        }
+        return SyncResult.synced(applied.pages, applied.upserted, applied.deleted);
+    }
+
+    private FutureTask<Void> apply(ChangePage page, SyncState next) {
+        FutureTask<Void> task = new FutureTask<>(() -> database.runInTransaction(() -> {
+            if (!page.getCategories().isEmpty()) {
+                database.categoryDao().upsertAll(page.getCategories());
+            }
+            if (!page.getProducts().isEmpty()) {
+                database.productDao().upsertAll(page.getProducts());
+                List<String> ids = new ArrayList<>(page.getProducts().size());
+                for (Product product : page.getProducts()) {
+                    ids.add(product.getId());
+                }
+                database.inventoryDao().recordStockChanges(ids, "sync:" + next.getWatermark(),
+                    next.getUpdatedAt());
+            }
+            if (!page.getDeletedIds().isEmpty()) {
+                // Soft delete: ordered products are still referenced by order_items
+                database.cartDao().removeProducts(page.getDeletedIds());
+                database.productDao().markDeleted(page.getDeletedIds());
+            }
+            syncDao.saveState(next);
+        }), null);
+        writeExecutor.execute(task);
+        return task;
+    }
+
+    private static void await(FutureTask<Void> task) throws IOException {
+        if (task == null) return;
+        try {
+            task.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Applying a sync page failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Sync interrupted", e);
+        }
+    }
+
+    // Lets a page that's already committing finish before an error is reported
+    private static void awaitQuietly(FutureTask<Void> task) {
+        try {
+            await(task);
+        } catch (IOException ignored) {
+            // The error that stopped the sync is the one reported
+        }
+    }
+
+    // Running totals of one sync
+    private static class Applied {
+        int pages;
+        int upserted;
+        int deleted;
+
+        void add(ChangePage page) {
+            pages++;
+            upserted += page.getProducts().size();
+            deleted += page.getDeletedIds().size();
+        }
+    }
+
+    public static class SyncResult {
+        public enum Status {
+            SYNCED,
+            NOT_MODIFIED,
+            ERROR
+        }
+
+        private final Status status;
+        private final int pages;
+        private final int productsUpserted;
+        private final int productsDeleted;
+        private final Exception error;
+
+        private SyncResult(Status status, int pages, int productsUpserted, int productsDeleted, Exception error) {
+            this.status = status;
+            this.pages = pages;
+            this.productsUpserted = productsUpserted;
+            this.productsDeleted = productsDeleted;
+            this.error = error;
+        }
+
+        static SyncResult synced(int pages, int upserted, int deleted) {
+            return new SyncResult(Status.SYNCED, pages, upserted, deleted, null);
+        }
+
+        static SyncResult notModified() {
+            return new SyncResult(Status.NOT_MODIFIED, 0, 0, 0, null);
+        }
+
+        static SyncResult error(Exception error) {
+            return new SyncResult(Status.ERROR, 0, 0, 0, error);
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public int getPages() {
+            return pages;
+        }
+
+        public int getProductsUpserted() {
+            return productsUpserted;
+        }
+
+        public int getProductsDeleted() {
+            return productsDeleted;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.java_shop.data.services;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import com.example.java_shop.data.database.CartDao;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.DatabaseScheduler;
+import com.example.java_shop.data.database.InventoryDao;
+import com.example.java_shop.data.database.OrderDao;
+import com.example.java_shop.data.models.CartLine;
+import com.example.java_shop.data.models.Order;
+import com.example.java_shop.data.models.OrderItem;
+import com.example.java_shop.data.models.StockMovement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Places an order from the stored cart in a single transaction: inserts the
+ * order and its items, records a SALE movement in the inventory ledger for each
+ * line and removes the purchased lines from the cart.
+ *
+ * The order is all or nothing. If any line can't be covered by the current
+ * stock, the whole transaction rolls back and the result lists those lines.
+ */
+public class CheckoutService {
+    private final CosShopDatabase database;
+    private final CartDao cartDao;
+    private final OrderDao orderDao;
+    private final InventoryDao inventoryDao;
+    private final Executor writeExecutor;
+    private final Handler handler;
+
+    public CheckoutService(CosShopDatabase database, DatabaseScheduler scheduler) {
+        this.database = database;
+        cartDao = database.cartDao();
+        orderDao = database.orderDao();
+        inventoryDao = database.inventoryDao();
+        writeExecutor = scheduler.executor(DatabaseScheduler.Lane.USER_WRITE);
+        handler = new Handler(Looper.getMainLooper());
+    }
+
+    public interface CheckoutCallback {
+        void onResult(CheckoutResult result);
+    }
+
+    // Runs on the write lane and reports back on the main thread
+    public void checkout(int userId, double shippingCost, double taxRate, CheckoutCallback callback) {
+        writeExecutor.execute(() -> {
+            CheckoutResult result;
+            try {
+                result = placeOrder(userId, shippingCost, taxRate);
+            } catch (Exception e) {
+                result = CheckoutResult.error(e);
+            }
+            CheckoutResult finalResult = result;
+            handler.post(() -> callback.onResult(finalResult));
+        });
+    }
+
+    /**
+     * Places the order on the calling thread. Blocking; use {@link #checkout} from the UI.
+     */
+    @NonNull
+    public CheckoutResult placeOrder(int userId, double shippingCost, double taxRate) {
+        try {
+            return database.runInTransaction(() -> placeOrderInTransaction(userId, shippingCost, taxRate));
+        } catch (OutOfStockException e) {
+            return CheckoutResult.outOfStock(e.failedLines);
+        }
+    }
+
+    private CheckoutResult placeOrderInTransaction(int userId, double shippingCost, double taxRate) {
+        List<CartLine> lines = cartDao.getCartLinesSync();
+        if (lines.isEmpty()) {
+            return CheckoutResult.emptyCart();
+        }
+
+        List<OrderItem> orderItems = new ArrayList<>(lines.size());
+        List<Long> purchasedLineIds = new ArrayList<>(lines.size());
+        double subtotal = 0;
+        for (CartLine line : lines) {
+            orderItems.add(new OrderItem(0, line.getProductId(), line.getQuantity(), line.getPrice()));
+            purchasedLineIds.add(line.getId());
+            subtotal += line.getTotalPrice();
+        }
+
+        double total = subtotal + subtotal * taxRate + shippingCost;
+        Order order = new Order(userId, new Date(), "PENDING", total);
+        long orderId = orderDao.createOrderWithItems(order, orderItems);
+
+        // Conditional decrements through the ledger, so stock never goes negative.
+        // Goes through the DAO rather than InventoryService, whose locks must not be
+        // taken inside a transaction.
+        List<CartLine> failedLines = new ArrayList<>();
+        String reference = "order:" + orderId;
+        for (CartLine line : lines) {
+            int balance = inventoryDao.applyMovement(line.getProductId(), StockMovement.TYPE_SALE,
+                -line.getQuantity(), reference);
+            if (balance == InventoryDao.REJECTED) {
+                failedLines.add(line);
+            }
+        }
+        if (!failedLines.isEmpty()) {
+            // Rolls back the order and the movements already made
+            throw new OutOfStockException(failedLines);
+        }
+
+        cartDao.deleteByIds(purchasedLineIds);
+        return CheckoutResult.placed((int) orderId, total);
+    }
+
+    public static class CheckoutResult {
+        public enum Status {
+            PLACED,
+            OUT_OF_STOCK,
+            EMPTY_CART,
+            ERROR
+        }
+
+        private final Status status;
+        private final int orderId;
+        private final double total;
+        private final List<CartLine> failedLines;
+        private final Exception error;
+
+        private CheckoutResult(Status status, int orderId, double total,
+                               List<CartLine> failedLines, Exception error) {
+            this.status = status;
+            this.orderId = orderId;
+            this.total = total;
+            this.failedLines = failedLines;
+            this.error = error;
+        }
+
+        static CheckoutResult placed(int orderId, double total) {
+            return new CheckoutResult(Status.PLACED, orderId, total, Collections.emptyList(), null);
+        }
+
+        static CheckoutResult outOfStock(List<CartLine> failedLines) {
+            return new CheckoutResult(Status.OUT_OF_STOCK, 0, 0,
+                Collections.unmodifiableList(failedLines), null);
+        }
+
+        static CheckoutResult emptyCart() {
+            return new CheckoutResult(Status.EMPTY_CART, 0, 0, Collections.emptyList(), null);
+        }
+
+        static CheckoutResult error(Exception error) {
+            return new CheckoutResult(Status.ERROR, 0, 0, Collections.emptyList(), error);
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public boolean isPlaced() {
+            return status == Status.PLACED;
+        }
+
+        public int getOrderId() {
+            return orderId;
+        }
+
+        public double getTotal() {
+            return total;
+        }
+
+        // Lines whose quantity exceeded the product's stock
+        public List<CartLine> getFailedLines() {
+            return failedLines;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+    }
+
+    // Thrown inside the transaction to roll it back
+    private static class OutOfStockException extends RuntimeException {
+        final List<CartLine> failedLines;
+
+        OutOfStockException(List<CartLine> failedLines) {
+            super("Insufficient stock for " + failedLines.size() + " cart line(s)");
+            this.failedLines = failedLines;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.java_shop.data.services;
+
+import android.net.Uri;
+import android.util.JsonReader;
+import androidx.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Reads change pages from {@code <baseUrl>/catalog/changes?since=&cursor=&limit=}.
+ *
+ * The first page of a sync is conditional: it sends If-None-Match with the last
+ * ETag and If-Modified-Since with the watermark, and a 304 means nothing changed.
+ */
+public class HttpCatalogSyncClient implements CatalogSyncClient {
+    private static final int CONNECT_TIMEOUT_MILLIS = 15_000;
+    private static final int READ_TIMEOUT_MILLIS = 30_000;
+
+    private final String baseUrl;
+
+    public HttpCatalogSyncClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    @Override
+    public ChangePage fetchChanges(long since, @Nullable String cursor, @Nullable String etag, int limit)
+            throws IOException {
+        Uri.Builder uri = Uri.parse(baseUrl + "/catalog/changes").buildUpon()
+            .appendQueryParameter("since", Long.toString(since))
+            .appendQueryParameter("limit", Integer.toString(limit));
+        if (cursor != null) {
+            uri.appendQueryParameter("cursor", cursor);
+        }
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(uri.build().toString()).openConnection();
+        try {
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+            connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+            connection.setRequestProperty("Accept", "application/json");
+            // Conditional headers only make sense for the start of a sync
+            if (cursor == null) {
+                if (etag != null) {
+                    connection.setRequestProperty("If-None-Match", etag);
+                }
+                if (since > 0) {
+                    connection.setRequestProperty("If-Modified-Since", httpDate(since));
+                }
+            }
+
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return ChangePage.notModified();
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Catalog changes request failed: HTTP " + status);
+            }
+            try (InputStream in = new BufferedInputStream(connection.getInputStream());
+                 JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                return ChangePage.read(reader, connection.getHeaderField("ETag"));
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String httpDate(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format.format(new Date(millis));
+    }
+}
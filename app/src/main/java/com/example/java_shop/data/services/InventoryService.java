@@ -0,0 +1,80 @@
+package com.example.java_shop.data.services;
+
+import androidx.annotation.WorkerThread;
+import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.InventoryDao;
+import com.example.java_shop.data.models.StockMovement;
+import java.util.List;
+
+/**
+ * Records every stock change as a ledger movement through {@link InventoryDao}.
+ *
+ * The database is the only copy of the stock level. A movement is one transaction
+ * whose conditional update matches no row when it would take stock below zero, so
+ * concurrent reservations can't oversell.
+ */
+public class InventoryService {
+    private final CosShopDatabase database;
+    private final InventoryDao inventoryDao;
+
+    public InventoryService(CosShopDatabase database) {
+        this.database = database;
+        inventoryDao = database.inventoryDao();
+    }
+
+    // Movements
+
+    /**
+     * Holds {@code quantity} units for a cart or checkout.
+     *
+     * @return false if there isn't enough stock
+     */
+    @WorkerThread
+    public boolean reserve(String productId, int quantity, String reference) {
+        return move(productId, StockMovement.TYPE_RESERVATION, -quantity, reference);
+    }
+
+    // Gives back units held by reserve()
+    @WorkerThread
+    public boolean release(String productId, int quantity, String reference) {
+        return move(productId, StockMovement.TYPE_RELEASE, quantity, reference);
+    }
+
+    @WorkerThread
+    public boolean recordSale(String productId, int quantity, String reference) {
+        return move(productId, StockMovement.TYPE_SALE, -quantity, reference);
+    }
+
+    @WorkerThread
+    public boolean restock(String productId, int quantity, String reference) {
+        return move(productId, StockMovement.TYPE_RESTOCK, quantity, reference);
+    }
+
+    // Sets an absolute stock level, recorded as an adjustment by the difference
+    @WorkerThread
+    public boolean adjustTo(String productId, int newQuantity, String reference) {
+        return inventoryDao.adjustTo(productId, newQuantity, reference) != InventoryDao.REJECTED;
+    }
+
+    private boolean move(String productId, String type, int delta, String reference) {
+        if (delta == 0) return true;
+        return inventoryDao.applyMovement(productId, type, delta, reference) != InventoryDao.REJECTED;
+    }
+
+    // Queries
+
+    @WorkerThread
+    public int getStockLevel(String productId) {
+        Integer stored = inventoryDao.getStockQuantity(productId);
+        return stored != null ? stored : 0;
+    }
+
+    /**
+     * Ids of products whose stock snapshot doesn't match their latest ledger entry.
+     * Empty when the ledger and snapshots are consistent.
+     */
+    @WorkerThread
+    public List<String> verifySnapshots() {
+        return database.runInTransaction(inventoryDao::findSnapshotMismatches);
+    }
+}
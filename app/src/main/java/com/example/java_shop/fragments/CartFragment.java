@@ -16,7 +16,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.button.MaterialButton;
 import com.example.java_shop.R;
 import com.example.java_shop.adapters.CartAdapter;
-import com.example.java_shop.data.models.CartItemWithProduct;
+import com.example.java_shop.data.models.CartLine;
 import com.example.java_shop.viewmodels.CartViewModel;
 import java.text.NumberFormat;
 import java.util.List;
@@ -92,7 +92,7 @@ public class CartFragment extends Fragment implements CartAdapter.CartActionList
         });
     }
 
-    private void updateCartItems(List<CartItemWithProduct> items) {
+    private void updateCartItems(List<CartLine> items) {
         adapter.submitList(items);
         updateEmptyState(items);
     }
@@ -102,7 +102,7 @@ public class CartFragment extends Fragment implements CartAdapter.CartActionList
         checkoutButton.setEnabled(total > 0);
     }
 
-    private void updateEmptyState(List<CartItemWithProduct> items) {
+    private void updateEmptyState(List<CartLine> items) {
         boolean isEmpty = items == null || items.isEmpty();
         emptyState.setVisibility(isEmpty ? View.VISIBLE : View.GONE);
         cartRecyclerView.setVisibility(isEmpty ? View.GONE : View.VISIBLE);
@@ -110,22 +110,22 @@ public class CartFragment extends Fragment implements CartAdapter.CartActionList
 
     // CartAdapter.CartActionListener implementation
     @Override
-    public void onItemClick(CartItemWithProduct item) {
+    public void onItemClick(CartLine item) {
         viewModel.navigateToProduct(item);
     }
 
     @Override
-    public void onIncreaseQuantity(CartItemWithProduct item) {
+    public void onIncreaseQuantity(CartLine item) {
         viewModel.increaseQuantity(item);
     }
 
     @Override
-    public void onDecreaseQuantity(CartItemWithProduct item) {
+    public void onDecreaseQuantity(CartLine item) {
         viewModel.decreaseQuantity(item);
     }
 
     @Override
-    public void onRemoveItem(CartItemWithProduct item) {
+    public void onRemoveItem(CartLine item) {
         viewModel.removeItem(item);
     }
 }
\ No newline at end of file
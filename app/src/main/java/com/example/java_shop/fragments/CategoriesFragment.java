@@ -17,7 +17,7 @@ import com.example.java_shop.R;
 import com.example.java_shop.adapters.CategoryWithProductsAdapter;
 import com.example.java_shop.adapters.ProductGridAdapter;
 import com.example.java_shop.data.models.Category;
-import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.ProductSummary;
 import com.example.java_shop.viewmodels.CategoriesViewModel;
 import java.util.List;
 
@@ -114,7 +114,7 @@ public class CategoriesFragment extends Fragment implements
     }
 
     @Override
-    public void onProductClick(Product product) {
+    public void onProductClick(ProductSummary product) {
         // Navigate to product details
         Bundle args = new Bundle();
         args.putString("productId", product.getId());
@@ -123,7 +123,7 @@ public class CategoriesFragment extends Fragment implements
     }
 
     @Override
-    public void onAddToCartClick(Product product) {
+    public void onAddToCartClick(ProductSummary product) {
         // TODO: Implement add to cart functionality
     }
 }
\ No newline at end of file
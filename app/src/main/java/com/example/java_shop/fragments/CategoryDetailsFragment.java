@@ -4,7 +4,6 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import java.util.List;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
@@ -14,6 +13,7 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
+import androidx.paging.LoadState;
 import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
@@ -21,11 +21,16 @@ import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.example.java_shop.R;
 import com.example.java_shop.adapters.CategoryAdapter;
 import com.example.java_shop.adapters.ProductGridAdapter;
+import com.example.java_shop.adapters.ProductPagingAdapter;
+import com.example.java_shop.data.cache.FacetIndex.Facet;
+import com.example.java_shop.data.cache.FacetIndex.FacetCounts;
+import com.example.java_shop.data.cache.FacetIndex.FacetSelection;
 import com.example.java_shop.data.models.Category;
-import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.ProductSummary;
 import com.example.java_shop.utils.ImageLoader;
 import com.example.java_shop.viewmodels.CategoryDetailsViewModel;
 import com.example.java_shop.viewmodels.CategoryDetailsViewModel.SortOption;
+import kotlin.Unit;
 
 public class CategoryDetailsFragment extends Fragment implements 
         CategoryAdapter.OnCategoryClickListener,
@@ -48,7 +53,20 @@ public class CategoryDetailsFragment extends Fragment implements
     
     // Adapters
     private CategoryAdapter subcategoriesAdapter;
-    private ProductGridAdapter productsAdapter;
+    private ProductPagingAdapter productsAdapter;
+
+    // Filter dialog entries, in the order they are listed
+    private static final Facet[] FILTER_FACETS = {
+        Facet.IN_STOCK, Facet.FEATURED, Facet.ON_OFFER,
+        Facet.RATING, Facet.RATING, Facet.RATING, Facet.RATING,
+        Facet.PRICE, Facet.PRICE, Facet.PRICE, Facet.PRICE, Facet.PRICE
+    };
+    private static final int[] FILTER_OPTIONS = {0, 0, 0, 0, 1, 2, 3, 0, 1, 2, 3, 4};
+    private static final String[] FILTER_LABELS = {
+        "In stock", "Featured", "On offer",
+        "4-5 stars", "3-4 stars", "2-3 stars", "Under 2 stars",
+        "Under $10", "$10-$25", "$25-$50", "$50-$100", "$100 and up"
+    };
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
@@ -61,7 +79,7 @@ public class CategoryDetailsFragment extends Fragment implements
         
         // Initialize adapters
         subcategoriesAdapter = new CategoryAdapter(this);
-        productsAdapter = new ProductGridAdapter(this);
+        productsAdapter = new ProductPagingAdapter(this);
     }
 
     @Nullable
@@ -108,9 +126,17 @@ public class CategoryDetailsFragment extends Fragment implements
         // Setup RecyclerViews
         subcategoriesRecyclerView.setAdapter(subcategoriesAdapter);
         productsRecyclerView.setAdapter(productsAdapter);
+        productsAdapter.addLoadStateListener(loadStates -> {
+            updateEmptyState(loadStates.getRefresh() instanceof LoadState.NotLoading
+                && productsAdapter.getItemCount() == 0);
+            return Unit.INSTANCE;
+        });
 
         // Setup chips
         sortChip.setOnClickListener(v -> showSortDialog());
+        filterChip.setOnClickListener(v -> showFilterDialog());
+        // Enabled once option counts are available
+        filterChip.setEnabled(false);
         inStockChip.setOnCheckedChangeListener((button, isChecked) -> 
             viewModel.setShowInStockOnly(isChecked));
     }
@@ -128,14 +154,23 @@ public class CategoryDetailsFragment extends Fragment implements
         });
 
         // Observe products
-        viewModel.getProducts().observe(getViewLifecycleOwner(), products -> {
-            productsAdapter.submitList(products);
-            updateEmptyState(products);
-        });
+        viewModel.getProducts().observe(getViewLifecycleOwner(), pagingData ->
+            productsAdapter.submitData(getViewLifecycleOwner().getLifecycle(), pagingData));
 
         // Observe sort option
         viewModel.getCurrentSortOption().observe(getViewLifecycleOwner(), this::updateSortChipText);
 
+        // Observe filters
+        viewModel.getShowInStockOnly().observe(getViewLifecycleOwner(), inStockOnly -> {
+            if (inStockChip.isChecked() != inStockOnly) {
+                inStockChip.setChecked(inStockOnly);
+            }
+        });
+        viewModel.getFacetSelection().observe(getViewLifecycleOwner(), selection ->
+            filterChip.setText(selection.isEmpty() ? "Filter" : "Filter (" + selection.size() + ")"));
+        viewModel.getFacetCounts().observe(getViewLifecycleOwner(), counts ->
+            filterChip.setEnabled(counts != null));
+
         // Observe navigation commands
         viewModel.getNavigationCommand().observe(getViewLifecycleOwner(), command -> {
             if (command != null) {
@@ -154,8 +189,7 @@ public class CategoryDetailsFragment extends Fragment implements
         ImageLoader.loadImage(categoryIcon, category.getIconUrl());
     }
 
-    private void updateEmptyState(List<Product> products) {
-        boolean isEmpty = products == null || products.isEmpty();
+    private void updateEmptyState(boolean isEmpty) {
         emptyState.setVisibility(isEmpty ? View.VISIBLE : View.GONE);
         productsRecyclerView.setVisibility(isEmpty ? View.GONE : View.VISIBLE);
     }
@@ -219,6 +253,33 @@ public class CategoryDetailsFragment extends Fragment implements
             .show();
     }
 
+    private void showFilterDialog() {
+        FacetCounts counts = viewModel.getFacetCounts().getValue();
+        FacetSelection selection = viewModel.getFacetSelection().getValue();
+        if (counts == null || selection == null) return;
+
+        String[] labels = new String[FILTER_LABELS.length];
+        boolean[] checked = new boolean[FILTER_LABELS.length];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = FILTER_LABELS[i] + " (" + counts.get(FILTER_FACETS[i], FILTER_OPTIONS[i]) + ")";
+            checked[i] = selection.isSelected(FILTER_FACETS[i], FILTER_OPTIONS[i]);
+        }
+
+        new MaterialAlertDialogBuilder(requireContext())
+            .setTitle("Filter (" + counts.getMatching() + " products)")
+            .setMultiChoiceItems(labels, checked, (dialog, which, isChecked) -> checked[which] = isChecked)
+            .setPositiveButton("Apply", (dialog, which) -> {
+                FacetSelection updated = FacetSelection.NONE;
+                for (int i = 0; i < checked.length; i++) {
+                    updated = updated.with(FILTER_FACETS[i], FILTER_OPTIONS[i], checked[i]);
+                }
+                viewModel.setFacetSelection(updated);
+            })
+            .setNeutralButton("Clear", (dialog, which) -> viewModel.setFacetSelection(FacetSelection.NONE))
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+
     // CategoryAdapter.OnCategoryClickListener implementation
     @Override
     public void onCategoryClick(Category category) {
@@ -227,12 +288,12 @@ public class CategoryDetailsFragment extends Fragment implements
 
     // ProductGridAdapter.OnProductActionListener implementation
     @Override
-    public void onProductClick(Product product) {
+    public void onProductClick(ProductSummary product) {
         viewModel.navigateToProduct(product);
     }
 
     @Override
-    public void onAddToCartClick(Product product) {
+    public void onAddToCartClick(ProductSummary product) {
         // TODO: Implement add to cart functionality
     }
 }
\ No newline at end of file
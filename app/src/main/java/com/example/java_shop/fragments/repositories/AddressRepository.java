@@ -1,34 +1,34 @@
 package com.example.java_shop.data.repositories;
 
-import android.app.Application;
 import androidx.lifecycle.LiveData;
 import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.DatabaseScheduler;
 import com.example.java_shop.data.database.AddressDao;
 import com.example.java_shop.data.models.Address;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 public class AddressRepository {
     private final AddressDao addressDao;
-    private final ExecutorService executorService;
+    private final Executor readExecutor;
+    private final Executor writeExecutor;
 
-    public AddressRepository(Application application) {
-        CosShopDatabase database = CosShopDatabase.getDatabase(application);
+    public AddressRepository(CosShopDatabase database, DatabaseScheduler scheduler) {
         addressDao = database.addressDao();
-        executorService = Executors.newSingleThreadExecutor();
+        readExecutor = scheduler.executor(DatabaseScheduler.Lane.UI_READ);
+        writeExecutor = scheduler.executor(DatabaseScheduler.Lane.USER_WRITE);
     }
 
     public void insert(Address address) {
-        executorService.execute(() -> addressDao.insert(address));
+        writeExecutor.execute(() -> addressDao.insert(address));
     }
 
     public void update(Address address) {
-        executorService.execute(() -> addressDao.update(address));
+        writeExecutor.execute(() -> addressDao.update(address));
     }
 
     public void delete(Address address) {
-        executorService.execute(() -> addressDao.delete(address));
+        writeExecutor.execute(() -> addressDao.delete(address));
     }
 
     public LiveData<Address> getAddressById(int addressId) {
@@ -44,15 +44,15 @@ public class AddressRepository {
     }
 
     public void setDefaultAddress(int userId, int addressId) {
-        executorService.execute(() -> addressDao.setDefaultAddress(userId, addressId));
+        writeExecutor.execute(() -> addressDao.setDefaultAddress(userId, addressId));
     }
 
     public void deleteAllAddressesForUser(int userId) {
-        executorService.execute(() -> addressDao.deleteAllAddressesForUser(userId));
+        writeExecutor.execute(() -> addressDao.deleteAllAddressesForUser(userId));
     }
 
     public void getAddressCountForUser(int userId, CountCallback callback) {
-        executorService.execute(() -> {
+        readExecutor.execute(() -> {
             int count = addressDao.getAddressCountForUser(userId);
             callback.onResult(count);
         });
@@ -1,59 +1,223 @@
 package com.example.java_shop.data.repositories;
 
-import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.annotation.MainThread;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import com.example.java_shop.data.database.CartDao;
 import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.DatabaseScheduler;
 import com.example.java_shop.data.models.CartItem;
-import com.example.java_shop.data.models.CartItemWithProduct;
+import com.example.java_shop.data.models.CartLine;
+import com.example.java_shop.data.models.CartSummary;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 public class CartRepository {
+    private static final String TAG = "CartRepository";
+    // Quantity changes within this window are written together
+    private static final long QUANTITY_FLUSH_DELAY_MS = 150;
+
+    private final CosShopDatabase database;
     private final CartDao cartDao;
-    private final ExecutorService executorService;
+    private final Executor writeExecutor;
+    private final Executor backgroundExecutor;
+
+    // Optimistic quantities by cart item id, shown until the database catches up.
+    // Only touched on the main thread.
+    private final Handler handler;
+    private final Map<Long, PendingQuantity> pendingQuantities = new HashMap<>();
+    private final MediatorLiveData<List<CartLine>> cartLines = new MediatorLiveData<>();
+    // Shared by every screen, so the aggregate runs once per cart change
+    private final MediatorLiveData<CartSummary> cartSummary = new MediatorLiveData<>();
+    private List<CartLine> storedLines;
+    private CartSummary storedSummary;
+    private boolean flushScheduled;
+    private final Runnable flushRunnable = this::flushQuantities;
 
-    public CartRepository(Application application) {
-        CosShopDatabase database = CosShopDatabase.getDatabase(application);
+    public CartRepository(CosShopDatabase database, DatabaseScheduler scheduler) {
+        this.database = database;
         cartDao = database.cartDao();
-        executorService = Executors.newSingleThreadExecutor();
+        handler = new Handler(Looper.getMainLooper());
+        writeExecutor = scheduler.executor(DatabaseScheduler.Lane.USER_WRITE);
+        backgroundExecutor = scheduler.executor(DatabaseScheduler.Lane.BACKGROUND);
+        // The summary needs the stored lines too, to know what each optimistic quantity changes
+        LiveData<List<CartLine>> stored = cartDao.getCartLines();
+        cartLines.addSource(stored, this::onStoredLines);
+        cartSummary.addSource(stored, this::onStoredLines);
+        cartSummary.addSource(cartDao.getCartSummary(), summary -> {
+            storedSummary = summary;
+            publishCartSummary();
+        });
     }
 
     // Basic cart operations
-    public LiveData<List<CartItemWithProduct>> getCartItemsWithProducts() {
-        return cartDao.getCartItemsWithProducts();
+    // Cart lines with any quantity changes that are not written yet applied on top
+    public LiveData<List<CartLine>> getCartLines() {
+        return cartLines;
     }
 
-    public LiveData<Integer> getCartItemCount() {
-        return cartDao.getCartItemCount();
+    // Cart totals with the same unwritten quantity changes applied, so they match the lines
+    public LiveData<CartSummary> getCartSummary() {
+        return cartSummary;
     }
 
-    public LiveData<Double> getCartTotal() {
-        return cartDao.getCartTotal();
+    public void addToCart(String productId, int quantity, double price) {
+        writeExecutor.execute(() ->
+            cartDao.addOrMergeQuantity(productId, quantity, price, System.currentTimeMillis()));
     }
 
-    public void addToCart(String productId, int quantity, double price) {
-        executorService.execute(() -> {
-            CartItem cartItem = new CartItem(productId, quantity, price);
-            cartDao.insert(cartItem);
+    // Shows the new quantity at once and writes it with the other changes of the same window
+    @MainThread
+    public void updateQuantity(long cartItemId, int newQuantity) {
+        PendingQuantity pending = pendingQuantities.get(cartItemId);
+        if (pending == null) {
+            pending = new PendingQuantity();
+            pendingQuantities.put(cartItemId, pending);
+        }
+        pending.quantity = newQuantity;
+        pending.dirty = true;
+        publishCartLines();
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            handler.postDelayed(flushRunnable, QUANTITY_FLUSH_DELAY_MS);
+        }
+    }
+
+    // Writes pending quantity changes now, e.g. before checkout reads the stored cart.
+    // The write lane is FIFO, so they land before any write queued after this call.
+    @MainThread
+    public void flushPendingQuantities() {
+        handler.removeCallbacks(flushRunnable);
+        flushQuantities();
+    }
+
+    @MainThread
+    private void flushQuantities() {
+        flushScheduled = false;
+        Map<Long, Integer> batch = new HashMap<>();
+        for (Map.Entry<Long, PendingQuantity> entry : pendingQuantities.entrySet()) {
+            PendingQuantity pending = entry.getValue();
+            if (pending.dirty) {
+                pending.dirty = false;
+                batch.put(entry.getKey(), pending.quantity);
+            }
+        }
+        if (batch.isEmpty()) return;
+
+        writeExecutor.execute(() -> {
+            try {
+                database.runInTransaction(() -> {
+                    for (Map.Entry<Long, Integer> entry : batch.entrySet()) {
+                        cartDao.updateQuantity(entry.getKey(), entry.getValue());
+                    }
+                });
+            } catch (Exception e) {
+                Log.w(TAG, "Failed to write cart quantities, rolling back", e);
+                handler.post(() -> rollBackQuantities(batch));
+            }
         });
     }
 
-    public void updateQuantity(long cartItemId, int newQuantity) {
-        executorService.execute(() -> cartDao.updateQuantity(cartItemId, newQuantity));
+    // Drops the optimistic values of a failed batch, unless they were changed again since
+    @MainThread
+    private void rollBackQuantities(Map<Long, Integer> batch) {
+        for (Map.Entry<Long, Integer> entry : batch.entrySet()) {
+            PendingQuantity pending = pendingQuantities.get(entry.getKey());
+            if (pending != null && !pending.dirty && pending.quantity == entry.getValue()) {
+                pendingQuantities.remove(entry.getKey());
+            }
+        }
+        publishCartLines();
+    }
+
+    @MainThread
+    private void onStoredLines(List<CartLine> lines) {
+        // Both mediators deliver the same list when both are observed
+        if (lines == storedLines) return;
+        storedLines = lines;
+        reconcilePendingQuantities();
+        publishCartLines();
+    }
+
+    // Forgets optimistic values the database now agrees with, or whose line is gone
+    @MainThread
+    private void reconcilePendingQuantities() {
+        if (pendingQuantities.isEmpty() || storedLines == null) return;
+
+        Map<Long, Integer> storedQuantities = new HashMap<>();
+        for (CartLine line : storedLines) {
+            storedQuantities.put(line.getId(), line.getQuantity());
+        }
+        Iterator<Map.Entry<Long, PendingQuantity>> iterator = pendingQuantities.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, PendingQuantity> entry = iterator.next();
+            Integer stored = storedQuantities.get(entry.getKey());
+            PendingQuantity pending = entry.getValue();
+            if (stored == null || (!pending.dirty && stored == pending.quantity)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @MainThread
+    private void publishCartLines() {
+        publishCartSummary();
+        if (storedLines == null) return;
+        if (pendingQuantities.isEmpty()) {
+            cartLines.setValue(storedLines);
+            return;
+        }
+
+        List<CartLine> lines = new ArrayList<>(storedLines.size());
+        for (CartLine line : storedLines) {
+            PendingQuantity pending = pendingQuantities.get(line.getId());
+            lines.add(pending != null ? line.withQuantity(pending.quantity) : line);
+        }
+        cartLines.setValue(lines);
     }
 
+    // The stored totals plus the difference each optimistic quantity makes to its line
+    @MainThread
+    private void publishCartSummary() {
+        if (storedSummary == null) return;
+        if (pendingQuantities.isEmpty() || storedLines == null) {
+            cartSummary.setValue(storedSummary);
+            return;
+        }
+
+        CartSummary summary = storedSummary;
+        for (CartLine line : storedLines) {
+            PendingQuantity pending = pendingQuantities.get(line.getId());
+            if (pending != null && pending.quantity != line.getQuantity()) {
+                summary = summary.plusUnits(pending.quantity - line.getQuantity(), line.getPrice(),
+                    line.getPriceAtAddition());
+            }
+        }
+        cartSummary.setValue(summary);
+    }
+
+    @MainThread
     public void removeFromCart(long cartItemId) {
-        executorService.execute(() -> {
+        pendingQuantities.remove(cartItemId);
+        writeExecutor.execute(() -> {
             CartItem cartItem = new CartItem("", 0, 0); // Dummy item with correct ID
             cartItem.setId(cartItemId);
             cartDao.delete(cartItem);
         });
     }
 
+    @MainThread
     public void clearCart() {
-        executorService.execute(cartDao::clearCart);
+        pendingQuantities.clear();
+        writeExecutor.execute(cartDao::clearCart);
     }
 
     // Helper queries
@@ -65,13 +229,14 @@ public class CartRepository {
         return cartDao.getQuantityForProduct(productId);
     }
 
-    // Cleanup
-    public void cleanup() {
-        executorService.shutdown();
-    }
-
     // Maintenance
     public void removeOldCartItems(long timestamp) {
-        executorService.execute(() -> cartDao.removeOldCartItems(timestamp));
+        backgroundExecutor.execute(() -> cartDao.removeOldCartItems(timestamp));
+    }
+
+    private static class PendingQuantity {
+        int quantity;
+        // Changed since the last flush
+        boolean dirty;
     }
-}
\ No newline at end of file
+}
@@ -1,111 +1,140 @@
 package com.example.java_shop.data.repositories;
 
-import android.app.Application;
+import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.room.InvalidationTracker;
+import com.example.java_shop.data.cache.CategoryTree;
 import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.DatabaseScheduler;
 import com.example.java_shop.data.database.CategoryDao;
 import com.example.java_shop.data.models.Category;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class CategoryRepository {
     private final CategoryDao categoryDao;
-    private final ExecutorService executorService;
+    private final Executor readExecutor;
+    private final Executor writeExecutor;
+    private final Executor backgroundExecutor;
+
+    // Category hierarchy, rebuilt from the table whenever categories change
+    private final MutableLiveData<CategoryTree> categoryTree = new MutableLiveData<>();
+    private volatile CategoryTree currentTree = CategoryTree.empty();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
 
     // Constructor
-    public CategoryRepository(Application application) {
-        CosShopDatabase database = CosShopDatabase.getDatabase(application);
+    public CategoryRepository(CosShopDatabase database, DatabaseScheduler scheduler) {
         categoryDao = database.categoryDao();
-        executorService = Executors.newFixedThreadPool(2);
+        readExecutor = scheduler.executor(DatabaseScheduler.Lane.UI_READ);
+        writeExecutor = scheduler.executor(DatabaseScheduler.Lane.USER_WRITE);
+        backgroundExecutor = scheduler.executor(DatabaseScheduler.Lane.BACKGROUND);
+
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("categories") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                scheduleRebuild();
+            }
+        });
+        scheduleRebuild();
+    }
+
+    // Coalesces bursts of writes into one rebuild
+    private void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) return;
+        readExecutor.execute(() -> {
+            // Cleared before loading so a write during the load schedules another rebuild
+            rebuildScheduled.set(false);
+            CategoryTree tree = new CategoryTree(categoryDao.getAllCategoriesSync());
+            currentTree = tree;
+            categoryTree.postValue(tree);
+        });
     }
 
     // Insert operations
     public void insert(Category category) {
-        executorService.execute(() -> categoryDao.insert(category));
+        writeExecutor.execute(() -> categoryDao.insert(category));
     }
 
     public void insertAll(List<Category> categories) {
-        executorService.execute(() -> categoryDao.insertAll(categories));
+        writeExecutor.execute(() -> categoryDao.insertAll(categories));
     }
 
     // Update operations
     public void update(Category category) {
-        executorService.execute(() -> categoryDao.update(category));
+        writeExecutor.execute(() -> categoryDao.update(category));
     }
 
     // Delete operations
     public void delete(Category category) {
-        executorService.execute(() -> categoryDao.delete(category));
+        writeExecutor.execute(() -> categoryDao.delete(category));
     }
 
     public void deleteAll() {
-        executorService.execute(categoryDao::deleteAll);
+        writeExecutor.execute(categoryDao::deleteAll);
+    }
+
+    // Category tree
+    public LiveData<CategoryTree> getCategoryTree() {
+        return categoryTree;
+    }
+
+    // Latest tree, empty until the first build finishes
+    @NonNull
+    public CategoryTree peekCategoryTree() {
+        return currentTree;
     }
 
     // Basic queries
     public LiveData<List<Category>> getAllCategories() {
-        return categoryDao.getAllCategories();
+        return Transformations.map(categoryTree, CategoryTree::getAll);
     }
 
     public LiveData<Category> getCategory(String categoryId) {
-        return categoryDao.getCategory(categoryId);
+        return Transformations.map(categoryTree, tree -> tree.getCategory(categoryId));
     }
 
     // Hierarchy queries
     public LiveData<List<Category>> getTopLevelCategories() {
-        return categoryDao.getTopLevelCategories();
+        return Transformations.map(categoryTree, CategoryTree::getRoots);
     }
 
     public LiveData<List<Category>> getSubcategories(String parentId) {
-        return categoryDao.getSubcategories(parentId);
+        return Transformations.map(categoryTree, tree -> tree.getChildren(parentId));
     }
 
     // Active categories
     public LiveData<List<Category>> getActiveCategories() {
-        return categoryDao.getActiveCategories();
+        return Transformations.map(categoryTree, CategoryTree::getActive);
     }
 
     public LiveData<List<Category>> getActiveTopLevelCategories() {
-        return categoryDao.getActiveTopLevelCategories();
+        return Transformations.map(categoryTree, CategoryTree::getActiveRoots);
     }
 
     public LiveData<List<Category>> getActiveSubcategories(String parentId) {
-        return categoryDao.getActiveSubcategories(parentId);
+        return Transformations.map(categoryTree, tree -> tree.getActiveChildren(parentId));
     }
 
     // Category path
     public LiveData<List<Category>> getCategoryPath(String categoryId) {
-        return categoryDao.getCategoryPath(categoryId);
+        return Transformations.map(categoryTree, tree -> tree.getPath(categoryId));
+    }
+
+    public LiveData<Set<String>> getDescendantIds(String categoryId) {
+        return Transformations.map(categoryTree, tree -> tree.getDescendantIds(categoryId));
     }
 
     // Category counts
     public LiveData<Integer> getSubcategoryCount(String categoryId) {
-        return categoryDao.getSubcategoryCount(categoryId);
+        return Transformations.map(categoryTree, tree -> tree.getChildren(categoryId).size());
     }
 
     // Display order management
     public void updateDisplayOrder(String categoryId, int newOrder) {
-        executorService.execute(() -> categoryDao.updateDisplayOrder(categoryId, newOrder));
-    }
-
-    // Category initialization
-    public void initializeDefaultCategories() {
-        executorService.execute(() -> {
-            // Create main product categories
-            List<Category> mainCategories = List.of(
-                new Category("FACE", "Face Products", "Foundation, Concealer, Blush, and more", "@drawable/ic_category_face", 1, true, null),
-                new Category("EYE", "Eye Products", "Eyeshadow, Mascara, Eyeliner, and more", "@drawable/ic_category_eye", 2, true, null),
-                new Category("LIP", "Lip Products", "Lipstick, Lip Gloss, Lip Liner, and more", "@drawable/ic_category_lips", 3, true, null),
-                new Category("SKINCARE", "Skin Care", "Moisturizers, Serums, Toners, and more", "@drawable/ic_category_skincare", 4, true, null),
-                new Category("TOOLS", "Tools & Accessories", "Brushes, Sponges, and other beauty tools", "@drawable/ic_category_tools", 5, true, null)
-            );
-            categoryDao.insertAll(mainCategories);
-        });
-    }
-
-    // Cleanup
-    public void cleanup() {
-        executorService.shutdown();
+        backgroundExecutor.execute(() -> categoryDao.updateDisplayOrder(categoryId, newOrder));
     }
-}
\ No newline at end of file
+}
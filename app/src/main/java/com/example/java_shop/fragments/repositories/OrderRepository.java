@@ -1,35 +1,24 @@
 package com.example.java_shop.data.repositories;
 
-import android.app.Application;
 import androidx.lifecycle.LiveData;
 import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.DatabaseScheduler;
 import com.example.java_shop.data.database.OrderDao;
 import com.example.java_shop.data.models.Order;
 import com.example.java_shop.data.models.OrderItem;
 import java.util.Date;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 public class OrderRepository {
     private final OrderDao orderDao;
-    private final ExecutorService executorService;
+    private final Executor readExecutor;
+    private final Executor writeExecutor;
 
-    public OrderRepository(Application application) {
-        CosShopDatabase database = CosShopDatabase.getDatabase(application);
+    public OrderRepository(CosShopDatabase database, DatabaseScheduler scheduler) {
         orderDao = database.orderDao();
-        executorService = Executors.newSingleThreadExecutor();
-    }
-
-    public interface OrderCreationCallback {
-        void onOrderCreated(int orderId);
-    }
-
-    public void createOrder(Order order, List<OrderItem> items, OrderCreationCallback callback) {
-        executorService.execute(() -> {
-            long orderId = orderDao.createOrderWithItems(order, items);
-            callback.onOrderCreated((int) orderId);
-        });
+        readExecutor = scheduler.executor(DatabaseScheduler.Lane.UI_READ);
+        writeExecutor = scheduler.executor(DatabaseScheduler.Lane.USER_WRITE);
     }
 
     public LiveData<List<Order>> getOrdersForUser(int userId) {
@@ -45,11 +34,11 @@ public class OrderRepository {
     }
 
     public void updateOrderStatus(int orderId, String newStatus) {
-        executorService.execute(() -> orderDao.updateOrderStatus(orderId, newStatus));
+        writeExecutor.execute(() -> orderDao.updateOrderStatus(orderId, newStatus));
     }
 
     public void getOrderCount(int userId, CountCallback callback) {
-        executorService.execute(() -> {
+        readExecutor.execute(() -> {
             int count = orderDao.getOrderCountForUser(userId);
             callback.onResult(count);
         });
@@ -64,7 +53,7 @@ public class OrderRepository {
     }
 
     public void deleteAllOrdersForUser(int userId) {
-        executorService.execute(() -> orderDao.deleteAllOrdersForUser(userId));
+        writeExecutor.execute(() -> orderDao.deleteAllOrdersForUser(userId));
     }
 
     public interface CountCallback {
@@ -1,33 +1,46 @@
 package com.example.java_shop.data.repositories;
 
-import android.app.Application;
+import android.database.sqlite.SQLiteConstraintException;
 import android.os.Handler;
 import android.os.Looper;
 import androidx.lifecycle.LiveData;
 import com.example.java_shop.data.database.CosShopDatabase;
+import com.example.java_shop.data.database.DatabaseScheduler;
 import com.example.java_shop.data.database.UserDao;
 import com.example.java_shop.data.models.User;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 public class UserRepository {
     private final UserDao userDao;
-    private final ExecutorService executorService;
+    private final Executor readExecutor;
+    private final Executor writeExecutor;
     private final Handler handler;
 
-    public UserRepository(Application application) {
-        CosShopDatabase database = CosShopDatabase.getDatabase(application);
+    public UserRepository(CosShopDatabase database, DatabaseScheduler scheduler) {
         userDao = database.userDao();
-        executorService = Executors.newSingleThreadExecutor();
         handler = new Handler(Looper.getMainLooper());
+        readExecutor = scheduler.executor(DatabaseScheduler.Lane.UI_READ);
+        writeExecutor = scheduler.executor(DatabaseScheduler.Lane.USER_WRITE);
     }
 
-    public void insert(User user) {
-        executorService.execute(() -> userDao.insert(user));
+    // The unique email index settles two sign-ups racing for one address
+    public void register(User user, RegisterCallback callback) {
+        writeExecutor.execute(() -> {
+            try {
+                userDao.insert(user);
+                callback.onResult(true);
+            } catch (SQLiteConstraintException e) {
+                callback.onResult(false);
+            }
+        });
+    }
+
+    public interface RegisterCallback {
+        void onResult(boolean registered);
     }
 
     public void update(User user, Runnable onSuccess, OnFailureListener onFailure) {
-        executorService.execute(() -> {
+        writeExecutor.execute(() -> {
             try {
                 userDao.update(user);
                 handler.post(onSuccess);
@@ -42,7 +55,7 @@ public class UserRepository {
     }
 
     public void delete(User user) {
-        executorService.execute(() -> userDao.delete(user));
+        writeExecutor.execute(() -> userDao.delete(user));
     }
 
     public LiveData<User> getUserById(int userId) {
@@ -58,7 +71,7 @@ public class UserRepository {
     }
 
     public void updateProfilePicture(int userId, String profilePicturePath, Runnable onSuccess, OnFailureListener onFailure) {
-        executorService.execute(() -> {
+        writeExecutor.execute(() -> {
             try {
                 userDao.updateProfilePicture(userId, profilePicturePath);
                 handler.post(onSuccess);
@@ -70,7 +83,7 @@ public class UserRepository {
 
     public void updatePassword(int userId, String currentPasswordHash, String newPasswordHash, 
                              Runnable onSuccess, Runnable onFailure) {
-        executorService.execute(() -> {
+        writeExecutor.execute(() -> {
             int result = userDao.updatePassword(userId, currentPasswordHash, newPasswordHash);
             if (result > 0) {
                 onSuccess.run();
@@ -81,7 +94,7 @@ public class UserRepository {
     }
 
     public void checkEmailExists(String email, EmailCheckCallback callback) {
-        executorService.execute(() -> {
+        readExecutor.execute(() -> {
             int count = userDao.checkEmailExists(email);
             callback.onResult(count > 0);
         });
@@ -0,0 +1,100 @@
+package com.example.java_shop.utils;
+
+import com.example.java_shop.data.models.ProductSearchResult;
+import com.example.java_shop.data.models.ProductSummary;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+public class FtsSearchHelper {
+
+    // Column weights in products_fts order: name, description, specifications
+    private static final double[] COLUMN_WEIGHTS = {3.0, 1.0, 0.5};
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private FtsSearchHelper() {
+    }
+
+    /**
+     * Turns free text typed by the user into an FTS MATCH expression where
+     * every term is a prefix query, e.g. "matte lip" becomes "matte* lip*".
+     *
+     * @return the MATCH expression, or null if the input has no searchable terms
+     */
+    public static String toPrefixMatchQuery(String input) {
+        if (input == null) return null;
+
+        StringBuilder builder = new StringBuilder();
+        for (String token : input.toLowerCase(Locale.US).split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) continue;
+            if (builder.length() > 0) builder.append(' ');
+            builder.append(token).append('*');
+        }
+        return builder.length() > 0 ? builder.toString() : null;
+    }
+
+    /**
+     * Orders search results by descending bm25 score.
+     */
+    public static List<ProductSummary> rankByBm25(List<ProductSearchResult> results) {
+        List<ProductSummary> ranked = new ArrayList<>();
+        if (results == null || results.isEmpty()) return ranked;
+
+        int size = results.size();
+        double[] scores = new double[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            scores[i] = bm25(results.get(i).getMatchInfo());
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+
+        for (Integer index : order) {
+            ranked.add(results.get(index).getProduct());
+        }
+        return Collections.unmodifiableList(ranked);
+    }
+
+    /**
+     * Computes Okapi bm25 from an FTS4 matchinfo blob produced with the
+     * 'pcnalx' format string.
+     */
+    public static double bm25(byte[] matchInfo) {
+        if (matchInfo == null || matchInfo.length < 12) return 0.0;
+
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phraseCount = buffer.getInt(0);
+        int columnCount = buffer.getInt(4);
+        int totalDocs = buffer.getInt(8);
+
+        int avgLengthOffset = 3;
+        int docLengthOffset = avgLengthOffset + columnCount;
+        int phraseStatsOffset = docLengthOffset + columnCount;
+
+        double score = 0.0;
+        for (int phrase = 0; phrase < phraseCount; phrase++) {
+            for (int column = 0; column < columnCount; column++) {
+                int statsIndex = phraseStatsOffset + 3 * (phrase * columnCount + column);
+                int termFrequency = buffer.getInt(statsIndex * 4);
+                if (termFrequency == 0) continue;
+
+                int docsWithTerm = buffer.getInt((statsIndex + 2) * 4);
+                int avgLength = Math.max(1, buffer.getInt((avgLengthOffset + column) * 4));
+                int docLength = buffer.getInt((docLengthOffset + column) * 4);
+
+                double idf = Math.log((totalDocs - docsWithTerm + 0.5) / (docsWithTerm + 0.5));
+                if (idf <= 0) idf = 1e-6;
+
+                double weight = column < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[column] : 1.0;
+                double norm = K1 * (1 - B + B * ((double) docLength / avgLength));
+                score += weight * idf * (termFrequency * (K1 + 1)) / (termFrequency + norm);
+            }
+        }
+        return score;
+    }
+}
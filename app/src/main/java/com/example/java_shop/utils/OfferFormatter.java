@@ -0,0 +1,49 @@
+package com.example.java_shop.utils;
+
+import com.example.java_shop.data.models.ProductSummary;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Builds the price and validity text of a special offer card. Keeps one currency
+ * and one date format for the whole list instead of creating them on every bind,
+ * so an instance must only be used from one thread (the main thread for adapters).
+ */
+public class OfferFormatter {
+
+    // Offers without an end date are shown as valid for 30 more days
+    private static final long DEFAULT_VALID_PERIOD_MILLIS = 30L * 24 * 60 * 60 * 1000;
+
+    private final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(Locale.US);
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMMM dd, yyyy", Locale.US);
+    private final Date date = new Date();
+
+    public static double originalPrice(ProductSummary product) {
+        // Fallback for products without a usable original price
+        return product.getOriginalPrice() > 0 ? product.getOriginalPrice() : product.getPrice() * 1.25;
+    }
+
+    public static int discountPercent(ProductSummary product) {
+        return (int) (100 - (product.getPrice() / originalPrice(product) * 100));
+    }
+
+    public String formatPrice(double price) {
+        return currencyFormat.format(price);
+    }
+
+    public String formatOriginalPrice(ProductSummary product) {
+        return currencyFormat.format(originalPrice(product));
+    }
+
+    public String formatDiscount(ProductSummary product) {
+        return "-" + discountPercent(product) + "% OFF";
+    }
+
+    public String formatValidUntil(ProductSummary product) {
+        long validUntil = product.getOfferValidUntilTimestamp();
+        date.setTime(validUntil > 0 ? validUntil : System.currentTimeMillis() + DEFAULT_VALID_PERIOD_MILLIS);
+        return "Valid until " + dateFormat.format(date);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.java_shop.utils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public class PasswordHasher {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private PasswordHasher() {
+    }
+
+    /**
+     * Returns the lowercase hex SHA-256 of the password, as stored in users.password.
+     */
+    public static String sha256Hex(String password) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return toHex(digest.digest(password.getBytes()));
+    }
+
+    /**
+     * Lowercase hex encoding, two characters per byte.
+     */
+    public static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int value = bytes[i] & 0xff;
+            hex[i * 2] = HEX_DIGITS[value >>> 4];
+            hex[i * 2 + 1] = HEX_DIGITS[value & 0x0f];
+        }
+        return new String(hex);
+    }
+}
@@ -4,6 +4,7 @@ import android.app.Application;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import com.example.java_shop.data.ServiceLocator;
 import com.example.java_shop.data.models.Address;
 import com.example.java_shop.data.models.Order;
 import com.example.java_shop.data.models.User;
@@ -37,9 +38,10 @@ public class AccountViewModel extends AndroidViewModel {
 
     public AccountViewModel(Application application) {
         super(application);
-        userRepository = new UserRepository(application);
-        orderRepository = new OrderRepository(application);
-        addressRepository = new AddressRepository(application);
+        ServiceLocator locator = ServiceLocator.getInstance(application);
+        userRepository = locator.getUserRepository();
+        orderRepository = locator.getOrderRepository();
+        addressRepository = locator.getAddressRepository();
         sessionManager = SessionManager.getInstance(application);
     }
 
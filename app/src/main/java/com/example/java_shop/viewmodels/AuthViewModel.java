@@ -4,10 +4,11 @@ import android.app.Application;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import com.example.java_shop.data.ServiceLocator;
 import com.example.java_shop.data.models.User;
 import com.example.java_shop.data.repositories.UserRepository;
+import com.example.java_shop.utils.PasswordHasher;
 import com.example.java_shop.utils.SessionManager;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import android.util.Patterns;
 
@@ -22,7 +23,7 @@ public class AuthViewModel extends AndroidViewModel {
 
     public AuthViewModel(Application application) {
         super(application);
-        userRepository = new UserRepository(application);
+        userRepository = ServiceLocator.getInstance(application).getUserRepository();
         sessionManager = SessionManager.getInstance(application);
     }
 
@@ -48,17 +49,11 @@ public class AuthViewModel extends AndroidViewModel {
             return;
         }
 
-        userRepository.checkEmailExists(email, exists -> {
-            if (exists) {
-                signupResult.postValue(new AuthResult(false, "Email already registered"));
-                return;
-            }
-
-            String hashedPassword = hashPassword(password);
-            User newUser = new User(name, email, phone, "", hashedPassword);
-            userRepository.insert(newUser);
-            signupResult.postValue(new AuthResult(true, null));
-        });
+        String hashedPassword = hashPassword(password);
+        User newUser = new User(name, email, phone, "", hashedPassword);
+        userRepository.register(newUser, registered -> signupResult.postValue(registered
+            ? new AuthResult(true, null)
+            : new AuthResult(false, "Email already registered")));
     }
 
     public void resetPassword(String email) {
@@ -150,17 +145,7 @@ public class AuthViewModel extends AndroidViewModel {
 
     private String hashPassword(String password) {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(password.getBytes());
-            StringBuilder hexString = new StringBuilder();
-            
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            
-            return hexString.toString();
+            return PasswordHasher.sha256Hex(password);
         } catch (NoSuchAlgorithmException e) {
             e.printStackTrace();
             return password; // Fallback to plain password in case of error
@@ -7,36 +7,33 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Transformations;
 import com.example.java_shop.R;
-import com.example.java_shop.data.models.CartItemWithProduct;
+import com.example.java_shop.data.ServiceLocator;
+import com.example.java_shop.data.models.CartLine;
+import com.example.java_shop.data.models.CartSummary;
 import com.example.java_shop.data.repositories.CartRepository;
 import java.util.List;
 
 public class CartViewModel extends AndroidViewModel {
 
     private final CartRepository cartRepository;
-    private final LiveData<List<CartItemWithProduct>> cartItems;
+    private final LiveData<List<CartLine>> cartItems;
     private final LiveData<Double> cartTotal;
     private final MutableLiveData<NavigationCommand> navigationCommand;
     private final MutableLiveData<String> toastMessage;
 
     public CartViewModel(Application application) {
         super(application);
-        cartRepository = new CartRepository(application);
-        cartItems = cartRepository.getCartItemsWithProducts();
+        cartRepository = ServiceLocator.getInstance(application).getCartRepository();
+        cartItems = cartRepository.getCartLines();
         navigationCommand = new MutableLiveData<>();
         toastMessage = new MutableLiveData<>();
 
-        // Calculate cart total whenever items change
-        cartTotal = Transformations.map(cartItems, items -> {
-            if (items == null) return 0.0;
-            return items.stream()
-                .mapToDouble(CartItemWithProduct::getTotalPrice)
-                .sum();
-        });
+        // Total comes from the shared cart summary query
+        cartTotal = Transformations.map(cartRepository.getCartSummary(), CartSummary::getSubtotal);
     }
 
     // Getters
-    public LiveData<List<CartItemWithProduct>> getCartItems() {
+    public LiveData<List<CartLine>> getCartItems() {
         return cartItems;
     }
 
@@ -53,15 +50,15 @@ public class CartViewModel extends AndroidViewModel {
     }
 
     // Cart operations
-    public void increaseQuantity(CartItemWithProduct item) {
-        if (item.getQuantity() >= item.getProduct().getStockQuantity()) {
+    public void increaseQuantity(CartLine item) {
+        if (item.getQuantity() >= item.getStockQuantity()) {
             toastMessage.setValue("Maximum available quantity reached");
             return;
         }
         cartRepository.updateQuantity(item.getId(), item.getQuantity() + 1);
     }
 
-    public void decreaseQuantity(CartItemWithProduct item) {
+    public void decreaseQuantity(CartLine item) {
         if (item.getQuantity() <= 1) {
             toastMessage.setValue("Minimum quantity is 1");
             return;
@@ -69,7 +66,7 @@ public class CartViewModel extends AndroidViewModel {
         cartRepository.updateQuantity(item.getId(), item.getQuantity() - 1);
     }
 
-    public void removeItem(CartItemWithProduct item) {
+    public void removeItem(CartLine item) {
         cartRepository.removeFromCart(item.getId());
     }
 
@@ -78,7 +75,7 @@ public class CartViewModel extends AndroidViewModel {
     }
 
     // Navigation
-    public void navigateToProduct(CartItemWithProduct item) {
+    public void navigateToProduct(CartLine item) {
         Bundle args = new Bundle();
         args.putString("productId", item.getProductId());
         navigationCommand.setValue(
@@ -124,10 +121,4 @@ public class CartViewModel extends AndroidViewModel {
             return args;
         }
     }
-
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        cartRepository.cleanup();
-    }
 }
\ No newline at end of file
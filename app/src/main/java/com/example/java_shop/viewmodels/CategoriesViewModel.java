@@ -2,31 +2,29 @@ package com.example.java_shop.viewmodels;
 
 import android.app.Application;
 import android.os.Bundle;
-import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 import java.util.HashMap;
 import java.util.Map;
 import com.example.java_shop.R;
+import com.example.java_shop.data.ServiceLocator;
 import com.example.java_shop.data.models.Category;
 import com.example.java_shop.data.models.CategoryWithProducts;
-import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.ProductSummary;
 import com.example.java_shop.data.repositories.CategoryRepository;
 import com.example.java_shop.data.repositories.ProductRepository;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class CategoriesViewModel extends AndroidViewModel {
-    // Keep track of product LiveData sources
-    private final Map<String, LiveData<List<Product>>> productSources = new HashMap<>();
-    
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
     private final LiveData<List<Category>> categories;
+    private final LiveData<List<ProductSummary>> previewProducts;
     private final MutableLiveData<NavigationCommand> navigationCommand;
     private final MutableLiveData<String> searchQuery;
     private final MediatorLiveData<List<CategoryWithProducts>> categoriesWithProducts;
@@ -35,68 +33,44 @@ public class CategoriesViewModel extends AndroidViewModel {
 
     public CategoriesViewModel(Application application) {
         super(application);
-        categoryRepository = new CategoryRepository(application);
-        productRepository = new ProductRepository(application);
+        ServiceLocator locator = ServiceLocator.getInstance(application);
+        categoryRepository = locator.getCategoryRepository();
+        productRepository = locator.getProductRepository();
         categories = categoryRepository.getActiveCategories();
         navigationCommand = new MutableLiveData<>();
         searchQuery = new MutableLiveData<>("");
         categoriesWithProducts = new MediatorLiveData<>();
 
-        // Observe search query changes
-        categoriesWithProducts.addSource(searchQuery, query -> {
-            List<Category> currentCategories = categories.getValue();
-            if (currentCategories != null) {
-                refreshCategoriesWithProducts(currentCategories, query);
-            }
-        });
+        // One query per search change returns the preview rows of every category
+        previewProducts = Transformations.switchMap(searchQuery, query ->
+            productRepository.getCategoryPreviews(query != null ? query : "", PRODUCTS_PER_CATEGORY));
 
-        // Observe categories changes
-        categoriesWithProducts.addSource(categories, categoriesList -> {
-            if (categoriesList != null) {
-                refreshCategoriesWithProducts(categoriesList, searchQuery.getValue());
-            }
-        });
+        categoriesWithProducts.addSource(categories, categoriesList ->
+            combine(categoriesList, previewProducts.getValue()));
+        categoriesWithProducts.addSource(previewProducts, products ->
+            combine(categories.getValue(), products));
     }
 
-    private void refreshCategoriesWithProducts(List<Category> categoriesList, String query) {
-        List<CategoryWithProducts> result = new ArrayList<>();
-        for (Category category : categoriesList) {
-            // Start with empty product list
-            result.add(new CategoryWithProducts(category, new ArrayList<>()));
-            
-            // Get products for category
-            @NonNull String categoryId = category.getId();
-            @NonNull String searchQuery = (query != null) ? query : "";
-            LiveData<List<Product>> productLiveData = productRepository.getProductsByCategoryPreview(
-                categoryId,
-                searchQuery,
-                PRODUCTS_PER_CATEGORY
-            );
-            
-            // Keep track of sources to remove old ones
-            String sourceKey = category.getId() + "_" + (query != null ? query : "");
-            if (productSources.containsKey(sourceKey)) {
-                categoriesWithProducts.removeSource(productSources.get(sourceKey));
-            }
-            productSources.put(sourceKey, productLiveData);
-            
-            final Category finalCategory = category;
-            categoriesWithProducts.addSource(productLiveData, products -> {
-                if (products != null) {
-                    List<CategoryWithProducts> currentList = categoriesWithProducts.getValue();
-                    if (currentList != null) {
-                        List<CategoryWithProducts> newList = new ArrayList<>();
-                        for (CategoryWithProducts cwp : currentList) {
-                            if (cwp.getCategory().getId().equals(finalCategory.getId())) {
-                                newList.add(new CategoryWithProducts(finalCategory, products));
-                            } else {
-                                newList.add(cwp);
-                            }
-                        }
-                        categoriesWithProducts.setValue(newList);
-                    }
+    // Groups the preview rows under their categories in a single pass
+    private void combine(@Nullable List<Category> categoriesList, @Nullable List<ProductSummary> products) {
+        if (categoriesList == null) return;
+
+        Map<String, List<ProductSummary>> productsByCategory = new HashMap<>();
+        if (products != null) {
+            for (ProductSummary product : products) {
+                List<ProductSummary> group = productsByCategory.get(product.getCategoryId());
+                if (group == null) {
+                    group = new ArrayList<>(PRODUCTS_PER_CATEGORY);
+                    productsByCategory.put(product.getCategoryId(), group);
                 }
-            });
+                group.add(product);
+            }
+        }
+
+        List<CategoryWithProducts> result = new ArrayList<>(categoriesList.size());
+        for (Category category : categoriesList) {
+            List<ProductSummary> group = productsByCategory.get(category.getId());
+            result.add(new CategoryWithProducts(category, group != null ? group : new ArrayList<>()));
         }
         categoriesWithProducts.setValue(result);
     }
@@ -147,16 +121,4 @@ public class CategoriesViewModel extends AndroidViewModel {
             return args;
         }
     }
-
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        // Remove all sources
-        for (LiveData<List<Product>> source : productSources.values()) {
-            categoriesWithProducts.removeSource(source);
-        }
-        productSources.clear();
-        categoryRepository.cleanup();
-        productRepository.cleanup();
-    }
 }
\ No newline at end of file
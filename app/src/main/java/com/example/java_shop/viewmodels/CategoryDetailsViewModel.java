@@ -7,14 +7,20 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Transformations;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 import com.example.java_shop.R;
+import com.example.java_shop.data.ServiceLocator;
+import com.example.java_shop.data.cache.FacetIndex.Facet;
+import com.example.java_shop.data.cache.FacetIndex.FacetCounts;
+import com.example.java_shop.data.cache.FacetIndex.FacetSelection;
 import com.example.java_shop.data.models.Category;
-import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.ProductSummary;
 import com.example.java_shop.data.repositories.CategoryRepository;
 import com.example.java_shop.data.repositories.ProductRepository;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 public class CategoryDetailsViewModel extends AndroidViewModel {
     
@@ -22,15 +28,18 @@ public class CategoryDetailsViewModel extends AndroidViewModel {
     private final CategoryRepository categoryRepository;
     
     // LiveData for UI components
+    private final MutableLiveData<String> categoryId;
     private final LiveData<Category> category;
     private final LiveData<List<Category>> subcategories;
-    private final MediatorLiveData<List<Product>> filteredProducts;
+    private final LiveData<PagingData<ProductSummary>> pagedProducts;
+    private final LiveData<FacetCounts> facetCounts;
     private final MutableLiveData<NavigationCommand> navigationCommand;
     
     // Filter state
-    private final MutableLiveData<Boolean> showInStockOnly;
+    private final MutableLiveData<FacetSelection> facetSelection;
+    private final LiveData<Boolean> showInStockOnly;
     private final MutableLiveData<SortOption> currentSortOption;
-    private String currentCategoryId;
+    private final LiveData<Boolean> catalogLoaded;
 
     public enum SortOption {
         NAME_ASC,
@@ -43,87 +52,49 @@ public class CategoryDetailsViewModel extends AndroidViewModel {
     public CategoryDetailsViewModel(Application application) {
         super(application);
         
-        productRepository = new ProductRepository(application);
-        categoryRepository = new CategoryRepository(application);
+        ServiceLocator locator = ServiceLocator.getInstance(application);
+        productRepository = locator.getProductRepository();
+        categoryRepository = locator.getCategoryRepository();
         
         navigationCommand = new MutableLiveData<>();
-        showInStockOnly = new MutableLiveData<>(false);
+        facetSelection = new MutableLiveData<>(FacetSelection.NONE);
+        showInStockOnly = Transformations.map(facetSelection, selection -> selection.has(Facet.IN_STOCK));
         currentSortOption = new MutableLiveData<>(SortOption.RATING);
-        filteredProducts = new MediatorLiveData<>();
         
-        // Initialize with empty data until category is set
-        category = new MutableLiveData<>();
-        subcategories = new MutableLiveData<>();
+        // Category and subcategories come from the in-memory category tree
+        categoryId = new MutableLiveData<>();
+        category = Transformations.switchMap(categoryId, categoryRepository::getCategory);
+        subcategories = Transformations.switchMap(categoryId, categoryRepository::getSubcategories);
+
+        // One key for the whole listing; a pager is only created when it really changes,
+        // including when the in-memory catalog is loaded or dropped for being too large
+        catalogLoaded = productRepository.isInMemoryCatalogLoaded();
+        MediatorLiveData<ListingQuery> query = new MediatorLiveData<>();
+        query.addSource(categoryId, id -> updateQuery(query));
+        query.addSource(currentSortOption, sortOption -> updateQuery(query));
+        query.addSource(facetSelection, selection -> updateQuery(query));
+        query.addSource(catalogLoaded, loaded -> updateQuery(query));
+        LiveData<ListingQuery> distinctQuery = Transformations.distinctUntilChanged(query);
+
+        pagedProducts = PagingLiveData.cachedIn(
+            Transformations.switchMap(distinctQuery, listing -> PagingLiveData.getLiveData(
+                productRepository.getProductsByCategoryPaged(listing.categoryId, listing.sortOption,
+                    listing.selection))),
+            ViewModelKt.getViewModelScope(this));
+        facetCounts = Transformations.switchMap(distinctQuery, listing ->
+            productRepository.getFacetCounts(listing.categoryId, listing.selection));
+    }
+
+    private void updateQuery(MediatorLiveData<ListingQuery> query) {
+        String id = categoryId.getValue();
+        if (id != null) {
+            query.setValue(new ListingQuery(id, currentSortOption.getValue(), facetSelection.getValue(),
+                Boolean.TRUE.equals(catalogLoaded.getValue())));
+        }
     }
 
     public void setCategoryId(String categoryId) {
-        currentCategoryId = categoryId;
-        
-        // Update LiveData sources
-        MutableLiveData<Category> categoryData = (MutableLiveData<Category>) category;
-        categoryData.setValue(null);
-        
-        LiveData<Category> newCategory = categoryRepository.getCategory(categoryId);
-        LiveData<List<Category>> newSubcategories = categoryRepository.getSubcategories(categoryId);
-        LiveData<List<Product>> categoryProducts = productRepository.getProductsByCategory(categoryId);
-        
-        // Update category and subcategories
-        categoryData.setValue(newCategory.getValue());
-        ((MutableLiveData<List<Category>>) subcategories).setValue(newSubcategories.getValue());
-        
-        // Set up filtered products
-        filteredProducts.addSource(categoryProducts, products -> 
-            applyFiltersAndSort(products));
-        
-        filteredProducts.addSource(showInStockOnly, inStockOnly -> 
-            applyFiltersAndSort(productRepository.getProductsByCategory(categoryId).getValue()));
-        
-        filteredProducts.addSource(currentSortOption, sortOption ->
-            applyFiltersAndSort(productRepository.getProductsByCategory(categoryId).getValue()));
-    }
-
-    private void applyFiltersAndSort(List<Product> products) {
-        if (products == null) return;
-        
-        List<Product> filtered = new ArrayList<>();
-        
-        // Apply filters
-        for (Product product : products) {
-            if (!showInStockOnly.getValue() || product.getStockQuantity() > 0) {
-                filtered.add(product);
-            }
-        }
-
-        // Apply sorting
-        Collections.sort(filtered, (p1, p2) -> {
-            SortOption sortOption = currentSortOption.getValue();
-            if (sortOption == null) {
-                sortOption = SortOption.RATING;
-            }
-
-            int result;
-            switch (sortOption) {
-                case NAME_ASC:
-                    result = p1.getName().compareTo(p2.getName());
-                    break;
-                case NAME_DESC:
-                    result = p2.getName().compareTo(p1.getName());
-                    break;
-                case PRICE_LOW_HIGH:
-                    result = Double.compare(p1.getPrice(), p2.getPrice());
-                    break;
-                case PRICE_HIGH_LOW:
-                    result = Double.compare(p2.getPrice(), p1.getPrice());
-                    break;
-                case RATING:
-                default:
-                    result = Double.compare(p2.getRating(), p1.getRating());
-                    break;
-            }
-            return result;
-        });
-        
-        filteredProducts.setValue(filtered);
+        this.categoryId.setValue(categoryId);
     }
 
     // Getters
@@ -135,14 +106,23 @@ public class CategoryDetailsViewModel extends AndroidViewModel {
         return subcategories;
     }
 
-    public LiveData<List<Product>> getProducts() {
-        return filteredProducts;
+    public LiveData<PagingData<ProductSummary>> getProducts() {
+        return pagedProducts;
     }
 
     public LiveData<Boolean> getShowInStockOnly() {
         return showInStockOnly;
     }
 
+    public LiveData<FacetSelection> getFacetSelection() {
+        return facetSelection;
+    }
+
+    // Null while counts can't be made, in which case only the in-stock filter is available
+    public LiveData<FacetCounts> getFacetCounts() {
+        return facetCounts;
+    }
+
     public LiveData<SortOption> getCurrentSortOption() {
         return currentSortOption;
     }
@@ -153,14 +133,23 @@ public class CategoryDetailsViewModel extends AndroidViewModel {
 
     // Actions
     public void setShowInStockOnly(boolean show) {
-        showInStockOnly.setValue(show);
+        FacetSelection selection = facetSelection.getValue();
+        if (selection.has(Facet.IN_STOCK) != show) {
+            facetSelection.setValue(selection.with(Facet.IN_STOCK, 0, show));
+        }
+    }
+
+    public void setFacetSelection(FacetSelection selection) {
+        if (!selection.equals(facetSelection.getValue())) {
+            facetSelection.setValue(selection);
+        }
     }
 
     public void setSortOption(SortOption option) {
         currentSortOption.setValue(option);
     }
 
-    public void navigateToProduct(Product product) {
+    public void navigateToProduct(ProductSummary product) {
         Bundle args = new Bundle();
         args.putString("productId", product.getId());
         navigationCommand.setValue(
@@ -186,6 +175,34 @@ public class CategoryDetailsViewModel extends AndroidViewModel {
         navigationCommand.setValue(null);
     }
 
+    // Category, sort and filters of one listing, and where its pages come from
+    private static final class ListingQuery {
+        final String categoryId;
+        final SortOption sortOption;
+        final FacetSelection selection;
+        final boolean inMemory;
+
+        ListingQuery(String categoryId, SortOption sortOption, FacetSelection selection, boolean inMemory) {
+            this.categoryId = categoryId;
+            this.sortOption = sortOption;
+            this.selection = selection;
+            this.inMemory = inMemory;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ListingQuery)) return false;
+            ListingQuery other = (ListingQuery) o;
+            return categoryId.equals(other.categoryId) && sortOption == other.sortOption
+                && selection.equals(other.selection) && inMemory == other.inMemory;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(categoryId, sortOption, selection, inMemory);
+        }
+    }
+
     // Navigation command class
     public static class NavigationCommand {
         private final int actionId;
@@ -2,25 +2,25 @@ package com.example.java_shop.viewmodels;
 
 import android.app.Application;
 import android.os.Bundle;
+import android.text.TextUtils;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Transformations;
 import com.example.java_shop.R;
-import com.example.java_shop.data.models.CartItemWithProduct;
-import com.example.java_shop.data.models.Order;
-import com.example.java_shop.data.models.OrderItem;
+import com.example.java_shop.data.ServiceLocator;
+import com.example.java_shop.data.models.CartLine;
+import com.example.java_shop.data.models.CartSummary;
 import com.example.java_shop.data.repositories.CartRepository;
-import com.example.java_shop.data.repositories.OrderRepository;
-import java.util.Date;
+import com.example.java_shop.data.services.CheckoutService;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class CheckoutViewModel extends AndroidViewModel {
 
     private final CartRepository cartRepository;
-    private final OrderRepository orderRepository;
-    private final LiveData<List<CartItemWithProduct>> cartItems;
+    private final CheckoutService checkoutService;
+    private final LiveData<List<CartLine>> cartItems;
     private final LiveData<Double> subtotal;
     private final MutableLiveData<String> fullName;
     private final MutableLiveData<String> streetAddress;
@@ -41,11 +41,12 @@ public class CheckoutViewModel extends AndroidViewModel {
 
     public CheckoutViewModel(Application application) {
         super(application);
-        cartRepository = new CartRepository(application);
-        orderRepository = new OrderRepository(application);
+        ServiceLocator locator = ServiceLocator.getInstance(application);
+        cartRepository = locator.getCartRepository();
+        checkoutService = locator.getCheckoutService();
         
         // Initialize LiveData
-        cartItems = cartRepository.getCartItemsWithProducts();
+        cartItems = cartRepository.getCartLines();
         fullName = new MutableLiveData<>();
         streetAddress = new MutableLiveData<>();
         city = new MutableLiveData<>();
@@ -54,17 +55,12 @@ public class CheckoutViewModel extends AndroidViewModel {
         navigationCommand = new MutableLiveData<>();
         toastMessage = new MutableLiveData<>();
 
-        // Calculate subtotal from cart items
-        subtotal = Transformations.map(cartItems, items -> {
-            if (items == null) return 0.0;
-            return items.stream()
-                .mapToDouble(CartItemWithProduct::getTotalPrice)
-                .sum();
-        });
+        // Subtotal comes from the shared cart summary query
+        subtotal = Transformations.map(cartRepository.getCartSummary(), CartSummary::getSubtotal);
     }
 
     // Getters
-    public LiveData<List<CartItemWithProduct>> getCartItems() {
+    public LiveData<List<CartLine>> getCartItems() {
         return cartItems;
     }
 
@@ -142,45 +138,49 @@ public class CheckoutViewModel extends AndroidViewModel {
             return;
         }
 
-        List<CartItemWithProduct> items = cartItems.getValue();
+        List<CartLine> items = cartItems.getValue();
         if (items == null || items.isEmpty()) {
             toastMessage.setValue("Your cart is empty");
             return;
         }
 
-        // Create order
-        Order order = new Order(
+        // Quantity changes still waiting in the cart's write window go first
+        cartRepository.flushPendingQuantities();
+
+        checkoutService.checkout(
             1, // TODO: Get actual user ID from session
-            new Date(),
-            "PENDING",
-            getOrderTotal()
+            SHIPPING_RATE,
+            TAX_RATE,
+            result -> {
+                switch (result.getStatus()) {
+                    case PLACED:
+                        // Navigate to confirmation screen
+                        Bundle args = new Bundle();
+                        args.putInt("orderId", result.getOrderId());
+                        navigationCommand.setValue(
+                            new NavigationCommand(
+                                R.id.action_checkoutFragment_to_orderConfirmationFragment,
+                                args
+                            )
+                        );
+                        break;
+                    case OUT_OF_STOCK:
+                        List<String> names = new ArrayList<>();
+                        for (CartLine line : result.getFailedLines()) {
+                            names.add(line.getName());
+                        }
+                        toastMessage.setValue("Not enough stock for: " + TextUtils.join(", ", names));
+                        break;
+                    case EMPTY_CART:
+                        toastMessage.setValue("Your cart is empty");
+                        break;
+                    case ERROR:
+                    default:
+                        toastMessage.setValue("Failed to place order");
+                        break;
+                }
+            }
         );
-
-        List<OrderItem> orderItems = cartItems.getValue().stream()
-            .map(cartItem -> {
-                return new OrderItem(
-                    0, // Order ID will be set by repository
-                    cartItem.getProduct().getId(),
-                    cartItem.getQuantity(),
-                    cartItem.getProduct().getPrice()
-                );
-            })
-            .collect(Collectors.toList());
-
-        orderRepository.createOrder(order, orderItems, orderId -> {
-            // Clear cart
-            cartRepository.clearCart();
-
-            // Navigate to confirmation screen
-            Bundle args = new Bundle();
-            args.putInt("orderId", orderId);
-            navigationCommand.postValue(
-                new NavigationCommand(
-                    R.id.action_checkoutFragment_to_orderConfirmationFragment,
-                    args
-                )
-            );
-        });
     }
 
     public void resetNavigation() {
@@ -205,10 +205,4 @@ public class CheckoutViewModel extends AndroidViewModel {
             return args;
         }
     }
-
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        cartRepository.cleanup();
-    }
 }
\ No newline at end of file
@@ -4,8 +4,10 @@ import android.app.Application;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import com.example.java_shop.data.ServiceLocator;
 import com.example.java_shop.data.models.Category;
 import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.ProductSummary;
 import com.example.java_shop.data.repositories.CategoryRepository;
 import com.example.java_shop.data.repositories.ProductRepository;
 import java.util.List;
@@ -15,14 +17,15 @@ public class HomeViewModel extends AndroidViewModel {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final LiveData<List<Product>> featuredProducts;
-    private final LiveData<List<Product>> specialOffers;
+    private final LiveData<List<ProductSummary>> specialOffers;
     private final LiveData<List<Category>> categories;
     private final MutableLiveData<NavigationCommand> navigationCommand;
 
     public HomeViewModel(Application application) {
         super(application);
-        productRepository = new ProductRepository(application);
-        categoryRepository = new CategoryRepository(application);
+        ServiceLocator locator = ServiceLocator.getInstance(application);
+        productRepository = locator.getProductRepository();
+        categoryRepository = locator.getCategoryRepository();
         featuredProducts = productRepository.getFeaturedProducts();
         specialOffers = productRepository.getSpecialOffers();
         categories = categoryRepository.getAllCategories();
@@ -33,7 +36,7 @@ public class HomeViewModel extends AndroidViewModel {
         return featuredProducts;
     }
 
-    public LiveData<List<Product>> getSpecialOffers() {
+    public LiveData<List<ProductSummary>> getSpecialOffers() {
         return specialOffers;
     }
     
@@ -4,6 +4,9 @@ import android.app.Application;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import com.example.java_shop.data.ServiceLocator;
+import com.example.java_shop.data.models.CartSummary;
 import com.example.java_shop.data.models.Product;
 import com.example.java_shop.data.repositories.CartRepository;
 import com.example.java_shop.data.repositories.ProductRepository;
@@ -14,20 +17,25 @@ public class ProductDetailsViewModel extends AndroidViewModel {
     private final CartRepository cartRepository;
     private final MutableLiveData<Boolean> addToCartResult;
     private String currentProductId;
+    private LiveData<Product> product;
 
     public ProductDetailsViewModel(Application application) {
         super(application);
-        productRepository = new ProductRepository(application);
-        cartRepository = new CartRepository(application);
+        ServiceLocator locator = ServiceLocator.getInstance(application);
+        productRepository = locator.getProductRepository();
+        cartRepository = locator.getCartRepository();
         addToCartResult = new MutableLiveData<>();
     }
 
     public void setProductId(String productId) {
+        if (product == null || !productId.equals(currentProductId)) {
+            product = productRepository.getProduct(productId);
+        }
         currentProductId = productId;
     }
 
     public LiveData<Product> getProduct() {
-        return productRepository.getProduct(currentProductId);
+        return product;
     }
 
     public void addToCart(Product product) {
@@ -49,13 +57,6 @@ public class ProductDetailsViewModel extends AndroidViewModel {
 
     // Cart badge count
     public LiveData<Integer> getCartItemCount() {
-        return cartRepository.getCartItemCount();
-    }
-
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        productRepository.cleanup();
-        cartRepository.cleanup();
+        return Transformations.map(cartRepository.getCartSummary(), CartSummary::getLineCount);
     }
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.example.java_shop.data.cache;
+
+import com.example.java_shop.data.cache.FacetIndex.Facet;
+import com.example.java_shop.data.cache.FacetIndex.FacetSelection;
+import com.example.java_shop.data.database.CategoryProductQuery;
+import com.example.java_shop.viewmodels.CategoryDetailsViewModel.SortOption;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link ColumnarCatalog#select} lists rows in the order of the
+ * ORDER BY clause {@link CategoryProductQuery} sends to SQLite, with many ties on
+ * the sort column and some null names.
+ */
+public class ColumnarCatalogTest {
+    private static final Pattern ORDER_BY = Pattern.compile("ORDER BY (\\w+) (ASC|DESC), id (ASC|DESC)");
+    private static final String[] NAMES = {null, "Balm", "Cleanser", "Serum", "serum", "Toner"};
+    private static final double[] PRICES = {4.99, 10, 10, 25.5, 99};
+    private static final double[] RATINGS = {0, 3.5, 4, 4.5, 5};
+    private static final String[] CATEGORIES = {"FACE", "BODY", "HAIR"};
+
+    private final Random random = new Random(3);
+    private final List<Row> rows = new ArrayList<>();
+    private ColumnarCatalog catalog;
+
+    @Before
+    public void setUp() {
+        ColumnarCatalog.Builder builder = new ColumnarCatalog.Builder(4);
+        for (int i = 0; i < 600; i++) {
+            // Ids are not added in order, so ties can't pass by keeping load order
+            Row row = new Row("p" + random.nextInt(1_000_000) + "-" + i,
+                NAMES[random.nextInt(NAMES.length)], PRICES[random.nextInt(PRICES.length)],
+                RATINGS[random.nextInt(RATINGS.length)], random.nextInt(3), CATEGORIES[random.nextInt(3)]);
+            rows.add(row);
+            builder.add(row.id, row.name, null, row.price, row.price, 0, 0, row.rating, row.stock,
+                false, row.categoryId);
+        }
+        catalog = builder.build();
+    }
+
+    @Test
+    public void selectFollowsTheQueryOrder() {
+        for (String categoryId : CATEGORIES) {
+            for (SortOption sortOption : SortOption.values()) {
+                List<String> expected = new ArrayList<>();
+                for (Row row : sortedLikeTheQuery(categoryId, sortOption)) {
+                    expected.add(row.id);
+                }
+                int category = catalog.categoryOrdinal(categoryId);
+                int[] out = new int[catalog.categorySize(category)];
+                int count = catalog.select(category, sortOption, null, out);
+                assertEquals(categoryId + " " + sortOption, expected, ids(out, count));
+            }
+        }
+    }
+
+    @Test
+    public void filtersKeepTheQueryOrder() {
+        FacetSelection inStock = FacetSelection.NONE.with(Facet.IN_STOCK, 0, true);
+        for (String categoryId : CATEGORIES) {
+            for (SortOption sortOption : SortOption.values()) {
+                List<String> expected = new ArrayList<>();
+                List<String> expectedInRange = new ArrayList<>();
+                for (Row row : sortedLikeTheQuery(categoryId, sortOption)) {
+                    if (row.stock > 0) expected.add(row.id);
+                    if (row.stock > 0 && row.price >= 10 && row.price <= 30) expectedInRange.add(row.id);
+                }
+                int category = catalog.categoryOrdinal(categoryId);
+                int[] out = new int[catalog.categorySize(category)];
+
+                int count = catalog.select(category, sortOption, catalog.getFacets().filter(category, inStock), out);
+                assertEquals(expected, ids(out, count));
+                count = catalog.select(category, sortOption, true, 0, Double.MAX_VALUE, out);
+                assertEquals(expected, ids(out, count));
+                count = catalog.select(category, sortOption, true, 10, 30, out);
+                assertEquals(expectedInRange, ids(out, count));
+            }
+        }
+    }
+
+    @Test
+    public void summariesCarryTheRow() {
+        for (Row row : rows) {
+            int index = catalog.rowOf(row.id);
+            assertEquals(row.id, catalog.idAt(index));
+            assertEquals(row.name, catalog.summaryAt(index).getName());
+            assertEquals(row.categoryId, catalog.summaryAt(index).getCategoryId());
+            assertEquals(row.stock > 0, catalog.summaryAt(index).isInStock());
+        }
+        assertEquals(-1, catalog.rowOf("missing"));
+        assertEquals(-1, catalog.categoryOrdinal("missing"));
+        assertEquals(0, catalog.categorySize(-1));
+    }
+
+    @Test
+    public void withStockPatchesOnlyStock() {
+        Row soldOut = null;
+        Row unchanged = null;
+        for (Row row : rows) {
+            if (soldOut == null && row.stock > 0) soldOut = row;
+            else if (unchanged == null && row.stock > 0) unchanged = row;
+        }
+        int[] patchedRows = {catalog.rowOf(soldOut.id), catalog.rowOf(unchanged.id), catalog.rowOf(soldOut.id)};
+        int[] quantities = {3, unchanged.stock + 1, 0};
+
+        ColumnarCatalog patched = catalog.withStock(patchedRows, quantities, 3);
+        assertEquals(0, patched.stockAt(catalog.rowOf(soldOut.id)));
+        assertEquals(unchanged.stock + 1, patched.stockAt(catalog.rowOf(unchanged.id)));
+        assertFalse(patched.summaryAt(catalog.rowOf(soldOut.id)).isInStock());
+        assertTrue(catalog.summaryAt(catalog.rowOf(soldOut.id)).isInStock());
+        assertNotSame(catalog.getFacets(), patched.getFacets());
+
+        int category = catalog.categoryOrdinal(soldOut.categoryId);
+        FacetSelection inStock = FacetSelection.NONE.with(Facet.IN_STOCK, 0, true);
+        assertFalse(patched.getFacets().filter(category, inStock).contains(catalog.rowOf(soldOut.id)));
+
+        // Staying in stock leaves the facets alone
+        ColumnarCatalog restocked = patched.withStock(new int[] {catalog.rowOf(unchanged.id)}, new int[] {9}, 1);
+        assertSame(patched.getFacets(), restocked.getFacets());
+        assertEquals(9, restocked.stockAt(catalog.rowOf(unchanged.id)));
+    }
+
+    // Sorts like SQLite would run the query: NULL before any text, text by code unit
+    private List<Row> sortedLikeTheQuery(String categoryId, SortOption sortOption) {
+        String sql = CategoryProductQuery.page(categoryId, sortOption, false, null, null, 20).getSql();
+        Matcher orderBy = ORDER_BY.matcher(sql);
+        assertTrue(sql, orderBy.find());
+        String column = orderBy.group(1);
+        Comparator<Row> byColumn;
+        switch (column) {
+            case "name":
+                byColumn = Comparator.comparing(row -> row.name, Comparator.nullsFirst(Comparator.naturalOrder()));
+                break;
+            case "price":
+                byColumn = Comparator.comparingDouble(row -> row.price);
+                break;
+            case "rating":
+                byColumn = Comparator.comparingDouble(row -> row.rating);
+                break;
+            default:
+                throw new AssertionError("Unexpected sort column " + column);
+        }
+        if (orderBy.group(2).equals("DESC")) byColumn = byColumn.reversed();
+        Comparator<Row> byId = Comparator.comparing(row -> row.id);
+        if (orderBy.group(3).equals("DESC")) byId = byId.reversed();
+
+        List<Row> sorted = new ArrayList<>();
+        for (Row row : rows) {
+            if (row.categoryId.equals(categoryId)) sorted.add(row);
+        }
+        sorted.sort(byColumn.thenComparing(byId));
+        return sorted;
+    }
+
+    private List<String> ids(int[] out, int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(catalog.idAt(out[i]));
+        }
+        return ids;
+    }
+
+    private static final class Row {
+        final String id;
+        final String name;
+        final double price;
+        final double rating;
+        final int stock;
+        final String categoryId;
+
+        Row(String id, String name, double price, double rating, int stock, String categoryId) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+            this.rating = rating;
+            this.stock = stock;
+            this.categoryId = categoryId;
+        }
+    }
+}
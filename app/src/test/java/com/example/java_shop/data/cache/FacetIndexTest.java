@@ -0,0 +1,172 @@
+package com.example.java_shop.data.cache;
+
+import com.example.java_shop.data.cache.FacetIndex.Facet;
+import com.example.java_shop.data.cache.FacetIndex.FacetCounts;
+import com.example.java_shop.data.cache.FacetIndex.FacetSelection;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks {@link FacetIndex} counts and filters against scanning every row, for
+ * random selections over a catalog that spans more than one bitmap chunk.
+ */
+public class FacetIndexTest {
+    private static final int SIZE = 100_000;
+    private static final int CATEGORIES = 3;
+    private static final double[] RATINGS = {0, 1.5, 2, 2.5, 3, 3.5, 4, 4.5, 5};
+    private static final double[] PRICES = {0, 5, 9.99, 10, 24.5, 25, 49.99, 50, 99.99, 100, 250};
+
+    private final Random random = new Random(7);
+    private final int[] categoryOrdinals = new int[SIZE];
+    private final int[] stock = new int[SIZE];
+    private final boolean[] featured = new boolean[SIZE];
+    private final double[] discounts = new double[SIZE];
+    private final float[] ratings = new float[SIZE];
+    private final double[] prices = new double[SIZE];
+    private FacetIndex index;
+
+    @Before
+    public void setUp() {
+        for (int row = 0; row < SIZE; row++) {
+            // Category 2 is small, so its option bitmaps stay arrays
+            categoryOrdinals[row] = random.nextInt(50) == 0 ? 2 : random.nextInt(2);
+            stock[row] = random.nextInt(4) == 0 ? 0 : random.nextInt(20);
+            featured[row] = random.nextInt(30) == 0;
+            discounts[row] = random.nextInt(5) == 0 ? 10 + random.nextInt(40) : 0;
+            ratings[row] = (float) RATINGS[random.nextInt(RATINGS.length)];
+            prices[row] = PRICES[random.nextInt(PRICES.length)];
+        }
+        index = new FacetIndex(SIZE, CATEGORIES, categoryOrdinals, stock, featured, discounts, ratings, prices);
+    }
+
+    @Test
+    public void bucketsFollowTheFloors() {
+        assertEquals(0, FacetIndex.ratingBucket(4));
+        assertEquals(1, FacetIndex.ratingBucket(3.99));
+        assertEquals(2, FacetIndex.ratingBucket(2));
+        assertEquals(3, FacetIndex.ratingBucket(0));
+        assertEquals(0, FacetIndex.priceBucket(9.99));
+        assertEquals(1, FacetIndex.priceBucket(10));
+        assertEquals(3, FacetIndex.priceBucket(99.99));
+        assertEquals(4, FacetIndex.priceBucket(100));
+    }
+
+    @Test
+    public void noSelectionFiltersNothing() {
+        for (int category = 0; category < CATEGORIES; category++) {
+            assertNull(index.filter(category, FacetSelection.NONE));
+            assertCounts(category, FacetSelection.NONE);
+        }
+    }
+
+    @Test
+    public void countsAndFiltersMatchAScan() {
+        for (int i = 0; i < 40; i++) {
+            FacetSelection selection = randomSelection();
+            int category = random.nextInt(CATEGORIES);
+            assertCounts(category, selection);
+
+            RowBitmap filter = index.filter(category, selection);
+            if (selection.isEmpty()) {
+                assertNull(filter);
+                continue;
+            }
+            int matching = 0;
+            for (int row = 0; row < SIZE; row++) {
+                boolean expected = categoryOrdinals[row] == category && passes(row, selection, null);
+                assertEquals("row " + row, expected, filter.contains(row));
+                if (expected) matching++;
+            }
+            assertEquals(matching, filter.cardinality());
+        }
+    }
+
+    @Test
+    public void unknownCategoryMatchesNothing() {
+        FacetSelection selection = FacetSelection.NONE.with(Facet.IN_STOCK, 0, true);
+        assertTrue(index.filter(-1, selection).isEmpty());
+        assertEquals(0, index.counts(CATEGORIES, selection).getMatching());
+    }
+
+    @Test
+    public void withStockOnlyChangesInStock() {
+        int[] restocked = stock.clone();
+        for (int row = 0; row < SIZE; row += 3) {
+            restocked[row] = restocked[row] > 0 ? 0 : 5;
+        }
+        FacetIndex patched = index.withStock(SIZE, restocked);
+        System.arraycopy(restocked, 0, stock, 0, SIZE);
+        index = patched;
+        for (int i = 0; i < 20; i++) {
+            assertCounts(random.nextInt(CATEGORIES), randomSelection());
+        }
+    }
+
+    private void assertCounts(int category, FacetSelection selection) {
+        FacetCounts counts = index.counts(category, selection);
+        int matching = 0;
+        for (int row = 0; row < SIZE; row++) {
+            if (categoryOrdinals[row] == category && passes(row, selection, null)) matching++;
+        }
+        assertEquals(matching, counts.getMatching());
+
+        for (Facet facet : Facet.values()) {
+            for (int option = 0; option < facet.options; option++) {
+                int expected = 0;
+                for (int row = 0; row < SIZE; row++) {
+                    if (categoryOrdinals[row] == category && passes(row, selection, facet)
+                        && hasOption(row, facet, option)) {
+                        expected++;
+                    }
+                }
+                assertEquals(facet + " option " + option, expected, counts.get(facet, option));
+            }
+        }
+    }
+
+    // Each selected facet other than skipped must match one of its selected options
+    private boolean passes(int row, FacetSelection selection, Facet skipped) {
+        for (Facet facet : Facet.values()) {
+            if (facet == skipped || !selection.has(facet)) continue;
+            boolean any = false;
+            for (int option = 0; option < facet.options && !any; option++) {
+                any = selection.isSelected(facet, option) && hasOption(row, facet, option);
+            }
+            if (!any) return false;
+        }
+        return true;
+    }
+
+    private boolean hasOption(int row, Facet facet, int option) {
+        switch (facet) {
+            case IN_STOCK:
+                return stock[row] > 0;
+            case FEATURED:
+                return featured[row];
+            case ON_OFFER:
+                return discounts[row] > 0;
+            case RATING:
+                return FacetIndex.ratingBucket(ratings[row]) == option;
+            case PRICE:
+            default:
+                return FacetIndex.priceBucket(prices[row]) == option;
+        }
+    }
+
+    private FacetSelection randomSelection() {
+        FacetSelection selection = FacetSelection.NONE;
+        for (Facet facet : Facet.values()) {
+            for (int option = 0; option < facet.options; option++) {
+                if (random.nextInt(4) == 0) {
+                    selection = selection.with(facet, option, true);
+                }
+            }
+        }
+        return selection;
+    }
+}
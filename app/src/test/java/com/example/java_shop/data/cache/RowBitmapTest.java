@@ -0,0 +1,154 @@
+package com.example.java_shop.data.cache;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks {@link RowBitmap} against {@link BitSet} over several 65536-row chunks,
+ * with chunks on both sides of the 4096-row limit between arrays and bitmaps.
+ */
+public class RowBitmapTest {
+    private static final int CHUNKS = 5;
+    private static final int ROWS = CHUNKS << 16;
+    // Rows per chunk; 4096 is the most an array chunk holds
+    private static final int[] CHUNK_SIZES = {0, 1, 4095, 4096, 4097, 30000, 65536};
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void builderKeepsEveryRow() {
+        for (int i = 0; i < 20; i++) {
+            BitSet rows = randomRows();
+            assertSameRows(rows, toBitmap(rows));
+        }
+    }
+
+    @Test
+    public void andMatchesBitSet() {
+        for (int i = 0; i < 30; i++) {
+            BitSet a = randomRows();
+            BitSet b = randomRows();
+            BitSet expected = (BitSet) a.clone();
+            expected.and(b);
+
+            RowBitmap left = toBitmap(a);
+            RowBitmap right = toBitmap(b);
+            assertSameRows(expected, left.and(right));
+            assertSameRows(expected, right.and(left));
+            assertEquals(expected.cardinality(), left.andCardinality(right));
+            assertEquals(expected.cardinality(), right.andCardinality(left));
+        }
+    }
+
+    @Test
+    public void orMatchesBitSet() {
+        for (int i = 0; i < 30; i++) {
+            BitSet a = randomRows();
+            BitSet b = randomRows();
+            BitSet expected = (BitSet) a.clone();
+            expected.or(b);
+
+            assertSameRows(expected, toBitmap(a).or(toBitmap(b)));
+            assertSameRows(expected, toBitmap(b).or(toBitmap(a)));
+        }
+    }
+
+    @Test
+    public void resultsOfOperationsCombineLikeBuiltBitmaps() {
+        for (int i = 0; i < 20; i++) {
+            BitSet a = randomRows();
+            BitSet b = randomRows();
+            BitSet c = randomRows();
+            BitSet expected = (BitSet) a.clone();
+            expected.or(b);
+            expected.and(c);
+
+            RowBitmap union = toBitmap(a).or(toBitmap(b));
+            assertSameRows(expected, union.and(toBitmap(c)));
+            assertEquals(expected.cardinality(), union.andCardinality(toBitmap(c)));
+        }
+    }
+
+    @Test
+    public void resultsOnTheArrayLimit() {
+        // Chunk 1 as a 4097-row bitmap and as a 4096-row array
+        RowBitmap bitmapChunk = toBitmap(range(1 << 16, (1 << 16) + 4097));
+        RowBitmap arrayChunk = toBitmap(range(1 << 16, (1 << 16) + 4096));
+
+        assertSameRows(range(1 << 16, (1 << 16) + 4096), bitmapChunk.and(arrayChunk));
+        assertSameRows(range(1 << 16, (1 << 16) + 4097), bitmapChunk.or(arrayChunk));
+        assertEquals(4096, bitmapChunk.andCardinality(arrayChunk));
+
+        // Two arrays whose union just passes the limit, and two bitmaps whose intersection drops below it
+        BitSet evens = new BitSet();
+        BitSet odds = new BitSet();
+        for (int row = 0; row < 4098; row++) {
+            (row % 2 == 0 ? evens : odds).set(row);
+        }
+        assertSameRows(range(0, 4098), toBitmap(evens).or(toBitmap(odds)));
+        assertSameRows(range(4000, 5000), toBitmap(range(0, 5000)).and(toBitmap(range(4000, 9000))));
+    }
+
+    @Test
+    public void emptyBitmaps() {
+        RowBitmap rows = toBitmap(randomRows());
+        assertTrue(RowBitmap.EMPTY.isEmpty());
+        assertTrue(new RowBitmap.Builder().build().isEmpty());
+        assertTrue(rows.and(RowBitmap.EMPTY).isEmpty());
+        assertEquals(0, rows.andCardinality(RowBitmap.EMPTY));
+        assertEquals(rows.cardinality(), rows.or(RowBitmap.EMPTY).cardinality());
+        assertFalse(RowBitmap.EMPTY.contains(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderRejectsRowsOutOfOrder() {
+        new RowBitmap.Builder().add(70000).add(5);
+    }
+
+    // Every chunk gets a random size from CHUNK_SIZES
+    private BitSet randomRows() {
+        BitSet rows = new BitSet(ROWS);
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            int size = CHUNK_SIZES[random.nextInt(CHUNK_SIZES.length)];
+            BitSet chunkRows = new BitSet(1 << 16);
+            if (size == 1 << 16) {
+                chunkRows.set(0, size);
+            }
+            while (chunkRows.cardinality() < size) {
+                chunkRows.set(random.nextInt(1 << 16));
+            }
+            for (int low = chunkRows.nextSetBit(0); low >= 0; low = chunkRows.nextSetBit(low + 1)) {
+                rows.set((chunk << 16) | low);
+            }
+        }
+        return rows;
+    }
+
+    private static BitSet range(int from, int to) {
+        BitSet rows = new BitSet();
+        rows.set(from, to);
+        return rows;
+    }
+
+    private static RowBitmap toBitmap(BitSet rows) {
+        RowBitmap.Builder builder = new RowBitmap.Builder();
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    private static void assertSameRows(BitSet expected, RowBitmap actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        for (int row = 0; row < ROWS + (1 << 16); row++) {
+            if (expected.get(row) != actual.contains(row)) {
+                fail("Row " + row + " expected " + expected.get(row));
+            }
+        }
+    }
+}
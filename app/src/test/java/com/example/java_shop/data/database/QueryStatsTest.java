@@ -0,0 +1,167 @@
+package com.example.java_shop.data.database;
+
+import com.example.java_shop.data.database.QueryStats.Histogram;
+import com.example.java_shop.data.database.QueryStats.StatementStats;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks how {@link QueryStats} groups statements by normalized SQL, how the latency
+ * histogram turns into percentiles, and that new statements past the cap share one entry.
+ */
+public class QueryStatsTest {
+    private static final double DELTA = 1e-9;
+
+    private QueryStats stats;
+
+    @Before
+    public void setUp() {
+        stats = QueryStats.getInstance();
+        stats.reset();
+    }
+
+    @After
+    public void tearDown() {
+        stats.reset();
+    }
+
+    // Normalization
+
+    @Test
+    public void normalizeCollapsesWhitespace() {
+        assertEquals("SELECT * FROM products WHERE id = ?",
+            stats.normalize("  SELECT *\n\tFROM   products\n WHERE id = ?  "));
+        assertEquals("", stats.normalize(null));
+    }
+
+    @Test
+    public void normalizeReplacesStringLiterals() {
+        assertEquals("SELECT * FROM users WHERE email = ? AND name = ?",
+            stats.normalize("SELECT * FROM users WHERE email = 'a@example.com' AND name = 'O''Brien'"));
+        assertEquals("SELECT * FROM products WHERE name = ?",
+            stats.normalize("SELECT * FROM products WHERE name = ''"));
+    }
+
+    @Test
+    public void normalizeReplacesNumbersButNotIdentifiers() {
+        assertEquals("SELECT col1 FROM t2 WHERE price > ? AND stock = ? LIMIT ? OFFSET ?",
+            stats.normalize("SELECT col1 FROM t2 WHERE price > 9.99 AND stock = -1 LIMIT 20 OFFSET 40"));
+        assertEquals("SELECT * FROM products WHERE id = ?",
+            stats.normalize("SELECT * FROM products WHERE id = 42"));
+    }
+
+    @Test
+    public void normalizeCollapsesInLists() {
+        String expected = "SELECT * FROM products WHERE id IN (?...)";
+        assertEquals(expected, stats.normalize("SELECT * FROM products WHERE id IN (?,?,?)"));
+        assertEquals(expected, stats.normalize("SELECT * FROM products WHERE id IN (?, ?, ?, ?, ?)"));
+        assertEquals(expected, stats.normalize("SELECT * FROM products WHERE id IN (1, 2, 3)"));
+        assertEquals(expected, stats.normalize("SELECT * FROM products WHERE id IN ('a', 'b')"));
+        // A single placeholder isn't a list
+        assertEquals("SELECT * FROM products WHERE id IN (?)",
+            stats.normalize("SELECT * FROM products WHERE id IN (?)"));
+    }
+
+    @Test
+    public void statementsThatDifferOnlyInValuesShareOneEntry() {
+        stats.recordStatement("SELECT * FROM products WHERE id IN ('p1', 'p2')", 1_000, 2);
+        stats.recordStatement("SELECT * FROM products WHERE id IN ('p3', 'p4', 'p5')", 1_000, 3);
+
+        assertEquals(1, stats.getStatementStats().size());
+        StatementStats entry = stats.getStatementStats().get(0);
+        assertEquals("SELECT * FROM products WHERE id IN (?...)", entry.getSql());
+        assertEquals(2, entry.getCount());
+        assertEquals(5, entry.getRows());
+    }
+
+    // Percentiles
+
+    @Test
+    public void bucketsIncludeTheirUpperBound() {
+        assertEquals(0, Histogram.bucketOf(micros(0)));
+        assertEquals(0, Histogram.bucketOf(micros(100)));
+        assertEquals(1, Histogram.bucketOf(micros(101)));
+        assertEquals(8, Histogram.bucketOf(micros(50_000)));
+        assertEquals(Histogram.BUCKETS - 2, Histogram.bucketOf(micros(2_000_000)));
+        assertEquals(Histogram.BUCKETS - 1, Histogram.bucketOf(micros(2_000_001)));
+    }
+
+    @Test
+    public void percentileIsTheUpperBoundOfItsBucket() {
+        // 90 samples of 200us (bucket up to 250us) and 10 of 30ms (bucket up to 50ms)
+        long[] buckets = new long[Histogram.BUCKETS];
+        buckets[Histogram.bucketOf(micros(200))] = 90;
+        buckets[Histogram.bucketOf(micros(30_000))] = 10;
+        long max = micros(30_000);
+
+        assertEquals(0.25, Histogram.percentileMillis(buckets, 100, 0.50, max), DELTA);
+        assertEquals(0.25, Histogram.percentileMillis(buckets, 100, 0.90, max), DELTA);
+        // The 50ms bucket bound is capped at the slowest sample
+        assertEquals(30, Histogram.percentileMillis(buckets, 100, 0.95, max), DELTA);
+        assertEquals(30, Histogram.percentileMillis(buckets, 100, 0.99, max), DELTA);
+    }
+
+    @Test
+    public void percentileInTheOverflowBucketIsTheMaximum() {
+        long[] buckets = new long[Histogram.BUCKETS];
+        buckets[Histogram.bucketOf(micros(50))] = 1;
+        buckets[Histogram.bucketOf(micros(3_000_000))] = 1;
+
+        assertEquals(0.1, Histogram.percentileMillis(buckets, 2, 0.50, micros(3_000_000)), DELTA);
+        assertEquals(3_000, Histogram.percentileMillis(buckets, 2, 0.99, micros(3_000_000)), DELTA);
+    }
+
+    @Test
+    public void percentileOfNoSamplesIsZero() {
+        assertEquals(0, Histogram.percentileMillis(new long[Histogram.BUCKETS], 0, 0.95, 0), DELTA);
+    }
+
+    @Test
+    public void statementPercentilesComeFromRecordedDurations() {
+        for (int i = 0; i < 99; i++) {
+            stats.recordStatement("SELECT * FROM products", micros(400), 1);
+        }
+        stats.recordStatement("SELECT * FROM products", micros(7_000), 1);
+
+        StatementStats entry = stats.getStatementStats().get(0);
+        assertEquals(0.5, entry.getPercentileMillis(0.50), DELTA);
+        assertEquals(0.5, entry.getPercentileMillis(0.99), DELTA);
+        assertEquals(7, entry.getPercentileMillis(1.0), DELTA);
+        assertEquals(7, entry.getMaxMillis(), DELTA);
+    }
+
+    // Statement cap
+
+    @Test
+    public void statementsPastTheCapShareOneEntry() {
+        for (int i = 0; i < QueryStats.MAX_STATEMENTS; i++) {
+            stats.recordStatement("SELECT * FROM table" + i, 1_000, 1);
+        }
+        stats.recordStatement("SELECT * FROM overflow1", 1_000, 1);
+        stats.recordStatement("SELECT * FROM overflow2", 1_000, 1);
+        // Statements seen before the cap was reached keep their own entry
+        stats.recordStatement("SELECT * FROM table0", 1_000, 1);
+
+        assertEquals(QueryStats.MAX_STATEMENTS + 1, stats.getStatementStats().size());
+        assertEquals(2, find(QueryStats.OTHER_STATEMENTS).getCount());
+        assertEquals(2, find("SELECT * FROM table0").getCount());
+        assertNull(find("SELECT * FROM overflow1"));
+    }
+
+    private StatementStats find(String sql) {
+        for (StatementStats entry : stats.getStatementStats()) {
+            if (entry.getSql().equals(sql)) return entry;
+        }
+        return null;
+    }
+
+    private static long micros(long micros) {
+        return TimeUnit.MICROSECONDS.toNanos(micros);
+    }
+}
@@ -0,0 +1,123 @@
+import groovy.json.JsonSlurper
+
+// JMH benchmarks for the app's pure-Java hot paths.
+//
+//   ./gradlew :benchmarks:jmh                          all benchmarks
+//   ./gradlew :benchmarks:jmh -Pjmh.includes=Diff      benchmarks whose name matches
+//   ./gradlew :benchmarks:compareJmh -Pbaseline=<sha> [-Pcandidate=<sha>]
+//
+// Results are written as JSON to results/<commit>.json so runs from different
+// commits can be compared with compareJmh.
+
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// The app is an Android module and can't be a dependency of a JVM module, so the
+// classes under test are compiled straight from its sources. Only files that don't
+// touch the Android framework can be listed here.
+sourceSets {
+    main {
+        java {
+            setSrcDirs(listOf("../app/src/main/java"))
+            include(
+                "com/example/java_shop/adapters/ItemContents.java",
+                "com/example/java_shop/data/cache/FacetIndex.java",
+                "com/example/java_shop/data/cache/RowBitmap.java",
+                "com/example/java_shop/data/models/CartLine.java",
+                "com/example/java_shop/data/models/Category.java",
+                "com/example/java_shop/data/models/Product.java",
+                "com/example/java_shop/data/models/ProductSummary.java",
+                "com/example/java_shop/utils/OfferFormatter.java",
+                "com/example/java_shop/utils/PasswordHasher.java"
+            )
+        }
+    }
+}
+
+dependencies {
+    // Annotations used by the model classes
+    implementation(libs.annotation)
+    implementation(libs.room.common.jvm)
+}
+
+val commit: Provider<String> = providers.exec {
+    commandLine("git", "rev-parse", "--short", "HEAD")
+    isIgnoreExitValue = true
+}.standardOutput.asText.map { it.trim().ifEmpty { "local" } }
+
+val resultsDir = layout.projectDirectory.dir("results")
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    resultFormat.set("JSON")
+    resultsFile.set(resultsDir.file(commit.map { "$it.json" }))
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.set(listOf(it)) }
+}
+
+/**
+ * Prints the score change of every benchmark between two result files and fails
+ * if any got worse by more than the threshold.
+ */
+abstract class CompareJmhTask : DefaultTask() {
+    @get:InputFile
+    abstract val baseline: RegularFileProperty
+
+    @get:InputFile
+    abstract val candidate: RegularFileProperty
+
+    @get:Input
+    abstract val thresholdPercent: Property<Double>
+
+    @TaskAction
+    fun compare() {
+        val before = scores(baseline.get().asFile)
+        val after = scores(candidate.get().asFile)
+        val regressions = mutableListOf<String>()
+
+        println(String.format("%-80s %14s %14s %9s", "benchmark", "baseline", "candidate", "change"))
+        for ((key, old) in before.toSortedMap()) {
+            val new = after[key] ?: continue
+            // Throughput is better when higher, every other mode when lower
+            val higherIsBetter = old.mode == "thrpt"
+            val change = (new.score - old.score) / old.score * 100
+            val worse = if (higherIsBetter) -change else change
+            println(String.format("%-80s %14.3f %14.3f %+8.1f%% %s", key, old.score, new.score, change, old.unit))
+            if (worse > thresholdPercent.get()) {
+                regressions += String.format("%s: %+.1f%%", key, change)
+            }
+        }
+        if (regressions.isNotEmpty()) {
+            throw GradleException("Benchmarks regressed by more than ${thresholdPercent.get()}%:\n" +
+                regressions.joinToString("\n"))
+        }
+    }
+
+    private class Score(val mode: String, val score: Double, val unit: String)
+
+    @Suppress("UNCHECKED_CAST")
+    private fun scores(file: java.io.File): Map<String, Score> {
+        val runs = JsonSlurper().parse(file) as List<Map<String, Any?>>
+        return runs.associate { run ->
+            val params = (run["params"] as Map<String, Any?>?)
+                ?.entries?.sortedBy { it.key }?.joinToString(",", "[", "]") { "${it.key}=${it.value}" } ?: ""
+            val metric = run["primaryMetric"] as Map<String, Any?>
+            "${run["benchmark"]}$params" to Score(run["mode"] as String,
+                (metric["score"] as Number).toDouble(), metric["scoreUnit"] as String)
+        }
+    }
+}
+
+tasks.register<CompareJmhTask>("compareJmh") {
+    group = "verification"
+    description = "Compares two JMH result files; -Pbaseline=<commit> [-Pcandidate=<commit>] [-Pthreshold=<percent>]"
+    baseline.set(resultsDir.file(providers.gradleProperty("baseline").map { "$it.json" }))
+    candidate.set(resultsDir.file(providers.gradleProperty("candidate").orElse(commit).map { "$it.json" }))
+    thresholdPercent.set(providers.gradleProperty("threshold").map { it.toDouble() }.orElse(10.0))
+}
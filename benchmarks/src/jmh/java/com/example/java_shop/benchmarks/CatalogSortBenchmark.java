@@ -0,0 +1,86 @@
+package com.example.java_shop.benchmarks;
+
+import com.example.java_shop.data.models.Product;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The in-memory category sort that CategoryDetailsViewModel did before listings
+ * moved to keyset pages sorted by SQLite, against taking only the first page.
+ * Shows what the old approach costs per sort change as the catalog grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogSortBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    // Same orders as CategoryDetailsViewModel.SortOption
+    public enum Sort {
+        NAME_ASC(Comparator.comparing(Product::getName)),
+        PRICE_LOW_HIGH(Comparator.comparingDouble(Product::getPrice)),
+        RATING((p1, p2) -> Double.compare(p2.getRating(), p1.getRating()));
+
+        final Comparator<Product> order;
+        // Keyset pages break ties by id so every row has a fixed position
+        final Comparator<Product> keysetOrder;
+
+        Sort(Comparator<Product> order) {
+            this.order = order;
+            this.keysetOrder = order.thenComparing(Product::getId);
+        }
+    }
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    @Param({"NAME_ASC", "PRICE_LOW_HIGH", "RATING"})
+    public Sort sort;
+
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        products = SyntheticCatalog.products(catalogSize);
+    }
+
+    @Benchmark
+    public List<Product> sortWholeCategory() {
+        List<Product> sorted = new ArrayList<>(products);
+        Collections.sort(sorted, sort.order);
+        return sorted;
+    }
+
+    @Benchmark
+    public List<Product> firstPage() {
+        // Max-heap of the best PAGE_SIZE rows seen so far
+        PriorityQueue<Product> heap = new PriorityQueue<>(PAGE_SIZE + 1, sort.keysetOrder.reversed());
+        for (Product product : products) {
+            heap.add(product);
+            if (heap.size() > PAGE_SIZE) {
+                heap.poll();
+            }
+        }
+        List<Product> page = new ArrayList<>(heap);
+        Collections.sort(page, sort.keysetOrder);
+        return page;
+    }
+}
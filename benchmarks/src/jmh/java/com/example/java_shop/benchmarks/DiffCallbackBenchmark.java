@@ -0,0 +1,80 @@
+package com.example.java_shop.benchmarks;
+
+import com.example.java_shop.adapters.ItemContents;
+import com.example.java_shop.data.models.CartLine;
+import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.ProductSummary;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The areContentsTheSame checks of ProductGridAdapter and CartAdapter over a
+ * refreshed list where 5% of the rows changed, i.e. the per-item work DiffUtil
+ * does after a catalog or cart update.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DiffCallbackBenchmark {
+    private static final int CHANGED_PERCENT = 5;
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    private List<ProductSummary> oldProducts;
+    private List<ProductSummary> newProducts;
+    private List<CartLine> oldLines;
+    private List<CartLine> newLines;
+
+    @Setup
+    public void setUp() {
+        List<Product> products = SyntheticCatalog.products(catalogSize);
+        oldProducts = SyntheticCatalog.summaries(products);
+        newProducts = SyntheticCatalog.summaries(SyntheticCatalog.refreshed(products, CHANGED_PERCENT));
+        oldLines = SyntheticCatalog.cartLines(products);
+        newLines = new ArrayList<>(oldLines.size());
+        for (int i = 0; i < oldLines.size(); i++) {
+            CartLine line = oldLines.get(i);
+            // Every line is a fresh object, as it is after a new query result
+            int quantity = i % (100 / CHANGED_PERCENT) == 0 ? line.getQuantity() + 1 : line.getQuantity();
+            newLines.add(line.withQuantity(quantity));
+        }
+    }
+
+    @Benchmark
+    public int productCards() {
+        int changed = 0;
+        for (int i = 0; i < oldProducts.size(); i++) {
+            if (!ItemContents.sameProductCard(oldProducts.get(i), newProducts.get(i))) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    @Benchmark
+    public int cartLines() {
+        int changed = 0;
+        for (int i = 0; i < oldLines.size(); i++) {
+            if (!ItemContents.sameCartLine(oldLines.get(i), newLines.get(i))) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.java_shop.benchmarks;
+
+import com.example.java_shop.data.cache.FacetIndex;
+import com.example.java_shop.data.cache.FacetIndex.Facet;
+import com.example.java_shop.data.cache.FacetIndex.FacetSelection;
+import com.example.java_shop.data.models.Product;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Counts for every option of the category filter dialog under a three-facet
+ * selection, once from {@link FacetIndex} bitmaps and once by scanning the
+ * category's rows per option, the way one COUNT query per option would.
+ * The whole catalog is one category so the listing is as large as the catalog.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FacetBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    private int[] categoryOrdinals;
+    private int[] stock;
+    private boolean[] featured;
+    private double[] discounts;
+    private float[] ratings;
+    private double[] prices;
+    private FacetIndex index;
+    private FacetSelection selection;
+
+    @Setup
+    public void setUp() {
+        List<Product> products = SyntheticCatalog.products(catalogSize);
+        categoryOrdinals = new int[catalogSize];
+        stock = new int[catalogSize];
+        featured = new boolean[catalogSize];
+        discounts = new double[catalogSize];
+        ratings = new float[catalogSize];
+        prices = new double[catalogSize];
+        for (int row = 0; row < catalogSize; row++) {
+            Product product = products.get(row);
+            stock[row] = product.getStockQuantity();
+            featured[row] = product.isFeatured();
+            discounts[row] = product.getDiscountPercentage();
+            ratings[row] = (float) product.getRating();
+            prices[row] = product.getPrice();
+        }
+        index = buildIndex();
+        selection = FacetSelection.NONE
+            .with(Facet.IN_STOCK, 0, true)
+            .with(Facet.RATING, 0, true)
+            .with(Facet.PRICE, 2, true)
+            .with(Facet.PRICE, 3, true);
+    }
+
+    @Benchmark
+    public FacetIndex buildIndex() {
+        return new FacetIndex(catalogSize, 1, categoryOrdinals, stock, featured, discounts, ratings, prices);
+    }
+
+    @Benchmark
+    public void bitmapCounts(Blackhole blackhole) {
+        blackhole.consume(index.counts(0, selection));
+    }
+
+    @Benchmark
+    public void scanPerOption(Blackhole blackhole) {
+        for (Facet facet : Facet.values()) {
+            for (int option = 0; option < facet.options; option++) {
+                int count = 0;
+                for (int row = 0; row < catalogSize; row++) {
+                    if (passesOthers(row, facet) && hasOption(row, facet, option)) count++;
+                }
+                blackhole.consume(count);
+            }
+        }
+    }
+
+    private boolean passesOthers(int row, Facet facet) {
+        for (Facet other : Facet.values()) {
+            if (other == facet || !selection.has(other)) continue;
+            boolean any = false;
+            for (int option = 0; option < other.options && !any; option++) {
+                any = selection.isSelected(other, option) && hasOption(row, other, option);
+            }
+            if (!any) return false;
+        }
+        return true;
+    }
+
+    private boolean hasOption(int row, Facet facet, int option) {
+        switch (facet) {
+            case IN_STOCK:
+                return stock[row] > 0;
+            case FEATURED:
+                return featured[row];
+            case ON_OFFER:
+                return discounts[row] > 0;
+            case RATING:
+                return FacetIndex.ratingBucket(ratings[row]) == option;
+            case PRICE:
+            default:
+                return FacetIndex.priceBucket(prices[row]) == option;
+        }
+    }
+}
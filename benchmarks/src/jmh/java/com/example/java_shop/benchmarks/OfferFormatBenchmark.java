@@ -0,0 +1,73 @@
+package com.example.java_shop.benchmarks;
+
+import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.ProductSummary;
+import com.example.java_shop.utils.OfferFormatter;
+import java.text.NumberFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Text of a special offer card for every product in the catalog, once with the
+ * formats created per bind as SpecialOfferAdapter used to, once with a shared
+ * {@link OfferFormatter}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OfferFormatBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    private List<Product> products;
+    private List<ProductSummary> summaries;
+    private OfferFormatter offerFormatter;
+
+    @Setup
+    public void setUp() {
+        products = SyntheticCatalog.products(catalogSize);
+        summaries = SyntheticCatalog.summaries(products);
+        offerFormatter = new OfferFormatter();
+    }
+
+    @Benchmark
+    public void formatPerBind(Blackhole blackhole) {
+        for (Product product : products) {
+            NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance(Locale.US);
+            double originalPriceValue = product.getOriginalPrice() > 0
+                ? product.getOriginalPrice() : product.getPrice() * 1.25;
+            int discountPercentageValue = (int) (100 - (product.getPrice() / originalPriceValue * 100));
+            blackhole.consume(currencyFormatter.format(originalPriceValue));
+            blackhole.consume(currencyFormatter.format(product.getPrice()));
+            blackhole.consume(String.format("-%d%% OFF", discountPercentageValue));
+            blackhole.consume(String.format("Valid until %s", product.getOfferValidUntil()));
+        }
+    }
+
+    @Benchmark
+    public void sharedFormatter(Blackhole blackhole) {
+        for (ProductSummary product : summaries) {
+            blackhole.consume(offerFormatter.formatOriginalPrice(product));
+            blackhole.consume(offerFormatter.formatPrice(product.getPrice()));
+            blackhole.consume(offerFormatter.formatDiscount(product));
+            blackhole.consume(offerFormatter.formatValidUntil(product));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.java_shop.benchmarks;
+
+import com.example.java_shop.utils.PasswordHasher;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The hex encoding behind AuthViewModel.hashPassword, against the
+ * Integer.toHexString loop it used before, and the full hash.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark {
+
+    private byte[] digest;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException {
+        digest = MessageDigest.getInstance("SHA-256").digest("correct horse battery staple".getBytes());
+    }
+
+    @Benchmark
+    public String toHexStringLoop() {
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : digest) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) hexString.append('0');
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+
+    @Benchmark
+    public String toHex() {
+        return PasswordHasher.toHex(digest);
+    }
+
+    @Benchmark
+    public String sha256Hex() throws NoSuchAlgorithmException {
+        return PasswordHasher.sha256Hex("correct horse battery staple");
+    }
+}
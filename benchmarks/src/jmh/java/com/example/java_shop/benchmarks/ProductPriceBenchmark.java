@@ -0,0 +1,56 @@
+package com.example.java_shop.benchmarks;
+
+import com.example.java_shop.data.models.Product;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Product.getDiscountedPrice and getOriginalPrice over a whole catalog.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductPriceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        products = SyntheticCatalog.products(catalogSize);
+    }
+
+    @Benchmark
+    public double discountedPrices() {
+        double sum = 0;
+        for (Product product : products) {
+            sum += product.getDiscountedPrice();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double originalPrices() {
+        double sum = 0;
+        for (Product product : products) {
+            sum += product.getOriginalPrice();
+        }
+        return sum;
+    }
+}
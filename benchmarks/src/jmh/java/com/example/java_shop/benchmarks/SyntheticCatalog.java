@@ -0,0 +1,120 @@
+package com.example.java_shop.benchmarks;
+
+import com.example.java_shop.data.models.CartLine;
+import com.example.java_shop.data.models.Product;
+import com.example.java_shop.data.models.ProductSummary;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic catalogs for the benchmarks. The same size and seed always give
+ * the same products, so results from different commits are comparable.
+ */
+final class SyntheticCatalog {
+    static final long SEED = 42;
+
+    private static final String[] BRANDS = {"Lumi", "Aurora", "Velvet", "Nova", "Petal", "Ember", "Sable", "Iris"};
+    private static final String[] KINDS = {"Lipstick", "Mascara", "Foundation", "Serum", "Blush", "Eyeliner",
+        "Moisturizer", "Cleanser", "Primer", "Highlighter", "Toner", "Concealer"};
+    private static final String[] SHADES = {"Rose", "Nude", "Coral", "Berry", "Ivory", "Sand", "Honey", "Mocha"};
+    private static final int CATEGORIES = 24;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    // Fixed so offer dates don't depend on when the benchmark runs
+    private static final long NOW = 1_760_000_000_000L;
+
+    private SyntheticCatalog() {
+    }
+
+    static List<Product> products(int size) {
+        Random random = new Random(SEED);
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String name = BRANDS[random.nextInt(BRANDS.length)] + " "
+                + SHADES[random.nextInt(SHADES.length)] + " "
+                + KINDS[random.nextInt(KINDS.length)] + " " + (i % 97);
+            double price = Math.round((4.99 + random.nextDouble() * 120) * 100) / 100.0;
+            Product product = new Product(String.format("p%07d", i), name, "Synthetic product " + i,
+                "https://cdn.example.com/products/" + i + ".jpg", price, random.nextInt(200),
+                "cat" + random.nextInt(CATEGORIES));
+            product.setRating(Math.round(random.nextDouble() * 50) / 10.0);
+            product.setReviewCount(random.nextInt(5000));
+            product.setFeatured(random.nextInt(20) == 0);
+            // About a quarter of the catalog is on offer
+            if (random.nextInt(4) == 0) {
+                double discount = 5 + random.nextInt(11) * 5;
+                product.setDiscountPercentage(discount);
+                if (random.nextBoolean()) {
+                    product.setOriginalPrice(Math.round(price / (1 - discount / 100) * 100) / 100.0);
+                }
+                if (random.nextBoolean()) {
+                    product.setOfferValidUntilTimestamp(NOW + random.nextInt(60) * DAY_MILLIS);
+                }
+            }
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * Copies the products, changing the price or stock state of roughly {@code changedPercent}
+     * of them, the way a catalog refresh reaches a DiffUtil callback.
+     */
+    static List<Product> refreshed(List<Product> products, int changedPercent) {
+        Random random = new Random(SEED + 1);
+        List<Product> copy = new ArrayList<>(products.size());
+        for (Product original : products) {
+            Product product = new Product(original.getId(), original.getName(), original.getDescription(),
+                original.getImageUrl(), original.getPrice(), original.getStockQuantity(), original.getCategoryId());
+            product.setRating(original.getRating());
+            if (random.nextInt(100) < changedPercent) {
+                if (random.nextBoolean()) {
+                    product.setPrice(original.getPrice() + 1);
+                } else {
+                    // Cards only show whether a product is in stock
+                    product.setStockQuantity(original.getStockQuantity() > 0 ? 0 : 10);
+                }
+            }
+            copy.add(product);
+        }
+        return copy;
+    }
+
+    // The columns the list queries load for each product
+    static List<ProductSummary> summaries(List<Product> products) {
+        List<ProductSummary> summaries = new ArrayList<>(products.size());
+        for (Product product : products) {
+            ProductSummary summary = new ProductSummary();
+            summary.setId(product.getId());
+            summary.setName(product.getName());
+            summary.setImageUrl(product.getImageUrl());
+            summary.setPrice(product.getPrice());
+            summary.setOriginalPrice(product.getOriginalPrice());
+            summary.setDiscountPercentage(product.getDiscountPercentage());
+            summary.setOfferValidUntilTimestamp(product.getOfferValidUntilTimestamp());
+            summary.setRating(product.getRating());
+            summary.setInStock(product.getStockQuantity() > 0);
+            summary.setCategoryId(product.getCategoryId());
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+
+    static List<CartLine> cartLines(List<Product> products) {
+        List<CartLine> lines = new ArrayList<>(products.size());
+        long id = 1;
+        for (Product product : products) {
+            CartLine line = new CartLine();
+            line.setId(id++);
+            line.setProductId(product.getId());
+            line.setName(product.getName());
+            line.setImageUrl(product.getImageUrl());
+            line.setPrice(product.getPrice());
+            line.setPriceAtAddition(product.getPrice());
+            line.setStockQuantity(product.getStockQuantity());
+            line.setQuantity(1 + (int) (id % 3));
+            lines.add(line);
+        }
+        return lines;
+    }
+}
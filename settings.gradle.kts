@@ -21,4 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "java-shop"
 include(":app")
+include(":benchmarks")
  
\ No newline at end of file